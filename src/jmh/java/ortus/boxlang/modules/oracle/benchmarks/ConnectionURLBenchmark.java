@@ -0,0 +1,76 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+
+/**
+ * Building the JDBC URL of a datasource
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+public class ConnectionURLBenchmark {
+
+	private OracleDriver		driver;
+	private DatasourceConfig	serviceName;
+	private DatasourceConfig	sid;
+	private DatasourceConfig	racHosts;
+
+	@Setup
+	public void setup() {
+		driver		= new OracleDriver();
+		serviceName	= config( "serviceName", "XEPDB1" );
+		sid			= config( "SID", "ORCL" );
+		racHosts	= config( "serviceName", "ORDERS" );
+		racHosts.properties.put( "hosts", "rac-node1:1521,rac-node2:1521,rac-node3" );
+		racHosts.properties.put( "transportConnectTimeout", 3 );
+		racHosts.properties.put( "retryCount", 3 );
+	}
+
+	@Benchmark
+	public String serviceName() {
+		return driver.buildConnectionURL( serviceName );
+	}
+
+	@Benchmark
+	public String sid() {
+		return driver.buildConnectionURL( sid );
+	}
+
+	@Benchmark
+	public String racHosts() {
+		return driver.buildConnectionURL( racHosts );
+	}
+
+	private static DatasourceConfig config( String property, String value ) {
+		DatasourceConfig config = new DatasourceConfig();
+		config.properties.put( "host", "oracle-server.company.com" );
+		config.properties.put( "port", 1521 );
+		config.properties.put( property, value );
+		return config;
+	}
+}
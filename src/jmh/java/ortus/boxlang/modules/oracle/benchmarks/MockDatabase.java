@@ -0,0 +1,133 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.benchmarks;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import ortus.boxlang.modules.oracle.util.ProcMetaCache;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * A mocked {@link BoxConnection} standing in for the database, so the benchmarks run anywhere. Every procedure name it is asked about
+ * resolves to the same packaged procedure:
+ *
+ * <pre>
+ * get_orders( p_customer_id NUMBER, p_status VARCHAR2, p_orders OUT SYS_REFCURSOR, p_items OUT SYS_REFCURSOR, p_totals OUT SYS_REFCURSOR )
+ * </pre>
+ */
+public class MockDatabase {
+
+	/**
+	 * The JDBC URL the connection reports
+	 */
+	public static final String						URL			= "jdbc:oracle:thin:@//bench-db:1521/BENCH";
+
+	private static final int						OBJECT_ID	= 1001;
+
+	private static final String						SUBPROGRAM	= "GET_ORDERS";
+
+	private static final Timestamp					DDL_TIME	= Timestamp.valueOf( "2026-01-01 00:00:00" );
+
+	// The ALL_ARGUMENTS rows of the procedure, as read by OracleUtil.buildProcMeta()
+	private static final List<Map<String, Object>>	ARGUMENTS	= List.of(
+	    argument( 1, "P_CUSTOMER_ID", "NUMBER", "IN" ),
+	    argument( 2, "P_STATUS", "VARCHAR2", "IN" ),
+	    argument( 3, "P_ORDERS", "REF CURSOR", "OUT" ),
+	    argument( 4, "P_ITEMS", "REF CURSOR", "OUT" ),
+	    argument( 5, "P_TOTALS", "REF CURSOR", "OUT" )
+	);
+
+	private MockDatabase() {
+	}
+
+	/**
+	 * Build a connection to a datasource of the given name
+	 *
+	 * @param dataSourceName The unique name of the datasource
+	 *
+	 * @return The connection
+	 *
+	 * @throws SQLException Never, the mocks don't throw
+	 */
+	public static BoxConnection connection( String dataSourceName ) throws SQLException {
+		DatasourceConfig config = new DatasourceConfig();
+		// No background revalidation while measuring
+		config.properties.put( ProcMetaCache.REVALIDATE_INTERVAL_PROPERTY, 0 );
+
+		DataSource dataSource = mock( DataSource.class );
+		when( dataSource.getUniqueName() ).thenReturn( Key.of( dataSourceName ) );
+		when( dataSource.getConfiguration() ).thenReturn( config );
+
+		DatabaseMetaData metaData = mock( DatabaseMetaData.class );
+		when( metaData.getURL() ).thenReturn( URL );
+
+		BoxConnection connection = mock( BoxConnection.class );
+		when( connection.getDataSource() ).thenReturn( dataSource );
+		when( connection.getMetaData() ).thenReturn( metaData );
+		when( connection.prepareStatement( anyString() ) ).thenAnswer( invocation -> {
+			PreparedStatement statement = mock( PreparedStatement.class );
+			when( statement.executeQuery() ).thenAnswer( query -> rows( ARGUMENTS ) );
+			return statement;
+		} );
+		return connection;
+	}
+
+	/**
+	 * A forward-only result set over rows of column values. Missing columns read as SQL NULL.
+	 *
+	 * @param rows The rows
+	 *
+	 * @return The result set
+	 */
+	public static ResultSet rows( List<Map<String, Object>> rows ) {
+		int[] current = { -1 };
+		return mock( ResultSet.class, invocation -> {
+			Map<String, Object> row = current[ 0 ] >= 0 && current[ 0 ] < rows.size() ? rows.get( current[ 0 ] ) : Map.of();
+			return switch ( invocation.getMethod().getName() ) {
+				case "next" -> ++current[ 0 ] < rows.size();
+				case "getString", "getTimestamp" -> row.get( invocation.< String >getArgument( 0 ) );
+				case "getInt" -> ( ( Number ) row.getOrDefault( invocation.< String >getArgument( 0 ), 0 ) ).intValue();
+				default -> RETURNS_DEFAULTS.answer( invocation );
+			};
+		} );
+	}
+
+	private static Map<String, Object> argument( int position, String name, String dataType, String inOut ) {
+		return Map.of(
+		    "RESOLVED_OBJECT_ID", OBJECT_ID,
+		    "RESOLVED_NAME", SUBPROGRAM,
+		    "LAST_DDL_TIME", DDL_TIME,
+		    "STATUS", "VALID",
+		    "POSITION", position,
+		    "ARGUMENT_NAME", name,
+		    "DATA_TYPE", dataType,
+		    "IN_OUT", inOut,
+		    "DATA_LEVEL", 0 );
+	}
+}
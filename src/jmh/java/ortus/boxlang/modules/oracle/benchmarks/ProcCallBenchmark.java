@@ -0,0 +1,83 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Preparing a stored procedure call with three ref cursors, with warm metadata. The parameter arrays are built in each call since the
+ * driver inserts the ref cursors into them, the same as a {@code bx:storedproc} call does.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+public class ProcCallBenchmark {
+
+	private static final String	PROCEDURE	= "pkg_orders.get_orders";
+
+	private OracleDriver		driver;
+	private BoxConnection		connection;
+
+	@Setup
+	public void setup() throws SQLException {
+		driver		= new OracleDriver();
+		connection	= MockDatabase.connection( "bench_proc_call" );
+		// Warm the metadata, only the call preparation is measured
+		driver.preProcessProcCall( connection, PROCEDURE, positionalParams(), procResults(), null, false );
+	}
+
+	@Benchmark
+	public Array positional() throws SQLException {
+		Array params = positionalParams();
+		driver.preProcessProcCall( connection, PROCEDURE, params, procResults(), null, false );
+		return params;
+	}
+
+	@Benchmark
+	public Array named() throws SQLException {
+		Array params = Array.of(
+		    Struct.of( Key.DBVarName, ":p_customer_id", Key.sqltype, "integer", Key.value, 42 ),
+		    Struct.of( Key.DBVarName, ":p_status", Key.sqltype, "varchar", Key.value, "OPEN" )
+		);
+		driver.preProcessProcCall( connection, PROCEDURE, params, procResults(), null, false );
+		return params;
+	}
+
+	private static Array positionalParams() {
+		return Array.of(
+		    Struct.of( Key.sqltype, "integer", Key.value, 42 ),
+		    Struct.of( Key.sqltype, "varchar", Key.value, "OPEN" )
+		);
+	}
+
+	private static Array procResults() {
+		return Array.of( Struct.of( Key._NAME, "orders" ), Struct.of( Key._NAME, "items" ), Struct.of( Key._NAME, "totals" ) );
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import ortus.boxlang.modules.oracle.util.OracleUtil;
+import ortus.boxlang.modules.oracle.util.Proc;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+
+/**
+ * Throughput of cached stored procedure metadata lookups, from many request threads at once
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Threads( 8 )
+public class ProcMetaBenchmark {
+
+	private static final int	PROCEDURES	= 200;
+
+	private BoxConnection		connection;
+	private String[]			names;
+
+	@Setup
+	public void setup() throws SQLException {
+		connection	= MockDatabase.connection( "bench_proc_meta" );
+		names		= new String[ PROCEDURES ];
+		for ( int i = 0; i < PROCEDURES; i++ ) {
+			names[ i ] = "pkg_orders_" + i + ".get_orders";
+			// Load every definition up front, only hits are measured
+			OracleUtil.getProcMeta( connection, names[ i ] );
+		}
+	}
+
+	/**
+	 * Every thread calls the same procedure
+	 */
+	@Benchmark
+	public Proc hitSameProc() throws SQLException {
+		return OracleUtil.getProcMeta( connection, names[ 0 ] );
+	}
+
+	/**
+	 * Threads call by names spread across the cache
+	 */
+	@Benchmark
+	public Proc hitManyProcs() throws SQLException {
+		return OracleUtil.getProcMeta( connection, names[ ThreadLocalRandom.current().nextInt( PROCEDURES ) ] );
+	}
+}
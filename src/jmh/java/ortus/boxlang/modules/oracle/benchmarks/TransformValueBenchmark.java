@@ -0,0 +1,160 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import oracle.jdbc.OracleTypes;
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.modules.oracle.util.ColumnPlan;
+import ortus.boxlang.modules.oracle.util.ColumnTransformer;
+import ortus.boxlang.modules.oracle.util.LobPolicy;
+import ortus.boxlang.modules.oracle.util.OracleUtil;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.BoxStatement;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * Decoding result set values, over the column mix of a typical order listing:
+ * {@code ID NUMBER(10), AMOUNT NUMBER(12,2), STATUS VARCHAR2, CREATED DATE, UPDATED TIMESTAMP, ROW_ID ROWID, WEIGHT BINARY_DOUBLE}
+ * <p>
+ * Every benchmark does the same conversions, only the ROWID becomes a string, so they differ only in how each value finds its conversion:
+ * through the driver's {@code transformValue()} hook that {@code queryExecute} values go through, through a type switch per value, or
+ * through a {@link ColumnPlan} built once per result set.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+public class TransformValueBenchmark {
+
+	private static final int	ROWS		= 100;
+
+	private static final int[]	TYPES		= {
+	    Types.NUMERIC, Types.NUMERIC, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.ROWID, OracleTypes.BINARY_DOUBLE
+	};
+	private static final int[]	PRECISIONS	= { 10, 12, 0, 0, 0, 0, 0 };
+	private static final int[]	SCALES		= { 0, 2, 0, 0, 6, 0, 0 };
+
+	private OracleDriver		driver;
+	private BoxStatement		statement;
+	private BoxConnection		connection;
+	private ResultSetMetaData	metaData;
+	private Object[]			values;
+
+	@Setup
+	public void setup() throws SQLException {
+		driver = new OracleDriver();
+
+		// No NUMBER narrowing, so the plan does the same conversions as the driver
+		DatasourceConfig config = new DatasourceConfig( Key.of( "decode" ) );
+		config.properties.put( "driver", "oracle" );
+		config.properties.put( "host", "decode-db" );
+		config.properties.put( "serviceName", "DECODE" );
+		config.properties.put( "statementCacheSize", 0 );
+		config.properties.put( "adaptiveFetchSize", false );
+		OracleUtil.configureDatasource( config );
+		connection = MockDatabase.connection( config.getUniqueName().getName() );
+
+		metaData = mock( ResultSetMetaData.class );
+		when( metaData.getColumnCount() ).thenReturn( TYPES.length );
+		for ( int i = 0; i < TYPES.length; i++ ) {
+			when( metaData.getColumnType( i + 1 ) ).thenReturn( TYPES[ i ] );
+			when( metaData.getPrecision( i + 1 ) ).thenReturn( PRECISIONS[ i ] );
+			when( metaData.getScale( i + 1 ) ).thenReturn( SCALES[ i ] );
+		}
+
+		statement = mock( BoxStatement.class );
+		when( statement.getConnection() ).thenReturn( connection );
+
+		RowId rowId = mock( RowId.class );
+		values = new Object[] {
+		    new BigDecimal( "1048576" ),
+		    new BigDecimal( "1299.95" ),
+		    "SHIPPED",
+		    Timestamp.valueOf( "2026-03-14 09:26:53" ),
+		    Timestamp.valueOf( "2026-03-14 09:26:53.589793" ),
+		    rowId,
+		    72.5d
+		};
+	}
+
+	/**
+	 * Rows of a result set read through the driver hook, the way the runtime reads {@code queryExecute} results: the baseline
+	 */
+	@Benchmark
+	@OperationsPerInvocation( ROWS )
+	public void transformValue( Blackhole blackhole ) {
+		for ( int row = 0; row < ROWS; row++ ) {
+			for ( int column = 0; column < TYPES.length; column++ ) {
+				blackhole.consume( driver.transformValue( TYPES[ column ], values[ column ], statement ) );
+			}
+		}
+	}
+
+	/**
+	 * Rows decoded by looking up the conversion of each value's type, value by value
+	 */
+	@Benchmark
+	@OperationsPerInvocation( ROWS )
+	public void decodeRowsPerValue( Blackhole blackhole ) throws SQLException {
+		for ( int row = 0; row < ROWS; row++ ) {
+			for ( int column = 0; column < TYPES.length; column++ ) {
+				ColumnTransformer transformer = ColumnTransformer.forType( TYPES[ column ], LobPolicy.DEFAULT, connection );
+				blackhole.consume( transformer == null ? values[ column ] : transformer.transform( values[ column ] ) );
+			}
+		}
+	}
+
+	/**
+	 * Rows decoded through a column plan, built from the metadata once per result set like the module's readers build it
+	 */
+	@Benchmark
+	@OperationsPerInvocation( ROWS )
+	public void decodeRowsPlanned( Blackhole blackhole ) throws SQLException {
+		ColumnPlan plan = ColumnPlan.of( metaData, LobPolicy.DEFAULT, connection );
+		for ( int row = 0; row < ROWS; row++ ) {
+			for ( int column = 0; column < TYPES.length; column++ ) {
+				blackhole.consume( plan.transform( column, values[ column ] ) );
+			}
+		}
+	}
+
+	@Benchmark
+	public void mapSQLTypeToQueryColumnType( Blackhole blackhole ) {
+		for ( int type : TYPES ) {
+			blackhole.consume( driver.mapSQLTypeToQueryColumnType( type ) );
+		}
+	}
+}
@@ -17,27 +17,41 @@
  */
 package ortus.boxlang.modules.oracle;
 
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.RowId;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntBiFunction;
 
+import oracle.jdbc.OracleTypes;
+import oracle.sql.TIMESTAMPLTZ;
+import ortus.boxlang.modules.oracle.util.BindSignatures;
+import ortus.boxlang.modules.oracle.util.ConnectDescriptor;
+import ortus.boxlang.modules.oracle.util.LobPolicy;
 import ortus.boxlang.modules.oracle.util.OracleUtil;
 import ortus.boxlang.modules.oracle.util.Proc;
-import ortus.boxlang.modules.oracle.util.ProcDef;
-import ortus.boxlang.modules.oracle.util.ProcParameter;
+import ortus.boxlang.modules.oracle.util.ProcCallEvent;
+import ortus.boxlang.modules.oracle.util.ProcCallPlan;
+import ortus.boxlang.runtime.BoxRuntime;
 import ortus.boxlang.runtime.config.segments.DatasourceConfig;
 import ortus.boxlang.runtime.context.IBoxContext;
 import ortus.boxlang.runtime.dynamic.casters.StringCaster;
 import ortus.boxlang.runtime.jdbc.BoxConnection;
 import ortus.boxlang.runtime.jdbc.BoxStatement;
+import ortus.boxlang.runtime.jdbc.DataSource;
 import ortus.boxlang.runtime.jdbc.drivers.DatabaseDriverType;
 import ortus.boxlang.runtime.jdbc.drivers.GenericJDBCDriver;
 import ortus.boxlang.runtime.jdbc.drivers.JDBCDriverFeature;
+import ortus.boxlang.runtime.logging.BoxLangLogger;
 import ortus.boxlang.runtime.scopes.Key;
 import ortus.boxlang.runtime.types.Array;
 import ortus.boxlang.runtime.types.IStruct;
 import ortus.boxlang.runtime.types.QueryColumnType;
 import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.DatabaseException;
 
 /**
  * The Oracle JDBC Driver
@@ -59,6 +73,21 @@ public class OracleDriver extends GenericJDBCDriver {
 	    "oci", "Oracle Call Interface",
 	    "kprb", "Kerberos" );
 
+	/**
+	 * The most named parameter fragments we keep, so dynamic parameter names can't grow the cache without bound
+	 */
+	private static final int			MAX_NAMED_PARAM_FRAGMENTS	= 10_000;
+
+	/**
+	 * The instance the functions of this module map their types with. The runtime registers its own.
+	 */
+	private static final OracleDriver	SHARED						= new OracleDriver();
+
+	/**
+	 * The emitted {@code name => ?} fragment for each named parameter, so building call SQL doesn't re-slice the names every call
+	 */
+	private final Map<String, String>	namedParamFragments			= new ConcurrentHashMap<>();
+
 	/**
 	 * Constructor
 	 */
@@ -74,6 +103,15 @@ public class OracleDriver extends GenericJDBCDriver {
 		setFeatures( JDBCDriverFeature.TRIM_TRAILING_SEMICOLONS );
 	}
 
+	/**
+	 * Get the driver the functions of this module share for their type mappings
+	 *
+	 * @return The shared instance
+	 */
+	public static OracleDriver shared() {
+		return SHARED;
+	}
+
 	@Override
 	public String buildConnectionURL( DatasourceConfig config ) {
 		// Validate the host
@@ -103,30 +141,45 @@ public class OracleDriver extends GenericJDBCDriver {
 		}
 
 		// Validate the database
-		String sid = ( String ) config.properties.getOrDefault( "SID", "" );
-		if ( !sid.isBlank() ) {
+		String	url;
+		String	sid	= ( String ) config.properties.getOrDefault( "SID", "" );
+		if ( ConnectDescriptor.isRequested( config ) ) {
+			String serviceName = ( String ) config.properties.getOrDefault( "serviceName", "" );
+			if ( serviceName.isBlank() && sid.isBlank() ) {
+				throw new IllegalArgumentException(
+				    "Either the serviceName or SID property is required for the Oracle JDBC Driver." );
+			}
+
+			// Build a connect descriptor that spreads the connections across the hosts
+			url = String.format(
+			    "jdbc:oracle:%s:@%s",
+			    protocol,
+			    ConnectDescriptor.build( config, host, port, serviceName, sid ) );
+		} else if ( !sid.isBlank() ) {
 			// Build the connection URL with the SID
-			return String.format(
+			url = String.format(
 			    "jdbc:oracle:%s:@%s:%s:%s",
 			    protocol,
 			    host,
 			    port,
 			    sid );
-		}
+		} else {
+			String serviceName = ( String ) config.properties.getOrDefault( "serviceName", "" );
+			if ( serviceName.isBlank() ) {
+				throw new IllegalArgumentException(
+				    "Either the serviceName or SID property is required for the Oracle JDBC Driver." );
+			}
 
-		String serviceName = ( String ) config.properties.getOrDefault( "serviceName", "" );
-		if ( serviceName.isBlank() ) {
-			throw new IllegalArgumentException(
-			    "Either the serviceName or SID property is required for the Oracle JDBC Driver." );
+			// Build the connection URL
+			url = String.format(
+			    "jdbc:oracle:%s:@//%s:%s/%s",
+			    protocol,
+			    host,
+			    port,
+			    serviceName );
 		}
 
-		// Build the connection URL
-		return String.format(
-		    "jdbc:oracle:%s:@//%s:%s/%s",
-		    protocol,
-		    host,
-		    port,
-		    serviceName );
+		return url;
 	}
 
 	/**
@@ -145,6 +198,10 @@ public class OracleDriver extends GenericJDBCDriver {
 		if ( sqlType == Types.ROWID ) {
 			return QueryColumnType.VARCHAR;
 		}
+		// Local time zone timestamps are transformed to timestamps
+		if ( sqlType == OracleTypes.TIMESTAMPLTZ ) {
+			return QueryColumnType.TIMESTAMP;
+		}
 		// Everything else uses the default mapping
 		return super.mapSQLTypeToQueryColumnType( sqlType );
 	}
@@ -172,6 +229,18 @@ public class OracleDriver extends GenericJDBCDriver {
 		if ( value instanceof RowId ) {
 			return value.toString();
 		}
+		try {
+			if ( value instanceof TIMESTAMPLTZ ltz && statement != null ) {
+				// Stored normalized, the session time zone of the statement's connection turns it back into a wall clock
+				return ltz.timestampValue( statement.getConnection() );
+			}
+			if ( value instanceof Clob || value instanceof Blob ) {
+				// Small LOBs are read from the prefetched data, large ones stay a locator to stream from
+				return LobPolicy.of( statement == null ? null : statement.getConnection() ).transform( value );
+			}
+		} catch ( SQLException e ) {
+			throw new DatabaseException( "Unable to read a value of SQL type " + sqlType + ": " + e.getMessage(), e );
+		}
 		return super.transformValue( sqlType, value, statement );
 	}
 
@@ -190,6 +259,31 @@ public class OracleDriver extends GenericJDBCDriver {
 	 */
 	// @Override
 	public int mapParamTypeToSQLType( QueryColumnType type, Object value ) {
+		// The runtime doesn't say which datasource it binds for, so its binds follow the module setting
+		return mapParamTypeToSQLType( type, value, BindSignatures.isStable() );
+	}
+
+	/**
+	 * Map param type to SQL type, with or without bind-stable mode
+	 *
+	 * @param type       The QueryColumnType of the parameter
+	 * @param value      The value of the parameter
+	 * @param bindStable Whether every string is bound the same way, see {@link BindSignatures}
+	 *
+	 * @return The SQL type as defined in java.sql.Types
+	 */
+	public int mapParamTypeToSQLType( QueryColumnType type, Object value, boolean bindStable ) {
+		// Collections built by preProcessProcCall, and IN lists bound as one collection by InListBinder
+		if ( value instanceof java.sql.Array ) {
+			return Types.ARRAY;
+		}
+		// Bind-stable mode declares every string the same way, so its cursor is shared whatever sqltype it comes with
+		if ( bindStable ) {
+			int stableType = BindSignatures.stableSqlType( type, value );
+			if ( stableType != BindSignatures.KEEP ) {
+				return stableType;
+			}
+		}
 		// This allows a char column to match without trailing spaces or trimming.
 		// From my testing, it doesn't appear to have any negative side effects, but if
 		// neccessary, we can limit when this swap occurs based on the value.
@@ -199,6 +293,18 @@ public class OracleDriver extends GenericJDBCDriver {
 		return super.mapParamTypeToSQLType( type, value );
 	}
 
+	/**
+	 * The param type mapping of a datasource, for the functions of this module that bind their own parameters
+	 *
+	 * @param dataSource The datasource the parameters are bound for
+	 *
+	 * @return Maps a query column type and a value to the JDBC type to bind it as, in the datasource's bind-stable mode
+	 */
+	public ToIntBiFunction<QueryColumnType, Object> paramTypesFor( DataSource dataSource ) {
+		boolean bindStable = BindSignatures.isStable( dataSource.getUniqueName() );
+		return ( type, value ) -> mapParamTypeToSQLType( type, value, bindStable );
+	}
+
 	/**
 	 * Emit stored proc named parameter syntax according to the driver's specific
 	 * needs.
@@ -207,12 +313,15 @@ public class OracleDriver extends GenericJDBCDriver {
 	 * @param paramName The name of the parameter
 	 */
 	public void emitStoredProcNamedParam( StringBuilder callSQL, String paramName ) {
-		// remove any leading :
-		if ( paramName.startsWith( ":" ) ) {
-			paramName = paramName.substring( 1 );
+		String fragment = namedParamFragments.get( paramName );
+		if ( fragment == null ) {
+			// remove any leading :, then output paraName => ?
+			fragment = ( paramName.startsWith( ":" ) ? paramName.substring( 1 ) : paramName ) + " => ?";
+			if ( namedParamFragments.size() < MAX_NAMED_PARAM_FRAGMENTS ) {
+				namedParamFragments.put( paramName, fragment );
+			}
 		}
-		// output paraName => ?
-		callSQL.append( paramName ).append( " => " ).append( "?" );
+		callSQL.append( fragment );
 	}
 
 	/**
@@ -229,59 +338,24 @@ public class OracleDriver extends GenericJDBCDriver {
 	public void preProcessProcCall( BoxConnection conn, String procedureName, Array params, Array procResults, IBoxContext context, boolean debug )
 	    throws SQLException {
 
-		Proc proc = OracleUtil.getProcMeta( conn, procedureName );
+		ProcCallEvent event = new ProcCallEvent();
+		event.begin();
+		long	start			= System.nanoTime();
+		Proc	proc			= OracleUtil.getProcMeta( conn, procedureName );
+		long	metadataTime	= System.nanoTime() - start;
 		if ( debug ) {
-			System.out.println( proc.toString() );
+			getLogger().debug( "Oracle stored procedure call [" + procedureName + "] resolved to " + proc );
 		}
 
-		// TODO: Handle overloads properly and find matching defitnition based on param count and types
-		ProcDef	def		= proc.definitions().get( 0 );
-		boolean	isNamed	= false;
-		// If there is at least one param, check and see if it has a name
-		if ( params.size() > 0 ) {
-			isNamed = ( ( IStruct ) params.get( 0 ) ).containsKey( Key.DBVarName );
-		} else {
-			// No params provided - force named mode since we'll need to add ref cursor params by name
-			isNamed = true;
-		}
-		for ( int i = 0; i < def.params().size(); i++ ) {
-			ProcParameter paramDef = def.params().get( i );
-			if ( paramDef.isOut() && paramDef.isRefCursor() ) {
-				// Validate that we have enough params for the preceding parameters (only for positional params)
-				// Named params can skip optional params with default values
-				if ( !isNamed && params.size() < i ) {
-					throw new SQLException(
-					    String.format(
-					        "Missing parameters for stored procedure '%s'. Expected at least %d parameters before the ref cursor parameter '%s' at position %d, but only %d were provided.",
-					        procedureName,
-					        i,
-					        paramDef.name(),
-					        i + 1,
-					        params.size() ) );
-				}
-				IStruct newParam = Struct.of( Key.type, "out", Key.sqltype, "refcursor" );
-				// add out param for ref cursor
-				if ( !procResults.isEmpty() ) {
-					IStruct nextProcResult = ( IStruct ) procResults.get( 0 );
-					// TODO: Look at resultSet to see if they are skipping results
-					newParam.put( Key.variable, nextProcResult.get( Key._NAME ) );
-					procResults.removeAt( 0 );
-				}
-				if ( isNamed ) {
-					newParam.put( Key.DBVarName, ":" + paramDef.name() );
-					// For named params, just append - order doesn't matter since names handle mapping
-					params.add( newParam );
-				} else {
-					// For positional params, insert at the correct position based on the definition
-					params.insertAt( i + 1, newParam );
-				}
-			}
-		}
-		if ( !procResults.isEmpty() ) {
-			// To be compat just ignore extra proc results, which actually matches non-oracle behavior
-			procResults.clear();
-			// throw new SQLException( "More proc results were specified than are present in the procedure definition. " + procResults.toString() );
-		}
+		// The plan picks the overload matching the provided params and knows where the ref cursors go
+		ProcCallPlan plan = ProcCallPlan.forCall( proc, procedureName, params );
+		plan.apply( conn, params, procResults );
+		OracleUtil.procMetrics( conn.getDataSource() ).recordCall( plan.named(), plan.refCursorPositions().length );
+		event.complete( proc, procedureName, plan, params.size(), metadataTime );
+	}
+
+	private static BoxLangLogger getLogger() {
+		return BoxRuntime.getInstance().getLoggingService().getLogger( "datasource" );
 	}
 
 }
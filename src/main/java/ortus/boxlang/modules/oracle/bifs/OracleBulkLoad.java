@@ -0,0 +1,91 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.bifs;
+
+import java.sql.SQLException;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.modules.oracle.util.BulkLoader;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.context.IJDBCCapableContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.ConnectionManager;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Query;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.DatabaseException;
+
+@BoxBIF
+public class OracleBulkLoad extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public OracleBulkLoad() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "query", Key.query ),
+		    new Argument( true, "string", Key.table ),
+		    new Argument( false, "struct", Key.options, Struct.of() ),
+		    new Argument( false, "string", Key.datasource )
+		};
+	}
+
+	/**
+	 * Insert the rows of a query into a table with array DML. The rows are sent in batches of thousands, one round trip each, over
+	 * several pooled connections in parallel. The load uses connections of its own, so it is not part of the request's transaction.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.query The rows to load.
+	 *
+	 * @argument.table The table to load them into, optionally with its schema.
+	 *
+	 * @argument.options How to load: {@code columns} (a struct of query columns to table columns, or a list of query columns, defaults
+	 *                   to every column), {@code batchSize} (rows per batch, defaults to 5000), {@code parallelism} (connections loading
+	 *                   at the same time, defaults to 4 and at most the pool size), {@code directPath} (insert with the
+	 *                   {@code APPEND_VALUES} hint on one connection, defaults to false), {@code commitPerChunk} (commit every batch
+	 *                   instead of once at the end on a single connection, defaults to true), {@code captureErrors} (report failing rows instead of failing the
+	 *                   load, defaults to false) and {@code maxErrors} (the most failing rows to report before the load fails).
+	 *
+	 * @argument.datasource The name of the datasource. Defaults to the default datasource.
+	 *
+	 * @return A struct with the {@code rows} of the query, the {@code rowsLoaded}, the {@code chunks} sent, the failing rows in
+	 *         {@code errors} (each with its {@code row}, {@code errorCode} and {@code message}) and the {@code durationMillis}.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Query				query				= ( Query ) arguments.get( Key.query );
+		String				table				= StringCaster.cast( arguments.get( Key.table ) );
+		BulkLoader.Options	options				= BulkLoader.Options.of( ( IStruct ) arguments.get( Key.options ) );
+		ConnectionManager	connectionManager	= context.getParentOfType( IJDBCCapableContext.class ).getConnectionManager();
+		Object				datasourceName		= arguments.get( Key.datasource );
+		DataSource			datasource			= datasourceName == null
+		    ? connectionManager.getDefaultDatasourceOrThrow()
+		    : connectionManager.getDatasourceOrThrow( Key.of( datasourceName ) );
+
+		try {
+			return BulkLoader.load( datasource, query, table, options, OracleDriver.shared().paramTypesFor( datasource ) ).toStruct();
+		} catch ( SQLException e ) {
+			throw new DatabaseException( "Unable to load the query into " + table + ": " + e.getMessage(), e );
+		}
+	}
+}
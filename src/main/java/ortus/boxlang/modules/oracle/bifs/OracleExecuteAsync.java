@@ -0,0 +1,140 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.bifs;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.modules.oracle.util.AsyncStatements;
+import ortus.boxlang.modules.oracle.util.KeyDictionary;
+import ortus.boxlang.modules.oracle.util.ParamBinder;
+import ortus.boxlang.modules.oracle.util.StreamingProcCall;
+import ortus.boxlang.runtime.async.BoxFuture;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.context.IJDBCCapableContext;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.ConnectionManager;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.exceptions.DatabaseException;
+
+@BoxBIF
+public class OracleExecuteAsync extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public OracleExecuteAsync() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "any", KeyDictionary.statements ),
+		    new Argument( false, "array", Key.params, new Array() ),
+		    new Argument( false, "string", Key.datasource ),
+		    new Argument( false, "integer", KeyDictionary.fetchSize, StreamingProcCall.DEFAULT_FETCH_SIZE )
+		};
+	}
+
+	/**
+	 * Run one or more SQL statements against an Oracle datasource without blocking, and get a future of their results. The statements
+	 * run on a connection of their own, which is released once they complete. That connection can't take part in a transaction of the
+	 * request, so the BIF can't be called inside a {@code transaction} block.
+	 * <p>
+	 * An array of statements is pipelined on that connection: every statement is sent before the results of the previous ones are back,
+	 * and they run in order. Independent queries can be fanned out across connections by calling the BIF several times.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.statements The SQL of a statement, or an array of statements as SQL strings or structs with {@code sql} and {@code params}.
+	 *
+	 * @argument.params The positional parameter values of a single statement, as values or structs with a {@code value} key.
+	 *
+	 * @argument.datasource The name of the datasource. Defaults to the default datasource.
+	 *
+	 * @argument.fetchSize The number of rows to fetch per round trip.
+	 *
+	 * @return A BoxLang future of the result of the statement, or of an array with the result of each statement. Queries return an array
+	 *         of row structs and other statements their update count. When statements fail, the future fails with the error of the first
+	 *         one in execution order, with the errors of the others as suppressed exceptions.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		Object				statements			= arguments.get( KeyDictionary.statements );
+		int					fetchSize			= IntegerCaster.cast( arguments.get( KeyDictionary.fetchSize ) );
+		ConnectionManager	connectionManager	= context.getParentOfType( IJDBCCapableContext.class ).getConnectionManager();
+		if ( connectionManager.isInTransaction() ) {
+			// The statements would run on another connection, where the transaction would neither see nor roll them back
+			throw new DatabaseException(
+			    "oracleExecuteAsync() can't be called inside a transaction: its statements run on a connection of their own." );
+		}
+		Object		datasourceName	= arguments.get( Key.datasource );
+		DataSource	datasource		= datasourceName == null
+		    ? connectionManager.getDefaultDatasourceOrThrow()
+		    : connectionManager.getDatasourceOrThrow( Key.of( datasourceName ) );
+
+		ParamBinder				binder	= new ParamBinder( context, OracleDriver.shared().paramTypesFor( datasource ) );
+		Connection				conn	= datasource.getConnection();
+		CompletableFuture<?>	future;
+		try {
+			if ( statements instanceof Array list ) {
+				List<AsyncStatements.Statement> pipeline = new ArrayList<>( list.size() );
+				for ( Object statement : list ) {
+					pipeline.add( statement instanceof IStruct struct
+					    ? new AsyncStatements.Statement( StringCaster.cast( struct.get( Key.sql ) ), struct.getAsArray( Key.params ) )
+					    : new AsyncStatements.Statement( StringCaster.cast( statement ), null ) );
+				}
+				future = AsyncStatements.pipeline( conn, pipeline, fetchSize, binder ).thenApply( Array::fromList );
+			} else {
+				future = AsyncStatements.execute(
+				    conn,
+				    new AsyncStatements.Statement( StringCaster.cast( statements ), ( Array ) arguments.get( Key.params ) ),
+				    fetchSize,
+				    binder );
+			}
+		} catch ( RuntimeException e ) {
+			// Nothing is running on the connection, so it goes straight back to the pool
+			close( conn );
+			throw e;
+		}
+
+		return BoxFuture.ofCompletableFuture( future.handle( ( result, error ) -> {
+			close( conn );
+			if ( error != null ) {
+				Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+				throw new DatabaseException( "Unable to execute the asynchronous statements: " + cause.getMessage(), cause );
+			}
+			return result;
+		} ) );
+	}
+
+	private static void close( Connection conn ) {
+		try {
+			conn.close();
+		} catch ( SQLException e ) {
+			// The pool gets the connection back either way
+		}
+	}
+}
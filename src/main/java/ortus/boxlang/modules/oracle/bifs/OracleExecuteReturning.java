@@ -0,0 +1,122 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.bifs;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.modules.oracle.util.KeyDictionary;
+import ortus.boxlang.modules.oracle.util.ParamBinder;
+import ortus.boxlang.modules.oracle.util.ReturningDml;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.context.IJDBCCapableContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.ConnectionManager;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.exceptions.DatabaseException;
+
+@BoxBIF
+public class OracleExecuteReturning extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public OracleExecuteReturning() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "string", Key.sql ),
+		    new Argument( true, "any", KeyDictionary.returning ),
+		    new Argument( false, "array", Key.params, new Array() ),
+		    new Argument( false, "string", Key.datasource )
+		};
+	}
+
+	/**
+	 * Run an INSERT, UPDATE, DELETE or MERGE with a {@code RETURNING ... INTO} clause, and get the returning columns of the rows it
+	 * touched in the same round trip. Identity and sequence values, defaults and trigger-computed columns come back without a second
+	 * query.
+	 * <p>
+	 * Pass an array of parameter arrays to run the statement once per row as array DML: the whole batch is sent in one round trip and
+	 * one struct comes back per inserted row, in order. The statement runs on the request's connection, so it is part of any open
+	 * transaction.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.sql The DML, with {@code ?} placeholders and without a returning clause.
+	 *
+	 * @argument.returning The columns to return, as a comma-delimited list or an array of names or structs with a {@code name} and a
+	 *                     {@code type}. Types only matter for batches, where a column is returned as the {@code number},
+	 *                     {@code varchar} or {@code date} it is given. Columns without one are typed from the first row, which then
+	 *                     runs on its own.
+	 *
+	 * @argument.params The positional parameter values, as values or structs with a {@code value} key, or an array of them per row for a
+	 *                  batch. Strings in a batch are limited to 4,000 bytes, and a batch with date times that have fractional seconds or a
+	 *                  time zone runs one row per round trip.
+	 *
+	 * @argument.datasource The name of the datasource. Defaults to the default datasource.
+	 *
+	 * @return An array with a struct of the returning columns for each row the statement touched.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		String				sql					= StringCaster.cast( arguments.get( Key.sql ) );
+		Array				params				= ( Array ) arguments.get( Key.params );
+		ConnectionManager	connectionManager	= context.getParentOfType( IJDBCCapableContext.class ).getConnectionManager();
+		Object				datasourceName		= arguments.get( Key.datasource );
+		DataSource			datasource			= datasourceName == null
+		    ? connectionManager.getDefaultDatasourceOrThrow()
+		    : connectionManager.getDatasourceOrThrow( Key.of( datasourceName ) );
+
+		List<ReturningDml.Column>	returning	= columns( arguments.get( KeyDictionary.returning ) );
+		ParamBinder					binder		= new ParamBinder( context, OracleDriver.shared().paramTypesFor( datasource ) );
+		BoxConnection				conn		= connectionManager.getConnection( datasource );
+		try {
+			if ( !params.isEmpty() && params.stream().allMatch( List.class::isInstance ) ) {
+				List<List<?>> batch = new ArrayList<>( params.size() );
+				params.forEach( row -> batch.add( ( List<?> ) row ) );
+				return ReturningDml.executeBatch( conn, sql, batch, returning, binder );
+			}
+			return ReturningDml.execute( conn, sql, params, returning, binder );
+		} catch ( SQLException e ) {
+			throw new DatabaseException( "Unable to execute the returning statement: " + e.getMessage(), e );
+		} finally {
+			connectionManager.releaseConnection( conn );
+		}
+	}
+
+	private static List<ReturningDml.Column> columns( Object returning ) {
+		List<ReturningDml.Column> columns = new ArrayList<>();
+		if ( returning instanceof List<?> list ) {
+			list.forEach( column -> columns.add( ReturningDml.Column.of( column ) ) );
+		} else {
+			for ( String column : StringCaster.cast( returning ).split( "," ) ) {
+				columns.add( ReturningDml.Column.of( column ) );
+			}
+		}
+		if ( columns.isEmpty() ) {
+			throw new IllegalArgumentException( "At least one returning column is required." );
+		}
+		return columns;
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.bifs;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.modules.oracle.util.KeyDictionary;
+import ortus.boxlang.modules.oracle.util.ParallelScan;
+import ortus.boxlang.modules.oracle.util.ParamBinder;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.context.IJDBCCapableContext;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.ConnectionManager;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.Function;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.DatabaseException;
+
+@BoxBIF
+public class OracleParallelRead extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public OracleParallelRead() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "string", Key.table ),
+		    new Argument( false, "struct", Key.options, Struct.of() ),
+		    new Argument( false, "function", KeyDictionary.callback ),
+		    new Argument( false, "string", Key.datasource )
+		};
+	}
+
+	/**
+	 * Read a whole table in parallel. The table is split into ROWID ranges of about the same size from its extent map, and the ranges are
+	 * read at the same time on several pooled connections, so a full extract isn't held to one connection and one server process.
+	 * <p>
+	 * Without a callback the rows are merged into a query, in ROWID order. With one, the rows are streamed to it on the calling thread,
+	 * in ROWID order or as they are read, and only a buffer of rows per range is held in memory. The callback receives the row as a
+	 * struct and the row number. Returning {@code false} stops the read.
+	 * <p>
+	 * Splitting the table needs SELECT on {@code DBA_EXTENTS} and {@code DBA_OBJECTS}, or else the {@code CREATE JOB} privilege for
+	 * {@code DBMS_PARALLEL_EXECUTE}.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.table The table to read, optionally with its schema.
+	 *
+	 * @argument.options How to read: {@code columns} (the select list, defaults to every column), {@code where} (a condition the rows must
+	 *                   also meet, with {@code ?} placeholders), {@code params} (the values of the placeholders), {@code parallelism}
+	 *                   (connections reading at the same time, defaults to 4 and at most the pool size), {@code ranges} (the ranges to
+	 *                   split the table into, defaults to 4 per connection), {@code ordered} (stream in ROWID order, defaults to true),
+	 *                   {@code fetchSize} (rows per round trip, defaults to 1000) and {@code bufferRows} (rows buffered per range ahead
+	 *                   of the callback, defaults to 10000).
+	 *
+	 * @argument.callback The function to stream the rows to. Leave it out to get a query.
+	 *
+	 * @argument.datasource The name of the datasource. Defaults to the default datasource.
+	 *
+	 * @return The query, or with a callback a struct with the {@code rows} streamed, the {@code ranges} read and the
+	 *         {@code durationMillis}.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		String				table				= StringCaster.cast( arguments.get( Key.table ) );
+		IStruct				options				= ( IStruct ) arguments.get( Key.options );
+		Function			callback			= arguments.getAsFunction( KeyDictionary.callback );
+		ConnectionManager	connectionManager	= context.getParentOfType( IJDBCCapableContext.class ).getConnectionManager();
+		Object				datasourceName		= arguments.get( Key.datasource );
+		DataSource			datasource			= datasourceName == null
+		    ? connectionManager.getDefaultDatasourceOrThrow()
+		    : connectionManager.getDatasourceOrThrow( Key.of( datasourceName ) );
+
+		int		parallelism	= IntegerCaster.cast( options.getOrDefault( KeyDictionary.parallelism, ParallelScan.DEFAULT_PARALLELISM ) );
+		Object	poolSize	= datasource.getConfiguration().properties.get( "maxConnections" );
+		if ( poolSize != null ) {
+			parallelism = Math.min( parallelism, IntegerCaster.cast( poolSize ) );
+		}
+		parallelism = Math.max( 1, parallelism );
+
+		int		rangeCount	= IntegerCaster
+		    .cast( options.getOrDefault( KeyDictionary.ranges, parallelism * ParallelScan.RANGES_PER_CONNECTION ) );
+		int		fetchSize	= IntegerCaster.cast( options.getOrDefault( KeyDictionary.fetchSize, ParallelScan.DEFAULT_FETCH_SIZE ) );
+		Object	selectList	= options.get( Key.columns );
+		Object	where		= options.get( KeyDictionary.where );
+		String	sql			= ParallelScan.selectSql( table, selectList == null ? null : StringCaster.cast( selectList ),
+		    where == null ? null : StringCaster.cast( where ) );
+		List<?>	params		= options.get( Key.params ) instanceof Array array ? array : List.of();
+		// Binds the condition's parameters on the reader threads, the way queries bind them
+		ParamBinder	binder	= new ParamBinder( context, OracleDriver.shared().paramTypesFor( datasource ) );
+
+		try {
+			List<ParallelScan.Range> ranges;
+			try ( Connection conn = datasource.getConnection() ) {
+				ranges = ParallelScan.ranges( conn, table, rangeCount );
+			}
+			if ( callback == null ) {
+				return ParallelScan.toQuery( datasource::getConnection, sql, params, binder, ranges, parallelism, fetchSize,
+				    OracleDriver.shared()::mapSQLTypeToQueryColumnType );
+			}
+
+			long[]						rowNumber	= { 0 };
+			ParallelScan.RowConsumer	toCallback	= ( columns, row, range ) -> {
+				IStruct struct = Struct.linkedOf();
+				for ( int i = 0; i < row.length; i++ ) {
+					struct.put( columns.names()[ i ], row[ i ] );
+				}
+				return !Boolean.FALSE.equals( context.invokeFunction( callback, new Object[] { struct, ++rowNumber[ 0 ] } ) );
+			};
+			boolean	ordered		= BooleanCaster.cast( options.getOrDefault( KeyDictionary.ordered, true ) );
+			int		bufferRows	= IntegerCaster.cast( options.getOrDefault( KeyDictionary.bufferRows, ParallelScan.DEFAULT_BUFFER_ROWS ) );
+			return ParallelScan
+			    .scan( datasource::getConnection, sql, params, binder, ranges, parallelism, ordered, fetchSize, bufferRows, toCallback )
+			    .toStruct();
+		} catch ( SQLException e ) {
+			throw new DatabaseException( "Unable to read " + table + " in parallel: " + e.getMessage(), e );
+		}
+	}
+}
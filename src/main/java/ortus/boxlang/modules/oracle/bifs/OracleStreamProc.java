@@ -0,0 +1,122 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.bifs;
+
+import java.sql.SQLException;
+
+import ortus.boxlang.modules.oracle.OracleDriver;
+import ortus.boxlang.modules.oracle.util.KeyDictionary;
+import ortus.boxlang.modules.oracle.util.ParamBinder;
+import ortus.boxlang.modules.oracle.util.RefCursorStream;
+import ortus.boxlang.modules.oracle.util.StreamingProcCall;
+import ortus.boxlang.runtime.bifs.BIF;
+import ortus.boxlang.runtime.bifs.BoxBIF;
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.context.IJDBCCapableContext;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.ConnectionManager;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.ArgumentsScope;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Argument;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.Function;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+import ortus.boxlang.runtime.types.exceptions.DatabaseException;
+
+@BoxBIF
+public class OracleStreamProc extends BIF {
+
+	/**
+	 * Constructor
+	 */
+	public OracleStreamProc() {
+		super();
+		declaredArguments = new Argument[] {
+		    new Argument( true, "string", KeyDictionary.procedure ),
+		    new Argument( true, "function", KeyDictionary.callback ),
+		    new Argument( false, "array", Key.params, new Array() ),
+		    new Argument( false, "array", KeyDictionary.procResults, new Array() ),
+		    new Argument( false, "string", Key.datasource ),
+		    new Argument( false, "integer", KeyDictionary.fetchSize, StreamingProcCall.DEFAULT_FETCH_SIZE )
+		};
+	}
+
+	/**
+	 * Call an Oracle stored procedure and stream the rows of its REF CURSORs to a callback, one row at a time, instead of reading them
+	 * into queries. Only a fetch size worth of rows is held in memory, so cursors of any size can be processed. The cursors are closed
+	 * once read, when the callback stops the stream, or when it throws.
+	 * <p>
+	 * The callback receives the row as a struct, the name of the cursor and the row number within the cursor. Returning {@code false}
+	 * stops reading the current cursor and moves on to the next.
+	 *
+	 * @param context   The context in which the BIF is being invoked.
+	 * @param arguments Argument scope for the BIF.
+	 *
+	 * @argument.procedure The name of the stored procedure.
+	 *
+	 * @argument.callback The function to call for each row.
+	 *
+	 * @argument.params The parameters, as structs in the same format as {@code bx:procparam}. Named and positional parameters are supported.
+	 *
+	 * @argument.procResults The names to give the ref cursors, in order, as structs with a {@code name} key like {@code bx:procresult}.
+	 *                       Unnamed cursors are named after their parameter.
+	 *
+	 * @argument.datasource The name of the datasource. Defaults to the default datasource.
+	 *
+	 * @argument.fetchSize The number of rows to fetch per round trip.
+	 *
+	 * @return A struct with the number of rows read per cursor under {@code cursors}, and the values of the OUT parameters under
+	 *         {@code outParams}.
+	 */
+	public Object _invoke( IBoxContext context, ArgumentsScope arguments ) {
+		String				procedure			= StringCaster.cast( arguments.get( KeyDictionary.procedure ) );
+		Function			callback			= arguments.getAsFunction( KeyDictionary.callback );
+		ConnectionManager	connectionManager	= context.getParentOfType( IJDBCCapableContext.class ).getConnectionManager();
+		Object				datasourceName		= arguments.get( Key.datasource );
+		DataSource			datasource			= datasourceName == null
+		    ? connectionManager.getDefaultDatasourceOrThrow()
+		    : connectionManager.getDatasourceOrThrow( Key.of( datasourceName ) );
+
+		BoxConnection		conn				= connectionManager.getConnection( datasource );
+		try ( StreamingProcCall call = StreamingProcCall.execute(
+		    conn,
+		    procedure,
+		    ( Array ) arguments.get( Key.params ),
+		    ( Array ) arguments.get( KeyDictionary.procResults ),
+		    IntegerCaster.cast( arguments.get( KeyDictionary.fetchSize ) ),
+		    new ParamBinder( context, OracleDriver.shared().paramTypesFor( datasource ) ) ) ) {
+			IStruct rowCounts = Struct.linkedOf();
+			for ( RefCursorStream cursor : call.getCursors() ) {
+				int rowNumber = 0;
+				while ( cursor.hasNext() ) {
+					Object result = context.invokeFunction( callback, new Object[] { cursor.next(), cursor.getName(), ++rowNumber } );
+					if ( Boolean.FALSE.equals( result ) ) {
+						cursor.close();
+					}
+				}
+				rowCounts.put( Key.of( cursor.getName() ), rowNumber );
+			}
+			return Struct.of( KeyDictionary.cursors, rowCounts, KeyDictionary.outParams, call.getOutParams() );
+		} catch ( SQLException e ) {
+			throw new DatabaseException( "Unable to stream the results of stored procedure '" + procedure + "': " + e.getMessage(), e );
+		} finally {
+			connectionManager.releaseConnection( conn );
+		}
+	}
+}
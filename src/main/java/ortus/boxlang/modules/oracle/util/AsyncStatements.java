@@ -0,0 +1,317 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleResultSet;
+import oracle.jdbc.OracleRow;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Runs statements without blocking the calling thread, and pipelines several statements on one connection.
+ * <p>
+ * On Oracle connections the statements go through the reactive extensions of the driver ({@code executeAsyncOracle()} and
+ * {@code publisherOracle()}): no thread waits on the network while a statement runs or its rows are fetched. Statements issued on the same
+ * connection before the previous ones complete are pipelined, so against a 23ai database they share round trips instead of queuing behind
+ * each other. Other connections fall back to running the statements in order on a virtual thread, which gives the same results and the
+ * same ordering.
+ * <p>
+ * Queries complete with an array of row structs, with every column converted by its {@link ColumnPlan} like {@link RefCursorStream}
+ * does: ROWIDs as strings, LOBs read into strings and byte arrays, and time zone timestamps and intervals as {@code java.time} values. Other statements complete with their update count. The connection stays with the caller, who must not close
+ * it before the futures complete.
+ * <p>
+ * Parameters are bound with a {@link ParamBinder}, the way the runtime binds query parameters. Queries are fetched with the fetch size
+ * the {@link FetchSizeAdvisor} of the connection's datasource learned for their SQL when it is larger than the one asked for, and the
+ * rows each execution returns are recorded once they have been read.
+ */
+public class AsyncStatements {
+
+	/**
+	 * Runs the statements of connections that have no reactive extensions
+	 */
+	private static final ExecutorService	BLOCKING_EXECUTOR	= Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Rows are gathered into structs, so every LOB is read inline
+	 */
+	private static final LobPolicy			INLINE_LOBS			= new LobPolicy( -1 );
+
+	private AsyncStatements() {
+	}
+
+	/**
+	 * A statement to run
+	 *
+	 * @param sql    The SQL, with {@code ?} placeholders
+	 * @param params The positional parameter values. Arrays bind the {@code ?} of an {@code IN ( ? )} list as one collection.
+	 */
+	public record Statement( String sql, List<?> params ) {
+	}
+
+	/**
+	 * Run a statement without blocking
+	 *
+	 * @param connection The connection
+	 * @param statement  The statement
+	 * @param fetchSize  The number of rows to fetch per round trip
+	 * @param binder     Binds the parameter values
+	 *
+	 * @return A future of the rows of a query, or the update count of any other statement
+	 */
+	public static CompletableFuture<Object> execute( Connection connection, Statement statement, int fetchSize, ParamBinder binder ) {
+		return pipeline( connection, List.of( statement ), fetchSize, binder ).thenApply( results -> results.get( 0 ) );
+	}
+
+	/**
+	 * Run statements one after the other on a connection, pipelining them when the connection supports it.
+	 * <p>
+	 * When statements fail, the future fails with the error of the first one in execution order. Pipelined statements have all been sent
+	 * by then, so the errors of the later ones that failed too are added to it as suppressed exceptions. Without the reactive extensions
+	 * the statements after the first failure aren't run.
+	 *
+	 * @param connection The connection
+	 * @param statements The statements, in execution order
+	 * @param fetchSize  The number of rows to fetch per round trip
+	 * @param binder     Binds the parameter values
+	 *
+	 * @return A future of the result of each statement, in order
+	 */
+	public static CompletableFuture<List<Object>> pipeline( Connection connection, List<Statement> statements, int fetchSize,
+	    ParamBinder binder ) {
+		if ( !isReactive( connection ) ) {
+			return CompletableFuture.supplyAsync( () -> {
+				List<Object> results = new ArrayList<>( statements.size() );
+				for ( Statement statement : statements ) {
+					results.add( executeBlocking( connection, statement, fetchSize, binder ) );
+				}
+				return results;
+			}, BLOCKING_EXECUTOR );
+		}
+
+		// Issue every statement before waiting on any, so the driver can pipeline them
+		List<CompletableFuture<Object>> futures = new ArrayList<>( statements.size() );
+		for ( Statement statement : statements ) {
+			futures.add( executeReactive( connection, statement, fetchSize, binder ) );
+		}
+		return CompletableFuture.allOf( futures.toArray( CompletableFuture[]::new ) ).handle( ( done, ignored ) -> results( futures ) );
+	}
+
+	/**
+	 * The results of completed statements, in order
+	 *
+	 * @param futures The futures of the statements, in execution order
+	 *
+	 * @return The result of each statement
+	 *
+	 * @throws CompletionException With the error of the first statement that failed, and those of the others suppressed
+	 */
+	static List<Object> results( List<CompletableFuture<Object>> futures ) {
+		List<Object>	results	= new ArrayList<>( futures.size() );
+		Throwable		first	= null;
+		for ( CompletableFuture<Object> future : futures ) {
+			try {
+				results.add( future.join() );
+			} catch ( CompletionException | CancellationException e ) {
+				Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+				if ( first == null ) {
+					first = cause;
+				} else if ( cause != first ) {
+					first.addSuppressed( cause );
+				}
+			}
+		}
+		if ( first != null ) {
+			throw new CompletionException( first );
+		}
+		return results;
+	}
+
+	private static boolean isReactive( Connection connection ) {
+		try {
+			return connection.isWrapperFor( OracleConnection.class );
+		} catch ( SQLException e ) {
+			return false;
+		}
+	}
+
+	private static CompletableFuture<Object> executeReactive( Connection connection, Statement statement, int fetchSize,
+	    ParamBinder binder ) {
+		FetchSizeAdvisor		advisor	= FetchSizeAdvisor.of( connection );
+		OraclePreparedStatement	prepared;
+		try {
+			PreparedStatement plain = prepare( connection, statement, fetchSize, binder, advisor );
+			try {
+				prepared = plain.unwrap( OraclePreparedStatement.class );
+			} catch ( SQLException e ) {
+				closeQuietly( plain );
+				throw e;
+			}
+		} catch ( SQLException e ) {
+			return CompletableFuture.failedFuture( e );
+		}
+
+		CompletableFuture<Object> result;
+		try {
+			result = collect( prepared.executeAsyncOracle() ).thenCompose( isQuery -> {
+				try {
+					if ( !isQuery.isEmpty() && Boolean.TRUE.equals( isQuery.get( 0 ) ) ) {
+						return readRows( prepared.getResultSet().unwrap( OracleResultSet.class ), connection, statement.sql(), advisor );
+					}
+					return CompletableFuture.completedFuture( prepared.getLargeUpdateCount() );
+				} catch ( SQLException e ) {
+					throw new CompletionException( e );
+				}
+			} );
+		} catch ( SQLException e ) {
+			result = CompletableFuture.failedFuture( e );
+		}
+		return result.whenComplete( ( value, error ) -> closeQuietly( prepared ) );
+	}
+
+	/**
+	 * Publish the rows of a result set as structs and gather them in an array. Each column is converted by its {@link ColumnPlan}, like
+	 * {@link RefCursorStream} converts the rows of the blocking path.
+	 */
+	private static CompletableFuture<Object> readRows( OracleResultSet resultSet, Connection connection, String sql,
+	    FetchSizeAdvisor advisor ) throws SQLException {
+		ResultSetMetaData	metaData	= resultSet.getMetaData();
+		Key[]				columns		= new Key[ metaData.getColumnCount() ];
+		ColumnPlan			plan		= ColumnPlan.of( metaData, INLINE_LOBS, connection );
+		int					rowWidth	= advisor == null ? 0 : FetchSizeAdvisor.estimateRowWidth( metaData );
+		for ( int i = 0; i < columns.length; i++ ) {
+			columns[ i ] = Key.of( metaData.getColumnLabel( i + 1 ) );
+		}
+		return collect( resultSet.publisherOracle( row -> toStruct( row, columns, plan ) ) ).thenApply( rows -> {
+			if ( advisor != null ) {
+				advisor.record( sql, rows.size(), rowWidth );
+			}
+			return Array.fromList( rows );
+		} );
+	}
+
+	private static IStruct toStruct( OracleRow row, Key[] columns, ColumnPlan plan ) {
+		IStruct struct = Struct.linkedOf();
+		try {
+			// LOBs are read while the row is current, their locators aren't valid after it
+			for ( int i = 0; i < columns.length; i++ ) {
+				struct.put( columns[ i ], plan.transform( i, row.getObject( i + 1, Object.class ) ) );
+			}
+		} catch ( SQLException e ) {
+			throw new IllegalStateException( "Unable to read a row: " + e.getMessage(), e );
+		}
+		return struct;
+	}
+
+	private static Object executeBlocking( Connection connection, Statement statement, int fetchSize, ParamBinder binder ) {
+		FetchSizeAdvisor advisor = FetchSizeAdvisor.of( connection );
+		try ( PreparedStatement prepared = prepare( connection, statement, fetchSize, binder, advisor ) ) {
+			if ( !prepared.execute() ) {
+				return prepared.getLargeUpdateCount();
+			}
+			ResultSet	resultSet	= prepared.getResultSet();
+			Array		rows		= new Array();
+			try ( RefCursorStream stream = new RefCursorStream( "result", resultSet, prepared.getFetchSize(), connection ) ) {
+				if ( advisor != null ) {
+					// Read before the stream closes the result set
+					int rowWidth = FetchSizeAdvisor.estimateRowWidth( resultSet.getMetaData() );
+					stream.forEachRemaining( rows::add );
+					advisor.record( statement.sql(), rows.size(), rowWidth );
+				} else {
+					stream.forEachRemaining( rows::add );
+				}
+			}
+			return rows;
+		} catch ( SQLException e ) {
+			throw new CompletionException( e );
+		}
+	}
+
+	private static PreparedStatement prepare( Connection connection, Statement statement, int fetchSize, ParamBinder binder,
+	    FetchSizeAdvisor advisor ) throws SQLException {
+		// IN lists are bound as one collection, so the SQL text doesn't change with their length
+		List<?>				params		= statement.params() == null ? List.of() : statement.params();
+		InListBinder.Bound	bound		= InListBinder.bind( connection, statement.sql(), params );
+		PreparedStatement	prepared	= connection.prepareStatement( bound.sql() );
+		try {
+			StatementCacheStats.recordPrepared( connection, prepared );
+			prepared.setFetchSize( advisor == null ? fetchSize : advisor.fetchSizeFor( statement.sql(), fetchSize ) );
+			for ( int i = 0; i < bound.params().size(); i++ ) {
+				binder.bind( prepared, i + 1, bound.params().get( i ) );
+			}
+			return prepared;
+		} catch ( SQLException | RuntimeException e ) {
+			prepared.close();
+			throw e;
+		}
+	}
+
+	private static void closeQuietly( java.sql.Statement statement ) {
+		try {
+			statement.close();
+		} catch ( SQLException e ) {
+			// The statement is done with either way
+		}
+	}
+
+	/**
+	 * Gather everything a publisher emits
+	 */
+	private static <T> CompletableFuture<List<T>> collect( Flow.Publisher<? extends T> publisher ) {
+		CompletableFuture<List<T>> future = new CompletableFuture<>();
+		publisher.subscribe( new Flow.Subscriber<T>() {
+
+			private final List<T> items = new ArrayList<>();
+
+			@Override
+			public void onSubscribe( Flow.Subscription subscription ) {
+				subscription.request( Long.MAX_VALUE );
+			}
+
+			@Override
+			public void onNext( T item ) {
+				items.add( item );
+			}
+
+			@Override
+			public void onError( Throwable error ) {
+				future.completeExceptionally( error );
+			}
+
+			@Override
+			public void onComplete() {
+				future.complete( items );
+			}
+		} );
+		return future;
+	}
+}
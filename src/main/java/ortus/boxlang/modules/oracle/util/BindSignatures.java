@@ -0,0 +1,260 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.QueryColumnType;
+
+/**
+ * Keeps string binds type stable, and reports the bind signatures of the shared cursors of a schema.
+ * <p>
+ * Oracle shares a cursor between executions only when every bind has the same type as when the cursor was built. Binding the same
+ * string parameter as {@code CHAR} on one call and {@code VARCHAR} or {@code CLOB} on the next creates a new child cursor each time
+ * ({@code BIND_MISMATCH} in {@code V$SQL_SHARED_CURSOR}). In bind-stable mode every string bind is declared {@code CHAR} whatever
+ * {@code sqltype} it was given, the type the driver already binds {@code VARCHAR} parameters as so blank-padded {@code CHAR(n)} columns
+ * match, and Oracle rounds its length up to its own bind length buckets. A string longer than {@value #MAX_CHAR_BYTES} bytes in UTF-8
+ * doesn't fit a {@code VARCHAR2} bind and is bound as {@code CLOB} instead, so a statement that sees both short and long values still
+ * gets a second child cursor, with {@code BIND_MISMATCH}.
+ * <p>
+ * The {@code bindStable} module setting is the default for every datasource, and the {@code bindStable} datasource property overrides it
+ * for the binds of that datasource's {@code oracle*} functions. The binds of {@code queryExecute()} follow the module setting, since the
+ * runtime doesn't tell the bind type mapping which datasource it binds for.
+ */
+public class BindSignatures {
+
+	/**
+	 * The datasource property that turns bind-stable mode on or off for a datasource
+	 */
+	public static final String					PROPERTY			= "bindStable";
+
+	/**
+	 * The longest string, in UTF-8 bytes, bound as {@code CHAR}, the largest {@code VARCHAR2} bind
+	 */
+	public static final int						MAX_CHAR_BYTES		= 4000;
+
+	/**
+	 * Returned by {@link #stableSqlType(QueryColumnType, Object)} for binds it leaves alone
+	 */
+	public static final int						KEEP				= Integer.MIN_VALUE;
+
+	private static final Map<Key, Boolean>		datasources			= new ConcurrentHashMap<>();
+	private static volatile boolean				defaultStable		= false;
+	private static final String					SIGNATURES_SQL		= """
+	    SELECT s.SQL_ID, s.CHILD_NUMBER, SUBSTR( s.SQL_TEXT, 1, 200 ) AS SQL_TEXT, s.EXECUTIONS,
+	           sc.BIND_MISMATCH, sc.BIND_LENGTH_UPGRADEABLE,
+	           b.POSITION, b.DATATYPE_STRING
+	      FROM V$SQL s
+	      JOIN V$SQL_SHARED_CURSOR sc ON sc.SQL_ID = s.SQL_ID AND sc.CHILD_ADDRESS = s.CHILD_ADDRESS
+	      LEFT JOIN V$SQL_BIND_METADATA b ON b.ADDRESS = s.CHILD_ADDRESS
+	     WHERE s.PARSING_SCHEMA_NAME = SYS_CONTEXT( 'USERENV', 'CURRENT_SCHEMA' )
+	       AND ( ? IS NULL OR s.SQL_TEXT LIKE ? )
+	     ORDER BY s.SQL_ID, s.CHILD_NUMBER, b.POSITION""";
+
+	private BindSignatures() {
+	}
+
+	/**
+	 * Turn bind-stable mode on or off for the datasources that don't set the {@code bindStable} property
+	 *
+	 * @param enabled Whether string binds are kept type stable
+	 */
+	public static void setDefaultStable( boolean enabled ) {
+		defaultStable = enabled;
+	}
+
+	/**
+	 * Whether bind-stable mode is on by default
+	 *
+	 * @return True if string binds are kept type stable
+	 */
+	public static boolean isStable() {
+		return defaultStable;
+	}
+
+	/**
+	 * Register the bind-stable mode of a datasource under its unique name, if it sets the {@code bindStable} property
+	 *
+	 * @param config The datasource configuration
+	 */
+	public static void register( DatasourceConfig config ) {
+		Object enabled = config.properties.get( PROPERTY );
+		if ( enabled == null ) {
+			datasources.remove( config.getUniqueName() );
+		} else {
+			datasources.put( config.getUniqueName(), BooleanCaster.cast( enabled ) );
+		}
+	}
+
+	/**
+	 * Whether bind-stable mode is on for a datasource
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return Its {@code bindStable} property, or the module setting if it doesn't set one
+	 */
+	public static boolean isStable( Key dataSourceUniqueName ) {
+		Boolean enabled = datasources.get( dataSourceUniqueName );
+		return enabled == null ? defaultStable : enabled;
+	}
+
+	/**
+	 * Get the stable SQL type to bind a string as, whatever type it was declared with
+	 *
+	 * @param type  The declared type of the parameter
+	 * @param value The value of the parameter
+	 *
+	 * @return {@code CHAR} for strings of up to {@link #MAX_CHAR_BYTES} UTF-8 bytes, {@code CLOB} for longer ones, {@link #KEEP} for
+	 *         anything else
+	 */
+	public static int stableSqlType( QueryColumnType type, Object value ) {
+		if ( ! ( value instanceof String string ) ) {
+			return KEEP;
+		}
+		return switch ( type ) {
+			case VARCHAR, CHAR, CLOB, OBJECT, OTHER -> fitsChar( string ) ? Types.CHAR : Types.CLOB;
+			default -> KEEP;
+		};
+	}
+
+	/**
+	 * Whether a string fits a {@code CHAR} bind, counting it in UTF-8 bytes, the encoding of an {@code AL32UTF8} database, which never
+	 * undercounts a single byte character set
+	 *
+	 * @param value The string
+	 *
+	 * @return True if it is at most {@link #MAX_CHAR_BYTES} bytes long
+	 */
+	static boolean fitsChar( String value ) {
+		if ( value.length() * 3 <= MAX_CHAR_BYTES ) {
+			return true;
+		}
+		return value.getBytes( StandardCharsets.UTF_8 ).length <= MAX_CHAR_BYTES;
+	}
+
+	/**
+	 * Read the bind signatures of the cursors parsed by the connection's schema from {@code V$SQL}, {@code V$SQL_SHARED_CURSOR} and
+	 * {@code V$SQL_BIND_METADATA}. The user needs {@code SELECT} on those views, for example through {@code SELECT_CATALOG_ROLE}.
+	 *
+	 * @param connection The BoxConnection instance
+	 * @param sqlFilter  A {@code LIKE} pattern the SQL text must match, or null for every statement
+	 *
+	 * @return One signature per statement, with a bind list per child cursor
+	 *
+	 * @throws SQLException If the views can't be read
+	 */
+	public static List<Signature> read( BoxConnection connection, String sqlFilter ) throws SQLException {
+		List<Signature> signatures = new ArrayList<>();
+		try ( PreparedStatement stmt = connection.prepareStatement( SIGNATURES_SQL ) ) {
+			stmt.setString( 1, sqlFilter );
+			stmt.setString( 2, sqlFilter );
+			try ( ResultSet rs = stmt.executeQuery() ) {
+				SignatureBuilder current = null;
+				while ( rs.next() ) {
+					String sqlId = rs.getString( "SQL_ID" );
+					if ( current == null || !current.sqlId.equals( sqlId ) ) {
+						if ( current != null ) {
+							signatures.add( current.build() );
+						}
+						current = new SignatureBuilder( sqlId, rs.getString( "SQL_TEXT" ) );
+					}
+					current.add( rs );
+				}
+				if ( current != null ) {
+					signatures.add( current.build() );
+				}
+			}
+		}
+		return signatures;
+	}
+
+	/**
+	 * The bind signature of a statement
+	 *
+	 * @param sqlId          The SQL_ID of the statement
+	 * @param sqlText        The start of its SQL text
+	 * @param childCursors   The number of child cursors, 1 when the cursor is fully shared
+	 * @param executions     The executions across every child
+	 * @param bindMismatches The children created because a bind changed type
+	 * @param lengthUpgrades The children created because a bind outgrew its length bucket
+	 * @param childBinds     The binds of each child, like {@code VARCHAR2(32), NUMBER(22)}
+	 */
+	public record Signature( String sqlId, String sqlText, int childCursors, long executions, int bindMismatches, int lengthUpgrades,
+	    List<String> childBinds ) {
+	}
+
+	/**
+	 * Collects the rows of one statement, which come one per child cursor and bind
+	 */
+	private static class SignatureBuilder {
+
+		private final String		sqlId;
+		private final String		sqlText;
+		private final List<String>	childBinds		= new ArrayList<>();
+		private int					lastChild		= -1;
+		private StringBuilder		binds;
+		private long				executions;
+		private int					bindMismatches;
+		private int					lengthUpgrades;
+
+		SignatureBuilder( String sqlId, String sqlText ) {
+			this.sqlId		= sqlId;
+			this.sqlText	= sqlText;
+		}
+
+		void add( ResultSet rs ) throws SQLException {
+			int child = rs.getInt( "CHILD_NUMBER" );
+			if ( child != lastChild ) {
+				flush();
+				lastChild	= child;
+				binds		= new StringBuilder();
+				executions	+= rs.getLong( "EXECUTIONS" );
+				if ( "Y".equals( rs.getString( "BIND_MISMATCH" ) ) ) {
+					bindMismatches++;
+				}
+				if ( "Y".equals( rs.getString( "BIND_LENGTH_UPGRADEABLE" ) ) ) {
+					lengthUpgrades++;
+				}
+			}
+			String datatype = rs.getString( "DATATYPE_STRING" );
+			if ( datatype != null ) {
+				binds.append( binds.isEmpty() ? "" : ", " ).append( datatype );
+			}
+		}
+
+		private void flush() {
+			if ( binds != null ) {
+				childBinds.add( binds.toString() );
+			}
+		}
+
+		Signature build() {
+			flush();
+			return new Signature( sqlId, sqlText, childBinds.size(), executions, bindMismatches, lengthUpgrades, List.copyOf( childBinds ) );
+		}
+	}
+}
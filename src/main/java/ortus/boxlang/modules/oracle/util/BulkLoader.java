@@ -0,0 +1,516 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntBiFunction;
+
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Query;
+import ortus.boxlang.runtime.types.QueryColumn;
+import ortus.boxlang.runtime.types.QueryColumnType;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Loads the rows of a query into a table with array DML: the rows are split into chunks, and each chunk is sent as one JDBC batch, so a
+ * chunk of thousands of rows takes a single round trip instead of one per row. The chunks are spread over several pooled connections that
+ * insert in parallel, each one reusing its prepared statement for every chunk it takes.
+ * <p>
+ * Every column is bound with one SQL type, picked by the driver's {@code mapParamTypeToSQLType()} from the query column type and its first
+ * value. A type that changed from one row to the next would make the driver send the batch in pieces.
+ * <p>
+ * By default every chunk is committed on its own, so a failed load keeps the chunks before the failure. Without it, the load runs on a
+ * single connection that keeps every chunk in one transaction, committed once every chunk is in or rolled back if any failed. Separate
+ * connections can't share a transaction, so an all-or-nothing load gives up the parallel inserts. Captured errors and direct-path inserts
+ * always commit every chunk.
+ * <p>
+ * Direct-path inserts ({@code APPEND_VALUES}) write above the high water mark and skip the buffer cache, but lock the whole table until
+ * they commit and can't be followed by another insert in the same transaction. They run on a single connection and commit every chunk.
+ * <p>
+ * When errors are captured, a failing row doesn't fail the load. The rows of its batch before it are kept, the row is reported, and the
+ * batch goes on from the row after it with a conventional insert.
+ */
+public class BulkLoader {
+
+	/**
+	 * The rows sent per batch, unless the options say otherwise
+	 */
+	public static final int					DEFAULT_BATCH_SIZE	= 5_000;
+
+	/**
+	 * The connections loading in parallel, unless the options say otherwise
+	 */
+	public static final int					DEFAULT_PARALLELISM	= 4;
+
+	/**
+	 * Runs the connections of a load
+	 */
+	private static final ExecutorService	EXECUTOR			= Executors.newVirtualThreadPerTaskExecutor();
+
+	private BulkLoader() {
+	}
+
+	/**
+	 * How to load
+	 *
+	 * @param columns        The query columns to load, mapped to their table columns. Empty to load every query column into the table
+	 *                       column of the same name.
+	 * @param batchSize      The rows sent per batch, and committed together
+	 * @param parallelism    The connections loading at the same time
+	 * @param directPath     Whether to insert with the {@code APPEND_VALUES} hint
+	 * @param commitPerChunk Whether to commit after every chunk, or load on one connection and commit once at the end
+	 * @param captureErrors  Whether to report failing rows instead of failing the load
+	 * @param maxErrors      The most failing rows to report before the load fails
+	 */
+	public record Options( Map<String, String> columns, int batchSize, int parallelism, boolean directPath, boolean commitPerChunk,
+	    boolean captureErrors, int maxErrors ) {
+
+		/**
+		 * The default options
+		 */
+		public static final Options DEFAULTS = new Options( Map.of(), DEFAULT_BATCH_SIZE, DEFAULT_PARALLELISM, false, true, false,
+		    Integer.MAX_VALUE );
+
+		/**
+		 * Build the options from a struct with any of {@code columns}, {@code batchSize}, {@code parallelism}, {@code directPath},
+		 * {@code commitPerChunk}, {@code captureErrors} and {@code maxErrors}. The columns are a struct of query column names to table
+		 * column names, or an array or comma-delimited list of query columns loaded into the table columns of the same names.
+		 *
+		 * @param options The options
+		 *
+		 * @return The options, with the defaults for anything the struct doesn't set
+		 *
+		 * @throws IllegalArgumentException If a size isn't positive
+		 */
+		public static Options of( IStruct options ) {
+			if ( options == null ) {
+				return DEFAULTS;
+			}
+			Map<String, String>	columns	= new LinkedHashMap<>();
+			Object				mapping	= options.get( Key.columns );
+			if ( mapping instanceof IStruct struct ) {
+				struct.forEach( ( key, value ) -> columns.put( key.getName(), StringCaster.cast( value ).trim() ) );
+			} else if ( mapping instanceof List<?> list ) {
+				list.forEach( column -> columns.put( StringCaster.cast( column ).trim(), StringCaster.cast( column ).trim() ) );
+			} else if ( mapping != null && !StringCaster.cast( mapping ).isBlank() ) {
+				for ( String column : StringCaster.cast( mapping ).split( "," ) ) {
+					columns.put( column.trim(), column.trim() );
+				}
+			}
+			Options result = new Options(
+			    columns,
+			    IntegerCaster.cast( options.getOrDefault( KeyDictionary.batchSize, DEFAULT_BATCH_SIZE ) ),
+			    IntegerCaster.cast( options.getOrDefault( KeyDictionary.parallelism, DEFAULT_PARALLELISM ) ),
+			    BooleanCaster.cast( options.getOrDefault( KeyDictionary.directPath, false ) ),
+			    BooleanCaster.cast( options.getOrDefault( KeyDictionary.commitPerChunk, true ) ),
+			    BooleanCaster.cast( options.getOrDefault( KeyDictionary.captureErrors, false ) ),
+			    IntegerCaster.cast( options.getOrDefault( KeyDictionary.maxErrors, Integer.MAX_VALUE ) ) );
+			if ( result.batchSize() < 1 || result.parallelism() < 1 || result.maxErrors() < 0 ) {
+				throw new IllegalArgumentException( "The batchSize and parallelism must be at least 1, and maxErrors can't be negative." );
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A column to load
+	 *
+	 * @param name    The table column
+	 * @param index   The index of the value in a query row
+	 * @param sqlType The JDBC type it is bound as
+	 */
+	record Column( String name, int index, int sqlType ) {
+	}
+
+	/**
+	 * A row that couldn't be inserted
+	 *
+	 * @param row       The row of the query, starting at 1
+	 * @param errorCode The Oracle error code
+	 * @param message   The error message
+	 */
+	public record RowError( int row, int errorCode, String message ) {
+	}
+
+	/**
+	 * The outcome of a load
+	 *
+	 * @param rows           The rows of the query
+	 * @param rowsLoaded     The rows inserted
+	 * @param chunks         The batches sent
+	 * @param errors         The rows that failed, in query order, when errors are captured
+	 * @param durationMillis How long the load took
+	 */
+	public record Result( int rows, long rowsLoaded, int chunks, List<RowError> errors, long durationMillis ) {
+
+		/**
+		 * Get the outcome as a struct, with the failing rows as an array of structs
+		 *
+		 * @return The outcome
+		 */
+		public IStruct toStruct() {
+			Array failed = new Array();
+			errors.forEach( error -> failed.add( Struct.linkedOf(
+			    KeyDictionary.row, error.row(),
+			    KeyDictionary.errorCode, error.errorCode(),
+			    KeyDictionary.message, error.message() ) ) );
+			return Struct.linkedOf(
+			    KeyDictionary.rows, rows,
+			    KeyDictionary.rowsLoaded, rowsLoaded,
+			    KeyDictionary.chunks, chunks,
+			    KeyDictionary.errors, failed,
+			    KeyDictionary.durationMillis, durationMillis );
+		}
+	}
+
+	/**
+	 * Load a query into a table over connections of a datasource. No more connections are used than the pool allows.
+	 *
+	 * @param dataSource The datasource
+	 * @param query      The rows to load
+	 * @param table      The table, optionally with its schema
+	 * @param options    How to load
+	 * @param sqlTypes   Maps a query column type and a value to the JDBC type to bind it as, like the driver's
+	 *                   {@code mapParamTypeToSQLType()}
+	 *
+	 * @return The outcome
+	 *
+	 * @throws SQLException             If a chunk fails and errors aren't captured, or more rows failed than allowed
+	 * @throws IllegalArgumentException If the table or a column isn't valid
+	 */
+	public static Result load( DataSource dataSource, Query query, String table, Options options,
+	    ToIntBiFunction<QueryColumnType, Object> sqlTypes ) throws SQLException {
+		Object maxConnections = dataSource.getConfiguration().properties.get( "maxConnections" );
+		if ( maxConnections != null && IntegerCaster.cast( maxConnections ) < options.parallelism() ) {
+			options = new Options( options.columns(), options.batchSize(), Math.max( 1, IntegerCaster.cast( maxConnections ) ),
+			    options.directPath(), options.commitPerChunk(), options.captureErrors(), options.maxErrors() );
+		}
+		List<Object[]> rows = query.getData();
+		return load( dataSource::getConnection, table, columns( query, rows, options, sqlTypes ), rows, options );
+	}
+
+	/**
+	 * Pick the columns to load and their bind types
+	 */
+	static List<Column> columns( Query query, List<Object[]> rows, Options options, ToIntBiFunction<QueryColumnType, Object> sqlTypes ) {
+		Map<String, String> mapping = options.columns();
+		if ( mapping.isEmpty() ) {
+			mapping = new LinkedHashMap<>();
+			for ( Key name : query.getColumns().keySet() ) {
+				mapping.put( name.getName(), name.getName() );
+			}
+		}
+		List<Column> columns = new ArrayList<>( mapping.size() );
+		for ( Map.Entry<String, String> entry : mapping.entrySet() ) {
+			QueryColumn column = query.getColumns().get( Key.of( entry.getKey() ) );
+			if ( column == null ) {
+				throw new IllegalArgumentException( String.format( "The query has no column '%s' to load.", entry.getKey() ) );
+			}
+			Object sample = null;
+			for ( int i = 0; sample == null && i < rows.size(); i++ ) {
+				sample = rows.get( i )[ column.getIndex() ];
+			}
+			columns.add( new Column( entry.getValue(), column.getIndex(), sqlTypes.applyAsInt( column.getType(), sample ) ) );
+		}
+		return columns;
+	}
+
+	/**
+	 * Load rows into a table
+	 *
+	 * @param connections Supplies a connection per parallel loader
+	 * @param table       The table, optionally with its schema
+	 * @param columns     The columns to load
+	 * @param rows        The rows, with the column values at the column indexes
+	 * @param options     How to load
+	 *
+	 * @return The outcome
+	 *
+	 * @throws SQLException If a chunk fails and errors aren't captured, or more rows failed than allowed
+	 */
+	static Result load( ConnectionSource connections, String table, List<Column> columns, List<Object[]> rows, Options options )
+	    throws SQLException {
+		long	start		= System.nanoTime();
+		int		chunks		= ( rows.size() + options.batchSize() - 1 ) / options.batchSize();
+		// Direct-path inserts take an exclusive table lock, so more connections would only wait on each other, and a load committed
+		// as a whole needs the single transaction of one connection
+		boolean	single		= options.directPath() || !( options.commitPerChunk() || options.captureErrors() );
+		int		parallelism	= Math.min( single ? 1 : options.parallelism(), chunks );
+		Load	load		= new Load( table, columns, rows, options, chunks );
+
+		List<Connection>	opened	= new ArrayList<>( parallelism );
+		SQLException		failure	= null;
+		try {
+			for ( int i = 0; i < parallelism; i++ ) {
+				opened.add( connections.get() );
+			}
+			CompletableFuture<?>[] workers = opened.stream()
+			    .map( connection -> CompletableFuture.runAsync( () -> load.run( connection ), EXECUTOR ) )
+			    .toArray( CompletableFuture[]::new );
+			CompletableFuture.allOf( workers ).join();
+		} catch ( CompletionException e ) {
+			failure = e.getCause() instanceof SQLException sqlError ? sqlError
+			    : new SQLException( e.getCause().getMessage(), e.getCause() );
+		} catch ( SQLException e ) {
+			failure = e;
+		} finally {
+			failure = finish( opened, failure == null && load.failed.get() == null, failure );
+		}
+		if ( failure != null ) {
+			throw failure;
+		}
+
+		List<RowError> errors = new ArrayList<>( load.errors );
+		errors.sort( Comparator.comparingInt( RowError::row ) );
+		return new Result( rows.size(), load.loaded.get(), load.sent.get(), errors, ( System.nanoTime() - start ) / 1_000_000 );
+	}
+
+	/**
+	 * Commit or roll back what the connections hold, and close them
+	 */
+	private static SQLException finish( List<Connection> connections, boolean succeeded, SQLException failure ) {
+		for ( Connection connection : connections ) {
+			try ( connection ) {
+				if ( succeeded ) {
+					connection.commit();
+				} else {
+					connection.rollback();
+				}
+				connection.setAutoCommit( true );
+			} catch ( SQLException e ) {
+				if ( failure == null ) {
+					failure = e;
+				} else {
+					failure.addSuppressed( e );
+				}
+			}
+		}
+		return failure;
+	}
+
+	/**
+	 * Build the insert of a load
+	 *
+	 * @param table      The table, optionally with its schema
+	 * @param columns    The table columns
+	 * @param directPath Whether to add the {@code APPEND_VALUES} hint
+	 *
+	 * @return The insert
+	 *
+	 * @throws IllegalArgumentException If the table or a column isn't a valid name
+	 */
+	static String insertSql( String table, List<String> columns, boolean directPath ) {
+		String identifier = "(?:[A-Za-z][A-Za-z0-9_$#]*|\"[^\"]+\")";
+		if ( table == null || !table.trim().matches( identifier + "(?:\\." + identifier + ")?" ) ) {
+			throw new IllegalArgumentException( String.format( "The table '%s' is not a valid table name.", table ) );
+		}
+		if ( columns.isEmpty() ) {
+			throw new IllegalArgumentException( "At least one column to load is required." );
+		}
+		StringBuilder sql = new StringBuilder( directPath ? "INSERT /*+ APPEND_VALUES */ INTO " : "INSERT INTO " )
+		    .append( table.trim() ).append( " (" );
+		for ( int i = 0; i < columns.size(); i++ ) {
+			if ( !columns.get( i ).matches( identifier ) ) {
+				throw new IllegalArgumentException( String.format( "The column '%s' is not a valid column name.", columns.get( i ) ) );
+			}
+			sql.append( i == 0 ? " " : ", " ).append( columns.get( i ) );
+		}
+		sql.append( " ) VALUES (" );
+		for ( int i = 0; i < columns.size(); i++ ) {
+			sql.append( i == 0 ? " ?" : ", ?" );
+		}
+		return sql.append( " )" ).toString();
+	}
+
+	/**
+	 * The state the connections of a load share: they take the next chunk until none are left or one of them failed
+	 */
+	private static class Load {
+
+		private final String							sql;
+		private final String							conventionalSql;
+		private final List<Column>						columns;
+		private final List<Object[]>					rows;
+		private final Options							options;
+		private final int								chunks;
+		private final AtomicInteger						nextChunk	= new AtomicInteger();
+		private final AtomicInteger						sent		= new AtomicInteger();
+		private final AtomicLong						loaded		= new AtomicLong();
+		private final AtomicReference<SQLException>		failed		= new AtomicReference<>();
+		private final ConcurrentLinkedQueue<RowError>	errors		= new ConcurrentLinkedQueue<>();
+		private final AtomicInteger						errorCount	= new AtomicInteger();
+
+		Load( String table, List<Column> columns, List<Object[]> rows, Options options, int chunks ) {
+			List<String> names = columns.stream().map( Column::name ).toList();
+			this.sql				= insertSql( table, names, options.directPath() );
+			this.conventionalSql	= insertSql( table, names, false );
+			this.columns			= columns;
+			this.rows				= rows;
+			this.options			= options;
+			this.chunks				= chunks;
+		}
+
+		/**
+		 * Load chunks on a connection until there are none left
+		 */
+		void run( Connection connection ) {
+			try {
+				connection.setAutoCommit( false );
+				try ( PreparedStatement statement = connection.prepareStatement( sql ) ) {
+					StatementCacheStats.recordPrepared( connection, statement );
+					int chunk;
+					while ( failed.get() == null && ( chunk = nextChunk.getAndIncrement() ) < chunks ) {
+						int	from	= chunk * options.batchSize();
+						int	to		= Math.min( from + options.batchSize(), rows.size() );
+						loadChunk( connection, statement, from, to );
+						sent.incrementAndGet();
+						// Errors are captured a chunk at a time, and a direct-path insert must be committed before the next one
+						if ( options.commitPerChunk() || options.captureErrors() || options.directPath() ) {
+							connection.commit();
+						}
+					}
+				}
+			} catch ( SQLException e ) {
+				failed.compareAndSet( null, e );
+				throw new CompletionException( e );
+			}
+		}
+
+		private void loadChunk( Connection connection, PreparedStatement statement, int from, int to ) throws SQLException {
+			if ( options.captureErrors() && !options.directPath() ) {
+				insertCapturingErrors( statement, from, to );
+				return;
+			}
+			try {
+				executeBatch( statement, from, to );
+				loaded.addAndGet( to - from );
+			} catch ( BatchUpdateException e ) {
+				if ( !options.captureErrors() ) {
+					throw e;
+				}
+				// No insert can follow a direct-path one in the same transaction, start the chunk over with conventional inserts
+				statement.clearBatch();
+				connection.rollback();
+				try ( PreparedStatement conventional = connection.prepareStatement( conventionalSql ) ) {
+					insertCapturingErrors( conventional, from, to );
+				}
+			}
+		}
+
+		/**
+		 * Insert what can be inserted of a chunk, reporting the rows that fail
+		 */
+		private void insertCapturingErrors( PreparedStatement statement, int from, int to ) throws SQLException {
+			int start = from;
+			while ( start < to ) {
+				try {
+					executeBatch( statement, start, to );
+					loaded.addAndGet( to - start );
+					return;
+				} catch ( BatchUpdateException e ) {
+					statement.clearBatch();
+					int done = succeeded( e.getUpdateCounts(), to - start );
+					if ( done < 0 ) {
+						// The driver didn't say which row failed, go one row at a time
+						for ( int row = start; row < to; row++ ) {
+							try {
+								executeBatch( statement, row, row + 1 );
+								loaded.incrementAndGet();
+							} catch ( BatchUpdateException rowError ) {
+								statement.clearBatch();
+								reject( row, rowError );
+							}
+						}
+						return;
+					}
+					loaded.addAndGet( done );
+					reject( start + done, e );
+					start += done + 1;
+				}
+			}
+		}
+
+		/**
+		 * The rows of a batch inserted before the failing one, or -1 if the update counts don't tell
+		 */
+		private static int succeeded( int[] updateCounts, int batchRows ) {
+			if ( updateCounts == null || updateCounts.length >= batchRows ) {
+				return -1;
+			}
+			for ( int count : updateCounts ) {
+				if ( count == Statement.EXECUTE_FAILED ) {
+					return -1;
+				}
+			}
+			return updateCounts.length;
+		}
+
+		private void reject( int row, SQLException error ) throws SQLException {
+			if ( errorCount.incrementAndGet() > options.maxErrors() ) {
+				throw new SQLException( String.format( "More than %d rows failed to load, row %d failed with: %s", options.maxErrors(),
+				    row + 1, error.getMessage() ), error );
+			}
+			errors.add( new RowError( row + 1, error.getErrorCode(), error.getMessage() ) );
+		}
+
+		private void executeBatch( PreparedStatement statement, int from, int to ) throws SQLException {
+			for ( int row = from; row < to; row++ ) {
+				Object[] values = rows.get( row );
+				for ( int i = 0; i < columns.size(); i++ ) {
+					Column	column	= columns.get( i );
+					Object	value	= values[ column.index() ];
+					if ( value == null ) {
+						statement.setNull( i + 1, column.sqlType() );
+					} else {
+						statement.setObject( i + 1, bindable( value, column.sqlType() ), column.sqlType() );
+					}
+				}
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+
+		private static Object bindable( Object value, int sqlType ) {
+			return switch ( sqlType ) {
+				case Types.DATE, Types.TIME, Types.TIMESTAMP -> OdciList.convert( value, OdciList.DATE );
+				default -> value;
+			};
+		}
+	}
+}
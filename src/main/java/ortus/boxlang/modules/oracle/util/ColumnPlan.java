@@ -0,0 +1,162 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * The {@link ColumnTransformer} of each column of one result set, picked once from its metadata when the result set is opened. Every value
+ * is then converted by the transformer at its column's index, with no type checks per value.
+ * <p>
+ * Plans are built by the functions of this module that read their own result sets, where the result set and its columns are known. The
+ * runtime hands {@code queryExecute} values to the driver one at a time without their result set or column, so those keep the driver's
+ * per-value checks.
+ * <p>
+ * {@code TIMESTAMP WITH TIME ZONE}, {@code INTERVAL DAY TO SECOND} and {@code INTERVAL YEAR TO MONTH} columns keep the driver's
+ * Oracle types unless the datasource sets the {@code javaTimeTypes} property, which turns them into a {@code ZonedDateTime}, a
+ * {@code Duration} and a {@code Period}.
+ */
+public class ColumnPlan {
+
+	/**
+	 * The datasource property that returns date time and interval columns as {@code java.time} values
+	 */
+	public static final String		JAVA_TIME_PROPERTY	= "javaTimeTypes";
+
+	private static final Set<Key>	javaTimeDataSources	= ConcurrentHashMap.newKeySet();
+
+	private final ColumnTransformer[] transformers;
+
+	private ColumnPlan( ColumnTransformer[] transformers ) {
+		this.transformers = transformers;
+	}
+
+	/**
+	 * Register whether a datasource returns date time and interval columns as {@code java.time} values, under its unique name
+	 *
+	 * @param config The datasource configuration
+	 */
+	public static void register( DatasourceConfig config ) {
+		if ( BooleanCaster.cast( config.properties.getOrDefault( JAVA_TIME_PROPERTY, false ) ) ) {
+			javaTimeDataSources.add( config.getUniqueName() );
+		} else {
+			javaTimeDataSources.remove( config.getUniqueName() );
+		}
+	}
+
+	/**
+	 * Plan the columns of a result set, with the {@link NumberMapping} and date time setting of the datasource the connection belongs to
+	 *
+	 * @param metaData   The metadata of the result set
+	 * @param lobPolicy  How to read its LOBs
+	 * @param connection The connection the result set is read on
+	 *
+	 * @return The plan
+	 *
+	 * @throws SQLException If the metadata can't be read
+	 */
+	public static ColumnPlan of( ResultSetMetaData metaData, LobPolicy lobPolicy, Connection connection ) throws SQLException {
+		Key dataSource = dataSourceOf( connection );
+		if ( dataSource == null ) {
+			return of( metaData, lobPolicy, null, false, connection );
+		}
+		return of( metaData, lobPolicy, NumberMapping.of( dataSource ), javaTimeDataSources.contains( dataSource ), connection );
+	}
+
+	/**
+	 * Plan the columns of a result set
+	 *
+	 * @param metaData   The metadata of the result set
+	 * @param lobPolicy  How to read its LOBs
+	 * @param numbers    The number mapping of the datasource, or null if it keeps every number a BigDecimal
+	 * @param javaTime   Whether date time and interval columns are returned as {@code java.time} values
+	 * @param connection The connection the result set is read on
+	 *
+	 * @return The plan
+	 *
+	 * @throws SQLException If the metadata can't be read
+	 */
+	static ColumnPlan of( ResultSetMetaData metaData, LobPolicy lobPolicy, NumberMapping numbers, boolean javaTime,
+	    Connection connection ) throws SQLException {
+		ColumnTransformer[] transformers = new ColumnTransformer[ metaData.getColumnCount() ];
+		for ( int column = 1; column <= transformers.length; column++ ) {
+			int					sqlType		= metaData.getColumnType( column );
+			ColumnTransformer	transformer	= ColumnTransformer.forType( sqlType, lobPolicy, connection );
+			if ( transformer == null && javaTime ) {
+				transformer = ColumnTransformer.forTemporalType( sqlType );
+			}
+			if ( transformer == null && numbers != null ) {
+				transformer = numbers.forColumn( metaData, column );
+			}
+			transformers[ column - 1 ] = transformer;
+		}
+		return new ColumnPlan( transformers );
+	}
+
+	/**
+	 * Get the unique name of the datasource a connection belongs to
+	 *
+	 * @param connection The connection
+	 *
+	 * @return The unique name, or null if the connection isn't a datasource connection
+	 */
+	static Key dataSourceOf( Connection connection ) {
+		return connection instanceof BoxConnection boxConnection ? boxConnection.getDataSource().getUniqueName() : null;
+	}
+
+	/**
+	 * The number of columns
+	 *
+	 * @return The column count
+	 */
+	public int size() {
+		return transformers.length;
+	}
+
+	/**
+	 * Get the transformer of a column
+	 *
+	 * @param index The position of the column, from 0
+	 *
+	 * @return The transformer, or null if the column needs none
+	 */
+	ColumnTransformer forColumn( int index ) {
+		return transformers[ index ];
+	}
+
+	/**
+	 * Convert a value read from a column
+	 *
+	 * @param index The position of the column, from 0
+	 * @param value The value, may be null
+	 *
+	 * @return The converted value
+	 *
+	 * @throws SQLException If the value can't be read
+	 */
+	public Object transform( int index, Object value ) throws SQLException {
+		ColumnTransformer transformer = transformers[ index ];
+		return value == null || transformer == null ? value : transformer.transform( value );
+	}
+}
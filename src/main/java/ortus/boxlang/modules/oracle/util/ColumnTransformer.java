@@ -0,0 +1,117 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import oracle.jdbc.OracleTypes;
+import oracle.sql.INTERVALDS;
+import oracle.sql.INTERVALYM;
+import oracle.sql.TIMESTAMPLTZ;
+import oracle.sql.TIMESTAMPTZ;
+
+/**
+ * Converts the non-null values of one result set column to the types BoxLang works with. A {@link ColumnPlan} picks the transformer of
+ * each column once per result set from its metadata, so each cell is converted by the transformer of its column instead of going through
+ * a chain of type checks per value.
+ * <p>
+ * Columns that need no conversion have no transformer and go through the generic path. {@code TIMESTAMP WITH TIME ZONE} and interval
+ * columns keep their Oracle types unless the datasource asks for {@code java.time} values, see {@link #forTemporalType(int)}.
+ */
+@FunctionalInterface
+public interface ColumnTransformer {
+
+	/**
+	 * ROWID to its string form
+	 */
+	ColumnTransformer	ROWID_TO_STRING			= Object::toString;
+
+	/**
+	 * TIMESTAMP WITH TIME ZONE to a ZonedDateTime, keeping the zone
+	 */
+	ColumnTransformer	TIMESTAMPTZ_TO_ZONED	= value -> value instanceof TIMESTAMPTZ tz ? tz.zonedDateTimeValue() : value;
+
+	/**
+	 * INTERVAL DAY TO SECOND to a Duration
+	 */
+	ColumnTransformer	INTERVALDS_TO_DURATION	= value -> value instanceof INTERVALDS interval ? interval.getDuration() : value;
+
+	/**
+	 * INTERVAL YEAR TO MONTH to a Period
+	 */
+	ColumnTransformer	INTERVALYM_TO_PERIOD	= value -> value instanceof INTERVALYM interval ? interval.getPeriod() : value;
+
+	/**
+	 * Transform a value read from the column
+	 *
+	 * @param value The value, never null
+	 *
+	 * @return The transformed value
+	 *
+	 * @throws SQLException If the value can't be read
+	 */
+	Object transform( Object value ) throws SQLException;
+
+	/**
+	 * Get the transformer of a column type that doesn't need the connection. {@code TIMESTAMP WITH LOCAL TIME ZONE} columns have none,
+	 * they are read with the session time zone of the connection.
+	 *
+	 * @param sqlType   The type of the column, from java.sql.Types or OracleTypes
+	 * @param lobPolicy The LOB policy of the datasource
+	 *
+	 * @return The transformer, or null if values of the type need none
+	 */
+	static ColumnTransformer forType( int sqlType, LobPolicy lobPolicy ) {
+		return switch ( sqlType ) {
+			case OracleTypes.ROWID -> ROWID_TO_STRING;
+			case OracleTypes.CLOB, OracleTypes.NCLOB, OracleTypes.BLOB -> lobPolicy;
+			default -> null;
+		};
+	}
+
+	/**
+	 * Get the transformer of a column type, for result sets read on a connection held until they are done
+	 *
+	 * @param sqlType    The type of the column, from java.sql.Types or OracleTypes
+	 * @param lobPolicy  The LOB policy of the datasource
+	 * @param connection The connection the result set is read on
+	 *
+	 * @return The transformer, or null if values of the type need none
+	 */
+	static ColumnTransformer forType( int sqlType, LobPolicy lobPolicy, Connection connection ) {
+		if ( sqlType == OracleTypes.TIMESTAMPLTZ ) {
+			// Local time zone timestamps are stored normalized, the session time zone of the connection turns them back into a wall clock
+			return value -> value instanceof TIMESTAMPLTZ ltz ? ltz.timestampValue( connection ) : value;
+		}
+		return forType( sqlType, lobPolicy );
+	}
+
+	/**
+	 * Get the transformer of a date time or interval column type, for datasources that turn on {@link ColumnPlan#JAVA_TIME_PROPERTY}
+	 *
+	 * @param sqlType The type of the column, from java.sql.Types or OracleTypes
+	 *
+	 * @return The transformer to a {@code java.time} type, or null if the type has none
+	 */
+	static ColumnTransformer forTemporalType( int sqlType ) {
+		return switch ( sqlType ) {
+			case OracleTypes.TIMESTAMPTZ -> TIMESTAMPTZ_TO_ZONED;
+			case OracleTypes.INTERVALDS -> INTERVALDS_TO_DURATION;
+			case OracleTypes.INTERVALYM -> INTERVALYM_TO_PERIOD;
+			default -> null;
+		};
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+
+/**
+ * Builds an Oracle Net {@code DESCRIPTION} connect descriptor from structured datasource properties, for connections that spread across
+ * RAC nodes or SCAN listeners and fail over between them:
+ * <ul>
+ * <li>{@code hosts} - The listeners, as an array or a comma-delimited list of {@code host} or {@code host:port}. Entries without a port
+ * use the {@code port} property.</li>
+ * <li>{@code scan} - A SCAN name. The driver resolves it to every listener behind it.</li>
+ * <li>{@code loadBalance} - Spread new connections across the listeners at random. Defaults to on with more than one host.</li>
+ * <li>{@code failover} - Try the next listener when one can't be reached. Defaults to on.</li>
+ * <li>{@code connectTimeout} - Seconds to establish a connection, including the handshake</li>
+ * <li>{@code transportConnectTimeout} - Seconds to establish the TCP connection to a listener</li>
+ * <li>{@code retryCount} - How many times to go through the listeners before giving up</li>
+ * <li>{@code retryDelay} - Seconds to wait between retries</li>
+ * </ul>
+ * Datasources that set none of them keep the simple {@code //host:port/service} URL.
+ */
+public class ConnectDescriptor {
+
+	/**
+	 * The datasource properties that ask for a connect descriptor
+	 */
+	public static final List<String>	PROPERTIES	= List.of( "hosts", "scan", "loadBalance", "failover", "connectTimeout",
+	    "transportConnectTimeout", "retryCount", "retryDelay" );
+
+	private ConnectDescriptor() {
+	}
+
+	/**
+	 * Whether a datasource needs a connect descriptor instead of a simple URL
+	 *
+	 * @param config The datasource configuration
+	 *
+	 * @return True if any of the descriptor properties is set
+	 */
+	public static boolean isRequested( DatasourceConfig config ) {
+		for ( String property : PROPERTIES ) {
+			Object value = config.properties.get( property );
+			if ( value != null && ! ( value instanceof String string && string.isBlank() ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Build the connect descriptor of a datasource
+	 *
+	 * @param config      The datasource configuration
+	 * @param host        The host to use when there is no {@code hosts} or {@code scan} property
+	 * @param port        The port of hosts without one
+	 * @param serviceName The service name, or blank to connect by SID
+	 * @param sid         The SID
+	 *
+	 * @return The descriptor, like {@code (DESCRIPTION=(ADDRESS_LIST=(ADDRESS=...))(CONNECT_DATA=(SERVICE_NAME=...)))}
+	 *
+	 * @throws IllegalArgumentException If a host, port or number is not valid
+	 */
+	public static String build( DatasourceConfig config, String host, String port, String serviceName, String sid ) {
+		List<String[]> addresses = addresses( config, host, port );
+
+		StringBuilder descriptor = new StringBuilder( "(DESCRIPTION=" );
+		appendNumber( descriptor, "CONNECT_TIMEOUT", config, "connectTimeout" );
+		appendNumber( descriptor, "TRANSPORT_CONNECT_TIMEOUT", config, "transportConnectTimeout" );
+		appendNumber( descriptor, "RETRY_COUNT", config, "retryCount" );
+		appendNumber( descriptor, "RETRY_DELAY", config, "retryDelay" );
+
+		descriptor.append( "(ADDRESS_LIST=" );
+		descriptor.append( "(LOAD_BALANCE=" ).append( onOff( config, "loadBalance", addresses.size() > 1 ) ).append( ")" );
+		descriptor.append( "(FAILOVER=" ).append( onOff( config, "failover", true ) ).append( ")" );
+		for ( String[] address : addresses ) {
+			descriptor.append( "(ADDRESS=(PROTOCOL=TCP)(HOST=" ).append( address[ 0 ] ).append( ")(PORT=" ).append( address[ 1 ] ).append( "))" );
+		}
+		descriptor.append( ")" );
+
+		descriptor.append( "(CONNECT_DATA=" );
+		if ( serviceName != null && !serviceName.isBlank() ) {
+			descriptor.append( "(SERVICE_NAME=" ).append( serviceName.trim() ).append( ")" );
+		} else {
+			descriptor.append( "(SID=" ).append( sid.trim() ).append( ")" );
+		}
+		return descriptor.append( "))" ).toString();
+	}
+
+	/**
+	 * The host and port of each listener
+	 */
+	private static List<String[]> addresses( DatasourceConfig config, String host, String port ) {
+		Object			hosts	= config.properties.get( "hosts" );
+		Object			scan	= config.properties.get( "scan" );
+		List<String>	entries	= new ArrayList<>();
+		if ( hosts instanceof List<?> list ) {
+			list.forEach( entry -> entries.add( StringCaster.cast( entry ) ) );
+		} else if ( hosts != null && !StringCaster.cast( hosts ).isBlank() ) {
+			entries.addAll( List.of( StringCaster.cast( hosts ).split( "," ) ) );
+		} else if ( scan != null && !StringCaster.cast( scan ).isBlank() ) {
+			entries.add( StringCaster.cast( scan ) );
+		} else {
+			entries.add( host );
+		}
+
+		List<String[]> addresses = new ArrayList<>();
+		for ( String entry : entries ) {
+			String[] parts = entry.trim().split( ":" );
+			if ( parts[ 0 ].isBlank() || parts.length > 2 ) {
+				throw new IllegalArgumentException( String.format( "The host '%s' is not valid for the Oracle Driver. Use host or host:port.", entry ) );
+			}
+			addresses.add( new String[] { parts[ 0 ], parts.length == 2 ? validPort( parts[ 1 ], entry ) : port } );
+		}
+		return addresses;
+	}
+
+	private static String validPort( String port, String entry ) {
+		if ( !port.matches( "\\d{1,5}" ) ) {
+			throw new IllegalArgumentException( String.format( "The port of host '%s' is not valid for the Oracle Driver.", entry ) );
+		}
+		return port;
+	}
+
+	private static void appendNumber( StringBuilder descriptor, String parameter, DatasourceConfig config, String property ) {
+		Object value = config.properties.get( property );
+		if ( value == null || StringCaster.cast( value ).isBlank() ) {
+			return;
+		}
+		String number = StringCaster.cast( value ).trim();
+		if ( !number.matches( "\\d+" ) ) {
+			throw new IllegalArgumentException(
+			    String.format( "The %s '%s' is not valid for the Oracle Driver. It must be a whole number of seconds or retries.", property, number ) );
+		}
+		descriptor.append( "(" ).append( parameter ).append( "=" ).append( number ).append( ")" );
+	}
+
+	private static String onOff( DatasourceConfig config, String property, boolean defaultValue ) {
+		Object value = config.properties.get( property );
+		boolean on = value == null || StringCaster.cast( value ).isBlank() ? defaultValue : BooleanCaster.cast( value );
+		return on ? "ON" : "OFF";
+	}
+}
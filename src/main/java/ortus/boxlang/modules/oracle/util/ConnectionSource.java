@@ -0,0 +1,34 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Supplies the connections of work spread over several connections, like a pooled datasource
+ */
+@FunctionalInterface
+public interface ConnectionSource {
+
+	/**
+	 * Get a connection
+	 *
+	 * @return The connection, which the caller closes when it is done with it
+	 *
+	 * @throws SQLException If no connection can be had
+	 */
+	Connection get() throws SQLException;
+}
@@ -0,0 +1,324 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * Learns the fetch size of each query of a datasource. The thin driver fetches 10 rows per round trip unless told otherwise, so large
+ * result sets pay thousands of round trips. For every SQL statement the advisor remembers how many rows it returned and how wide its rows
+ * are, and on later executions raises the fetch size of the result set so it comes back in as few round trips as the memory budget
+ * allows.
+ * <p>
+ * The queries of {@link AsyncStatements} are learned by the SQL they were written with, and each execution is recorded on its own when
+ * its rows have been read, so executions of the same SQL running at the same time don't overwrite each other. The runtime doesn't hand
+ * the driver the statements of {@code queryExecute}, so those keep the connection's {@code defaultRowPrefetch}.
+ * <p>
+ * Advisors are registered per datasource when it starts, and are configured with these datasource properties:
+ * <ul>
+ * <li>{@code adaptiveFetchSize} - Set to false to disable it. Enabled by default.</li>
+ * <li>{@code fetchSizeMemoryBudget} - The most bytes a single round trip may buffer, default 4MB</li>
+ * <li>{@code maxFetchSize} - The largest fetch size to use, default 5000</li>
+ * </ul>
+ */
+public class FetchSizeAdvisor {
+
+	/**
+	 * The datasource property that enables adaptive fetch sizes
+	 */
+	public static final String							ADAPTIVE_PROPERTY		= "adaptiveFetchSize";
+
+	/**
+	 * The datasource property with the memory budget of a single round trip, in bytes
+	 */
+	public static final String							BUDGET_PROPERTY			= "fetchSizeMemoryBudget";
+
+	/**
+	 * The datasource property with the largest fetch size to use
+	 */
+	public static final String							MAX_PROPERTY			= "maxFetchSize";
+
+	/**
+	 * The default memory budget of a single round trip, in bytes
+	 */
+	public static final int								DEFAULT_BUDGET			= 4 * 1024 * 1024;
+
+	/**
+	 * The default largest fetch size
+	 */
+	public static final int								DEFAULT_MAX_FETCH_SIZE	= 5000;
+
+	/**
+	 * The most statements we keep statistics for, so dynamic SQL can't grow the advisor without bound
+	 */
+	private static final int							MAX_TRACKED				= 2000;
+
+	/**
+	 * The number of rows the thin driver fetches per round trip unless told otherwise
+	 */
+	static final int									DEFAULT_ROW_PREFETCH	= 10;
+
+	/**
+	 * How much a new observation moves the average row count
+	 */
+	private static final double							SMOOTHING				= 0.3;
+
+	private static final Map<Key, FetchSizeAdvisor>		advisors				= new ConcurrentHashMap<>();
+
+	private final Key									dataSourceName;
+	private final int									budget;
+	private final int									maxFetchSize;
+	private final Map<String, SqlStats>					stats					= new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param dataSourceName The name of the datasource, for inspection
+	 * @param budget         The memory budget of a single round trip, in bytes
+	 * @param maxFetchSize   The largest fetch size to use
+	 */
+	public FetchSizeAdvisor( Key dataSourceName, int budget, int maxFetchSize ) {
+		this.dataSourceName	= dataSourceName;
+		this.budget			= budget;
+		this.maxFetchSize	= maxFetchSize;
+	}
+
+	/**
+	 * Register the advisor of a datasource under its unique name, unless the datasource disables adaptive fetch sizes. An advisor already
+	 * registered for the datasource keeps what it learned.
+	 *
+	 * @param config The datasource configuration
+	 */
+	public static void register( DatasourceConfig config ) {
+		Key uniqueName = config.getUniqueName();
+		if ( !BooleanCaster.cast( config.properties.getOrDefault( ADAPTIVE_PROPERTY, true ) ) ) {
+			advisors.remove( uniqueName );
+			return;
+		}
+		int	budget			= IntegerCaster.cast( config.properties.getOrDefault( BUDGET_PROPERTY, DEFAULT_BUDGET ) );
+		int	maxFetchSize	= IntegerCaster.cast( config.properties.getOrDefault( MAX_PROPERTY, DEFAULT_MAX_FETCH_SIZE ) );
+		advisors.compute( uniqueName, ( key, existing ) -> existing != null && existing.budget == budget
+		    && existing.maxFetchSize == maxFetchSize
+		        ? existing
+		        : new FetchSizeAdvisor( config.name, budget, maxFetchSize ) );
+	}
+
+	/**
+	 * Get the advisor of a datasource
+	 *
+	 * @param dataSourceName The unique name of the datasource, or its name
+	 *
+	 * @return The advisor, or null if the datasource has none
+	 */
+	public static FetchSizeAdvisor forDataSource( Key dataSourceName ) {
+		FetchSizeAdvisor registered = advisors.get( dataSourceName );
+		if ( registered != null ) {
+			return registered;
+		}
+		for ( FetchSizeAdvisor advisor : advisors.values() ) {
+			if ( dataSourceName.equals( advisor.dataSourceName ) ) {
+				return advisor;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the advisor registered for a datasource
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The advisor, or null if there is none
+	 */
+	static FetchSizeAdvisor of( Key dataSourceUniqueName ) {
+		return advisors.get( dataSourceUniqueName );
+	}
+
+	/**
+	 * Get the advisor of the datasource a connection belongs to
+	 *
+	 * @param connection The connection
+	 *
+	 * @return The advisor, or null if the connection isn't a datasource connection or its datasource has none
+	 */
+	static FetchSizeAdvisor of( Connection connection ) {
+		Key dataSource = ColumnPlan.dataSourceOf( connection );
+		return dataSource == null ? null : advisors.get( dataSource );
+	}
+
+	/**
+	 * Get the fetch size to use for a statement
+	 *
+	 * @param sql The SQL of the statement
+	 *
+	 * @return The fetch size, or 0 if nothing has been learned yet
+	 */
+	public int adviseFetchSize( String sql ) {
+		SqlStats sqlStats = stats.get( sql );
+		return sqlStats == null ? 0 : sqlStats.fetchSize;
+	}
+
+	/**
+	 * Record a finished execution of a statement
+	 *
+	 * @param sql      The SQL of the statement
+	 * @param rows     The number of rows read
+	 * @param rowWidth The estimated width of a row, in bytes
+	 */
+	public void record( String sql, long rows, int rowWidth ) {
+		SqlStats sqlStats = statsFor( sql );
+		if ( sqlStats != null ) {
+			sqlStats.finished( rows, rowWidth, capFor( rowWidth ) );
+		}
+	}
+
+	/**
+	 * Get the fetch size to run a statement with
+	 *
+	 * @param sql       The SQL of the statement
+	 * @param fetchSize The fetch size asked for
+	 *
+	 * @return The fetch size asked for, or the learned one if it is larger
+	 */
+	public int fetchSizeFor( String sql, int fetchSize ) {
+		return Math.max( fetchSize, adviseFetchSize( sql ) );
+	}
+
+	/**
+	 * The largest fetch size rows of this width can use within the memory budget
+	 *
+	 * @param rowWidth The estimated width of a row, in bytes
+	 *
+	 * @return The fetch size cap
+	 */
+	int capFor( int rowWidth ) {
+		return Math.max( 1, Math.min( budget / Math.max( rowWidth, 1 ), maxFetchSize ) );
+	}
+
+	private SqlStats statsFor( String sql ) {
+		SqlStats sqlStats = stats.get( sql );
+		if ( sqlStats == null && stats.size() < MAX_TRACKED ) {
+			sqlStats = stats.computeIfAbsent( sql, SqlStats::new );
+		}
+		return sqlStats;
+	}
+
+	/**
+	 * Get what the advisor has learned, for inspection
+	 *
+	 * @return The learned fetch size of each statement
+	 */
+	public List<LearnedFetchSize> getLearnedSizes() {
+		List<LearnedFetchSize> result = new ArrayList<>( stats.size() );
+		for ( SqlStats sqlStats : stats.values() ) {
+			result.add( new LearnedFetchSize( sqlStats.sql, sqlStats.executions, Math.round( sqlStats.averageRows ), sqlStats.maxRows,
+			    sqlStats.rowWidth, sqlStats.fetchSize ) );
+		}
+		return result;
+	}
+
+	/**
+	 * The name of the datasource this advisor belongs to
+	 *
+	 * @return The datasource name
+	 */
+	public Key getDataSourceName() {
+		return dataSourceName;
+	}
+
+	/**
+	 * Estimate the width of a row from the declared column sizes
+	 *
+	 * @param metaData The result set metadata
+	 *
+	 * @return The estimated width, in bytes
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	static int estimateRowWidth( ResultSetMetaData metaData ) throws SQLException {
+		int width = 0;
+		for ( int i = 1; i <= metaData.getColumnCount(); i++ ) {
+			width += switch ( metaData.getColumnType( i ) ) {
+				case Types.NUMERIC, Types.DECIMAL, Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT, Types.DOUBLE, Types.FLOAT,
+				    Types.REAL -> 22;
+				case Types.DATE, Types.TIME, Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> 13;
+				// LOBs are fetched as locators plus whatever is prefetched with them
+				case Types.CLOB, Types.NCLOB, Types.BLOB -> 4000;
+				case Types.LONGVARCHAR, Types.LONGVARBINARY -> 32_768;
+				default -> Math.min( Math.max( metaData.getColumnDisplaySize( i ), 1 ), 32_767 );
+			};
+		}
+		return Math.max( width, 1 );
+	}
+
+	/**
+	 * What an advisor has learned about a statement
+	 *
+	 * @param sql         The SQL of the statement
+	 * @param executions  How many executions were observed
+	 * @param averageRows The smoothed average number of rows returned
+	 * @param maxRows     The most rows returned by one execution
+	 * @param rowWidth    The estimated width of a row, in bytes
+	 * @param fetchSize   The fetch size the next execution will use, 0 for the driver default
+	 */
+	public record LearnedFetchSize( String sql, long executions, long averageRows, long maxRows, int rowWidth, int fetchSize ) {
+	}
+
+	/**
+	 * The statistics of one statement
+	 */
+	private static class SqlStats {
+
+		private final String	sql;
+		private volatile long	executions;
+		private volatile double	averageRows;
+		private volatile long	maxRows;
+		private volatile int	rowWidth;
+		private volatile int	fetchSize;
+
+		SqlStats( String sql ) {
+			this.sql = sql;
+		}
+
+		synchronized void finished( long rows, int width, int cap ) {
+			averageRows	= executions == 0 ? rows : averageRows + SMOOTHING * ( rows - averageRows );
+			maxRows		= Math.max( maxRows, rows );
+			rowWidth	= width;
+			executions++;
+			fetchSize	= sizeFor( Math.round( averageRows ), cap );
+		}
+
+		/**
+		 * Aim to bring back a typical result in a single round trip, plus one row so the driver sees the end of the cursor. Sizes at or
+		 * below the driver default are left to the driver.
+		 */
+		private static int sizeFor( long rows, int cap ) {
+			long target = Math.min( rows + 1, cap );
+			return target > DEFAULT_ROW_PREFETCH ? ( int ) target : 0;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+
+/**
+ * Binds list parameters of {@code IN} lists as a single collection instead of one placeholder per element.
+ * <p>
+ * Expanding {@code WHERE id IN ( ? )} into {@code ?, ?, ?} gives every list length its own SQL text, so each length is hard parsed and
+ * takes its own cursor in the shared pool, and lists over 1,000 elements fail with ORA-01795. Instead the placeholder is rewritten to
+ * {@code IN ( SELECT column_value FROM TABLE( ? ) )} and the list is bound as one {@link OdciList} collection, which keeps one SQL text
+ * and one cursor whatever the length of the list, up to {@link OdciList#MAX_ELEMENTS} elements.
+ * <p>
+ * A parameter is a list when it is an array, or a struct with {@code list: true} whose value is an array or a delimited string. A struct
+ * without a {@code list} key is a list when its value is an array, and {@code list: false} always binds the value as it is. The element
+ * type comes from the {@code sqltype} of the struct, or from the values.
+ * <p>
+ * Only the statements of this module's functions are rewritten, and only their positional {@code ?} placeholders. {@code queryExecute()}
+ * expands list parameters, named ones like {@code IN ( :ids )} included, in the runtime before the driver sees the statement, and the
+ * runtime has no hook for a driver to take that expansion over, so its lists keep one placeholder per element and are still limited to
+ * 1,000 elements.
+ */
+public class InListBinder {
+
+	private static final String	COLLECTION_QUERY	= "SELECT column_value FROM TABLE( ? )";
+
+	private InListBinder() {
+	}
+
+	/**
+	 * A statement with its list parameters bound as collections
+	 *
+	 * @param sql    The rewritten SQL
+	 * @param params The parameters, with collections in place of the lists
+	 */
+	public record Bound( String sql, List<?> params ) {
+	}
+
+	/**
+	 * Rewrite the {@code IN} lists of a statement whose parameters are lists, and bind the lists as collections
+	 *
+	 * @param connection The connection the statement runs on
+	 * @param sql        The statement, with {@code ?} placeholders
+	 * @param params     The positional parameter values, as values or structs with a {@code value} key
+	 *
+	 * @return The statement and parameters to run. Statements without list parameters are returned as they are.
+	 *
+	 * @throws SQLException             If a collection can't be created
+	 * @throws IllegalArgumentException If a list parameter isn't the only item of an {@code IN} list, or has too many elements
+	 */
+	public static Bound bind( Connection connection, String sql, List<?> params ) throws SQLException {
+		boolean[]	lists	= new boolean[ params.size() ];
+		boolean		any		= false;
+		for ( int i = 0; i < lists.length; i++ ) {
+			lists[ i ]	= isList( params.get( i ) );
+			any			= any || lists[ i ];
+		}
+		if ( !any ) {
+			return new Bound( sql, params );
+		}
+
+		List<Object> bound = new ArrayList<>( params );
+		for ( int i = 0; i < lists.length; i++ ) {
+			if ( lists[ i ] ) {
+				List<?> values = values( params.get( i ) );
+				if ( values.size() > OdciList.MAX_ELEMENTS ) {
+					throw new IllegalArgumentException( String.format( "The list parameter %d has %d elements, the most an IN list can bind is %d.",
+					    i + 1, values.size(), OdciList.MAX_ELEMENTS ) );
+				}
+				bound.set( i, typeOf( params.get( i ), values ).create( connection, values ) );
+			}
+		}
+		return new Bound( rewrite( sql, lists ), bound );
+	}
+
+	/**
+	 * Rewrite the placeholders of list parameters to select from a collection
+	 *
+	 * @param sql   The statement, with {@code ?} placeholders
+	 * @param lists Whether each placeholder is a list
+	 *
+	 * @return The rewritten statement
+	 *
+	 * @throws IllegalArgumentException If a list placeholder isn't the only item of an {@code IN} list
+	 */
+	static String rewrite( String sql, boolean[] lists ) {
+		List<Integer>	placeholders	= SqlText.placeholders( sql );
+		StringBuilder	rewritten		= new StringBuilder( sql.length() + 32 * lists.length );
+		int				last			= 0;
+		for ( int p = 0; p < placeholders.size() && p < lists.length; p++ ) {
+			if ( !lists[ p ] ) {
+				continue;
+			}
+			int at = placeholders.get( p );
+			if ( !isInList( sql, at ) ) {
+				throw new IllegalArgumentException(
+				    String.format( "The list parameter %d must be the only item of an IN list, as in 'IN ( ? )', to be bound as a collection.", p + 1 ) );
+			}
+			rewritten.append( sql, last, at ).append( COLLECTION_QUERY );
+			last = at + 1;
+		}
+		return rewritten.append( sql, last, sql.length() ).toString();
+	}
+
+	/**
+	 * Whether the placeholder at an index is the only item between {@code IN (} and {@code )}
+	 */
+	private static boolean isInList( String sql, int at ) {
+		int after = at + 1;
+		while ( after < sql.length() && Character.isWhitespace( sql.charAt( after ) ) ) {
+			after++;
+		}
+		int before = at - 1;
+		while ( before >= 0 && Character.isWhitespace( sql.charAt( before ) ) ) {
+			before--;
+		}
+		if ( after >= sql.length() || sql.charAt( after ) != ')' || before < 0 || sql.charAt( before ) != '(' ) {
+			return false;
+		}
+		before--;
+		while ( before >= 0 && Character.isWhitespace( sql.charAt( before ) ) ) {
+			before--;
+		}
+		return before >= 1 && sql.regionMatches( true, before - 1, "IN", 0, 2 )
+		    && ( before < 2 || !Character.isLetterOrDigit( sql.charAt( before - 2 ) ) && sql.charAt( before - 2 ) != '_' );
+	}
+
+	/**
+	 * Whether a parameter is a list: an array, or a struct whose {@code list} flag says so, or whose value is an array when it has no flag
+	 */
+	static boolean isList( Object param ) {
+		if ( ! ( param instanceof IStruct struct ) ) {
+			return param instanceof List;
+		}
+		Object list = struct.get( Key.list );
+		return list != null ? BooleanCaster.cast( list ) : struct.get( Key.value ) instanceof List;
+	}
+
+	private static List<?> values( Object param ) {
+		Object value = param instanceof IStruct struct ? struct.get( Key.value ) : param;
+		if ( value instanceof List<?> list ) {
+			return list;
+		}
+		if ( value == null ) {
+			return List.of();
+		}
+		String separator = param instanceof IStruct struct && struct.get( KeyDictionary.separator ) != null
+		    ? StringCaster.cast( struct.get( KeyDictionary.separator ) )
+		    : ",";
+		return Arrays.stream( StringCaster.cast( value ).split( Pattern.quote( separator ) ) ).map( String::trim ).toList();
+	}
+
+	private static OdciList typeOf( Object param, List<?> values ) {
+		if ( param instanceof IStruct struct && struct.get( Key.sqltype ) != null ) {
+			return OdciList.of( StringCaster.cast( struct.get( Key.sqltype ) ) );
+		}
+		for ( Object value : values ) {
+			OdciList type = OdciList.ofValue( value );
+			if ( type != null ) {
+				return type;
+			}
+		}
+		return OdciList.VARCHAR;
+	}
+}
@@ -21,6 +21,52 @@ import ortus.boxlang.runtime.scopes.Key;
  */
 public class KeyDictionary {
 
-	public static final Key moduleName = new Key( "oracle" );
+	public static final Key	moduleName				= new Key( "oracle" );
+
+	// OracleStreamProc
+	public static final Key	callback				= new Key( "callback" );
+	public static final Key	cursors					= new Key( "cursors" );
+	public static final Key	fetchSize				= new Key( "fetchSize" );
+	public static final Key	outParams				= new Key( "outParams" );
+	public static final Key	procedure				= new Key( "procedure" );
+	public static final Key	procResults				= new Key( "procResults" );
+
+	// OracleExecuteAsync
+	public static final Key	statements				= new Key( "statements" );
+
+	// OracleExecuteReturning
+	public static final Key	returning				= new Key( "returning" );
+
+	// InListBinder
+	public static final Key	separator				= new Key( "separator" );
+
+	// OracleBulkLoad
+	public static final Key	batchSize				= new Key( "batchSize" );
+	public static final Key	captureErrors			= new Key( "captureErrors" );
+	public static final Key	chunks					= new Key( "chunks" );
+	public static final Key	commitPerChunk			= new Key( "commitPerChunk" );
+	public static final Key	directPath				= new Key( "directPath" );
+	public static final Key	errorCode				= new Key( "errorCode" );
+	public static final Key	errors					= new Key( "errors" );
+	public static final Key	maxErrors				= new Key( "maxErrors" );
+	public static final Key	message					= new Key( "message" );
+	public static final Key	parallelism				= new Key( "parallelism" );
+	public static final Key	row						= new Key( "row" );
+	public static final Key	rows					= new Key( "rows" );
+	public static final Key	rowsLoaded				= new Key( "rowsLoaded" );
+
+	// OracleParallelRead
+	public static final Key	bufferRows				= new Key( "bufferRows" );
+	public static final Key	ordered					= new Key( "ordered" );
+	public static final Key	ranges					= new Key( "ranges" );
+	public static final Key	where					= new Key( "where" );
+
+	// ProcMetrics interception points
+	public static final Key	onOracleProcMetaLoad	= new Key( "onOracleProcMetaLoad" );
+	public static final Key	onOracleProcMetaEvict	= new Key( "onOracleProcMetaEvict" );
+	public static final Key	durationMillis			= new Key( "durationMillis" );
+	public static final Key	error					= new Key( "error" );
+	public static final Key	overloads				= new Key( "overloads" );
+	public static final Key	reason					= new Key( "reason" );
 
 }
@@ -0,0 +1,153 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * Decides how the CLOB and BLOB values of a datasource are returned. By default every LOB is read into a string or byte array and its
+ * locator is freed, as the runtime does. LOBs within the driver's LOB prefetch (the {@code oracle.jdbc.defaultLobPrefetchSize} custom
+ * param, which the workload profiles set to {@link #PREFETCH_SIZE}) come back with the row, so reading them costs no extra round trip.
+ * <p>
+ * Setting the {@code lobInlineThreshold} datasource property (in characters for CLOBs and bytes for BLOBs) opts in to locators: larger
+ * LOBs are returned as their locator, untouched, so the caller can stream them with {@code getCharacterStream()} or
+ * {@code getBinaryStream()} and nothing is copied until it is read. A locator is only valid while its connection is held, so it must be
+ * read before the connection goes back to the pool, for example inside a {@code transaction} block.
+ * <p>
+ * Policies are registered per datasource when it starts. A negative threshold inlines every LOB.
+ */
+public class LobPolicy implements ColumnTransformer {
+
+	/**
+	 * The datasource property with the largest LOB to read inline
+	 */
+	public static final String					THRESHOLD_PROPERTY	= "lobInlineThreshold";
+
+	/**
+	 * The default largest LOB to read inline: all of them
+	 */
+	public static final int						DEFAULT_THRESHOLD	= -1;
+
+	/**
+	 * The LOB prefetch size of the workload profiles, in characters for CLOBs and bytes for BLOBs
+	 */
+	public static final int						PREFETCH_SIZE		= 32_768;
+
+	/**
+	 * The policy of connections whose datasource wasn't built by this driver
+	 */
+	public static final LobPolicy				DEFAULT				= new LobPolicy( DEFAULT_THRESHOLD );
+
+	private static final Map<Key, LobPolicy>		policies			= new ConcurrentHashMap<>();
+
+	private final int							threshold;
+
+	/**
+	 * Constructor
+	 *
+	 * @param threshold The largest LOB to read inline, or a negative number to read all of them inline
+	 */
+	public LobPolicy( int threshold ) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Register the LOB policy of a datasource under its unique name
+	 *
+	 * @param config The datasource configuration
+	 */
+	public static void register( DatasourceConfig config ) {
+		int threshold = IntegerCaster.cast( config.properties.getOrDefault( THRESHOLD_PROPERTY, DEFAULT_THRESHOLD ) );
+		policies.put( config.getUniqueName(), threshold == DEFAULT_THRESHOLD ? DEFAULT : new LobPolicy( threshold ) );
+	}
+
+	/**
+	 * Get the LOB policy registered for a datasource
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The policy, or the default one if there is none
+	 */
+	static LobPolicy of( Key dataSourceUniqueName ) {
+		return policies.getOrDefault( dataSourceUniqueName, DEFAULT );
+	}
+
+	/**
+	 * Get the LOB policy of the datasource a connection belongs to
+	 *
+	 * @param connection The connection, may be null
+	 *
+	 * @return The policy, or the default one if the connection isn't a datasource connection
+	 */
+	public static LobPolicy of( Connection connection ) {
+		Key dataSource = ColumnPlan.dataSourceOf( connection );
+		return dataSource == null ? DEFAULT : of( dataSource );
+	}
+
+	/**
+	 * The largest LOB read inline
+	 *
+	 * @return The threshold, in characters for CLOBs and bytes for BLOBs
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Read a LOB inline if it is within the threshold, or leave it as a locator to be streamed
+	 *
+	 * @param value The value read from the result set
+	 *
+	 * @return A string for small CLOBs, a byte array for small BLOBs, the value itself otherwise
+	 *
+	 * @throws SQLException If the LOB can't be read
+	 */
+	@Override
+	public Object transform( Object value ) throws SQLException {
+		// The length comes back with the locator, asking for it doesn't cost a round trip
+		if ( value instanceof Clob clob ) {
+			long length = clob.length();
+			if ( !inline( length ) ) {
+				return clob;
+			}
+			String text = clob.getSubString( 1, ( int ) length );
+			clob.free();
+			return text;
+		}
+		if ( value instanceof Blob blob ) {
+			long length = blob.length();
+			if ( !inline( length ) ) {
+				return blob;
+			}
+			byte[] bytes = blob.getBytes( 1, ( int ) length );
+			blob.free();
+			return bytes;
+		}
+		return value;
+	}
+
+	private boolean inline( long length ) {
+		return threshold < 0 ? length <= Integer.MAX_VALUE : length <= threshold;
+	}
+}
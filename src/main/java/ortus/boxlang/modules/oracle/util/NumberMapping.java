@@ -0,0 +1,174 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import oracle.jdbc.OracleTypes;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.BooleanCaster;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * Narrows Oracle {@code NUMBER} columns to the smallest Java type that holds every value their declaration allows. Oracle returns every
+ * {@code NUMBER} as a {@link BigDecimal}, which is slow to compare and hash when the column is really an ID or a counter. With the
+ * {@code narrowNumbers} datasource property on, the precision and scale of each column pick its type once per result set:
+ * <ul>
+ * <li>{@code NUMBER(p,0)} with {@code p <= 9} becomes an Integer</li>
+ * <li>{@code NUMBER(p,0)} with {@code p <= 18} becomes a Long</li>
+ * <li>{@code FLOAT}, {@code BINARY_FLOAT} and {@code BINARY_DOUBLE} become a Double</li>
+ * </ul>
+ * Undeclared {@code NUMBER}s, wider integers and decimals with a scale stay BigDecimals, and so does any value that doesn't fit its
+ * narrowed type exactly, like a fraction or a wider number read through a view. Every column is narrowed by its own declaration, so a
+ * column reads as the same type whatever other columns are selected with it.
+ */
+public class NumberMapping {
+
+	/**
+	 * The datasource property that turns narrowing on
+	 */
+	public static final String						PROPERTY			= "narrowNumbers";
+
+	/**
+	 * The widest integer precision that always fits an int
+	 */
+	static final int								MAX_INT_PRECISION	= 9;
+
+	/**
+	 * The widest integer precision that always fits a long
+	 */
+	static final int								MAX_LONG_PRECISION	= 18;
+
+	/**
+	 * The scale Oracle reports for floating point numbers, and for NUMBER without a precision
+	 */
+	private static final int						FLOATING_SCALE		= -127;
+
+	private static final ColumnTransformer			TO_INT				= NumberMapping::toInt;
+	private static final ColumnTransformer			TO_LONG				= NumberMapping::toLong;
+	private static final ColumnTransformer			TO_DOUBLE			= value -> value instanceof Number number ? number.doubleValue() : value;
+
+	private static final Map<Key, NumberMapping>	mappings			= new ConcurrentHashMap<>();
+
+	/**
+	 * Register the number mapping of a datasource under its unique name, if the datasource turns narrowing on
+	 *
+	 * @param config The datasource configuration
+	 */
+	public static void register( DatasourceConfig config ) {
+		if ( BooleanCaster.cast( config.properties.getOrDefault( PROPERTY, false ) ) ) {
+			mappings.computeIfAbsent( config.getUniqueName(), key -> new NumberMapping() );
+		} else {
+			mappings.remove( config.getUniqueName() );
+		}
+	}
+
+	/**
+	 * Get the number mapping registered for a datasource
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The mapping, or null if the datasource keeps every number a BigDecimal
+	 */
+	static NumberMapping of( Key dataSourceUniqueName ) {
+		return mappings.get( dataSourceUniqueName );
+	}
+
+	/**
+	 * Get the transformer that narrows the values of a numeric column
+	 *
+	 * @param metaData The metadata of the result set
+	 * @param column   The column, from 1
+	 *
+	 * @return The transformer, or null if the column isn't numeric or can't be narrowed
+	 *
+	 * @throws SQLException If the metadata can't be read
+	 */
+	public ColumnTransformer forColumn( ResultSetMetaData metaData, int column ) throws SQLException {
+		int sqlType = metaData.getColumnType( column );
+		if ( sqlType == OracleTypes.BINARY_FLOAT || sqlType == OracleTypes.BINARY_DOUBLE || sqlType == Types.FLOAT ) {
+			return TO_DOUBLE;
+		}
+		if ( sqlType != Types.NUMERIC && sqlType != Types.DECIMAL ) {
+			return null;
+		}
+		return forPrecision( metaData.getPrecision( column ), metaData.getScale( column ) );
+	}
+
+	/**
+	 * Get the transformer for a NUMBER of a given precision and scale
+	 *
+	 * @param precision The declared precision, 0 if there is none
+	 * @param scale     The declared scale, -127 for floating point numbers
+	 *
+	 * @return The transformer, or null if the values must stay BigDecimals
+	 */
+	static ColumnTransformer forPrecision( int precision, int scale ) {
+		if ( precision <= 0 ) {
+			return null;
+		}
+		if ( scale == FLOATING_SCALE ) {
+			return TO_DOUBLE;
+		}
+		if ( scale != 0 ) {
+			return null;
+		}
+		if ( precision <= MAX_INT_PRECISION ) {
+			return TO_INT;
+		}
+		return precision <= MAX_LONG_PRECISION ? TO_LONG : null;
+	}
+
+	/**
+	 * Narrow a value to an int, if it is a whole number in range
+	 *
+	 * @param value The value read from the column
+	 *
+	 * @return The int, or the value itself if it doesn't fit one exactly
+	 */
+	private static Object toInt( Object value ) {
+		if ( value instanceof BigDecimal decimal ) {
+			try {
+				return decimal.intValueExact();
+			} catch ( ArithmeticException e ) {
+				// A fraction or out of range, keep every digit
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Narrow a value to a long, if it is a whole number in range
+	 *
+	 * @param value The value read from the column
+	 *
+	 * @return The long, or the value itself if it doesn't fit one exactly
+	 */
+	private static Object toLong( Object value ) {
+		if ( value instanceof BigDecimal decimal ) {
+			try {
+				return decimal.longValueExact();
+			} catch ( ArithmeticException e ) {
+				// A fraction or out of range, keep every digit
+			}
+		}
+		return value;
+	}
+}
@@ -0,0 +1,208 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.List;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OracleTypes;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+
+/**
+ * The built-in SQL collection types every Oracle database has, used to bind a list of values as one parameter: {@code SYS.ODCINUMBERLIST},
+ * {@code SYS.ODCIDATELIST} and {@code SYS.ODCIVARCHAR2LIST}. They are varrays of up to 32,767 elements, and strings are limited to 4,000
+ * bytes.
+ */
+public enum OdciList {
+
+	NUMBER( "SYS.ODCINUMBERLIST", Types.NUMERIC ),
+	DATE( "SYS.ODCIDATELIST", Types.TIMESTAMP ),
+	VARCHAR( "SYS.ODCIVARCHAR2LIST", Types.VARCHAR );
+
+	/**
+	 * The most elements a collection holds
+	 */
+	public static final int	MAX_ELEMENTS	= 32_767;
+
+	private final String	collectionType;
+	private final int		elementType;
+
+	OdciList( String collectionType, int elementType ) {
+		this.collectionType	= collectionType;
+		this.elementType	= elementType;
+	}
+
+	/**
+	 * Get the SQL type of the collection
+	 *
+	 * @return The fully qualified collection type
+	 */
+	public String getCollectionType() {
+		return this.collectionType;
+	}
+
+	/**
+	 * Get the JDBC type to bind a single element as
+	 *
+	 * @return The type, from java.sql.Types
+	 */
+	public int getElementType() {
+		return this.elementType;
+	}
+
+	/**
+	 * Whether a value fits an element of this collection type without losing anything. {@code SYS.ODCIDATELIST} holds {@code DATE}s,
+	 * which have neither fractional seconds nor a time zone.
+	 *
+	 * @param value The value
+	 *
+	 * @return False for a date time with fractional seconds or a zone going into a date list
+	 */
+	boolean holds( Object value ) {
+		if ( this != DATE ) {
+			return true;
+		}
+		if ( value instanceof Timestamp timestamp ) {
+			return timestamp.getNanos() == 0;
+		}
+		if ( value instanceof TemporalAccessor temporal ) {
+			return !temporal.isSupported( ChronoField.OFFSET_SECONDS )
+			    && ( !temporal.isSupported( ChronoField.NANO_OF_SECOND ) || temporal.getLong( ChronoField.NANO_OF_SECOND ) == 0 );
+		}
+		return true;
+	}
+
+	/**
+	 * Get the collection type for a BoxLang or JDBC type name, like {@code integer}, {@code timestamp} or {@code varchar}
+	 *
+	 * @param typeName The type name
+	 *
+	 * @return The collection type. Anything that isn't numeric or a date is a string.
+	 */
+	public static OdciList of( String typeName ) {
+		return switch ( typeName.trim().toLowerCase().replace( "cf_sql_", "" ) ) {
+			case "number", "numeric", "decimal", "integer", "int", "bigint", "smallint", "tinyint", "double", "float", "real", "bit",
+			    "boolean" -> NUMBER;
+			case "date", "time", "timestamp", "datetime" -> DATE;
+			default -> VARCHAR;
+		};
+	}
+
+	/**
+	 * Get the collection type that fits a value
+	 *
+	 * @param value The value
+	 *
+	 * @return The collection type, or null if the value is null
+	 */
+	static OdciList ofValue( Object value ) {
+		if ( value == null ) {
+			return null;
+		}
+		if ( value instanceof Number || value instanceof Boolean ) {
+			return NUMBER;
+		}
+		if ( value instanceof Date || value instanceof TemporalAccessor ) {
+			return DATE;
+		}
+		return VARCHAR;
+	}
+
+	/**
+	 * Get the collection type that holds values of a column type
+	 *
+	 * @param sqlType The type of the column, from java.sql.Types
+	 *
+	 * @return The collection type. Anything that isn't numeric or a date is a string.
+	 */
+	static OdciList ofSqlType( int sqlType ) {
+		return switch ( sqlType ) {
+			case Types.NUMERIC, Types.DECIMAL, Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT, Types.DOUBLE, Types.FLOAT,
+			    Types.REAL, Types.BIT, Types.BOOLEAN, OracleTypes.BINARY_FLOAT, OracleTypes.BINARY_DOUBLE -> NUMBER;
+			case Types.DATE, Types.TIME, Types.TIMESTAMP -> DATE;
+			default -> VARCHAR;
+		};
+	}
+
+	/**
+	 * Create a collection of this type
+	 *
+	 * @param connection The connection to create it on
+	 * @param values     The values, converted to what the collection holds
+	 *
+	 * @return The collection, ready to bind
+	 *
+	 * @throws SQLException If the collection can't be created
+	 */
+	public java.sql.Array create( Connection connection, List<?> values ) throws SQLException {
+		Object[] elements = new Object[ values.size() ];
+		for ( int i = 0; i < elements.length; i++ ) {
+			elements[ i ] = convert( values.get( i ), this );
+		}
+		return connection.unwrap( OracleConnection.class ).createOracleArray( this.collectionType, elements );
+	}
+
+	/**
+	 * Convert a value to what the collection of a type holds
+	 *
+	 * @param value The value
+	 * @param type  The collection type
+	 *
+	 * @return The element
+	 */
+	static Object convert( Object value, OdciList type ) {
+		if ( value == null ) {
+			return null;
+		}
+		return switch ( type ) {
+			case NUMBER -> value instanceof Boolean bool ? ( bool ? 1 : 0 )
+			    : value instanceof Number ? value
+			    : new BigDecimal( StringCaster.cast( value ).trim() );
+			case DATE -> toTimestamp( value );
+			case VARCHAR -> StringCaster.cast( value );
+		};
+	}
+
+	private static Object toTimestamp( Object value ) {
+		if ( value instanceof Timestamp ) {
+			return value;
+		}
+		if ( value instanceof Date date ) {
+			return new Timestamp( date.getTime() );
+		}
+		if ( value instanceof LocalDateTime dateTime ) {
+			return Timestamp.valueOf( dateTime );
+		}
+		if ( value instanceof LocalDate date ) {
+			return Timestamp.valueOf( date.atStartOfDay() );
+		}
+		if ( value instanceof TemporalAccessor temporal && temporal.isSupported( ChronoField.INSTANT_SECONDS ) ) {
+			return Timestamp.from( Instant.from( temporal ) );
+		}
+		// Left to the session NLS_DATE_FORMAT
+		return StringCaster.cast( value );
+	}
+}
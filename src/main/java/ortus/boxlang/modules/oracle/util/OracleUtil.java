@@ -14,17 +14,25 @@
  */
 package ortus.boxlang.modules.oracle.util;
 
-import java.sql.CallableStatement;
+import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import ortus.boxlang.runtime.BoxRuntime;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
 import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
 import ortus.boxlang.runtime.scopes.Key;
 
 /**
@@ -32,16 +40,110 @@ import ortus.boxlang.runtime.scopes.Key;
  */
 public class OracleUtil {
 
-	public static final Key			inKey			= Key.of( "in" );
-	public static final Key			outKey			= Key.of( "out" );
-	public static final Key			inoutKey		= Key.of( "inout" );
+	public static final Key				inKey				= Key.of( "in" );
+	public static final Key				outKey				= Key.of( "out" );
+	public static final Key				inoutKey			= Key.of( "inout" );
 
-	// TODO: switch to cache
-	private static Map<Key, Proc>	procMetaCache	= new ConcurrentHashMap<>();
-	private static final Object		cacheLock		= new Object();
+	private static final ProcMetaCache	procMetaCache		= new ProcMetaCache();
 
 	/**
-	 * Get stored procedure metadata, using caching
+	 * The largest IN list Oracle accepts (ORA-01795)
+	 */
+	private static final int			MAX_IN_LIST			= 1000;
+
+	/**
+	 * The ALL_ARGUMENTS data types of collection parameters that can be bound from an array: nested tables, varrays and index-by tables
+	 */
+	private static final Set<String>	COLLECTION_TYPES	= Set.of( "TABLE", "VARRAY", "PL/SQL TABLE", "PL/SQL INDEX TABLE", "ASSOCIATIVE ARRAY" );
+
+	/**
+	 * The datasource property that lists the schemas and packages to prewarm
+	 */
+	public static final String			PREWARM_PROPERTY	= "procMetaPrewarm";
+
+	/**
+	 * Reads every procedure and function argument of a set of owners/packages in one scan. ${filter} is replaced with the owner and
+	 * package predicates.
+	 */
+	private static final String			PREWARM_SQL			= """
+	                                                          SELECT o.OBJECT_ID,
+	                                                          	o.OWNER,
+	                                                          	o.LAST_DDL_TIME,
+	                                                          	o.STATUS,
+	                                                          	a.PACKAGE_NAME,
+	                                                          	a.OBJECT_NAME,
+	                                                          	SYS_CONTEXT( 'USERENV', 'CURRENT_SCHEMA' ) AS CURRENT_SCHEMA,
+	                                                          	a.POSITION,
+	                                                          	a.ARGUMENT_NAME,
+	                                                          	a.DATA_TYPE,
+	                                                          	a.IN_OUT,
+	                                                          	a.DATA_LEVEL,
+	                                                          	a.TYPE_OWNER,
+	                                                          	a.TYPE_NAME,
+	                                                          	a.TYPE_SUBNAME,
+	                                                          	TO_NUMBER( a.OVERLOAD ) AS OVERLOAD
+	                                                          FROM SYS.ALL_OBJECTS o
+	                                                          	JOIN SYS.ALL_ARGUMENTS a
+	                                                          		ON a.OBJECT_ID = o.OBJECT_ID
+	                                                          		AND a.DATA_LEVEL <= 1
+	                                                          WHERE o.OBJECT_TYPE IN ( 'PACKAGE', 'PROCEDURE', 'FUNCTION' )
+	                                                          	AND ( ${filter} )
+	                                                          ORDER BY o.OBJECT_ID, a.OBJECT_NAME, OVERLOAD, a.SEQUENCE
+	                                                          """;
+
+	/**
+	 * Resolves a procedure name and reads its arguments and object version in one statement. The inline function wraps
+	 * DBMS_UTILITY.NAME_RESOLVE (context 1 is procedure/function) since it only returns its results through OUT parameters. It returns the
+	 * object number and the subprogram from a single call, and the materialized CTE keeps it from running again for every joined row.
+	 */
+	private static final String			PROC_META_SQL		= """
+	                                                          WITH
+	                                                          	FUNCTION resolve_name( p_name IN VARCHAR2 ) RETURN VARCHAR2 IS
+	                                                          		l_schema        VARCHAR2( 128 );
+	                                                          		l_part1         VARCHAR2( 128 );
+	                                                          		l_part2         VARCHAR2( 128 );
+	                                                          		l_dblink        VARCHAR2( 128 );
+	                                                          		l_part1_type    NUMBER;
+	                                                          		l_object_number NUMBER;
+	                                                          	BEGIN
+	                                                          		dbms_utility.name_resolve( p_name, 1, l_schema, l_part1, l_part2, l_dblink, l_part1_type, l_object_number );
+	                                                          		RETURN TO_CHAR( l_object_number ) || ':' || l_part2;
+	                                                          	END;
+	                                                          resolved AS (
+	                                                          	SELECT /*+ MATERIALIZE */ resolve_name( ? ) AS NAME FROM dual
+	                                                          ),
+	                                                          target AS (
+	                                                          	SELECT TO_NUMBER( SUBSTR( r.NAME, 1, INSTR( r.NAME, ':' ) - 1 ) ) AS OBJECT_ID,
+	                                                          		SUBSTR( r.NAME, INSTR( r.NAME, ':' ) + 1 ) AS OBJECT_NAME
+	                                                          	FROM resolved r
+	                                                          )
+	                                                          SELECT UNIQUE t.OBJECT_ID AS RESOLVED_OBJECT_ID,
+	                                                          	t.OBJECT_NAME AS RESOLVED_NAME,
+	                                                          	o.LAST_DDL_TIME,
+	                                                          	o.STATUS,
+	                                                          	a.POSITION,
+	                                                          	a.ARGUMENT_NAME,
+	                                                          	a.DATA_TYPE,
+	                                                          	a.IN_OUT,
+	                                                          	a.SEQUENCE,
+	                                                          	a.DATA_LEVEL,
+	                                                          	a.TYPE_OWNER,
+	                                                          	a.TYPE_NAME,
+	                                                          	a.TYPE_SUBNAME,
+	                                                          	TO_NUMBER( a.OVERLOAD ) AS OVERLOAD
+	                                                          FROM target t
+	                                                          	JOIN SYS.ALL_OBJECTS o
+	                                                          		ON o.OBJECT_ID = t.OBJECT_ID
+	                                                          	LEFT JOIN SYS.ALL_ARGUMENTS a
+	                                                          		ON a.OBJECT_ID = t.OBJECT_ID
+	                                                          		AND a.OBJECT_NAME = t.OBJECT_NAME
+	                                                          		AND a.DATA_LEVEL <= 1
+	                                                          ORDER BY OVERLOAD, SEQUENCE
+	                                                          """;
+
+	/**
+	 * Get stored procedure metadata, using caching. Every spelling of a procedure name shares one cached definition, and a cached name is
+	 * looked up as is, without building a key.
 	 * 
 	 * @param connection The BoxConnection instance
 	 * @param procName   The name of the stored procedure
@@ -51,118 +153,570 @@ public class OracleUtil {
 	 * @throws SQLException If a database access error occurs
 	 */
 	public static Proc getProcMeta( BoxConnection connection, String procName ) throws SQLException {
-		Key		cacheKey	= Key.of( connection.getDataSource().getUniqueName().getName() + procName );
-		Proc	proc		= procMetaCache.get( cacheKey );
-		if ( proc == null ) {
-			synchronized ( cacheLock ) {
-				proc = procMetaCache.get( cacheKey );
-				if ( proc == null ) {
-					proc = buildProcMeta( connection, procName );
-					procMetaCache.put( cacheKey, proc );
+		return procMetaCache.getOrLoad( connection, procName, OracleUtil::buildProcMeta );
+	}
+
+	/**
+	 * Get the call plans compiled for a stored procedure definition returned by {@link #getProcMeta(BoxConnection, String)}
+	 *
+	 * @param proc The Proc metadata
+	 *
+	 * @return The call plans of its cache entry, or null if the definition has been reloaded or evicted since
+	 */
+	public static ProcCallPlans getProcCallPlans( Proc proc ) {
+		return procMetaCache.callPlans( proc );
+	}
+
+	/**
+	 * Prewarm the stored procedure metadata cache for the schemas and packages listed in the {@code procMetaPrewarm} property of a
+	 * datasource. Does nothing if the property is not set.
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return The prewarm result, or null if the datasource has nothing to prewarm
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	public static PrewarmResult prewarmProcMeta( DataSource dataSource ) throws SQLException {
+		List<String> targets = getPrewarmTargets( dataSource );
+		if ( targets.isEmpty() ) {
+			return null;
+		}
+		try ( BoxConnection conn = dataSource.getBoxConnection() ) {
+			return prewarmProcMeta( conn, targets );
+		}
+	}
+
+	/**
+	 * Warm up the stored procedure metadata cache of every global datasource that has a {@code procMetaSnapshotPath} or
+	 * {@code procMetaPrewarm} property: its snapshot is restored first, then its schemas and packages are prewarmed. This is run in the
+	 * background when the module loads so the definitions are cached before any traffic arrives. Failures are logged per datasource.
+	 *
+	 * @return The prewarm results
+	 */
+	public static List<PrewarmResult> prewarmConfiguredDatasources() {
+		BoxRuntime			runtime	= BoxRuntime.getInstance();
+		List<PrewarmResult>	results	= new ArrayList<>();
+		for ( DatasourceConfig config : runtime.getConfiguration().datasources.values() ) {
+			if ( !config.properties.containsKey( PREWARM_PROPERTY )
+			    && !config.properties.containsKey( ProcMetaCache.SNAPSHOT_PATH_PROPERTY ) ) {
+				continue;
+			}
+			try {
+				DataSource dataSource = runtime.getDataSourceService().register( config );
+				procMetaCache.restoreSnapshot( dataSource );
+				PrewarmResult result = prewarmProcMeta( dataSource );
+				if ( result != null ) {
+					results.add( result );
 				}
+			} catch ( Exception e ) {
+				runtime.getLoggingService().getLogger( "datasource" ).warn(
+				    "Unable to warm up Oracle stored procedure metadata for datasource [" + config.name.getName() + "]: " + e.getMessage()
+				);
 			}
 		}
-		return proc;
+		return results;
 	}
 
 	/**
-	 * Build stored procedure metadata
-	 * 
+	 * Set up an Oracle datasource as it starts, before its pool is built: fill in its workload profile and session settings, and register
+	 * its statement cache, fetch size, LOB, number, date time and bind settings under its unique name. Called from the module's
+	 * {@code onDatasourceStartup} listener. Datasources of other drivers are left alone.
+	 *
+	 * @param config The datasource configuration
+	 *
+	 * @throws IllegalArgumentException If its workload profile or a session setting isn't valid
+	 */
+	public static void configureDatasource( DatasourceConfig config ) {
+		if ( !KeyDictionary.moduleName.equals( Key.of( StringCaster.cast( config.properties.getOrDefault( "driver", "" ) ) ) ) ) {
+			return;
+		}
+		WorkloadProfile.apply( config );
+		StatementCacheStats.register( config );
+		FetchSizeAdvisor.register( config );
+		LobPolicy.register( config );
+		NumberMapping.register( config );
+		ColumnPlan.register( config );
+		BindSignatures.register( config );
+	}
+
+	/**
+	 * Load every procedure and function in a set of schemas or packages with a single set-based scan of ALL_ARGUMENTS, grouped by object
+	 * and overload, and put them in the metadata cache. Definitions that are already cached are left alone.
+	 * <p>
+	 * Each target is either a schema ({@code HR}) or a package ({@code HR.PKG_ORDERS}). Every procedure is cached under its fully
+	 * qualified name, and also under its unqualified name when it belongs to the connection's current schema.
+	 *
 	 * @param connection The BoxConnection instance
-	 * @param procName   The name of the stored procedure
-	 * 
-	 * @return The Proc metadata
-	 * 
+	 * @param targets    The schemas and packages to load
+	 *
+	 * @return The number of procedures loaded and how long it took
+	 *
 	 * @throws SQLException If a database access error occurs
 	 */
-	public static Proc buildProcMeta( BoxConnection connection, String procName ) throws SQLException {
-		String	resolvedPart2;
-		int		resolvedObjectNumber;
-
-		// Resolve the object number using DBMS_UTILITY.NAME_RESOLVE
-		// If the proc doesn't exist, we error here.
-		try ( BoxConnection conn = connection.getDataSource().getBoxConnection();
-		    CallableStatement stmt = conn.prepareCall( "{ call dbms_utility.name_resolve(?, ?, ?, ?, ?, ?, ?, ?) }" ) ) {
-
-			// IN parameters
-			stmt.setString( 1, procName );  // name
-			stmt.setInt( 2, 1 );            // context (1 for procedure/function)
-
-			// OUT parameters (all must be registered for Oracle)
-			stmt.registerOutParameter( 3, Types.VARCHAR );  // schema
-			stmt.registerOutParameter( 4, Types.VARCHAR );  // part1
-			stmt.registerOutParameter( 5, Types.VARCHAR );  // part2
-			stmt.registerOutParameter( 6, Types.VARCHAR );  // dblink
-			stmt.registerOutParameter( 7, Types.INTEGER );  // part1_type
-			stmt.registerOutParameter( 8, Types.INTEGER );  // object_number
-
-			stmt.execute();
-
-			// Retrieve OUT values
-			resolvedPart2			= stmt.getString( 5 );
-			resolvedObjectNumber	= stmt.getInt( 8 );
-		}
-
-		// Query out the procedure parameters from ALL_ARGUMENTS
-		String			sql			= """
-		                              SELECT UNIQUE POSITION,
-		                              	ARGUMENT_NAME,
-		                              	DATA_TYPE,
-		                              	IN_OUT,
-		                              	OVERLOAD
-		                              FROM SYS.ALL_ARGUMENTS
-		                              WHERE OBJECT_ID = ?
-		                              	AND OBJECT_NAME = ?
-		                              	AND DATA_LEVEL = 0
-		                              ORDER BY OVERLOAD, POSITION
-		                              """;
-
-		List<ProcDef>	definitions	= new ArrayList<>();
-		try ( BoxConnection conn = connection.getDataSource().getBoxConnection();
-		    PreparedStatement stmt = conn.prepareStatement( sql ) ) {
-
-			stmt.setInt( 1, resolvedObjectNumber );
-			stmt.setString( 2, resolvedPart2 );
-
-			List<ProcParameter>	params			= new ArrayList<>();
-			Integer				lastOverload	= null;
+	public static PrewarmResult prewarmProcMeta( BoxConnection connection, List<String> targets ) throws SQLException {
+		long			start		= System.nanoTime();
+		DataSource		dataSource	= connection.getDataSource();
+		Key				dsName		= dataSource.getUniqueName();
+		List<String>	binds		= new ArrayList<>();
+		procMetaCache.markPrewarmed( dsName );
+
+		String	sql		= PREWARM_SQL.replace( "${filter}", prewarmFilter( targets, binds ) );
+		int		loaded	= 0;
+		try ( PreparedStatement stmt = connection.prepareStatement( sql ) ) {
+			for ( int i = 0; i < binds.size(); i++ ) {
+				stmt.setString( i + 1, binds.get( i ) );
+			}
+
 			try ( ResultSet rs = stmt.executeQuery() ) {
+				List<ProcDef>		definitions		= new ArrayList<>();
+				List<ProcParameter>	params			= new ArrayList<>();
+				String[]			names			= null;
+				int					objectId		= 0;
+				String				subprogram		= null;
+				long				lastDdlTime		= 0;
+				String				status			= null;
+				Integer				lastOverload	= null;
 
 				while ( rs.next() ) {
+					String[] rowNames = prewarmNames( rs );
+					if ( names == null || rs.getInt( "OBJECT_ID" ) != objectId || !rowNames[ 0 ].equals( names[ 0 ] ) ) {
+						// Starting a new procedure, so finish the previous one
+						if ( names != null ) {
+							definitions.add( toProcDef( params ) );
+							loaded += cachePrewarmed( dataSource, names, definitions, objectId, subprogram, lastDdlTime, status );
+						}
+						names			= rowNames;
+						objectId		= rs.getInt( "OBJECT_ID" );
+						subprogram		= rs.getString( "OBJECT_NAME" );
+						lastDdlTime		= rs.getTimestamp( "LAST_DDL_TIME" ).getTime();
+						status			= rs.getString( "STATUS" );
+						definitions		= new ArrayList<>();
+						params			= new ArrayList<>();
+						lastOverload	= null;
+					}
+					if ( rs.getString( "DATA_TYPE" ) == null ) {
+						continue;
+					}
+
 					Integer overload = rs.getInt( "OVERLOAD" );
-					if ( overload != null && lastOverload != null && !overload.equals( lastOverload ) ) {
-						definitions
-						    .add( new ProcDef( params.size(), ( int ) params.stream().filter( p -> !p.typeName().equals( "REF CURSOR" ) ).count(), params ) );
+					if ( lastOverload != null && !overload.equals( lastOverload ) ) {
+						definitions.add( toProcDef( params ) );
 						params = new ArrayList<>();
 					}
 					lastOverload = overload;
 
-					Key		inOutKey;
-					String	inOut	= rs.getString( "IN_OUT" );
-					if ( "IN".equals( inOut ) ) {
-						inOutKey = inKey;
-					} else if ( "OUT".equals( inOut ) ) {
-						inOutKey = outKey;
-					} else {
-						inOutKey = inoutKey;
-					}
-
-					params.add(
-					    new ProcParameter(
-					        rs.getInt( "POSITION" ),
-					        rs.getString( "ARGUMENT_NAME" ),
-					        rs.getString( "DATA_TYPE" ),
-					        inOutKey
-					    )
-					);
+					addParameter( params, rs );
+				}
+				if ( names != null ) {
+					definitions.add( toProcDef( params ) );
+					loaded += cachePrewarmed( dataSource, names, definitions, objectId, subprogram, lastDdlTime, status );
 				}
 			}
-			definitions.add( new ProcDef( params.size(), ( int ) params.stream().filter( p -> !p.typeName().equals( "REF CURSOR" ) ).count(), params ) );
 		}
 
-		Proc proc = new Proc( connection.getDataSource().getUniqueName(), procName, definitions );
+		PrewarmResult result = new PrewarmResult( dsName, loaded, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+		BoxRuntime.getInstance().getLoggingService().getLogger( "datasource" ).info(
+		    String.format( "Prewarmed %d Oracle stored procedures for datasource [%s] in %dms", result.procs(), dsName.getName(),
+		        result.durationMillis() )
+		);
+		return result;
+	}
+
+	/**
+	 * Build stored procedure metadata.
+	 * <p>
+	 * The name is resolved with {@code DBMS_UTILITY.NAME_RESOLVE} inside the same statement that reads {@code ALL_ARGUMENTS} and
+	 * {@code ALL_OBJECTS}, so the whole definition comes back in a single round trip on the caller's connection. If the proc doesn't
+	 * exist, the name resolution raises and we error here.
+	 * 
+	 * @param connection The BoxConnection instance
+	 * @param procName   The name of the stored procedure
+	 * 
+	 * @return The Proc metadata
+	 * 
+	 * @throws SQLException If a database access error occurs
+	 */
+	public static Proc buildProcMeta( BoxConnection connection, String procName ) throws SQLException {
+		Proc				proc	= null;
+		ProcMetaLoadEvent	event	= new ProcMetaLoadEvent();
+		event.begin();
+
+		try ( PreparedStatement stmt = connection.prepareStatement( PROC_META_SQL ) ) {
+			stmt.setString( 1, procName );
 
+			long start = System.nanoTime();
+			try ( ResultSet rs = stmt.executeQuery() ) {
+				event.queryTime	= System.nanoTime() - start;
+				proc			= readProcMeta( connection.getDataSource().getUniqueName(), procName, rs );
+			}
+			event.readTime	= System.nanoTime() - start - event.queryTime;
+			event.succeeded	= true;
+		} finally {
+			event.end();
+			if ( event.shouldCommit() ) {
+				event.dataSource	= connection.getDataSource().getUniqueName().getName();
+				event.procedure		= procName;
+				event.objectId		= proc == null ? 0 : proc.objectId();
+				event.overloads		= proc == null ? 0 : proc.definitions().size();
+				event.arguments		= proc == null ? 0 : proc.definitions().stream().mapToInt( def -> def.params().size() ).sum();
+				event.commit();
+			}
+		}
 		return proc;
+	}
+
+	/**
+	 * Read a procedure definition from the rows of {@link #PROC_META_SQL}: one row per argument, ordered by overload and position, each
+	 * repeating the resolved object. A procedure without arguments comes back as a single row without a {@code DATA_TYPE}.
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 * @param procName             The name of the stored procedure, as called
+	 * @param rs                   The result set
+	 *
+	 * @return The Proc metadata
+	 *
+	 * @throws SQLException If the resolved object isn't in ALL_OBJECTS, or a database access error occurs
+	 */
+	static Proc readProcMeta( Key dataSourceUniqueName, String procName, ResultSet rs ) throws SQLException {
+		Integer				resolvedObjectNumber	= null;
+		String				resolvedName			= null;
+		long				lastDdlTime				= 0;
+		String				status					= null;
+		List<ProcDef>		definitions				= new ArrayList<>();
+		List<ProcParameter>	params					= new ArrayList<>();
+		Integer				lastOverload			= null;
+
+		while ( rs.next() ) {
+			// The resolved object is repeated on every row, and is there even when the proc has no arguments
+			if ( resolvedObjectNumber == null ) {
+				resolvedObjectNumber	= rs.getInt( "RESOLVED_OBJECT_ID" );
+				resolvedName			= rs.getString( "RESOLVED_NAME" );
+				lastDdlTime				= rs.getTimestamp( "LAST_DDL_TIME" ).getTime();
+				status					= rs.getString( "STATUS" );
+			}
+			// No argument rows, or the placeholder row Oracle keeps for procs without arguments
+			if ( rs.getString( "DATA_TYPE" ) == null ) {
+				continue;
+			}
+
+			Integer overload = rs.getInt( "OVERLOAD" );
+			if ( overload != null && lastOverload != null && !overload.equals( lastOverload ) ) {
+				definitions.add( toProcDef( params ) );
+				params = new ArrayList<>();
+			}
+			lastOverload = overload;
+
+			addParameter( params, rs );
+		}
+
+		if ( resolvedObjectNumber == null ) {
+			throw new SQLException( String.format( "Unable to find the object for stored procedure '%s' in ALL_OBJECTS.", procName ) );
+		}
+		definitions.add( toProcDef( params ) );
+
+		return new Proc( dataSourceUniqueName, procName, definitions, resolvedObjectNumber, resolvedName, lastDdlTime, status );
+	}
+
+	/**
+	 * Get the schemas and packages a datasource wants prewarmed, from its {@code procMetaPrewarm} property. The property can be a
+	 * comma-delimited list or an array.
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return The targets, empty if there are none
+	 */
+	public static List<String> getPrewarmTargets( DataSource dataSource ) {
+		return prewarmTargets( dataSource.getConfiguration().properties.get( PREWARM_PROPERTY ) );
+	}
 
+	/**
+	 * Parse a {@code procMetaPrewarm} value into its schemas and packages
+	 *
+	 * @param value A comma-delimited list or an array, or null
+	 *
+	 * @return The trimmed targets, empty if there are none
+	 */
+	static List<String> prewarmTargets( Object value ) {
+		List<String> targets = new ArrayList<>();
+		if ( value instanceof List<?> list ) {
+			list.forEach( item -> targets.add( StringCaster.cast( item ).trim() ) );
+		} else if ( value != null ) {
+			Arrays.stream( StringCaster.cast( value ).split( "," ) ).forEach( item -> targets.add( item.trim() ) );
+		}
+		targets.removeIf( String::isBlank );
+		return targets;
+	}
+
+	/**
+	 * Build the {@code ${filter}} predicate of {@link #PREWARM_SQL} for a set of targets. A schema ({@code HR}) matches every object it
+	 * owns, a package ({@code HR.PKG_ORDERS}) only that object. Names are matched in upper case, the way the dictionary stores them.
+	 *
+	 * @param targets The schemas and packages
+	 * @param binds   The list to add the bind values to, in placeholder order
+	 *
+	 * @return The predicate
+	 */
+	static String prewarmFilter( List<String> targets, List<String> binds ) {
+		StringBuilder filter = new StringBuilder();
+		for ( String target : targets ) {
+			String[] parts = target.trim().toUpperCase().split( "\\." );
+			filter.append( filter.isEmpty() ? "" : " OR " );
+			if ( parts.length == 1 ) {
+				filter.append( "( o.OWNER = ? )" );
+				binds.add( parts[ 0 ].trim() );
+			} else {
+				filter.append( "( o.OWNER = ? AND o.OBJECT_NAME = ? )" );
+				binds.add( parts[ 0 ].trim() );
+				binds.add( parts[ 1 ].trim() );
+			}
+		}
+		return filter.toString();
+	}
+
+	/**
+	 * Write the metadata snapshot of a datasource now, if it has a {@code procMetaSnapshotPath}
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return True if a snapshot was written
+	 *
+	 * @throws IOException If the snapshot can't be written
+	 */
+	public static boolean writeProcMetaSnapshot( DataSource dataSource ) throws IOException {
+		return procMetaCache.writeSnapshot( dataSource );
+	}
+
+	/**
+	 * Get the fetch sizes learned for the queries of a datasource
+	 *
+	 * @param dataSourceName The name of the datasource
+	 *
+	 * @return The learned fetch size of each query, empty if the datasource doesn't use adaptive fetch sizes
+	 */
+	public static List<FetchSizeAdvisor.LearnedFetchSize> getLearnedFetchSizes( String dataSourceName ) {
+		FetchSizeAdvisor advisor = FetchSizeAdvisor.forDataSource( Key.of( dataSourceName ) );
+		return advisor == null ? List.of() : advisor.getLearnedSizes();
+	}
+
+	/**
+	 * Get the statement cache hit and miss counts of a datasource. Only the statements the functions of this module prepare are counted,
+	 * see {@link StatementCacheStats}.
+	 *
+	 * @param dataSourceName The name of the datasource
+	 *
+	 * @return The counts, or null if the datasource wasn't built by this driver
+	 */
+	public static StatementCacheStats.Counts getStatementCacheStats( String dataSourceName ) {
+		StatementCacheStats stats = StatementCacheStats.forDataSource( Key.of( dataSourceName ) );
+		return stats == null ? null : stats.getCounts();
+	}
+
+	/**
+	 * Get the stored procedure metrics of a datasource: metadata cache hits and misses, load times and call rewrites
+	 *
+	 * @param dataSourceName The name of the datasource
+	 *
+	 * @return The metrics, or null if no stored procedure has been called on the datasource yet
+	 */
+	public static ProcMetrics getProcMetrics( String dataSourceName ) {
+		return procMetaCache.findMetrics( Key.of( dataSourceName ) );
+	}
+
+	/**
+	 * Get the stored procedure metrics of a datasource, creating them if needed
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return The metrics
+	 */
+	public static ProcMetrics procMetrics( DataSource dataSource ) {
+		return procMetaCache.metrics( dataSource.getUniqueName() );
+	}
+
+	/**
+	 * Stop announcing stored procedure metadata events and remove the metrics MBeans. Called when the module unloads.
+	 */
+	public static void unregisterProcMetrics() {
+		ProcMetrics.disableAnnouncements();
+		procMetaCache.unregisterMetrics();
+	}
+
+	/**
+	 * Stop the background threads of the stored procedure metadata cache. Called when the module unloads.
+	 */
+	public static void shutdownProcMeta() {
+		procMetaCache.shutdown();
+	}
+
+	/**
+	 * Get the bind signature of the statements a datasource's schema has parsed, to check their cursors are shared
+	 *
+	 * @param dataSource The datasource
+	 * @param sqlFilter  A {@code LIKE} pattern the SQL text must match, or null for every statement
+	 *
+	 * @return One signature per statement
+	 *
+	 * @throws SQLException If the {@code V$} views can't be read
+	 */
+	public static List<BindSignatures.Signature> getBindSignatures( DataSource dataSource, String sqlFilter ) throws SQLException {
+		try ( BoxConnection conn = dataSource.getBoxConnection() ) {
+			return BindSignatures.read( conn, sqlFilter );
+		}
+	}
+
+	/**
+	 * Build a procedure definition from its parameters
+	 *
+	 * @param params The parameters of one overload
+	 *
+	 * @return The ProcDef
+	 */
+	static ProcDef toProcDef( List<ProcParameter> params ) {
+		return new ProcDef( params.size(), ( int ) params.stream().filter( p -> !p.typeName().equals( "REF CURSOR" ) ).count(), params );
+	}
+
+	/**
+	 * Add the parameter on an ALL_ARGUMENTS row to a definition. Top level rows ({@code DATA_LEVEL} 0) are the parameters themselves. A
+	 * {@code DATA_LEVEL} 1 row right after a collection parameter describes its element type, other nested rows (record attributes) are
+	 * skipped.
+	 *
+	 * @param params The parameters of the current overload
+	 * @param rs     The result set, positioned on the row
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	private static void addParameter( List<ProcParameter> params, ResultSet rs ) throws SQLException {
+		int level = rs.getInt( "DATA_LEVEL" );
+		if ( level > 0 ) {
+			ProcParameter parent = params.isEmpty() ? null : params.get( params.size() - 1 );
+			if ( level == 1 && parent != null && parent.isCollection() && parent.elementType() == null ) {
+				params.set( params.size() - 1, parent.withElementType( rs.getString( "DATA_TYPE" ) ) );
+			}
+			return;
+		}
+
+		Key		inOutKey;
+		String	inOut	= rs.getString( "IN_OUT" );
+		if ( "IN".equals( inOut ) ) {
+			inOutKey = inKey;
+		} else if ( "OUT".equals( inOut ) ) {
+			inOutKey = outKey;
+		} else {
+			inOutKey = inoutKey;
+		}
+
+		String dataType = rs.getString( "DATA_TYPE" );
+		params.add( new ProcParameter(
+		    rs.getInt( "POSITION" ),
+		    rs.getString( "ARGUMENT_NAME" ),
+		    dataType,
+		    inOutKey,
+		    COLLECTION_TYPES.contains( dataType ) ? collectionTypeName( rs ) : null,
+		    null
+		) );
+	}
+
+	/**
+	 * The fully qualified SQL type name of a collection argument: {@code OWNER.TYPE} for schema level types and
+	 * {@code OWNER.PACKAGE.TYPE} for types declared in a package spec
+	 *
+	 * @param rs The result set, positioned on the row
+	 *
+	 * @return The type name, or null if ALL_ARGUMENTS didn't report one
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	private static String collectionTypeName( ResultSet rs ) throws SQLException {
+		String typeName = rs.getString( "TYPE_NAME" );
+		if ( typeName == null ) {
+			return null;
+		}
+		String	owner	= rs.getString( "TYPE_OWNER" );
+		String	subName	= rs.getString( "TYPE_SUBNAME" );
+		return ( owner == null ? "" : owner + "." ) + typeName + ( subName == null ? "" : "." + subName );
+	}
+
+	/**
+	 * The names a prewarmed procedure can be called by. The first one is always fully qualified.
+	 *
+	 * @param rs The prewarm result set, positioned on a row
+	 *
+	 * @return The names
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	private static String[] prewarmNames( ResultSet rs ) throws SQLException {
+		String	owner		= rs.getString( "OWNER" );
+		String	unqualified	= rs.getString( "PACKAGE_NAME" ) == null
+		    ? rs.getString( "OBJECT_NAME" )
+		    : rs.getString( "PACKAGE_NAME" ) + "." + rs.getString( "OBJECT_NAME" );
+		if ( owner.equals( rs.getString( "CURRENT_SCHEMA" ) ) ) {
+			return new String[] { owner + "." + unqualified, unqualified };
+		}
+		return new String[] { owner + "." + unqualified };
+	}
+
+	/**
+	 * Cache a prewarmed procedure under each of its names, unless it is already cached. The names share one definition.
+	 *
+	 * @return The number of procedures added (0 or 1)
+	 */
+	private static int cachePrewarmed( DataSource dataSource, String[] names, List<ProcDef> definitions, int objectId, String subprogram,
+	    long lastDdlTime, String status ) {
+		Proc	proc	= new Proc( dataSource.getUniqueName(), names[ 0 ], definitions, objectId, subprogram, lastDdlTime, status );
+		boolean	added	= false;
+		for ( String name : names ) {
+			added = procMetaCache.putIfAbsent( name, proc, dataSource ) || added;
+		}
+		return added ? 1 : 0;
+	}
+
+	/**
+	 * Get the current LAST_DDL_TIME and STATUS of a set of database objects from ALL_OBJECTS. The lookup is batched into as few
+	 * queries as the IN list limit allows.
+	 *
+	 * @param connection The connection
+	 * @param objectIds  The OBJECT_IDs to look up
+	 *
+	 * @return The stamps keyed by OBJECT_ID. Objects that no longer exist are absent.
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	public static Map<Integer, ProcMetaCache.ObjectStamp> getObjectStamps( Connection connection, List<Integer> objectIds )
+	    throws SQLException {
+		Map<Integer, ProcMetaCache.ObjectStamp> stamps = new HashMap<>();
+		for ( int start = 0; start < objectIds.size(); start += MAX_IN_LIST ) {
+			List<Integer>	batch	= objectIds.subList( start, Math.min( start + MAX_IN_LIST, objectIds.size() ) );
+			String			sql		= "SELECT OBJECT_ID, LAST_DDL_TIME, STATUS FROM SYS.ALL_OBJECTS WHERE OBJECT_ID IN ("
+			    + String.join( ",", Collections.nCopies( batch.size(), "?" ) ) + ")";
+
+			try ( PreparedStatement stmt = connection.prepareStatement( sql ) ) {
+				for ( int i = 0; i < batch.size(); i++ ) {
+					stmt.setInt( i + 1, batch.get( i ) );
+				}
+				try ( ResultSet rs = stmt.executeQuery() ) {
+					while ( rs.next() ) {
+						int objectId = rs.getInt( "OBJECT_ID" );
+						stamps.put(
+						    objectId,
+						    new ProcMetaCache.ObjectStamp( objectId, rs.getTimestamp( "LAST_DDL_TIME" ).getTime(),
+						        rs.getString( "STATUS" ) )
+						);
+					}
+				}
+			}
+		}
+		return stamps;
+	}
+
+	/**
+	 * The outcome of prewarming the metadata cache of a datasource
+	 *
+	 * @param dataSource     The unique name of the datasource
+	 * @param procs          The number of procedures and functions loaded
+	 * @param durationMillis How long it took, in milliseconds
+	 */
+	public record PrewarmResult( Key dataSource, int procs, long durationMillis ) {
 	}
 }
@@ -0,0 +1,624 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Query;
+import ortus.boxlang.runtime.types.QueryColumnType;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Reads a table in parallel by splitting it into ROWID ranges, the way {@code DBMS_PARALLEL_EXECUTE} chunks a table by ROWID.
+ * <p>
+ * The ranges are cut from the extent map of the table ({@code DBA_EXTENTS}), so each covers about the same number of blocks and no
+ * block is read twice. Each range is scanned with {@code ROWID BETWEEN} on one of several pooled connections, which Oracle runs as a
+ * ROWID range scan of just those blocks. Without access to the extent map, the ranges come from {@code DBMS_PARALLEL_EXECUTE} itself,
+ * which needs the {@code CREATE JOB} privilege.
+ * <p>
+ * Segments in bigfile tablespaces ({@code DBA_TABLESPACES.BIGFILE}) get ROWIDs without a file number.
+ * <p>
+ * The rows are handed to a consumer on the calling thread, in range order or as they arrive. Ordered reads buffer the ranges that are
+ * ahead of the one being consumed, up to a number of rows per range. Every range is read consistent on its own, not with the others.
+ * <p>
+ * ROWIDs, LOBs and the other Oracle types are read the way queries read them, except that LOBs are always read inline: the connections
+ * go back to the pool as soon as their ranges are read. The parameters of the condition are bound with a {@link ParamBinder}, the way the
+ * runtime binds query parameters.
+ */
+public class ParallelScan {
+
+	/**
+	 * The connections reading at the same time, unless asked otherwise
+	 */
+	public static final int					DEFAULT_PARALLELISM		= 4;
+
+	/**
+	 * The ranges cut per connection, unless asked otherwise. More ranges than connections keeps connections busy when some ranges have
+	 * more rows than others.
+	 */
+	public static final int					RANGES_PER_CONNECTION	= 4;
+
+	/**
+	 * The rows fetched per round trip, unless asked otherwise
+	 */
+	public static final int					DEFAULT_FETCH_SIZE		= 1_000;
+
+	/**
+	 * The most rows buffered per range ahead of the consumer, unless asked otherwise
+	 */
+	public static final int					DEFAULT_BUFFER_ROWS		= 10_000;
+
+	/**
+	 * The highest row number of a block in a ROWID
+	 */
+	static final int						MAX_ROW					= 32_767;
+
+	private static final String				BASE64					= "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+	private static final String				EXTENTS_SQL				= """
+	    SELECT o.data_object_id, e.relative_fno, e.block_id, e.blocks, t.bigfile
+	      FROM dba_extents e
+	      JOIN dba_objects o
+	        ON o.owner = e.owner AND o.object_name = e.segment_name
+	       AND ( o.subobject_name = e.partition_name OR ( o.subobject_name IS NULL AND e.partition_name IS NULL ) )
+	      JOIN dba_tablespaces t ON t.tablespace_name = e.tablespace_name
+	     WHERE e.owner = NVL( ?, SYS_CONTEXT( 'USERENV', 'CURRENT_SCHEMA' ) ) AND e.segment_name = ?
+	       AND e.segment_type IN ( 'TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION' )
+	       AND o.object_type IN ( 'TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION' )
+	     ORDER BY o.data_object_id, e.relative_fno, e.block_id""";
+
+	private static final String				TASK_SQL				= """
+	    DECLARE
+	      l_owner VARCHAR2(128) := NVL( ?, SYS_CONTEXT( 'USERENV', 'CURRENT_SCHEMA' ) );
+	      l_blocks NUMBER;
+	    BEGIN
+	      SELECT NVL( MAX( blocks ), 0 ) INTO l_blocks FROM all_tables WHERE owner = l_owner AND table_name = ?;
+	      DBMS_PARALLEL_EXECUTE.CREATE_TASK( ? );
+	      DBMS_PARALLEL_EXECUTE.CREATE_CHUNKS_BY_ROWID( ?, l_owner, ?, FALSE, GREATEST( CEIL( l_blocks / ? ), 128 ) );
+	    END;""";
+
+	private static final String				CHUNKS_SQL				= "SELECT start_rowid, end_rowid FROM user_parallel_execute_chunks "
+	    + "WHERE task_name = ? ORDER BY chunk_id";
+
+	private static final String				DROP_TASK_SQL			= "BEGIN DBMS_PARALLEL_EXECUTE.DROP_TASK( ? ); END;";
+
+	/**
+	 * LOBs are read before the connection goes back to the pool, so none stay a locator
+	 */
+	private static final LobPolicy			INLINE_LOBS				= new LobPolicy( -1 );
+
+	/**
+	 * Runs the connections of a scan
+	 */
+	private static final ExecutorService	EXECUTOR				= Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Marks the end of a range in its buffer
+	 */
+	private static final Object[]			END						= new Object[ 0 ];
+
+	private ParallelScan() {
+	}
+
+	/**
+	 * A range of ROWIDs, both ends included
+	 *
+	 * @param low  The first ROWID
+	 * @param high The last ROWID
+	 */
+	public record Range( String low, String high ) {
+	}
+
+	/**
+	 * An extent of a table segment
+	 *
+	 * @param objectId The data object id of the segment
+	 * @param file     The relative file number
+	 * @param block    The first block
+	 * @param blocks   The number of blocks
+	 * @param bigfile  Whether the segment is in a bigfile tablespace, whose ROWIDs have no file number
+	 */
+	record Extent( long objectId, int file, long block, long blocks, boolean bigfile ) {
+	}
+
+	/**
+	 * The columns of a scan
+	 *
+	 * @param names    The column labels
+	 * @param sqlTypes The types of the columns, from java.sql.Types or OracleTypes
+	 */
+	public record Columns( Key[] names, int[] sqlTypes ) {
+	}
+
+	/**
+	 * Receives the rows of a scan
+	 */
+	@FunctionalInterface
+	public interface RowConsumer {
+
+		/**
+		 * Receive a row
+		 *
+		 * @param columns The columns of the scan
+		 * @param row     The values of the row, in column order
+		 * @param range   The index of the range the row was read from, or -1 when rows are handed over as they are read
+		 *
+		 * @return False to stop the scan
+		 */
+		boolean accept( Columns columns, Object[] row, int range );
+	}
+
+	/**
+	 * The outcome of a scan
+	 *
+	 * @param columns        The columns
+	 * @param rows           The rows handed to the consumer
+	 * @param ranges         The ranges the table was split into
+	 * @param durationMillis How long the scan took
+	 */
+	public record Result( Columns columns, long rows, int ranges, long durationMillis ) {
+
+		/**
+		 * Get the outcome as a struct
+		 *
+		 * @return The outcome
+		 */
+		public IStruct toStruct() {
+			return Struct.linkedOf(
+			    KeyDictionary.rows, rows,
+			    KeyDictionary.ranges, ranges,
+			    KeyDictionary.durationMillis, durationMillis );
+		}
+	}
+
+	/**
+	 * Split a table into ROWID ranges of about the same number of blocks, from its extent map or a {@code DBMS_PARALLEL_EXECUTE} task
+	 *
+	 * @param connection The connection to read the extent map on
+	 * @param table      The table, optionally with its schema
+	 * @param ranges     The number of ranges to aim for. Partitions and extents that span files can add a few.
+	 *
+	 * @return The ranges, in ROWID order. Empty if the table has no storage.
+	 *
+	 * @throws SQLException If neither the extent map nor {@code DBMS_PARALLEL_EXECUTE} can be used
+	 */
+	public static List<Range> ranges( Connection connection, String table, int ranges ) throws SQLException {
+		String[]		name	= objectName( table );
+		List<Extent>	extents	= new ArrayList<>();
+		try ( PreparedStatement statement = connection.prepareStatement( EXTENTS_SQL ) ) {
+			statement.setString( 1, name[ 0 ] );
+			statement.setString( 2, name[ 1 ] );
+			try ( ResultSet resultSet = statement.executeQuery() ) {
+				while ( resultSet.next() ) {
+					extents.add( new Extent( resultSet.getLong( 1 ), resultSet.getInt( 2 ), resultSet.getLong( 3 ), resultSet.getLong( 4 ),
+					    "YES".equals( resultSet.getString( 5 ) ) ) );
+				}
+			}
+		} catch ( SQLException e ) {
+			// ORA-00942, the extent map needs SELECT_CATALOG_ROLE or SELECT ANY DICTIONARY
+			if ( e.getErrorCode() != 942 ) {
+				throw e;
+			}
+			return taskRanges( connection, name, ranges );
+		}
+		return split( extents, ranges );
+	}
+
+	/**
+	 * Let {@code DBMS_PARALLEL_EXECUTE} chunk the table, in a task that is dropped once its chunks are read
+	 */
+	private static List<Range> taskRanges( Connection connection, String[] name, int ranges ) throws SQLException {
+		String task = "BX_SCAN_" + UUID.randomUUID().toString().replace( "-", "" ).substring( 0, 20 ).toUpperCase();
+		try {
+			try ( CallableStatement create = connection.prepareCall( TASK_SQL ) ) {
+				create.setString( 1, name[ 0 ] );
+				create.setString( 2, name[ 1 ] );
+				create.setString( 3, task );
+				create.setString( 4, task );
+				create.setString( 5, name[ 1 ] );
+				create.setInt( 6, ranges );
+				create.execute();
+			}
+			List<Range> result = new ArrayList<>();
+			try ( PreparedStatement chunks = connection.prepareStatement( CHUNKS_SQL ) ) {
+				chunks.setString( 1, task );
+				try ( ResultSet resultSet = chunks.executeQuery() ) {
+					while ( resultSet.next() ) {
+						result.add( new Range( resultSet.getString( 1 ), resultSet.getString( 2 ) ) );
+					}
+				}
+			}
+			return result;
+		} catch ( SQLException e ) {
+			throw new SQLException( "Unable to split " + name[ 1 ] + " into ROWID ranges. Reading the extent map needs SELECT on "
+			    + "DBA_EXTENTS, DBA_OBJECTS and DBA_TABLESPACES, and DBMS_PARALLEL_EXECUTE needs the CREATE JOB privilege: " + e.getMessage(),
+			    e.getSQLState(), e.getErrorCode(), e );
+		} finally {
+			try ( CallableStatement drop = connection.prepareCall( DROP_TASK_SQL ) ) {
+				drop.setString( 1, task );
+				drop.execute();
+			} catch ( SQLException e ) {
+				// The task was never created
+			}
+		}
+	}
+
+	/**
+	 * Group extents into ranges of about the same number of blocks. A range never spans two segments, since ROWIDs only order within
+	 * one.
+	 *
+	 * @param extents The extents, ordered by segment, file and block
+	 * @param ranges  The number of ranges to aim for
+	 *
+	 * @return The ranges
+	 */
+	static List<Range> split( List<Extent> extents, int ranges ) {
+		long total = 0;
+		for ( Extent extent : extents ) {
+			total += extent.blocks();
+		}
+		long		target	= Math.max( 1, ( total + ranges - 1 ) / Math.max( 1, ranges ) );
+		List<Range>	result	= new ArrayList<>();
+		Extent		first	= null;
+		Extent		last	= null;
+		long		blocks	= 0;
+		for ( Extent extent : extents ) {
+			if ( first != null && ( extent.objectId() != first.objectId() || blocks >= target ) ) {
+				result.add( range( first, last ) );
+				first	= null;
+				blocks	= 0;
+			}
+			if ( first == null ) {
+				first = extent;
+			}
+			last	= extent;
+			blocks	+= extent.blocks();
+		}
+		if ( first != null ) {
+			result.add( range( first, last ) );
+		}
+		return result;
+	}
+
+	private static Range range( Extent first, Extent last ) {
+		// A range stays in one segment, and so in one tablespace
+		if ( first.bigfile() ) {
+			return new Range(
+			    bigfileRowid( first.objectId(), first.block(), 0 ),
+			    bigfileRowid( last.objectId(), last.block() + last.blocks() - 1, MAX_ROW ) );
+		}
+		return new Range(
+		    rowid( first.objectId(), first.file(), first.block(), 0 ),
+		    rowid( last.objectId(), last.file(), last.block() + last.blocks() - 1, MAX_ROW ) );
+	}
+
+	/**
+	 * Build an extended ROWID: the data object id, relative file number, block and row, in base 64 digits
+	 *
+	 * @param objectId The data object id
+	 * @param file     The relative file number
+	 * @param block    The block number
+	 * @param row      The row number in the block
+	 *
+	 * @return The ROWID, as {@code ROWIDTOCHAR} would give it
+	 */
+	static String rowid( long objectId, int file, long block, int row ) {
+		StringBuilder rowid = new StringBuilder( 18 );
+		appendBase64( rowid, objectId, 6 );
+		appendBase64( rowid, file, 3 );
+		appendBase64( rowid, block, 6 );
+		appendBase64( rowid, row, 3 );
+		return rowid.toString();
+	}
+
+	/**
+	 * Build the ROWID of a row in a bigfile tablespace, where the block number takes the digits of the file number too. The relative file
+	 * number of a bigfile tablespace (always 1024) isn't part of its ROWIDs.
+	 *
+	 * @param objectId The data object id
+	 * @param block    The block number
+	 * @param row      The row number in the block
+	 *
+	 * @return The ROWID, as {@code ROWIDTOCHAR} would give it
+	 */
+	static String bigfileRowid( long objectId, long block, int row ) {
+		StringBuilder rowid = new StringBuilder( 18 );
+		appendBase64( rowid, objectId, 6 );
+		appendBase64( rowid, block, 9 );
+		appendBase64( rowid, row, 3 );
+		return rowid.toString();
+	}
+
+	private static void appendBase64( StringBuilder rowid, long value, int digits ) {
+		for ( int shift = ( digits - 1 ) * 6; shift >= 0; shift -= 6 ) {
+			rowid.append( BASE64.charAt( ( int ) ( ( value >> shift ) & 63 ) ) );
+		}
+	}
+
+	/**
+	 * Build the query that reads one range
+	 *
+	 * @param table   The table, optionally with its schema
+	 * @param columns The select list, or null for every column
+	 * @param where   A condition the rows must also meet, or null
+	 *
+	 * @return The query. Its first two parameters are the ends of the range, followed by the parameters of the condition.
+	 *
+	 * @throws IllegalArgumentException If the table isn't a valid name
+	 */
+	public static String selectSql( String table, String columns, String where ) {
+		objectName( table );
+		String sql = "SELECT " + ( columns == null || columns.isBlank() ? "*" : columns.trim() ) + " FROM " + table.trim()
+		    + " WHERE ROWID BETWEEN CHARTOROWID( ? ) AND CHARTOROWID( ? )";
+		return where == null || where.isBlank() ? sql : sql + " AND ( " + where.trim() + " )";
+	}
+
+	/**
+	 * Split a table name into the names the data dictionary knows it by
+	 *
+	 * @param table The table, optionally with its schema, quoted or not
+	 *
+	 * @return The schema, or null for the current schema, and the table
+	 *
+	 * @throws IllegalArgumentException If the table isn't a valid name
+	 */
+	static String[] objectName( String table ) {
+		String identifier = "([A-Za-z][A-Za-z0-9_$#]*|\"[^\"]+\")";
+		if ( table == null || !table.trim().matches( "(" + identifier + "\\.)?" + identifier ) ) {
+			throw new IllegalArgumentException( String.format( "The table '%s' is not a valid table name.", table ) );
+		}
+		String[]	parts	= table.trim().split( "\\.(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)" );
+		String[]	name	= new String[ 2 ];
+		for ( int i = 0; i < parts.length; i++ ) {
+			String part = parts[ i ];
+			name[ i + 2 - parts.length ] = part.startsWith( "\"" ) ? part.substring( 1, part.length() - 1 ) : part.toUpperCase();
+		}
+		return name;
+	}
+
+	/**
+	 * Read a table into a query, in ROWID order
+	 *
+	 * @param connections Supplies a connection per parallel reader
+	 * @param sql         The query of one range, from {@link #selectSql}
+	 * @param params      The parameters of its condition
+	 * @param binder      Binds the parameters of the condition
+	 * @param ranges      The ranges to read
+	 * @param parallelism The connections reading at the same time
+	 * @param fetchSize   The rows fetched per round trip
+	 * @param columnTypes Maps the SQL type of a column to its query column type, like the driver's
+	 *                    {@code mapSQLTypeToQueryColumnType()}
+	 *
+	 * @return The query
+	 *
+	 * @throws SQLException If a range can't be read
+	 */
+	public static Query toQuery( ConnectionSource connections, String sql, List<?> params, ParamBinder binder, List<Range> ranges,
+	    int parallelism, int fetchSize, IntFunction<QueryColumnType> columnTypes ) throws SQLException {
+		Query		query		= new Query();
+		boolean[]	typed		= { false };
+		RowConsumer	addToQuery	= ( columns, row, range ) -> {
+			if ( !typed[ 0 ] ) {
+				addColumns( query, columns, columnTypes );
+				typed[ 0 ] = true;
+			}
+			query.addRow( row );
+			return true;
+		};
+		// Every row ends up in the query, so there is nothing to gain from holding back the ranges ahead
+		Result result = scan( connections, sql, params, binder, ranges, parallelism, true, fetchSize, Integer.MAX_VALUE, addToQuery );
+		if ( !typed[ 0 ] && result.columns() != null ) {
+			addColumns( query, result.columns(), columnTypes );
+		}
+		return query;
+	}
+
+	private static void addColumns( Query query, Columns columns, IntFunction<QueryColumnType> columnTypes ) {
+		for ( int i = 0; i < columns.names().length; i++ ) {
+			query.addColumn( columns.names()[ i ], columnTypes.apply( columns.sqlTypes()[ i ] ) );
+		}
+	}
+
+	/**
+	 * Read ranges of a table on several connections, handing the rows to a consumer on the calling thread
+	 *
+	 * @param connections Supplies a connection per parallel reader
+	 * @param sql         The query of one range, from {@link #selectSql}
+	 * @param params      The parameters of its condition
+	 * @param binder      Binds the parameters of the condition
+	 * @param ranges      The ranges to read
+	 * @param parallelism The connections reading at the same time
+	 * @param ordered     Whether to hand the rows over in range order, instead of as they are read
+	 * @param fetchSize   The rows fetched per round trip
+	 * @param bufferRows  The most rows buffered per range ahead of the consumer
+	 * @param consumer    Receives the rows
+	 *
+	 * @return The outcome
+	 *
+	 * @throws SQLException If a range can't be read
+	 */
+	public static Result scan( ConnectionSource connections, String sql, List<?> params, ParamBinder binder, List<Range> ranges,
+	    int parallelism, boolean ordered, int fetchSize, int bufferRows, RowConsumer consumer ) throws SQLException {
+		long	start	= System.nanoTime();
+		// An empty table still has columns, read them from a range with no rows
+		Scan	scan	= new Scan( sql, params, binder,
+		    ranges.isEmpty() ? List.of( new Range( rowid( 0, 0, 0, 0 ), rowid( 0, 0, 0, 0 ) ) ) : ranges, ordered, fetchSize, bufferRows );
+
+		int							readers	= Math.max( 1, Math.min( parallelism, scan.ranges.size() ) );
+		List<CompletableFuture<?>>	workers	= new ArrayList<>( readers );
+		for ( int i = 0; i < readers; i++ ) {
+			workers.add( CompletableFuture.runAsync( () -> scan.run( connections ), EXECUTOR ) );
+		}
+		long rows;
+		try {
+			rows = scan.consume( consumer );
+		} finally {
+			scan.stopped.set( true );
+			try {
+				CompletableFuture.allOf( workers.toArray( CompletableFuture[]::new ) ).join();
+			} catch ( CompletionException e ) {
+				// The failure is the scan's
+			}
+		}
+		return new Result( scan.columns.get(), rows, ranges.size(), ( System.nanoTime() - start ) / 1_000_000 );
+	}
+
+	/**
+	 * The state the readers of a scan share: they take the next range until none are left, the consumer stopped or one of them failed
+	 */
+	private static class Scan {
+
+		private final String						sql;
+		private final List<?>						params;
+		private final ParamBinder					binder;
+		private final List<Range>					ranges;
+		private final int							fetchSize;
+		private final List<BlockingQueue<Object[]>>	buffers;
+		private final AtomicInteger					nextRange	= new AtomicInteger();
+		private final AtomicInteger					ended		= new AtomicInteger();
+		private final AtomicBoolean					stopped		= new AtomicBoolean();
+		private final AtomicReference<SQLException>	failed		= new AtomicReference<>();
+		private final AtomicReference<Columns>		columns		= new AtomicReference<>();
+
+		Scan( String sql, List<?> params, ParamBinder binder, List<Range> ranges, boolean ordered, int fetchSize, int bufferRows ) {
+			this.sql		= sql;
+			this.params		= params == null ? List.of() : params;
+			this.binder		= binder;
+			this.ranges		= ranges;
+			this.fetchSize	= fetchSize;
+			this.buffers	= new ArrayList<>();
+			// In order, a buffer per range. Otherwise the ranges share one
+			for ( int i = 0; i < ( ordered ? ranges.size() : 1 ); i++ ) {
+				buffers.add( new LinkedBlockingQueue<>( bufferRows ) );
+			}
+		}
+
+		/**
+		 * Read ranges on a connection until there are none left
+		 */
+		void run( ConnectionSource connections ) {
+			try ( Connection connection = connections.get(); PreparedStatement statement = connection.prepareStatement( sql ) ) {
+				StatementCacheStats.recordPrepared( connection, statement );
+				statement.setFetchSize( fetchSize );
+				// The ends of the range are the first two parameters
+				for ( int i = 0; i < params.size(); i++ ) {
+					binder.bind( statement, i + 3, params.get( i ) );
+				}
+				ColumnPlan	plan	= null;
+				int			range;
+				while ( !stopped.get() && ( range = nextRange.getAndIncrement() ) < ranges.size() ) {
+					statement.setString( 1, ranges.get( range ).low() );
+					statement.setString( 2, ranges.get( range ).high() );
+					try ( ResultSet resultSet = statement.executeQuery() ) {
+						if ( plan == null ) {
+							plan = plan( resultSet.getMetaData(), connection );
+						}
+						while ( !stopped.get() && resultSet.next() ) {
+							Object[] row = new Object[ plan.size() ];
+							for ( int i = 0; i < row.length; i++ ) {
+								row[ i ] = plan.transform( i, resultSet.getObject( i + 1 ) );
+							}
+							put( range, row );
+						}
+					}
+					put( range, END );
+				}
+			} catch ( SQLException e ) {
+				failed.compareAndSet( null, e );
+				throw new CompletionException( e );
+			}
+		}
+
+		private ColumnPlan plan( ResultSetMetaData metaData, Connection connection ) throws SQLException {
+			Key[]	names		= new Key[ metaData.getColumnCount() ];
+			int[]	sqlTypes	= new int[ names.length ];
+			for ( int i = 0; i < names.length; i++ ) {
+				names[ i ]		= Key.of( metaData.getColumnLabel( i + 1 ) );
+				sqlTypes[ i ]	= metaData.getColumnType( i + 1 );
+			}
+			columns.compareAndSet( null, new Columns( names, sqlTypes ) );
+			return ColumnPlan.of( metaData, INLINE_LOBS, connection );
+		}
+
+		/**
+		 * Buffer a row for the consumer, waiting for room unless the scan stopped
+		 */
+		private void put( int range, Object[] row ) {
+			BlockingQueue<Object[]> buffer = buffers.get( buffers.size() == 1 ? 0 : range );
+			try {
+				while ( !stopped.get() && !buffer.offer( row, 50, TimeUnit.MILLISECONDS ) ) {
+					// The consumer is behind
+				}
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				stopped.set( true );
+			}
+		}
+
+		/**
+		 * Hand the buffered rows to the consumer until every range ended
+		 */
+		long consume( RowConsumer consumer ) throws SQLException {
+			long	rows	= 0;
+			int		buffer	= 0;
+			try {
+				while ( ended.get() < ranges.size() ) {
+					Object[] row = buffers.get( buffer ).poll( 50, TimeUnit.MILLISECONDS );
+					if ( failed.get() != null ) {
+						throw failed.get();
+					}
+					if ( row == null ) {
+						continue;
+					}
+					if ( row == END ) {
+						ended.incrementAndGet();
+						// In order, move on to the buffer of the next range
+						buffer = buffers.size() == 1 ? 0 : buffer + 1;
+						continue;
+					}
+					rows++;
+					if ( !consumer.accept( columns.get(), row, buffers.size() == 1 ? -1 : buffer ) ) {
+						break;
+					}
+				}
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+				throw new SQLException( "The scan was interrupted", e );
+			}
+			return rows;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.temporal.TemporalAccessor;
+import java.util.function.ToIntBiFunction;
+
+import ortus.boxlang.runtime.context.IBoxContext;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.DateTime;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.QueryColumnType;
+
+/**
+ * Binds parameters the way the runtime binds query parameters: the value is cast to the Java type of its {@code sqltype} and bound with
+ * the JDBC type the driver's {@code mapParamTypeToSQLType()} picks for it. So BoxLang date times, numbers in strings and the
+ * {@code cf_sql_} types all bind the same way they do in {@code queryExecute()}.
+ * <p>
+ * A parameter is either a struct in the {@code bx:queryparam} format or a plain value. Plain values get the {@code sqltype} of their
+ * Java type. Collections already built into a {@code java.sql.Array} are bound as they are.
+ */
+public class ParamBinder {
+
+	private final IBoxContext								context;
+	private final ToIntBiFunction<QueryColumnType, Object>	sqlTypes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param context  The context to cast values in
+	 * @param sqlTypes Maps a query column type and a value to the JDBC type to bind it as, like the driver's
+	 *                 {@code mapParamTypeToSQLType()}
+	 */
+	public ParamBinder( IBoxContext context, ToIntBiFunction<QueryColumnType, Object> sqlTypes ) {
+		this.context	= context;
+		this.sqlTypes	= sqlTypes;
+	}
+
+	/**
+	 * Bind a parameter
+	 *
+	 * @param statement The statement
+	 * @param index     The 1-based parameter index
+	 * @param param     A struct with a {@code value} and an optional {@code sqltype}, or a plain value
+	 *
+	 * @throws SQLException If the value can't be bound
+	 */
+	public void bind( PreparedStatement statement, int index, Object param ) throws SQLException {
+		if ( param instanceof IStruct struct && struct.containsKey( Key.value ) ) {
+			bind( statement, index, struct.get( Key.sqltype ), struct.get( Key.value ) );
+		} else {
+			bind( statement, index, null, param );
+		}
+	}
+
+	/**
+	 * Bind a value as a {@code sqltype}
+	 *
+	 * @param statement The statement
+	 * @param index     The 1-based parameter index
+	 * @param sqltype   The {@code sqltype}, with or without its {@code cf_sql_} prefix, or null to use the value's own type
+	 * @param value     The value, may be null
+	 *
+	 * @throws SQLException If the value can't be bound
+	 */
+	public void bind( PreparedStatement statement, int index, Object sqltype, Object value ) throws SQLException {
+		if ( value instanceof java.sql.Array array ) {
+			statement.setArray( index, array );
+			return;
+		}
+		QueryColumnType	type	= typeOf( sqltype, value );
+		Object			cast	= value == null ? null : QueryColumnType.toSQLType( type, value, context );
+		int				sqlType	= sqlTypes.applyAsInt( type, cast );
+		if ( cast == null ) {
+			statement.setNull( index, sqlType );
+		} else {
+			statement.setObject( index, cast, sqlType );
+		}
+	}
+
+	/**
+	 * Cast a parameter to the Java type its {@code sqltype} binds as, for values that are bound some other way, like the elements of a
+	 * collection
+	 *
+	 * @param param A struct with a {@code value} and an optional {@code sqltype}, or a plain value
+	 *
+	 * @return The value cast like {@link #bind(PreparedStatement, int, Object)} casts it, or null
+	 */
+	public Object cast( Object param ) {
+		if ( param instanceof IStruct struct && struct.containsKey( Key.value ) ) {
+			return cast( struct.get( Key.sqltype ), struct.get( Key.value ) );
+		}
+		return cast( null, param );
+	}
+
+	private Object cast( Object sqltype, Object value ) {
+		return value == null ? null : QueryColumnType.toSQLType( typeOf( sqltype, value ), value, context );
+	}
+
+	/**
+	 * The query column type of a {@code sqltype}, or of a value's Java type when it has none
+	 *
+	 * @param sqltype The {@code sqltype}, or null
+	 * @param value   The value, may be null
+	 *
+	 * @return The type
+	 */
+	static QueryColumnType typeOf( Object sqltype, Object value ) {
+		if ( sqltype != null ) {
+			String name = StringCaster.cast( sqltype ).trim();
+			return QueryColumnType.fromString( name.regionMatches( true, 0, "cf_sql_", 0, 7 ) ? name.substring( 7 ) : name );
+		}
+		if ( value instanceof Integer || value instanceof Short || value instanceof Byte ) {
+			return QueryColumnType.INTEGER;
+		}
+		if ( value instanceof Long ) {
+			return QueryColumnType.BIGINT;
+		}
+		if ( value instanceof Number ) {
+			return QueryColumnType.DECIMAL;
+		}
+		if ( value instanceof Boolean ) {
+			return QueryColumnType.BIT;
+		}
+		if ( value instanceof DateTime || value instanceof java.util.Date || value instanceof TemporalAccessor ) {
+			return QueryColumnType.TIMESTAMP;
+		}
+		if ( value instanceof byte[] ) {
+			return QueryColumnType.BINARY;
+		}
+		return QueryColumnType.VARCHAR;
+	}
+}
@@ -20,19 +20,42 @@ import java.util.List;
 import ortus.boxlang.runtime.scopes.Key;
 
 /**
- * A record to define a stored procedure definition
+ * A record to define a stored procedure definition.
+ * <p>
+ * The {@code objectId}, {@code lastDdlTime} and {@code status} come from {@code ALL_OBJECTS} for the resolved object (the package for
+ * packaged procedures) and are used to detect when the cached definition is stale. The {@code subprogram} is the procedure or function
+ * name {@code DBMS_UTILITY.NAME_RESOLVE} resolved the call to, so together with the {@code objectId} it identifies the procedure however
+ * it was spelled. The {@code name} is the spelling it was first loaded with.
  */
-public record Proc( Key dataSourceUniqueName, String name, List<ProcDef> definitions ) implements Serializable {
+public record Proc( Key dataSourceUniqueName, String name, List<ProcDef> definitions, int objectId, String subprogram, long lastDdlTime,
+    String status ) implements Serializable {
+
+	/**
+	 * Indicates if this definition was built from a different version of the database object
+	 *
+	 * @param currentDdlTime The current LAST_DDL_TIME of the object, in epoch millis
+	 * @param currentStatus  The current STATUS of the object
+	 *
+	 * @return True if the object has been changed or recompiled since this definition was built
+	 */
+	public boolean isStale( long currentDdlTime, String currentStatus ) {
+		return currentDdlTime != lastDdlTime || !currentStatus.equals( status );
+	}
 
 	/**
 	 * Returns a string representation of the Proc instance
 	 */
 	public String toString() {
-		String result = "Proc name=" + name + "  definitions (" + definitions.size() + ")\n";
+		StringBuilder result = new StringBuilder( 128 * ( definitions.size() + 1 ) )
+		    .append( "Proc name=" ).append( name )
+		    .append( " objectId=" ).append( objectId )
+		    .append( " subprogram=" ).append( subprogram )
+		    .append( " status=" ).append( status )
+		    .append( "  definitions (" ).append( definitions.size() ).append( ")\n" );
 		for ( ProcDef def : definitions ) {
-			result += def + "\n";
+			result.append( def ).append( '\n' );
 		}
-		return result;
+		return result.toString();
 	}
 
 }
@@ -0,0 +1,85 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for the rewrite of a stored procedure call: resolving its definition, picking the overload and adding
+ * the ref cursor parameters. The call itself is run by the runtime after this.
+ */
+@Name( "ortus.boxlang.oracle.ProcCall" )
+@Label( "Oracle Procedure Call Rewrite" )
+@Category( { "BoxLang", "Oracle" } )
+@Description( "Rewriting the parameters of a stored procedure call for its definition" )
+@StackTrace( false )
+public class ProcCallEvent extends Event {
+
+	@Label( "Datasource" )
+	String	dataSource;
+
+	@Label( "Procedure" )
+	String	procedure;
+
+	@Label( "Named" )
+	@Description( "Whether the call passed named parameters" )
+	boolean	named;
+
+	@Label( "Overloads" )
+	int		overloads;
+
+	@Label( "Parameters" )
+	@Description( "The number of parameters after the rewrite" )
+	int		parameters;
+
+	@Label( "Ref Cursors" )
+	@Description( "The number of ref cursor parameters added" )
+	int		refCursors;
+
+	@Label( "Metadata Time" )
+	@Description( "Getting the definition, from the cache or the data dictionary" )
+	@Timespan( Timespan.NANOSECONDS )
+	long	metadataTime;
+
+	/**
+	 * End the event and commit it, if it is enabled and over its threshold
+	 *
+	 * @param proc         The definition of the procedure
+	 * @param procedure    The name of the procedure, as called
+	 * @param plan         The plan the call was rewritten with
+	 * @param parameters   The number of parameters after the rewrite
+	 * @param metadataTime The time taken to get the definition, in nanoseconds
+	 */
+	public void complete( Proc proc, String procedure, ProcCallPlan plan, int parameters, long metadataTime ) {
+		end();
+		if ( !shouldCommit() ) {
+			return;
+		}
+		this.dataSource		= proc.dataSourceUniqueName().getName();
+		this.procedure		= procedure;
+		this.named			= plan.named();
+		this.overloads		= proc.definitions().size();
+		this.parameters		= parameters;
+		this.refCursors		= plan.refCursorPositions().length;
+		this.metadataTime	= metadataTime;
+		commit();
+	}
+}
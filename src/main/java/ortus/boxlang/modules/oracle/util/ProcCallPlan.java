@@ -0,0 +1,377 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import oracle.jdbc.OracleConnection;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A precompiled plan for rewriting the parameters of a stored procedure call. It records which overload the call resolves to and where
+ * the ref cursor parameters have to be injected, so repeated calls with the same parameter shape skip the definition walk.
+ * <p>
+ * Plans are cached in the metadata cache entry of their {@link Proc}, keyed by the call style (named or positional) and the names and SQL
+ * types of the provided parameters, so they are dropped along with the definition when it's reloaded.
+ *
+ * @param def                The overload the call resolves to
+ * @param named              Whether the call uses named parameters
+ * @param refCursorPositions The indexes of the ref cursor parameters in {@code def.params()}
+ * @param refCursorVarNames  The {@code :name} to bind each ref cursor by, for named calls
+ * @param providedNames      The names of the provided parameters, used to confirm a cache hit
+ * @param providedTypes      The SQL types of the provided parameters, used to confirm a cache hit
+ * @param collectionTypes    The SQL type name to bind each provided parameter as a collection with, null for scalars. The array itself is
+ *                           null when the overload has no collection parameters.
+ */
+public record ProcCallPlan( ProcDef def, boolean named, int[] refCursorPositions, String[] refCursorVarNames, String[] providedNames,
+    String[] providedTypes, String[] collectionTypes ) {
+
+	/**
+	 * The Oracle argument types and BoxLang SQL types (without their {@code CF_SQL_} prefix) that take a number. Matched exactly, so
+	 * types like INTERVAL or POINT that merely contain one of these names don't count.
+	 */
+	private static final Set<String> NUMERIC_TYPES = Set.of(
+	    "NUMBER", "NUMERIC", "DECIMAL", "DEC", "INTEGER", "INT", "SMALLINT", "TINYINT", "BIGINT", "PLS_INTEGER", "BINARY_INTEGER",
+	    "SIMPLE_INTEGER", "NATURAL", "NATURALN", "POSITIVE", "POSITIVEN", "SIGNTYPE", "FLOAT", "REAL", "DOUBLE", "DOUBLE PRECISION",
+	    "BINARY_FLOAT", "BINARY_DOUBLE", "MONEY", "MONEY4", "BIT"
+	);
+
+	/**
+	 * Get the call plan for a set of provided parameters, compiling it on the first call with this shape
+	 *
+	 * @param proc          The procedure metadata
+	 * @param procedureName The name of the stored procedure, for error messages
+	 * @param params        The provided parameters
+	 *
+	 * @return The plan
+	 *
+	 * @throws SQLException If the provided parameters can't be matched to the procedure
+	 */
+	public static ProcCallPlan forCall( Proc proc, String procedureName, Array params ) throws SQLException {
+		return forCall( proc, OracleUtil.getProcCallPlans( proc ), procedureName, params );
+	}
+
+	/**
+	 * Get the call plan for a set of provided parameters from a set of cached plans, compiling it on the first call with this shape
+	 *
+	 * @param proc          The procedure metadata
+	 * @param callPlans     The plans compiled so far for the procedure, or null to compile the plan without caching it
+	 * @param procedureName The name of the stored procedure, for error messages
+	 * @param params        The provided parameters
+	 *
+	 * @return The plan
+	 *
+	 * @throws SQLException If the provided parameters can't be matched to the procedure
+	 */
+	static ProcCallPlan forCall( Proc proc, ProcCallPlans callPlans, String procedureName, Array params ) throws SQLException {
+		// No params provided - force named mode since we'll need to add ref cursor params by name
+		boolean	named	= params.isEmpty() || ( ( IStruct ) params.get( 0 ) ).containsKey( Key.DBVarName );
+		long	shape	= shapeOf( named, params );
+
+		ProcCallPlan plan = callPlans == null ? null : callPlans.get( shape );
+		if ( plan != null && plan.matches( named, params ) ) {
+			return plan;
+		}
+		plan = compile( proc, procedureName, named, params );
+		if ( callPlans != null ) {
+			callPlans.put( shape, plan );
+		}
+		return plan;
+	}
+
+	/**
+	 * Rewrite the parameters of a call according to the plan: arrays passed to collection parameters are bound as Oracle arrays, and an
+	 * {@code out}/{@code refcursor} parameter is added for each ref cursor, named after the next proc result. Named calls get the ref
+	 * cursors appended by name, positional calls get them inserted at their position in the definition.
+	 *
+	 * @param conn        The BoxConnection instance
+	 * @param params      The provided parameters, rewritten in place
+	 * @param procResults The procedure results, consumed in order and cleared
+	 *
+	 * @throws SQLException If a collection can't be created
+	 */
+	public void apply( BoxConnection conn, Array params, Array procResults ) throws SQLException {
+		// Bind arrays passed to collection parameters before the ref cursors shift the positions
+		if ( collectionTypes != null ) {
+			for ( int i = 0; i < collectionTypes.length; i++ ) {
+				if ( collectionTypes[ i ] != null ) {
+					bindCollection( conn, collectionTypes[ i ], ( IStruct ) params.get( i ) );
+				}
+			}
+		}
+		int resultIndex = 0;
+		for ( int k = 0; k < refCursorPositions.length; k++ ) {
+			IStruct newParam = Struct.of( Key.type, "out", Key.sqltype, "refcursor" );
+			// add out param for ref cursor
+			if ( resultIndex < procResults.size() ) {
+				IStruct nextProcResult = ( IStruct ) procResults.get( resultIndex++ );
+				// TODO: Look at resultSet to see if they are skipping results
+				newParam.put( Key.variable, nextProcResult.get( Key._NAME ) );
+			}
+			if ( named ) {
+				newParam.put( Key.DBVarName, refCursorVarNames[ k ] );
+				// For named params, just append - order doesn't matter since names handle mapping
+				params.add( newParam );
+			} else {
+				// For positional params, insert at the correct position based on the definition
+				params.insertAt( refCursorPositions[ k ] + 1, newParam );
+			}
+		}
+		if ( !procResults.isEmpty() ) {
+			// Consumed results and, to be compat, any extra proc results are dropped, which actually matches non-oracle behavior
+			procResults.clear();
+			// throw new SQLException( "More proc results were specified than are present in the procedure definition. " + procResults.toString() );
+		}
+	}
+
+	/**
+	 * Replace an array passed to a PL/SQL collection parameter (nested table, varray or index-by table) with an Oracle array of the
+	 * declared collection type, so the whole batch is sent to the server in one round trip. Values that are already a
+	 * {@link java.sql.Array}, or aren't arrays at all, are left alone.
+	 *
+	 * @param conn           The BoxConnection instance
+	 * @param collectionType The fully qualified SQL type name of the collection
+	 * @param param          The provided parameter
+	 *
+	 * @throws SQLException If the array can't be created, for example when the type is not visible to the connected user
+	 */
+	private static void bindCollection( BoxConnection conn, String collectionType, IStruct param ) throws SQLException {
+		if ( ! ( param.get( Key.value ) instanceof List<?> elements ) ) {
+			return;
+		}
+		java.sql.Array array = conn.unwrap( OracleConnection.class ).createOracleArray( collectionType, elements.toArray() );
+		param.put( Key.value, array );
+		// Keep the runtime from casting the array to the declared scalar type, mapParamTypeToSQLType binds it as an ARRAY
+		param.put( Key.sqltype, "other" );
+	}
+
+	/**
+	 * Confirm the plan was compiled for this exact parameter shape, without allocating
+	 *
+	 * @param isNamed Whether the call uses named parameters
+	 * @param params  The provided parameters
+	 *
+	 * @return True if the plan applies
+	 */
+	private boolean matches( boolean isNamed, Array params ) {
+		if ( isNamed != named || params.size() != providedTypes.length ) {
+			return false;
+		}
+		for ( int i = 0; i < providedTypes.length; i++ ) {
+			IStruct param = ( IStruct ) params.get( i );
+			if ( !equalsNullable( providedTypes[ i ], nameOf( param.get( Key.sqltype ) ) )
+			    || !equalsNullable( providedNames[ i ], nameOf( param.get( Key.DBVarName ) ) ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compile a plan: pick the overload and find its ref cursor positions
+	 */
+	private static ProcCallPlan compile( Proc proc, String procedureName, boolean named, Array params ) throws SQLException {
+		String[] providedNames = new String[ params.size() ];
+		String[] providedTypes = new String[ params.size() ];
+		for ( int i = 0; i < params.size(); i++ ) {
+			IStruct param = ( IStruct ) params.get( i );
+			providedNames[ i ]	= nameOf( param.get( Key.DBVarName ) );
+			providedTypes[ i ]	= nameOf( param.get( Key.sqltype ) );
+		}
+
+		ProcDef			def			= selectOverload( proc, named, providedNames, providedTypes );
+		List<Integer>	positions	= new ArrayList<>();
+		List<String>	varNames	= new ArrayList<>();
+		for ( int i = 0; i < def.params().size(); i++ ) {
+			ProcParameter paramDef = def.params().get( i );
+			if ( paramDef.isOut() && paramDef.isRefCursor() ) {
+				// Validate that we have enough params for the preceding parameters (only for positional params)
+				// Named params can skip optional params with default values
+				int provided = params.size() + positions.size();
+				if ( !named && provided < i ) {
+					throw new SQLException(
+					    String.format(
+					        "Missing parameters for stored procedure '%s'. Expected at least %d parameters before the ref cursor parameter '%s' at position %d, but only %d were provided.",
+					        procedureName,
+					        i,
+					        paramDef.name(),
+					        i + 1,
+					        provided ) );
+				}
+				positions.add( i );
+				varNames.add( ":" + paramDef.name() );
+			}
+		}
+
+		return new ProcCallPlan(
+		    def,
+		    named,
+		    positions.stream().mapToInt( Integer::intValue ).toArray(),
+		    varNames.toArray( String[]::new ),
+		    providedNames,
+		    providedTypes,
+		    collectionTypes( def, named, providedNames )
+		);
+	}
+
+	/**
+	 * Find the collection parameters among the provided ones. Named parameters are matched by name, positional ones map onto the non ref
+	 * cursor parameters in order.
+	 */
+	private static String[] collectionTypes( ProcDef def, boolean named, String[] providedNames ) {
+		if ( def.params().stream().noneMatch( ProcParameter::isCollection ) ) {
+			return null;
+		}
+		String[]	types	= new String[ providedNames.length ];
+		int			index	= 0;
+		if ( named ) {
+			for ( int i = 0; i < providedNames.length; i++ ) {
+				ProcParameter param = findByName( def, providedNames[ i ] );
+				types[ i ] = param == null ? null : param.collectionType();
+			}
+			return types;
+		}
+		for ( ProcParameter param : def.params() ) {
+			if ( param.isOut() && param.isRefCursor() ) {
+				continue;
+			}
+			if ( index == types.length ) {
+				break;
+			}
+			types[ index++ ] = param.collectionType();
+		}
+		return types;
+	}
+
+	/**
+	 * Pick the overload that matches the provided parameters. Named calls match on parameter names, positional calls on the number of
+	 * non ref cursor parameters, and ties are broken by how well the provided SQL types fit the declared Oracle types. If nothing
+	 * matches, the first definition is used and Oracle reports the mismatch.
+	 */
+	private static ProcDef selectOverload( Proc proc, boolean named, String[] providedNames, String[] providedTypes ) {
+		List<ProcDef> definitions = proc.definitions();
+		if ( definitions.size() == 1 ) {
+			return definitions.get( 0 );
+		}
+
+		ProcDef	best		= definitions.get( 0 );
+		int		bestScore	= Integer.MIN_VALUE;
+		for ( ProcDef def : definitions ) {
+			int score = named ? scoreNamed( def, providedNames, providedTypes ) : scorePositional( def, providedTypes );
+			if ( score > bestScore ) {
+				best		= def;
+				bestScore	= score;
+			}
+		}
+		return best;
+	}
+
+	private static int scorePositional( ProcDef def, String[] providedTypes ) {
+		if ( def.nonRefCursorParamCount() != providedTypes.length ) {
+			return Integer.MIN_VALUE + 1;
+		}
+		int score	= 0;
+		int index	= 0;
+		for ( ProcParameter param : def.params() ) {
+			if ( param.isOut() && param.isRefCursor() ) {
+				continue;
+			}
+			score += typeScore( param.typeName(), providedTypes[ index++ ] );
+		}
+		return score;
+	}
+
+	private static int scoreNamed( ProcDef def, String[] providedNames, String[] providedTypes ) {
+		int score = def.nonRefCursorParamCount() == providedNames.length ? 1 : 0;
+		for ( int i = 0; i < providedNames.length; i++ ) {
+			ProcParameter param = findByName( def, providedNames[ i ] );
+			if ( param == null ) {
+				// A name this overload doesn't have can never be right
+				return Integer.MIN_VALUE + 1;
+			}
+			score += 2 + typeScore( param.typeName(), providedTypes[ i ] );
+		}
+		return score;
+	}
+
+	private static ProcParameter findByName( ProcDef def, String varName ) {
+		if ( varName == null ) {
+			return null;
+		}
+		String name = varName.startsWith( ":" ) ? varName.substring( 1 ) : varName;
+		for ( ProcParameter param : def.params() ) {
+			if ( name.equalsIgnoreCase( param.name() ) ) {
+				return param;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * How well a provided BoxLang SQL type fits a declared Oracle type: 1 for the same family, 0 if unknown, -1 for a different family
+	 */
+	private static int typeScore( String oracleType, String sqlType ) {
+		if ( sqlType == null || oracleType == null ) {
+			return 0;
+		}
+		return typeFamily( oracleType ) == typeFamily( sqlType ) ? 1 : -1;
+	}
+
+	private static int typeFamily( String type ) {
+		String upper = type.toUpperCase();
+		if ( upper.startsWith( "CF_SQL_" ) ) {
+			upper = upper.substring( 7 );
+		}
+		if ( NUMERIC_TYPES.contains( upper ) ) {
+			return 1;
+		}
+		if ( upper.startsWith( "DATE" ) || upper.startsWith( "TIME" ) ) {
+			return 2;
+		}
+		return 0;
+	}
+
+	/**
+	 * A hash of the call style and the provided parameter names and types. Equal hashes are confirmed with {@link #matches}.
+	 */
+	private static long shapeOf( boolean named, Array params ) {
+		int hash = 1;
+		for ( int i = 0; i < params.size(); i++ ) {
+			IStruct param = ( IStruct ) params.get( i );
+			hash	= 31 * hash + hashNullable( nameOf( param.get( Key.DBVarName ) ) );
+			hash	= 31 * hash + hashNullable( nameOf( param.get( Key.sqltype ) ) );
+		}
+		return ( ( long ) hash << 32 ) | ( ( long ) params.size() << 1 ) | ( named ? 1 : 0 );
+	}
+
+	private static String nameOf( Object value ) {
+		return value == null ? null : value.toString();
+	}
+
+	private static int hashNullable( String value ) {
+		return value == null ? 0 : value.hashCode();
+	}
+
+	private static boolean equalsNullable( String a, String b ) {
+		return a == null ? b == null : a.equals( b );
+	}
+}
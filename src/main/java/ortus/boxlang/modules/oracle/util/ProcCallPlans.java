@@ -0,0 +1,64 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled call plans of a cached {@link Proc}, keyed by parameter shape. They are kept in the procedure's metadata cache entry, not
+ * in the Proc itself, so they are dropped with the entry and never serialized or compared along with the definition.
+ */
+public final class ProcCallPlans {
+
+	/**
+	 * The most plans kept per procedure, to stay bounded when callers build parameter lists dynamically
+	 */
+	private static final int						MAX_PLANS	= 64;
+
+	private final Map<Long, ProcCallPlan>			plans		= new ConcurrentHashMap<>();
+
+	/**
+	 * Get a plan
+	 *
+	 * @param shape The parameter shape
+	 *
+	 * @return The plan, or null
+	 */
+	public ProcCallPlan get( long shape ) {
+		return plans.get( shape );
+	}
+
+	/**
+	 * Store a plan
+	 *
+	 * @param shape The parameter shape
+	 * @param plan  The plan
+	 */
+	public void put( long shape, ProcCallPlan plan ) {
+		if ( plans.size() < MAX_PLANS ) {
+			plans.put( shape, plan );
+		}
+	}
+
+	/**
+	 * The number of cached plans
+	 *
+	 * @return The number of plans
+	 */
+	public int size() {
+		return plans.size();
+	}
+}
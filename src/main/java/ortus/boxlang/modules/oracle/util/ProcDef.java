@@ -27,13 +27,14 @@ public record ProcDef( int paramCount, int nonRefCursorParamCount, List<ProcPara
 	 * Returns a string representation of the Proc definition
 	 */
 	public String toString() {
-		String result = "  - ProcDef paramCount=" + paramCount + " nonRefCursorParamCount=" + nonRefCursorParamCount + "\n    params ("
-		    + params.size()
-		    + ")\n";
+		StringBuilder result = new StringBuilder( 96 * ( params.size() + 1 ) )
+		    .append( "  - ProcDef paramCount=" ).append( paramCount )
+		    .append( " nonRefCursorParamCount=" ).append( nonRefCursorParamCount )
+		    .append( "\n    params (" ).append( params.size() ).append( ")\n" );
 		for ( ProcParameter param : params ) {
-			result += param + "\n";
+			result.append( param ).append( '\n' );
 		}
-		return result;
+		return result.toString();
 	}
 
 }
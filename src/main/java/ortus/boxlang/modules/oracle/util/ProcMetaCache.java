@@ -0,0 +1,856 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ortus.boxlang.runtime.BoxRuntime;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.logging.BoxLangLogger;
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * The stored procedure metadata cache.
+ * <p>
+ * Every cached {@link Proc} carries the {@code LAST_DDL_TIME} and {@code STATUS} of its database object. Each datasource that has entries
+ * in the cache is revalidated in the background with a single batched {@code ALL_OBJECTS} query, and only the entries whose object
+ * changed are reloaded. Entries are replaced in place, so callers keep getting the previous definition until the new one is ready and
+ * never pay a cold miss after a deployment.
+ * <p>
+ * The revalidation interval is controlled by the {@code procMetaRevalidateInterval} datasource property, in seconds. A value of
+ * {@code 0} disables background revalidation for that datasource.
+ * <p>
+ * Lookups go through two levels. The name a procedure is called by resolves, per datasource, to the {@link Identity} Oracle resolved it
+ * to: the object and subprogram {@code DBMS_UTILITY.NAME_RESOLVE} returns. The identity holds the one shared definition, so
+ * {@code pkg.proc}, {@code PKG.PROC} and {@code hr.pkg.proc} all serve the same {@link Proc}, and a hit is two map reads on the name as
+ * called, without building a key. The first call with a new spelling loads the definition with the same round trip that resolves the name.
+ * If another spelling already cached the procedure, the name is pointed at that definition, which keeps its compiled call plans, and the
+ * new one is dropped.
+ * <p>
+ * Misses are loaded single-flight per name: concurrent misses for the same procedure share one in-flight load, while different
+ * procedures load in parallel. No monitor is held while a load talks to the database, so virtual threads waiting on a load park instead
+ * of pinning their carrier. When the {@code procMetaRefreshAhead} datasource property is set, a hit on an entry older than that many
+ * seconds triggers a reload on a virtual thread while the current definition keeps being served.
+ * <p>
+ * Hits, misses, loads, reloads and evictions are recorded per datasource in its {@link ProcMetrics}.
+ */
+public class ProcMetaCache {
+
+	/**
+	 * The datasource property that controls the revalidation interval, in seconds
+	 */
+	public static final String							REVALIDATE_INTERVAL_PROPERTY	= "procMetaRevalidateInterval";
+
+	/**
+	 * The default revalidation interval, in seconds
+	 */
+	public static final int								DEFAULT_REVALIDATE_INTERVAL		= 60;
+
+	/**
+	 * The datasource property that enables refresh-ahead, in seconds. Disabled by default.
+	 */
+	public static final String							REFRESH_AHEAD_PROPERTY			= "procMetaRefreshAhead";
+
+	/**
+	 * The datasource property with the directory to keep metadata snapshots in. Snapshots are disabled by default.
+	 */
+	public static final String							SNAPSHOT_PATH_PROPERTY			= "procMetaSnapshotPath";
+
+	/**
+	 * The datasource property that controls how often the snapshot is written, in seconds
+	 */
+	public static final String							SNAPSHOT_INTERVAL_PROPERTY		= "procMetaSnapshotInterval";
+
+	/**
+	 * The default snapshot interval, in seconds
+	 */
+	public static final int								DEFAULT_SNAPSHOT_INTERVAL		= 300;
+
+	private final Map<Identity, Entry>					entries							= new ConcurrentHashMap<>();
+	// The identity each name resolved to, per datasource
+	private final Map<Key, Map<String, Identity>>		names							= new ConcurrentHashMap<>();
+	// Keyed by Name for misses and by Identity for refresh-ahead
+	private final Map<Object, CompletableFuture<Proc>>	inFlight						= new ConcurrentHashMap<>();
+	private final Map<Key, DataSource>					dataSources						= new ConcurrentHashMap<>();
+	private final Map<Key, Integer>						refreshAhead					= new ConcurrentHashMap<>();
+	private final Map<Key, ScheduledFuture<?>>			revalidators					= new ConcurrentHashMap<>();
+	private final Map<Key, ScheduledFuture<?>>			snapshotWriters					= new ConcurrentHashMap<>();
+	private final Set<Key>								prewarmed						= ConcurrentHashMap.newKeySet();
+	private final Set<Key>								restored						= ConcurrentHashMap.newKeySet();
+	private final Map<Key, Long>						snapshotVersions				= new ConcurrentHashMap<>();
+	private final Map<Key, ProcMetrics>					metrics							= new ConcurrentHashMap<>();
+	// Bumped on every change to the entries, so unchanged snapshots aren't rewritten
+	private final AtomicLong							version							= new AtomicLong();
+	private volatile ScheduledExecutorService			scheduler;
+	private volatile ExecutorService					refresher;
+
+	/**
+	 * Loads a procedure definition using a connection
+	 */
+	@FunctionalInterface
+	public interface ProcLoader {
+
+		/**
+		 * Load the definition
+		 *
+		 * @param connection The connection to load it with
+		 * @param name       The name of the procedure, as called
+		 *
+		 * @return The Proc metadata
+		 *
+		 * @throws SQLException If a database access error occurs
+		 */
+		Proc load( BoxConnection connection, String name ) throws SQLException;
+	}
+
+	/**
+	 * Get a cached procedure definition
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 * @param name                 The name of the procedure, as called
+	 *
+	 * @return The Proc metadata, or null if not cached under that name
+	 */
+	public Proc get( Key dataSourceUniqueName, String name ) {
+		Entry entry = lookup( dataSourceUniqueName, name );
+		return entry == null ? null : entry.proc();
+	}
+
+	/**
+	 * Get the call plans compiled for a cached procedure definition
+	 *
+	 * @param proc The Proc metadata, as returned by the cache
+	 *
+	 * @return The call plans of its cache entry, or null if this definition is no longer the cached one
+	 */
+	public ProcCallPlans callPlans( Proc proc ) {
+		Entry entry = entries.get( Identity.of( proc ) );
+		return entry != null && entry.proc() == proc ? entry.callPlans() : null;
+	}
+
+	/**
+	 * Get a procedure definition, loading it on a miss. Concurrent misses for the same name wait on a single load, and a name that resolves
+	 * to an already cached procedure shares its definition instead of replacing it.
+	 *
+	 * @param connection The caller's connection, used for the load when this thread is the one performing it
+	 * @param name       The name of the procedure, as called
+	 * @param loader     The loader to run the first time a name is seen
+	 *
+	 * @return The Proc metadata
+	 *
+	 * @throws SQLException If the name doesn't resolve or the load fails
+	 */
+	public Proc getOrLoad( BoxConnection connection, String name, ProcLoader loader ) throws SQLException {
+		DataSource	dataSource	= connection.getDataSource();
+		Key			dsName		= dataSource.getUniqueName();
+		Entry		entry		= lookup( dsName, name );
+		if ( entry != null ) {
+			metrics( dsName ).recordHit();
+			refreshAheadIfDue( entry, loader );
+			return entry.proc();
+		}
+
+		ProcMetrics dsMetrics = metrics( dsName );
+		dsMetrics.recordMiss();
+		Name					key			= new Name( dsName, name );
+		CompletableFuture<Proc>	load		= new CompletableFuture<>();
+		CompletableFuture<Proc>	existing	= inFlight.putIfAbsent( key, load );
+		if ( existing != null ) {
+			return await( existing );
+		}
+
+		long start = System.nanoTime();
+		try {
+			// Another thread may have finished loading between our cache check and winning the in-flight slot
+			entry = lookup( dsName, name );
+			Proc proc = entry != null ? entry.proc() : loader.load( connection, name );
+			if ( entry == null ) {
+				if ( !putIfAbsent( name, proc, dataSource ) ) {
+					// Already cached under another spelling, whose definition keeps its compiled call plans
+					Entry cached = entries.get( Identity.of( proc ) );
+					proc = cached == null ? proc : cached.proc();
+				}
+				dsMetrics.recordLoad( proc.name(), proc, System.nanoTime() - start, "miss", null );
+			}
+			load.complete( proc );
+			return proc;
+		} catch ( SQLException | RuntimeException e ) {
+			dsMetrics.recordLoad( name, null, System.nanoTime() - start, "miss", e );
+			load.completeExceptionally( e );
+			throw e;
+		} finally {
+			inFlight.remove( key, load );
+		}
+	}
+
+	/**
+	 * Store a procedure definition under a name and make sure its datasource is being revalidated. Every other name that resolved to the
+	 * same procedure gets the new definition too.
+	 *
+	 * @param name       The name of the procedure, as called
+	 * @param proc       The Proc metadata
+	 * @param dataSource The datasource the procedure was loaded from
+	 */
+	public void put( String name, Proc proc, DataSource dataSource ) {
+		Identity identity = Identity.of( proc );
+		entries.put( identity, new Entry( proc, System.nanoTime() ) );
+		alias( proc.dataSourceUniqueName(), name, identity );
+		version.incrementAndGet();
+		watch( dataSource );
+	}
+
+	/**
+	 * Store a procedure definition under a name unless the procedure is already cached. The name is recorded either way, so it serves
+	 * whichever definition is cached.
+	 *
+	 * @param name       The name of the procedure, as called
+	 * @param proc       The Proc metadata
+	 * @param dataSource The datasource the procedure was loaded from
+	 *
+	 * @return True if the definition was added
+	 */
+	public boolean putIfAbsent( String name, Proc proc, DataSource dataSource ) {
+		Identity	identity	= Identity.of( proc );
+		boolean		added		= entries.putIfAbsent( identity, new Entry( proc, System.nanoTime() ) ) == null;
+		alias( proc.dataSourceUniqueName(), name, identity );
+		if ( added ) {
+			version.incrementAndGet();
+		}
+		watch( dataSource );
+		return added;
+	}
+
+	/**
+	 * Load the snapshot of a datasource into the cache. Definitions that are already cached are left alone, and a revalidation runs right
+	 * after so any definition that went stale while the node was down is reloaded.
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return The number of definitions restored
+	 *
+	 * @throws IOException If the snapshot can't be read
+	 */
+	public int restoreSnapshot( DataSource dataSource ) throws IOException {
+		Path file = getSnapshotFile( dataSource );
+		if ( file == null ) {
+			return 0;
+		}
+		markRestored( dataSource.getUniqueName() );
+
+		int restored = 0;
+		for ( Proc proc : ProcMetaSnapshot.read( file, dataSource.getUniqueName() ) ) {
+			if ( putIfAbsent( proc.name(), proc, dataSource ) ) {
+				restored++;
+			}
+		}
+		if ( restored > 0 ) {
+			getRefresher().execute( () -> revalidateQuietly( dataSource.getUniqueName() ) );
+		}
+		return restored;
+	}
+
+	/**
+	 * Write the snapshot of a datasource, if it has a snapshot path and anything changed since the last one
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return True if a snapshot was written
+	 *
+	 * @throws IOException If the snapshot can't be written
+	 */
+	public boolean writeSnapshot( DataSource dataSource ) throws IOException {
+		Path	file	= getSnapshotFile( dataSource );
+		Key		dsName	= dataSource.getUniqueName();
+		long	current	= version.get();
+		if ( file == null || Long.valueOf( current ).equals( snapshotVersions.get( dsName ) ) ) {
+			return false;
+		}
+
+		List<Proc> procs = new ArrayList<>();
+		for ( Entry entry : entries.values() ) {
+			if ( entry.proc().dataSourceUniqueName().equals( dsName ) ) {
+				procs.add( entry.proc() );
+			}
+		}
+		ProcMetaSnapshot.write( file, procs );
+		snapshotVersions.put( dsName, current );
+		return true;
+	}
+
+	/**
+	 * Record that a datasource has been prewarmed, so it isn't prewarmed again when the cache first sees it
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return True if the datasource had not been prewarmed yet
+	 */
+	public boolean markPrewarmed( Key dataSourceUniqueName ) {
+		return prewarmed.add( dataSourceUniqueName );
+	}
+
+	/**
+	 * Remove every cached definition for a datasource and stop revalidating it
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 */
+	public void clear( Key dataSourceUniqueName ) {
+		entries.keySet().removeIf( identity -> identity.dataSourceUniqueName().equals( dataSourceUniqueName ) );
+		names.remove( dataSourceUniqueName );
+		dataSources.remove( dataSourceUniqueName );
+		refreshAhead.remove( dataSourceUniqueName );
+		prewarmed.remove( dataSourceUniqueName );
+		restored.remove( dataSourceUniqueName );
+		snapshotVersions.remove( dataSourceUniqueName );
+		version.incrementAndGet();
+		ScheduledFuture<?> revalidator = revalidators.remove( dataSourceUniqueName );
+		if ( revalidator != null ) {
+			revalidator.cancel( false );
+		}
+		ScheduledFuture<?> snapshotWriter = snapshotWriters.remove( dataSourceUniqueName );
+		if ( snapshotWriter != null ) {
+			snapshotWriter.cancel( false );
+		}
+	}
+
+	/**
+	 * The number of cached definitions. A procedure called by several names counts once.
+	 *
+	 * @return The number of entries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get the metrics of a datasource, registering them with JMX the first time they are asked for
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The metrics
+	 */
+	public ProcMetrics metrics( Key dataSourceUniqueName ) {
+		ProcMetrics dsMetrics = metrics.get( dataSourceUniqueName );
+		if ( dsMetrics != null ) {
+			return dsMetrics;
+		}
+		return metrics.computeIfAbsent( dataSourceUniqueName, key -> {
+			ProcMetrics created = new ProcMetrics( key, () -> footprint( key ) );
+			created.registerMBean();
+			return created;
+		} );
+	}
+
+	/**
+	 * Get the metrics of a datasource, if it has any
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The metrics, or null if the cache never saw the datasource
+	 */
+	public ProcMetrics findMetrics( Key dataSourceUniqueName ) {
+		return metrics.get( dataSourceUniqueName );
+	}
+
+	/**
+	 * Unregister the metrics of every datasource from JMX. Called when the module unloads.
+	 */
+	public void unregisterMetrics() {
+		metrics.values().forEach( ProcMetrics::unregisterMBean );
+		metrics.clear();
+	}
+
+	/**
+	 * Stop the background revalidation, snapshot and refresh-ahead tasks of every datasource and their threads. The cached definitions
+	 * are kept, and the tasks of a datasource start again the next time it stores a definition. Called when the module unloads.
+	 */
+	public void shutdown() {
+		revalidators.values().forEach( task -> task.cancel( false ) );
+		revalidators.clear();
+		snapshotWriters.values().forEach( task -> task.cancel( false ) );
+		snapshotWriters.clear();
+		refreshAhead.clear();
+		dataSources.clear();
+		synchronized ( this ) {
+			if ( scheduler != null ) {
+				scheduler.shutdownNow();
+				scheduler = null;
+			}
+			if ( refresher != null ) {
+				refresher.shutdownNow();
+				refresher = null;
+			}
+		}
+	}
+
+	/**
+	 * Count the definitions cached for a datasource and estimate the memory they and the names they are called by take
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The footprint
+	 */
+	public Footprint footprint( Key dataSourceUniqueName ) {
+		int		count	= 0;
+		long	bytes	= 0;
+		for ( Entry entry : entries.values() ) {
+			if ( entry.proc().dataSourceUniqueName().equals( dataSourceUniqueName ) ) {
+				count++;
+				bytes += approximateBytes( entry.proc() );
+			}
+		}
+		Map<String, Identity> aliases = names.get( dataSourceUniqueName );
+		if ( aliases != null ) {
+			for ( String name : aliases.keySet() ) {
+				bytes += 32 + stringBytes( name );
+			}
+		}
+		return new Footprint( count, bytes );
+	}
+
+	/**
+	 * Revalidate every cached definition for a datasource against {@code ALL_OBJECTS}. Definitions whose object has a new
+	 * {@code LAST_DDL_TIME} or {@code STATUS} are reloaded in place, and definitions whose object no longer exists are evicted.
+	 *
+	 * @param dataSource The datasource to revalidate
+	 *
+	 * @return The number of definitions that were reloaded or evicted
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	public int revalidate( DataSource dataSource ) throws SQLException {
+		Key									dsName	= dataSource.getUniqueName();
+		List<Map.Entry<Identity, Entry>>	owned	= new ArrayList<>();
+		for ( Map.Entry<Identity, Entry> entry : entries.entrySet() ) {
+			if ( entry.getKey().dataSourceUniqueName().equals( dsName ) ) {
+				owned.add( entry );
+			}
+		}
+		if ( owned.isEmpty() ) {
+			return 0;
+		}
+
+		int changed = 0;
+		try ( BoxConnection conn = dataSource.getBoxConnection() ) {
+			Map<Integer, ObjectStamp> stamps = OracleUtil.getObjectStamps( conn, owned.stream().map( e -> e.getValue().proc().objectId() ).distinct().toList() );
+
+			for ( Map.Entry<Identity, Entry> entry : owned ) {
+				Entry		current	= entry.getValue();
+				Proc		proc	= current.proc();
+				ObjectStamp	stamp	= stamps.get( proc.objectId() );
+				if ( stamp == null ) {
+					// The object was dropped, the next call will resolve it again and surface the error
+					evict( entry.getKey(), current );
+					changed++;
+				} else if ( proc.isStale( stamp.lastDdlTime(), stamp.status() ) ) {
+					long start = System.nanoTime();
+					try {
+						Proc reloaded = OracleUtil.buildProcMeta( conn, proc.name() );
+						if ( entries.replace( entry.getKey(), current, new Entry( reloaded, System.nanoTime() ) ) ) {
+							version.incrementAndGet();
+						}
+						metrics( dsName ).recordLoad( proc.name(), reloaded, System.nanoTime() - start, "revalidate", null );
+					} catch ( SQLException e ) {
+						// Most likely invalid right now, so let the next call load it and report the problem
+						metrics( dsName ).recordLoad( proc.name(), null, System.nanoTime() - start, "revalidate", e );
+						evict( entry.getKey(), current );
+					}
+					changed++;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Get the entry a name resolved to. Allocation-free, this is the hit path of every procedure call.
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 * @param name                 The name of the procedure, as called
+	 *
+	 * @return The entry, or null if the name hasn't been resolved yet or its procedure is no longer cached
+	 */
+	private Entry lookup( Key dataSourceUniqueName, String name ) {
+		Map<String, Identity>	aliases		= names.get( dataSourceUniqueName );
+		Identity				identity	= aliases == null ? null : aliases.get( name );
+		return identity == null ? null : entries.get( identity );
+	}
+
+	/**
+	 * Record the identity a name resolved to
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 * @param name                 The name of the procedure, as called
+	 * @param identity             The identity
+	 */
+	private void alias( Key dataSourceUniqueName, String name, Identity identity ) {
+		names.computeIfAbsent( dataSourceUniqueName, key -> new ConcurrentHashMap<>() ).put( name, identity );
+	}
+
+	/**
+	 * Evict an entry, unless it was replaced in the meantime, along with the names that resolved to it
+	 *
+	 * @param identity The identity of the entry
+	 * @param current  The entry to evict
+	 */
+	private void evict( Identity identity, Entry current ) {
+		if ( !entries.remove( identity, current ) ) {
+			return;
+		}
+		version.incrementAndGet();
+		Map<String, Identity> aliases = names.get( identity.dataSourceUniqueName() );
+		if ( aliases != null ) {
+			aliases.values().removeIf( identity::equals );
+		}
+		metrics( identity.dataSourceUniqueName() ).recordEviction( current.proc().name() );
+	}
+
+	/**
+	 * Start revalidating a datasource in the background, if it isn't already
+	 *
+	 * @param dataSource The datasource
+	 */
+	private void watch( DataSource dataSource ) {
+		Key dsName = dataSource.getUniqueName();
+		// Always keep the latest instance, in case the datasource was re-created with the same name
+		dataSources.put( dsName, dataSource );
+		// Only the first caller for a datasource gets past here, so its background tasks are started once
+		Integer refreshAheadSeconds = IntegerCaster.cast(
+		    dataSource.getConfiguration().properties.getOrDefault( REFRESH_AHEAD_PROPERTY, 0 )
+		);
+		if ( refreshAhead.putIfAbsent( dsName, refreshAheadSeconds ) != null ) {
+			return;
+		}
+
+		// Datasources that weren't warmed up on module load get warmed up the first time we see them
+		boolean	restore	= getSnapshotFile( dataSource ) != null && markRestored( dsName );
+		boolean	prewarm	= !OracleUtil.getPrewarmTargets( dataSource ).isEmpty() && markPrewarmed( dsName );
+		if ( restore || prewarm ) {
+			getRefresher().execute( () -> {
+				try {
+					if ( restore ) {
+						restoreSnapshot( dataSource );
+					}
+					if ( prewarm ) {
+						OracleUtil.prewarmProcMeta( dataSource );
+					}
+				} catch ( Exception e ) {
+					getLogger().warn( "Unable to warm up Oracle stored procedure metadata for datasource [" + dsName.getName() + "]: " + e.getMessage() );
+				}
+			} );
+		}
+
+		int snapshotInterval = IntegerCaster.cast(
+		    dataSource.getConfiguration().properties.getOrDefault( SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL )
+		);
+		if ( getSnapshotFile( dataSource ) != null && snapshotInterval > 0 ) {
+			snapshotWriters.computeIfAbsent( dsName, key -> getScheduler().scheduleWithFixedDelay(
+			    () -> snapshotQuietly( key ),
+			    snapshotInterval,
+			    snapshotInterval,
+			    TimeUnit.SECONDS
+			) );
+		}
+
+		int interval = IntegerCaster.cast(
+		    dataSource.getConfiguration().properties.getOrDefault( REVALIDATE_INTERVAL_PROPERTY, DEFAULT_REVALIDATE_INTERVAL )
+		);
+		if ( interval <= 0 ) {
+			return;
+		}
+
+		revalidators.computeIfAbsent( dsName, key -> getScheduler().scheduleWithFixedDelay(
+		    () -> revalidateQuietly( key ),
+		    interval,
+		    interval,
+		    TimeUnit.SECONDS
+		) );
+	}
+
+	/**
+	 * Reload an entry on a virtual thread if refresh-ahead is enabled for its datasource and the entry is old enough. The current entry
+	 * keeps being served until the reload completes, and a procedure never has more than one reload in flight.
+	 *
+	 * @param entry  The entry that was just hit
+	 * @param loader The loader for the entry
+	 */
+	private void refreshAheadIfDue( Entry entry, ProcLoader loader ) {
+		Integer seconds = refreshAhead.get( entry.proc().dataSourceUniqueName() );
+		if ( seconds == null || seconds <= 0 || System.nanoTime() - entry.loadedAt() < TimeUnit.SECONDS.toNanos( seconds ) ) {
+			return;
+		}
+		DataSource dataSource = dataSources.get( entry.proc().dataSourceUniqueName() );
+		if ( dataSource == null ) {
+			return;
+		}
+
+		Identity				identity	= Identity.of( entry.proc() );
+		CompletableFuture<Proc>	load		= new CompletableFuture<>();
+		if ( inFlight.putIfAbsent( identity, load ) != null ) {
+			return;
+		}
+		getRefresher().execute( () -> {
+			ProcMetrics	dsMetrics	= metrics( dataSource.getUniqueName() );
+			long		start		= System.nanoTime();
+			try ( BoxConnection conn = dataSource.getBoxConnection() ) {
+				Proc proc = loader.load( conn, entry.proc().name() );
+				// Revalidation or a miss may have replaced the entry meanwhile, and theirs is at least as recent
+				if ( entries.replace( identity, entry, new Entry( proc, System.nanoTime() ) ) ) {
+					version.incrementAndGet();
+				}
+				dsMetrics.recordLoad( proc.name(), proc, System.nanoTime() - start, "refreshAhead", null );
+				load.complete( proc );
+			} catch ( Exception e ) {
+				// Keep serving the current definition, revalidation will catch up with it
+				dsMetrics.recordLoad( entry.proc().name(), null, System.nanoTime() - start, "refreshAhead", e );
+				load.complete( entry.proc() );
+				getLogger().warn( "Unable to refresh Oracle stored procedure metadata for [" + entry.proc().name() + "]: " + e.getMessage() );
+			} finally {
+				inFlight.remove( identity, load );
+			}
+		} );
+	}
+
+	/**
+	 * Wait for another thread's load to finish
+	 *
+	 * @param load The in-flight load
+	 *
+	 * @return The Proc metadata
+	 *
+	 * @throws SQLException If the load failed with a database error
+	 */
+	private static Proc await( CompletableFuture<Proc> load ) throws SQLException {
+		try {
+			return load.join();
+		} catch ( CompletionException e ) {
+			if ( e.getCause() instanceof SQLException sqlException ) {
+				throw sqlException;
+			}
+			if ( e.getCause() instanceof RuntimeException runtimeException ) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Record that a datasource's snapshot has been restored, so it isn't restored again
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return True if the snapshot had not been restored yet
+	 */
+	private boolean markRestored( Key dataSourceUniqueName ) {
+		return restored.add( dataSourceUniqueName );
+	}
+
+	/**
+	 * The snapshot file of a datasource
+	 *
+	 * @param dataSource The datasource
+	 *
+	 * @return The file, or null if snapshots are not enabled for it
+	 */
+	private static Path getSnapshotFile( DataSource dataSource ) {
+		Object directory = dataSource.getConfiguration().properties.get( SNAPSHOT_PATH_PROPERTY );
+		if ( directory == null || StringCaster.cast( directory ).isBlank() ) {
+			return null;
+		}
+		return ProcMetaSnapshot.fileFor( Path.of( StringCaster.cast( directory ) ), dataSource.getUniqueName() );
+	}
+
+	/**
+	 * Scheduled snapshot task. Errors are logged and never stop the schedule.
+	 *
+	 * @param dsName The unique name of the datasource
+	 */
+	private void snapshotQuietly( Key dsName ) {
+		DataSource dataSource = dataSources.get( dsName );
+		if ( dataSource == null ) {
+			return;
+		}
+		try {
+			writeSnapshot( dataSource );
+		} catch ( Exception e ) {
+			getLogger().warn( "Unable to write the Oracle stored procedure metadata snapshot for datasource [" + dsName.getName() + "]: " + e.getMessage() );
+		}
+	}
+
+	/**
+	 * Scheduled revalidation task. Errors are logged and never stop the schedule.
+	 *
+	 * @param dsName The unique name of the datasource
+	 */
+	private void revalidateQuietly( Key dsName ) {
+		DataSource dataSource = dataSources.get( dsName );
+		if ( dataSource == null ) {
+			return;
+		}
+		try {
+			revalidate( dataSource );
+		} catch ( Exception e ) {
+			getLogger().warn( "Unable to revalidate Oracle stored procedure metadata for datasource [" + dsName.getName() + "]: " + e.getMessage() );
+		}
+	}
+
+	/**
+	 * Lazily create the daemon scheduler used for background revalidation
+	 *
+	 * @return The scheduler
+	 */
+	private ScheduledExecutorService getScheduler() {
+		if ( scheduler == null ) {
+			synchronized ( this ) {
+				if ( scheduler == null ) {
+					scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+						Thread thread = new Thread( runnable, "bx-oracle-procmeta-revalidator" );
+						thread.setDaemon( true );
+						return thread;
+					} );
+				}
+			}
+		}
+		return scheduler;
+	}
+
+	/**
+	 * Lazily create the virtual thread executor used for refresh-ahead
+	 *
+	 * @return The executor
+	 */
+	private ExecutorService getRefresher() {
+		if ( refresher == null ) {
+			synchronized ( this ) {
+				if ( refresher == null ) {
+					refresher = Executors.newVirtualThreadPerTaskExecutor();
+				}
+			}
+		}
+		return refresher;
+	}
+
+	/**
+	 * A rough estimate of the heap a definition takes: its strings, records and lists. Compiled call plans are left out.
+	 *
+	 * @param proc The Proc metadata
+	 *
+	 * @return The estimate, in bytes
+	 */
+	private static long approximateBytes( Proc proc ) {
+		long bytes = 96 + stringBytes( proc.name() ) + stringBytes( proc.status() );
+		for ( ProcDef def : proc.definitions() ) {
+			bytes += 48 + 8L * def.params().size();
+			for ( ProcParameter param : def.params() ) {
+				bytes += 48 + stringBytes( param.name() ) + stringBytes( param.typeName() ) + stringBytes( param.collectionType() )
+				    + stringBytes( param.elementType() );
+			}
+		}
+		return bytes;
+	}
+
+	private static long stringBytes( String value ) {
+		return value == null ? 0 : 40 + value.length();
+	}
+
+	private static BoxLangLogger getLogger() {
+		return BoxRuntime.getInstance().getLoggingService().getLogger( "datasource" );
+	}
+
+	/**
+	 * A cached definition, when it was loaded and the call plans compiled for it. The plans belong to this entry, so they are dropped
+	 * whenever the definition is reloaded or evicted.
+	 *
+	 * @param proc      The Proc metadata
+	 * @param loadedAt  The {@link System#nanoTime()} at which it was loaded
+	 * @param callPlans The compiled call plans of the definition
+	 */
+	private record Entry( Proc proc, long loadedAt, ProcCallPlans callPlans ) {
+
+		/**
+		 * A freshly loaded definition, with no call plans yet
+		 */
+		Entry( Proc proc, long loadedAt ) {
+			this( proc, loadedAt, new ProcCallPlans() );
+		}
+	}
+
+	/**
+	 * What a procedure name resolves to: the object {@code DBMS_UTILITY.NAME_RESOLVE} returns (the package for packaged procedures) and
+	 * the procedure or function inside it. Every spelling of a procedure name resolves to the same identity.
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 * @param objectId             The resolved OBJECT_ID
+	 * @param subprogram           The resolved procedure or function name
+	 */
+	public record Identity( Key dataSourceUniqueName, int objectId, String subprogram ) {
+
+		/**
+		 * The identity of a procedure definition
+		 *
+		 * @param proc The Proc metadata
+		 *
+		 * @return The identity
+		 */
+		public static Identity of( Proc proc ) {
+			return new Identity( proc.dataSourceUniqueName(), proc.objectId(), proc.subprogram() );
+		}
+	}
+
+	/**
+	 * A procedure name as called, the single-flight key of a miss
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 * @param name                 The name of the procedure, as called
+	 */
+	private record Name( Key dataSourceUniqueName, String name ) {
+	}
+
+	/**
+	 * How much of the cache a datasource takes
+	 *
+	 * @param entries          The number of cached definitions
+	 * @param approximateBytes The estimated heap they take, in bytes
+	 */
+	public record Footprint( int entries, long approximateBytes ) {
+	}
+
+	/**
+	 * The current version of a database object, as reported by {@code ALL_OBJECTS}
+	 *
+	 * @param objectId    The OBJECT_ID
+	 * @param lastDdlTime The LAST_DDL_TIME, in epoch millis
+	 * @param status      The STATUS (VALID or INVALID)
+	 */
+	public record ObjectStamp( int objectId, long lastDdlTime, String status ) {
+	}
+}
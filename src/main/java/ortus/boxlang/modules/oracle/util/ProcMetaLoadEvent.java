@@ -0,0 +1,63 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for the load of a stored procedure definition from the data dictionary. Name resolution and the argument
+ * query run as one statement, so {@code queryTime} covers both and {@code readTime} the reading of the argument rows.
+ */
+@Name( "ortus.boxlang.oracle.ProcMetaLoad" )
+@Label( "Oracle Procedure Metadata Load" )
+@Category( { "BoxLang", "Oracle" } )
+@Description( "Resolution of a stored procedure name and the read of its arguments" )
+@StackTrace( false )
+public class ProcMetaLoadEvent extends Event {
+
+	@Label( "Datasource" )
+	String	dataSource;
+
+	@Label( "Procedure" )
+	String	procedure;
+
+	@Label( "Object Id" )
+	int		objectId;
+
+	@Label( "Overloads" )
+	int		overloads;
+
+	@Label( "Arguments" )
+	int		arguments;
+
+	@Label( "Query Time" )
+	@Description( "Resolving the name and executing the argument query" )
+	@Timespan( Timespan.NANOSECONDS )
+	long	queryTime;
+
+	@Label( "Read Time" )
+	@Description( "Reading the argument rows" )
+	@Timespan( Timespan.NANOSECONDS )
+	long	readTime;
+
+	@Label( "Succeeded" )
+	boolean	succeeded;
+}
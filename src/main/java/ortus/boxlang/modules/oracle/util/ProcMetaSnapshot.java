@@ -0,0 +1,184 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import ortus.boxlang.runtime.scopes.Key;
+
+/**
+ * A compact binary snapshot of the stored procedure metadata of one datasource, so a restarted or new node can serve calls with warm
+ * metadata without hitting the dictionary views. Snapshots are written atomically and read through a memory map.
+ * <p>
+ * Every entry keeps the {@code LAST_DDL_TIME} and {@code STATUS} it was built from, so restored entries that are stale are picked up by the
+ * next revalidation like any other entry.
+ */
+public class ProcMetaSnapshot {
+
+	private static final int	MAGIC	= 0x42584F50;	// BXOP
+	private static final short	VERSION	= 3;
+
+	private ProcMetaSnapshot() {
+	}
+
+	/**
+	 * The snapshot file of a datasource inside a snapshot directory
+	 *
+	 * @param directory            The snapshot directory
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The snapshot file path
+	 */
+	public static Path fileFor( Path directory, Key dataSourceUniqueName ) {
+		return directory.resolve( dataSourceUniqueName.getName().replaceAll( "[^A-Za-z0-9_.-]", "_" ) + ".procmeta" );
+	}
+
+	/**
+	 * Write a snapshot, replacing any previous one atomically
+	 *
+	 * @param file  The snapshot file
+	 * @param procs The procedure definitions
+	 *
+	 * @throws IOException If the snapshot can't be written
+	 */
+	public static void write( Path file, Collection<Proc> procs ) throws IOException {
+		Files.createDirectories( file.toAbsolutePath().getParent() );
+		Path temp = Files.createTempFile( file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp" );
+		try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temp ) ) ) ) {
+			out.writeInt( MAGIC );
+			out.writeShort( VERSION );
+			out.writeInt( procs.size() );
+			for ( Proc proc : procs ) {
+				writeString( out, proc.name() );
+				out.writeInt( proc.objectId() );
+				writeString( out, proc.subprogram() );
+				out.writeLong( proc.lastDdlTime() );
+				writeString( out, proc.status() );
+				out.writeShort( proc.definitions().size() );
+				for ( ProcDef def : proc.definitions() ) {
+					out.writeShort( def.params().size() );
+					for ( ProcParameter param : def.params() ) {
+						out.writeShort( param.position() );
+						writeString( out, param.name() );
+						writeString( out, param.typeName() );
+						out.writeByte( inOutCode( param.inOut() ) );
+						writeString( out, param.collectionType() );
+						writeString( out, param.elementType() );
+					}
+				}
+			}
+		}
+		Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+	}
+
+	/**
+	 * Read a snapshot. A missing, foreign, older or truncated file reads as empty.
+	 *
+	 * @param file                 The snapshot file
+	 * @param dataSourceUniqueName The unique name of the datasource the definitions belong to
+	 *
+	 * @return The procedure definitions
+	 *
+	 * @throws IOException If the snapshot exists but can't be read
+	 */
+	public static List<Proc> read( Path file, Key dataSourceUniqueName ) throws IOException {
+		List<Proc> procs = new ArrayList<>();
+		if ( !Files.isRegularFile( file ) ) {
+			return procs;
+		}
+
+		try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+			MappedByteBuffer in = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+			if ( in.remaining() < 10 || in.getInt() != MAGIC || in.getShort() != VERSION ) {
+				return procs;
+			}
+
+			int count = in.getInt();
+			for ( int i = 0; i < count; i++ ) {
+				String			name		= readString( in );
+				int				objectId	= in.getInt();
+				String			subprogram	= readString( in );
+				long			lastDdlTime	= in.getLong();
+				String			status		= readString( in );
+				int				defCount	= in.getShort();
+				List<ProcDef>	definitions	= new ArrayList<>( defCount );
+				for ( int d = 0; d < defCount; d++ ) {
+					int					paramCount	= in.getShort();
+					List<ProcParameter>	params		= new ArrayList<>( paramCount );
+					for ( int p = 0; p < paramCount; p++ ) {
+						params.add(
+						    new ProcParameter( in.getShort(), readString( in ), readString( in ), inOutKey( in.get() ), readString( in ), readString( in ) )
+						);
+					}
+					definitions.add( OracleUtil.toProcDef( params ) );
+				}
+				procs.add( new Proc( dataSourceUniqueName, name, definitions, objectId, subprogram, lastDdlTime, status ) );
+			}
+		} catch ( BufferUnderflowException e ) {
+			// Truncated, most likely written by a node that died mid-write before the atomic move was in place
+			procs.clear();
+		}
+		return procs;
+	}
+
+	private static void writeString( DataOutputStream out, String value ) throws IOException {
+		if ( value == null ) {
+			out.writeShort( -1 );
+			return;
+		}
+		byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		out.writeShort( bytes.length );
+		out.write( bytes );
+	}
+
+	private static String readString( ByteBuffer in ) {
+		int length = in.getShort();
+		if ( length < 0 ) {
+			return null;
+		}
+		byte[] bytes = new byte[ length ];
+		in.get( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+	private static byte inOutCode( Key inOut ) {
+		if ( inOut.equals( OracleUtil.inKey ) ) {
+			return 0;
+		}
+		return ( byte ) ( inOut.equals( OracleUtil.outKey ) ? 1 : 2 );
+	}
+
+	private static Key inOutKey( byte code ) {
+		return switch ( code ) {
+			case 0 -> OracleUtil.inKey;
+			case 1 -> OracleUtil.outKey;
+			default -> OracleUtil.inoutKey;
+		};
+	}
+}
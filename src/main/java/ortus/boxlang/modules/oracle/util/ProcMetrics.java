@@ -0,0 +1,410 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import ortus.boxlang.runtime.BoxRuntime;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Counters and load latencies of the stored procedure metadata cache and the procedure calls of a datasource.
+ * <p>
+ * Everything is recorded with {@link LongAdder}s, which stripe their cells across threads, so the cache hit path never contends on a
+ * lock or a shared counter. Each datasource's metrics are exposed as a {@link ProcMetricsMXBean}, and can be read with
+ * {@code OracleUtil.getProcMetrics( datasourceName )}.
+ * <p>
+ * Once the module is loaded, metadata loads and evictions are also announced to the {@code onOracleProcMetaLoad} and
+ * {@code onOracleProcMetaEvict} interception points. Hits and calls are only counted, announcing them would put the interceptor pool on
+ * every call.
+ */
+public class ProcMetrics implements ProcMetricsMXBean {
+
+	/**
+	 * The upper bounds of the load time histogram buckets, in milliseconds. Slower loads go in a last, unbounded bucket.
+	 */
+	static final long[]									BUCKET_BOUNDS	= { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000 };
+
+	/**
+	 * The domain the MBeans are registered under
+	 */
+	public static final String							JMX_DOMAIN		= "ortus.boxlang.modules.oracle";
+
+	private static volatile BiConsumer<Key, IStruct>	announcer;
+
+	private final Key									dataSourceName;
+	private final Supplier<ProcMetaCache.Footprint>		footprint;
+	private final LongAdder								hits			= new LongAdder();
+	private final LongAdder								misses			= new LongAdder();
+	private final LongAdder								loads			= new LongAdder();
+	private final LongAdder								loadFailures	= new LongAdder();
+	private final LongAdder								reloads			= new LongAdder();
+	private final LongAdder								evictions		= new LongAdder();
+	private final LongAdder								overloads		= new LongAdder();
+	private final LongAdder								loadNanos		= new LongAdder();
+	private final LongAccumulator						maxLoadNanos	= new LongAccumulator( Math::max, 0 );
+	private final LongAdder[]							loadBuckets		= new LongAdder[ BUCKET_BOUNDS.length + 1 ];
+	private final LongAdder								calls			= new LongAdder();
+	private final LongAdder								namedCalls		= new LongAdder();
+	private final LongAdder								refCursors		= new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param dataSourceName The unique name of the datasource
+	 * @param footprint      Reports the entries the cache holds for the datasource
+	 */
+	public ProcMetrics( Key dataSourceName, Supplier<ProcMetaCache.Footprint> footprint ) {
+		this.dataSourceName	= dataSourceName;
+		this.footprint		= footprint;
+		for ( int i = 0; i < loadBuckets.length; i++ ) {
+			loadBuckets[ i ] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Start announcing loads and evictions to the module's interception points. Called when the module loads.
+	 */
+	public static void enableAnnouncements() {
+		announcer = ( point, data ) -> BoxRuntime.getInstance().getInterceptorService().announce( point, data );
+	}
+
+	/**
+	 * Stop announcing loads and evictions. Called when the module unloads.
+	 */
+	public static void disableAnnouncements() {
+		announcer = null;
+	}
+
+	/**
+	 * Record a lookup answered from the cache
+	 */
+	public void recordHit() {
+		hits.increment();
+	}
+
+	/**
+	 * Record a lookup that had to load the definition, or wait for another thread's load
+	 */
+	public void recordMiss() {
+		misses.increment();
+	}
+
+	/**
+	 * Record a definition load
+	 *
+	 * @param procedure The name of the procedure, or the name it was called by for a failed load
+	 * @param proc      The definition, or null if the load failed
+	 * @param nanos     How long the load took
+	 * @param reason    Why it was loaded: {@code miss}, {@code revalidate} or {@code refreshAhead}
+	 * @param error     The error of a failed load, or null
+	 */
+	public void recordLoad( String procedure, Proc proc, long nanos, String reason, Throwable error ) {
+		if ( proc == null ) {
+			loadFailures.increment();
+		} else {
+			( "miss".equals( reason ) ? loads : reloads ).increment();
+			overloads.add( proc.definitions().size() );
+		}
+		loadNanos.add( nanos );
+		maxLoadNanos.accumulate( nanos );
+		loadBuckets[ bucketOf( TimeUnit.NANOSECONDS.toMillis( nanos ) ) ].increment();
+
+		announce( KeyDictionary.onOracleProcMetaLoad, Struct.of(
+		    Key.datasource, dataSourceName.getName(),
+		    KeyDictionary.procedure, procedure,
+		    KeyDictionary.reason, reason,
+		    KeyDictionary.overloads, proc == null ? 0 : proc.definitions().size(),
+		    KeyDictionary.durationMillis, nanos / 1_000_000d,
+		    KeyDictionary.error, error == null ? "" : String.valueOf( error.getMessage() )
+		) );
+	}
+
+	/**
+	 * Record a definition dropped from the cache because its object no longer exists or can't be reloaded
+	 *
+	 * @param procedure The name of the procedure
+	 */
+	public void recordEviction( String procedure ) {
+		evictions.increment();
+		announce( KeyDictionary.onOracleProcMetaEvict, Struct.of(
+		    Key.datasource, dataSourceName.getName(),
+		    KeyDictionary.procedure, procedure
+		) );
+	}
+
+	/**
+	 * Record a stored procedure call rewritten for its definition
+	 *
+	 * @param named      Whether the call passed named parameters
+	 * @param refCursors The number of ref cursor parameters injected
+	 */
+	public void recordCall( boolean named, int refCursors ) {
+		calls.increment();
+		if ( named ) {
+			namedCalls.increment();
+		}
+		this.refCursors.add( refCursors );
+	}
+
+	@Override
+	public String getDataSource() {
+		return dataSourceName.getName();
+	}
+
+	@Override
+	public long getCacheHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		long	hitCount	= hits.sum();
+		long	total		= hitCount + misses.sum();
+		return total == 0 ? 0 : ( double ) hitCount / total;
+	}
+
+	@Override
+	public int getCacheEntries() {
+		return footprint.get().entries();
+	}
+
+	@Override
+	public long getCacheApproximateBytes() {
+		return footprint.get().approximateBytes();
+	}
+
+	@Override
+	public long getLoads() {
+		return loads.sum();
+	}
+
+	@Override
+	public long getLoadFailures() {
+		return loadFailures.sum();
+	}
+
+	@Override
+	public long getReloads() {
+		return reloads.sum();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public double getAverageOverloads() {
+		long loaded = loads.sum() + reloads.sum();
+		return loaded == 0 ? 0 : ( double ) overloads.sum() / loaded;
+	}
+
+	@Override
+	public double getLoadTimeMeanMillis() {
+		long count = loads.sum() + reloads.sum() + loadFailures.sum();
+		return count == 0 ? 0 : loadNanos.sum() / 1_000_000d / count;
+	}
+
+	@Override
+	public double getLoadTimeMaxMillis() {
+		return maxLoadNanos.get() / 1_000_000d;
+	}
+
+	@Override
+	public double getLoadTimeP50Millis() {
+		return loadTimePercentile( 0.50 );
+	}
+
+	@Override
+	public double getLoadTimeP95Millis() {
+		return loadTimePercentile( 0.95 );
+	}
+
+	@Override
+	public double getLoadTimeP99Millis() {
+		return loadTimePercentile( 0.99 );
+	}
+
+	@Override
+	public Map<String, Long> getLoadTimeHistogram() {
+		Map<String, Long> histogram = new LinkedHashMap<>();
+		for ( int i = 0; i < loadBuckets.length; i++ ) {
+			histogram.put( i < BUCKET_BOUNDS.length ? "<=" + BUCKET_BOUNDS[ i ] + "ms" : ">" + BUCKET_BOUNDS[ i - 1 ] + "ms", loadBuckets[ i ].sum() );
+		}
+		return histogram;
+	}
+
+	@Override
+	public long getProcCalls() {
+		return calls.sum();
+	}
+
+	@Override
+	public long getNamedProcCalls() {
+		return namedCalls.sum();
+	}
+
+	@Override
+	public long getRefCursorsInjected() {
+		return refCursors.sum();
+	}
+
+	@Override
+	public void reset() {
+		for ( LongAdder adder : new LongAdder[] { hits, misses, loads, loadFailures, reloads, evictions, overloads, loadNanos, calls, namedCalls,
+		    refCursors } ) {
+			adder.reset();
+		}
+		for ( LongAdder bucket : loadBuckets ) {
+			bucket.reset();
+		}
+		maxLoadNanos.reset();
+	}
+
+	/**
+	 * Get a snapshot of the metrics
+	 *
+	 * @return The metrics, as a struct
+	 */
+	public IStruct toStruct() {
+		return Struct.linkedOf(
+		    "dataSource", getDataSource(),
+		    "cacheHits", getCacheHits(),
+		    "cacheMisses", getCacheMisses(),
+		    "cacheHitRate", getCacheHitRate(),
+		    "cacheEntries", getCacheEntries(),
+		    "cacheApproximateBytes", getCacheApproximateBytes(),
+		    "loads", getLoads(),
+		    "loadFailures", getLoadFailures(),
+		    "reloads", getReloads(),
+		    "evictions", getEvictions(),
+		    "averageOverloads", getAverageOverloads(),
+		    "loadTimeMeanMillis", getLoadTimeMeanMillis(),
+		    "loadTimeMaxMillis", getLoadTimeMaxMillis(),
+		    "loadTimeP50Millis", getLoadTimeP50Millis(),
+		    "loadTimeP95Millis", getLoadTimeP95Millis(),
+		    "loadTimeP99Millis", getLoadTimeP99Millis(),
+		    "procCalls", getProcCalls(),
+		    "namedProcCalls", getNamedProcCalls(),
+		    "refCursorsInjected", getRefCursorsInjected()
+		);
+	}
+
+	/**
+	 * Register the metrics with the platform MBean server, replacing the metrics of a previous datasource with the same name
+	 */
+	void registerMBean() {
+		try {
+			MBeanServer	server	= ManagementFactory.getPlatformMBeanServer();
+			ObjectName	name	= objectName( dataSourceName );
+			if ( server.isRegistered( name ) ) {
+				server.unregisterMBean( name );
+			}
+			server.registerMBean( this, name );
+		} catch ( JMException | IllegalArgumentException e ) {
+			// Metrics are still recorded and available from OracleUtil, only JMX is missing
+		}
+	}
+
+	/**
+	 * Remove the metrics from the platform MBean server
+	 */
+	void unregisterMBean() {
+		try {
+			MBeanServer	server	= ManagementFactory.getPlatformMBeanServer();
+			ObjectName	name	= objectName( dataSourceName );
+			if ( server.isRegistered( name ) ) {
+				server.unregisterMBean( name );
+			}
+		} catch ( JMException e ) {
+			// Already gone
+		}
+	}
+
+	/**
+	 * The JMX name of the metrics of a datasource
+	 *
+	 * @param dataSourceName The unique name of the datasource
+	 *
+	 * @return The object name
+	 *
+	 * @throws JMException If the name isn't valid
+	 */
+	static ObjectName objectName( Key dataSourceName ) throws JMException {
+		return new ObjectName( JMX_DOMAIN + ":type=ProcMetrics,datasource=" + ObjectName.quote( dataSourceName.getName() ) );
+	}
+
+	/**
+	 * The bucket a load time falls in
+	 */
+	static int bucketOf( long millis ) {
+		for ( int i = 0; i < BUCKET_BOUNDS.length; i++ ) {
+			if ( millis <= BUCKET_BOUNDS[ i ] ) {
+				return i;
+			}
+		}
+		return BUCKET_BOUNDS.length;
+	}
+
+	/**
+	 * Estimate a load time percentile as the upper bound of the bucket it falls in, or the slowest load for the last bucket
+	 */
+	private double loadTimePercentile( double percentile ) {
+		long[]	counts	= new long[ loadBuckets.length ];
+		long	total	= 0;
+		for ( int i = 0; i < counts.length; i++ ) {
+			counts[ i ]	= loadBuckets[ i ].sum();
+			total		+= counts[ i ];
+		}
+		if ( total == 0 ) {
+			return 0;
+		}
+		long	rank	= ( long ) Math.ceil( percentile * total );
+		long	seen	= 0;
+		for ( int i = 0; i < BUCKET_BOUNDS.length; i++ ) {
+			seen += counts[ i ];
+			if ( seen >= rank ) {
+				return BUCKET_BOUNDS[ i ];
+			}
+		}
+		return getLoadTimeMaxMillis();
+	}
+
+	private static void announce( Key point, IStruct data ) {
+		BiConsumer<Key, IStruct> current = announcer;
+		if ( current != null ) {
+			current.accept( point, data );
+		}
+	}
+}
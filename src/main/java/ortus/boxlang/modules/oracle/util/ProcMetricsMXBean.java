@@ -0,0 +1,129 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.util.Map;
+
+/**
+ * The JMX view of the stored procedure metrics of a datasource, registered as
+ * {@code ortus.boxlang.modules.oracle:type=ProcMetrics,datasource=<name>}
+ */
+public interface ProcMetricsMXBean {
+
+	/**
+	 * The unique name of the datasource
+	 */
+	String getDataSource();
+
+	/**
+	 * Metadata lookups answered from the cache
+	 */
+	long getCacheHits();
+
+	/**
+	 * Metadata lookups that loaded the definition or waited on another thread's load
+	 */
+	long getCacheMisses();
+
+	/**
+	 * Hits over lookups, between 0 and 1
+	 */
+	double getCacheHitRate();
+
+	/**
+	 * Definitions cached for the datasource
+	 */
+	int getCacheEntries();
+
+	/**
+	 * Estimated heap taken by the cached definitions
+	 */
+	long getCacheApproximateBytes();
+
+	/**
+	 * Definitions loaded on a miss
+	 */
+	long getLoads();
+
+	/**
+	 * Loads and reloads that failed
+	 */
+	long getLoadFailures();
+
+	/**
+	 * Definitions reloaded by revalidation or refresh-ahead
+	 */
+	long getReloads();
+
+	/**
+	 * Definitions dropped because their object is gone or no longer compiles
+	 */
+	long getEvictions();
+
+	/**
+	 * Average number of overloads per loaded definition
+	 */
+	double getAverageOverloads();
+
+	/**
+	 * Mean load time
+	 */
+	double getLoadTimeMeanMillis();
+
+	/**
+	 * Slowest load
+	 */
+	double getLoadTimeMaxMillis();
+
+	/**
+	 * Median load time, to the bucket bound
+	 */
+	double getLoadTimeP50Millis();
+
+	/**
+	 * 95th percentile load time, to the bucket bound
+	 */
+	double getLoadTimeP95Millis();
+
+	/**
+	 * 99th percentile load time, to the bucket bound
+	 */
+	double getLoadTimeP99Millis();
+
+	/**
+	 * Loads per load time bucket
+	 */
+	Map<String, Long> getLoadTimeHistogram();
+
+	/**
+	 * Stored procedure calls rewritten for their definition
+	 */
+	long getProcCalls();
+
+	/**
+	 * Calls that passed named parameters
+	 */
+	long getNamedProcCalls();
+
+	/**
+	 * REF CURSOR parameters added to calls
+	 */
+	long getRefCursorsInjected();
+
+	/**
+	 * Reset every counter and the histogram
+	 */
+	void reset();
+}
@@ -20,15 +20,42 @@ import ortus.boxlang.runtime.scopes.Key;
 
 /**
  * A record to define a stored procedure parameter
+ *
+ * @param position       The position of the parameter
+ * @param name           The name of the parameter
+ * @param typeName       The Oracle data type, as reported by {@code ALL_ARGUMENTS.DATA_TYPE}
+ * @param inOut          The direction of the parameter
+ * @param collectionType The fully qualified SQL type name to bind a collection with ({@code OWNER.TYPE} or {@code OWNER.PACKAGE.TYPE}), or
+ *                       null if the parameter is not a collection
+ * @param elementType    The Oracle data type of the collection elements, or null if unknown or not a collection
  */
-public record ProcParameter( int position, String name, String typeName, Key inOut ) implements Serializable {
+public record ProcParameter( int position, String name, String typeName, Key inOut, String collectionType, String elementType ) implements Serializable {
+
+	/**
+	 * Constructor for a scalar parameter
+	 *
+	 * @param position The position of the parameter
+	 * @param name     The name of the parameter
+	 * @param typeName The Oracle data type
+	 * @param inOut    The direction of the parameter
+	 */
+	public ProcParameter( int position, String name, String typeName, Key inOut ) {
+		this( position, name, typeName, inOut, null, null );
+	}
 
 	/**
 	 * Returns a string representation of the Proc parameter
 	 */
 	public String toString() {
-		String result = "      - Param #" + position + " name=" + name + " type=" + typeName + " inOut=" + inOut;
-		return result;
+		StringBuilder result = new StringBuilder( 96 )
+		    .append( "      - Param #" ).append( position )
+		    .append( " name=" ).append( name )
+		    .append( " type=" ).append( typeName )
+		    .append( " inOut=" ).append( inOut );
+		if ( isCollection() ) {
+			result.append( " collectionType=" ).append( collectionType ).append( " elementType=" ).append( elementType );
+		}
+		return result.toString();
 	}
 
 	/**
@@ -48,4 +75,24 @@ public record ProcParameter( int position, String name, String typeName, Key inO
 	public boolean isRefCursor() {
 		return typeName.equals( "REF CURSOR" );
 	}
+
+	/**
+	 * Indicates if the parameter is a collection (nested table, varray or index-by table) that can be bound from an array
+	 *
+	 * @return True if the parameter is a collection, false otherwise
+	 */
+	public boolean isCollection() {
+		return collectionType != null;
+	}
+
+	/**
+	 * Get a copy of this parameter with the element type of its collection
+	 *
+	 * @param type The Oracle data type of the elements
+	 *
+	 * @return The new ProcParameter
+	 */
+	public ProcParameter withElementType( String type ) {
+		return new ProcParameter( position, name, typeName, inOut, collectionType, type );
+	}
 }
@@ -0,0 +1,49 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a streamed REF CURSOR, from the moment it is opened until it is exhausted or closed
+ */
+@Name( "ortus.boxlang.oracle.RefCursorFetch" )
+@Label( "Oracle Ref Cursor Fetch" )
+@Category( { "BoxLang", "Oracle" } )
+@Description( "Reading the rows of a ref cursor" )
+@StackTrace( false )
+public class RefCursorFetchEvent extends Event {
+
+	@Label( "Cursor" )
+	String	cursor;
+
+	@Label( "Columns" )
+	int		columns;
+
+	@Label( "Fetch Size" )
+	int		fetchSize;
+
+	@Label( "Rows" )
+	long	rows;
+
+	@Label( "Round Trips" )
+	@Description( "The fetches needed for the rows read, at the fetch size" )
+	long	roundTrips;
+}
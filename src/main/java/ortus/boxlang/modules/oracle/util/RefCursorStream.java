@@ -0,0 +1,166 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A lazily read REF CURSOR. Rows are pulled from the server in chunks of the fetch size and handed out one struct at a time, so only a
+ * chunk is ever held in memory no matter how many rows the cursor returns. The cursor is closed as soon as it is exhausted, or when
+ * {@link #close()} is called.
+ * <p>
+ * Each cursor is recorded as a {@link RefCursorFetchEvent} in Java Flight Recorder, from the moment it is opened until it is closed.
+ */
+public class RefCursorStream implements Iterator<IStruct>, AutoCloseable {
+
+	/**
+	 * Rows are handed out after the cursor has moved on, so LOB locators can't be kept
+	 */
+	private static final LobPolicy		INLINE_LOBS	= new LobPolicy( -1 );
+
+	private final String				name;
+	private final ResultSet				resultSet;
+	private final Key[]					columns;
+	private final ColumnPlan			plan;
+	private final int					fetchSize;
+	private final RefCursorFetchEvent	event	= new RefCursorFetchEvent();
+	private long						rows;
+	private Boolean						lookahead;
+	private boolean						closed;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name       The name of the cursor
+	 * @param resultSet  The cursor
+	 * @param fetchSize  The number of rows to fetch per round trip
+	 * @param connection The connection the cursor is read on
+	 *
+	 * @throws SQLException If the cursor can't be read
+	 */
+	public RefCursorStream( String name, ResultSet resultSet, int fetchSize, Connection connection ) throws SQLException {
+		this.name		= name;
+		this.resultSet	= resultSet;
+		this.fetchSize	= fetchSize;
+		event.begin();
+		resultSet.setFetchSize( fetchSize );
+
+		ResultSetMetaData metaData = resultSet.getMetaData();
+		this.columns	= new Key[ metaData.getColumnCount() ];
+		this.plan		= ColumnPlan.of( metaData, INLINE_LOBS, connection );
+		for ( int i = 0; i < columns.length; i++ ) {
+			columns[ i ] = Key.of( metaData.getColumnLabel( i + 1 ) );
+		}
+	}
+
+	/**
+	 * The name of the cursor: the proc result name it was bound to, or its parameter name
+	 *
+	 * @return The name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * The column names of the cursor
+	 *
+	 * @return The column names
+	 */
+	public Key[] getColumns() {
+		return columns.clone();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if ( closed ) {
+			return false;
+		}
+		if ( lookahead == null ) {
+			try {
+				lookahead = resultSet.next();
+			} catch ( SQLException e ) {
+				close();
+				throw new IllegalStateException( "Unable to read the next row of ref cursor '" + name + "': " + e.getMessage(), e );
+			}
+			if ( !lookahead ) {
+				close();
+			}
+		}
+		return lookahead;
+	}
+
+	@Override
+	public IStruct next() {
+		if ( !hasNext() ) {
+			throw new NoSuchElementException( "Ref cursor '" + name + "' has no more rows" );
+		}
+		lookahead = null;
+		rows++;
+		try {
+			IStruct row = Struct.linkedOf();
+			for ( int i = 0; i < columns.length; i++ ) {
+				row.put( columns[ i ], readValue( i + 1 ) );
+			}
+			return row;
+		} catch ( SQLException e ) {
+			close();
+			throw new IllegalStateException( "Unable to read a row of ref cursor '" + name + "': " + e.getMessage(), e );
+		}
+	}
+
+	/**
+	 * Close the cursor. Safe to call more than once.
+	 */
+	@Override
+	public void close() {
+		if ( closed ) {
+			return;
+		}
+		closed = true;
+		event.end();
+		if ( event.shouldCommit() ) {
+			event.cursor		= name;
+			event.columns		= columns.length;
+			event.fetchSize		= fetchSize;
+			event.rows			= rows;
+			// The last fetch comes back short, or empty when the rows fill the previous one
+			event.roundTrips	= fetchSize > 0 ? rows / fetchSize + 1 : rows + 1;
+			event.commit();
+		}
+		try {
+			resultSet.close();
+		} catch ( SQLException e ) {
+			// Nothing left to read either way
+		}
+	}
+
+	/**
+	 * Read a column of the current row with the plan of the cursor. LOBs are always read inline, so the row stays valid after the cursor
+	 * moves on.
+	 */
+	private Object readValue( int column ) throws SQLException {
+		return plan.transform( column - 1, resultSet.getObject( column ) );
+	}
+}
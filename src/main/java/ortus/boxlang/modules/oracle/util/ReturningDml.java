@@ -0,0 +1,388 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Runs DML with a {@code RETURNING ... INTO} clause, so generated keys and computed columns come back in the same round trip as the
+ * insert or update instead of a second query.
+ * <p>
+ * A single statement is prepared with the returning columns, which the driver turns into {@code RETURNING ... INTO} out binds, and its
+ * parameters are bound with a {@link ParamBinder} like the runtime binds query parameters. A batch is sent as one anonymous block: each
+ * positional parameter is bound as an {@link OdciList} collection, and the statement runs in a {@code FORALL} that bulk collects the
+ * returning columns into collections of the same types. Batches larger than {@link #MAX_BATCH_ROWS} take one round trip per chunk.
+ * <p>
+ * Every value of a batch is cast by the {@link ParamBinder} like a single row's, then converted to the element of its collection, so
+ * every row of a batch is bound the same way. The types of the batch parameters are taken from those values, or from the {@code sqltype}
+ * of parameters given as structs. Returning columns take the type they are given. When a batch has returning columns without one, its
+ * first row runs on its own, bound with the elements it would have in the collections, and the metadata of the columns it returns types
+ * them for the rest of the batch, at the cost of one more round trip. {@code IN ( ? )} lists are only bound as collections for a single
+ * statement, not in a batch.
+ * <p>
+ * Dates in a batch go through {@code SYS.ODCIDATELIST}, which holds {@code DATE}s without fractional seconds or a time zone. A batch with
+ * a date time parameter that has either, or with a {@code TIMESTAMP} returning column typed from the first row, runs one row per round
+ * trip instead so nothing is truncated. Strings, in parameters and returning columns alike, go through {@code SYS.ODCIVARCHAR2LIST}, whose
+ * elements are limited to 4,000 bytes. Longer values fail the batch, run them one row at a time instead.
+ */
+public class ReturningDml {
+
+	/**
+	 * The most rows the built-in collection types can hold, and so the most rows sent per round trip
+	 */
+	public static final int	MAX_BATCH_ROWS	= OdciList.MAX_ELEMENTS;
+
+	private ReturningDml() {
+	}
+
+	/**
+	 * A column to return
+	 *
+	 * @param name The name of the column
+	 * @param type The type to return it as in a batch, or null to take it from the column
+	 */
+	public record Column( String name, OdciList type ) {
+
+		/**
+		 * Build a column from a name, or from a struct with a {@code name} and an optional {@code type}
+		 *
+		 * @param column The column
+		 *
+		 * @return The column
+		 *
+		 * @throws IllegalArgumentException If the column has no valid name
+		 */
+		public static Column of( Object column ) {
+			String	name	= column instanceof IStruct struct ? StringCaster.cast( struct.get( Key._NAME ) ) : StringCaster.cast( column );
+			Object	type	= column instanceof IStruct struct ? struct.get( Key.type ) : null;
+			name = name == null ? "" : name.trim();
+			if ( !name.matches( "[A-Za-z][A-Za-z0-9_$#]*|\"[^\"]+\"" ) ) {
+				throw new IllegalArgumentException( String.format( "The returning column '%s' is not a valid column name.", name ) );
+			}
+			return new Column( name, type == null ? null : OdciList.of( StringCaster.cast( type ) ) );
+		}
+	}
+
+	/**
+	 * Run a statement once and return the columns of the rows it touched
+	 *
+	 * @param connection The connection
+	 * @param sql        The INSERT, UPDATE, DELETE or MERGE, without a returning clause, with {@code ?} placeholders
+	 * @param params     The positional parameter values, as values or structs with a {@code value} key. Arrays bind the {@code ?} of an
+	 *                   {@code IN ( ? )} list as one collection.
+	 * @param returning  The columns to return
+	 * @param binder     Binds the parameter values
+	 *
+	 * @return One struct of the returning columns per row the statement touched
+	 *
+	 * @throws SQLException If the statement fails
+	 */
+	public static Array execute( Connection connection, String sql, List<?> params, List<Column> returning, ParamBinder binder )
+	    throws SQLException {
+		String[]			names	= columnNames( returning );
+		InListBinder.Bound	bound	= InListBinder.bind( connection, SqlText.trimTerminator( sql ), params );
+		try ( PreparedStatement statement = connection.prepareStatement( bound.sql(), names ) ) {
+			StatementCacheStats.recordPrepared( connection, statement );
+			for ( int i = 0; i < bound.params().size(); i++ ) {
+				binder.bind( statement, i + 1, bound.params().get( i ) );
+			}
+			statement.executeUpdate();
+			return readReturning( statement, names, null );
+		}
+	}
+
+	/**
+	 * Run one row of a batch on its own, binding each value as the element it would be in its collection
+	 *
+	 * @param connection The connection
+	 * @param sql        The statement, with {@code ?} placeholders
+	 * @param values     The values of the row, cast by the binder
+	 * @param types      The collection type of each parameter
+	 * @param returning  The columns to return
+	 * @param returned   Filled with the collection type of each returning column, null for one no collection holds without loss, or
+	 *                   null if they aren't needed
+	 *
+	 * @return One struct of the returning columns per row the statement touched
+	 *
+	 * @throws SQLException If the statement fails
+	 */
+	private static Array executeRow( Connection connection, String sql, Object[] values, OdciList[] types, List<Column> returning,
+	    OdciList[] returned ) throws SQLException {
+		String[] names = columnNames( returning );
+		try ( PreparedStatement statement = connection.prepareStatement( SqlText.trimTerminator( sql ), names ) ) {
+			StatementCacheStats.recordPrepared( connection, statement );
+			for ( int p = 0; p < types.length; p++ ) {
+				statement.setObject( p + 1, OdciList.convert( values[ p ], types[ p ] ), types[ p ].getElementType() );
+			}
+			statement.executeUpdate();
+			return readReturning( statement, names, returned );
+		}
+	}
+
+	/**
+	 * Read the returning columns of an executed statement from its generated keys
+	 *
+	 * @param returned Filled with the collection type of each returning column, or null if they aren't needed
+	 */
+	private static Array readReturning( PreparedStatement statement, String[] names, OdciList[] returned ) throws SQLException {
+		Array rows = new Array();
+		try ( ResultSet keys = statement.getGeneratedKeys() ) {
+			if ( returned != null ) {
+				ResultSetMetaData metaData = keys.getMetaData();
+				for ( int i = 0; i < returned.length; i++ ) {
+					// Oracle reports DATE columns as TIMESTAMP too, only the type name tells a real TIMESTAMP apart
+					String typeName = metaData.getColumnTypeName( i + 1 );
+					returned[ i ] = typeName != null && typeName.toUpperCase().startsWith( "TIMESTAMP" )
+					    ? null
+					    : OdciList.ofSqlType( metaData.getColumnType( i + 1 ) );
+				}
+			}
+			while ( keys.next() ) {
+				IStruct row = Struct.linkedOf();
+				for ( int i = 0; i < names.length; i++ ) {
+					row.put( Key.of( names[ i ] ), keys.getObject( i + 1 ) );
+				}
+				rows.add( row );
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * The names of the returning columns
+	 *
+	 * @throws IllegalArgumentException If there are none
+	 */
+	private static String[] columnNames( List<Column> returning ) {
+		if ( returning.isEmpty() ) {
+			throw new IllegalArgumentException( "At least one returning column is required." );
+		}
+		return returning.stream().map( Column::name ).toArray( String[]::new );
+	}
+
+	/**
+	 * Run a statement for every row of parameters and return the columns of the rows it touched, in one round trip per
+	 * {@link #MAX_BATCH_ROWS} rows
+	 *
+	 * @param connection The connection
+	 * @param sql        The INSERT, UPDATE, DELETE or MERGE, without a returning clause, with {@code ?} placeholders
+	 * @param batch      The positional parameter values of each execution, as values or structs with a {@code value} key
+	 * @param returning  The columns to return
+	 * @param binder     Binds the parameter values of a single row
+	 *
+	 * @return One struct of the returning columns per row the statement touched, in the order of the batch
+	 *
+	 * @throws SQLException             If the statement fails
+	 * @throws IllegalArgumentException If there are no returning columns, the statement has no parameters or the rows don't all have one
+	 *                                  value per placeholder
+	 */
+	public static Array executeBatch( Connection connection, String sql, List<? extends List<?>> batch, List<Column> returning,
+	    ParamBinder binder ) throws SQLException {
+		columnNames( returning );
+		Array rows = new Array();
+		if ( batch.isEmpty() ) {
+			return rows;
+		}
+
+		// Every value is cast like the binder casts a single row, so each element of a collection has the type its sqltype binds as
+		List<Object[]>	values	= new ArrayList<>( batch.size() );
+		for ( List<?> row : batch ) {
+			values.add( row.stream().map( binder::cast ).toArray() );
+		}
+		OdciList[]		types	= paramTypes( batch, values );
+		checkPlaceholders( SqlText.placeholders( sql ), types.length );
+		if ( !fitsCollections( values, types ) ) {
+			return executeRows( connection, sql, values, types, returning, 0, rows );
+		}
+		int start = 0;
+		if ( returning.stream().anyMatch( column -> column.type() == null ) ) {
+			// Run the first row on its own, what it returns says the types of the columns
+			OdciList[] returned = new OdciList[ returning.size() ];
+			rows.addAll( executeRow( connection, sql, values.get( 0 ), types, returning, returned ) );
+			List<Column> typed = new ArrayList<>( returning.size() );
+			for ( int c = 0; c < returned.length; c++ ) {
+				Column column = returning.get( c );
+				if ( column.type() == null && returned[ c ] == null ) {
+					return executeRows( connection, sql, values, types, returning, 1, rows );
+				}
+				typed.add( column.type() == null ? new Column( column.name(), returned[ c ] ) : column );
+			}
+			returning	= typed;
+			start		= 1;
+		}
+
+		String block = bulkBlock( sql, types, returning );
+		for ( int from = start; from < batch.size(); from += MAX_BATCH_ROWS ) {
+			List<Object[]> chunk = values.subList( from, Math.min( values.size(), from + MAX_BATCH_ROWS ) );
+			try ( CallableStatement statement = connection.prepareCall( block ) ) {
+				StatementCacheStats.recordPrepared( connection, statement );
+				for ( int p = 0; p < types.length; p++ ) {
+					List<Object> column = new ArrayList<>( chunk.size() );
+					for ( Object[] row : chunk ) {
+						column.add( row[ p ] );
+					}
+					statement.setArray( p + 1, types[ p ].create( connection, column ) );
+				}
+				for ( int c = 0; c < returning.size(); c++ ) {
+					statement.registerOutParameter( types.length + c + 1, Types.ARRAY, returning.get( c ).type().getCollectionType() );
+				}
+				statement.execute();
+
+				Object[][] columns = new Object[ returning.size() ][];
+				for ( int c = 0; c < columns.length; c++ ) {
+					columns[ c ] = ( Object[] ) statement.getArray( types.length + c + 1 ).getArray();
+				}
+				for ( int r = 0; r < columns[ 0 ].length; r++ ) {
+					IStruct row = Struct.linkedOf();
+					for ( int c = 0; c < columns.length; c++ ) {
+						row.put( Key.of( returning.get( c ).name() ), columns[ c ][ r ] );
+					}
+					rows.add( row );
+				}
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Run the rows of a batch one round trip each, for values no collection holds without loss
+	 *
+	 * @param from The first row to run
+	 * @param rows The rows returned so far, added to
+	 */
+	private static Array executeRows( Connection connection, String sql, List<Object[]> values, OdciList[] types, List<Column> returning,
+	    int from, Array rows ) throws SQLException {
+		for ( int r = from; r < values.size(); r++ ) {
+			rows.addAll( executeRow( connection, sql, values.get( r ), types, returning, null ) );
+		}
+		return rows;
+	}
+
+	/**
+	 * Whether every value of a batch fits the collection of its parameter without loss
+	 */
+	private static boolean fitsCollections( List<Object[]> values, OdciList[] types ) {
+		for ( Object[] row : values ) {
+			for ( int p = 0; p < types.length; p++ ) {
+				if ( !types[ p ].holds( row[ p ] ) ) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Build the anonymous block that runs a statement for every element of its parameter arrays and bulk collects the returning columns
+	 *
+	 * @param sql       The statement, with {@code ?} placeholders
+	 * @param types     The type of each parameter
+	 * @param returning The columns to return, with their types
+	 *
+	 * @return The block. Its binds are the parameter arrays in order, then the returning arrays in order.
+	 */
+	static String bulkBlock( String sql, OdciList[] types, List<Column> returning ) {
+		List<Integer> placeholders = SqlText.placeholders( sql );
+		checkPlaceholders( placeholders, types.length );
+
+		StringBuilder block = new StringBuilder( sql.length() + 64 * ( types.length + returning.size() ) ).append( "DECLARE" );
+		for ( int p = 0; p < types.length; p++ ) {
+			block.append( " b" ).append( p + 1 ).append( ' ' ).append( types[ p ].getCollectionType() ).append( " := ?;" );
+		}
+		for ( int c = 0; c < returning.size(); c++ ) {
+			block.append( " r" ).append( c + 1 ).append( ' ' ).append( returning.get( c ).type().getCollectionType() ).append( ';' );
+		}
+		block.append( " BEGIN FORALL i IN 1 .. b1.COUNT " );
+
+		String	statement	= SqlText.trimTerminator( sql );
+		int		last		= 0;
+		for ( int p = 0; p < placeholders.size(); p++ ) {
+			block.append( statement, last, placeholders.get( p ) ).append( 'b' ).append( p + 1 ).append( "(i)" );
+			last = placeholders.get( p ) + 1;
+		}
+		block.append( statement, last, statement.length() ).append( " RETURNING " );
+		for ( int c = 0; c < returning.size(); c++ ) {
+			block.append( c == 0 ? "" : ", " ).append( returning.get( c ).name() );
+		}
+		block.append( " BULK COLLECT INTO " );
+		for ( int c = 0; c < returning.size(); c++ ) {
+			block.append( c == 0 ? "" : ", " ).append( 'r' ).append( c + 1 );
+		}
+		block.append( ';' );
+		for ( int c = 0; c < returning.size(); c++ ) {
+			block.append( " ? := r" ).append( c + 1 ).append( ';' );
+		}
+		return block.append( " END;" ).toString();
+	}
+
+	/**
+	 * Check a batch has a value for each placeholder of its statement
+	 *
+	 * @throws IllegalArgumentException If the statement has no parameters or a different number than the rows have values
+	 */
+	private static void checkPlaceholders( List<Integer> placeholders, int values ) {
+		if ( placeholders.isEmpty() ) {
+			throw new IllegalArgumentException( "A batch needs a statement with parameters, every row would run the same statement." );
+		}
+		if ( placeholders.size() != values ) {
+			throw new IllegalArgumentException(
+			    String.format( "The statement has %d parameters but the batch rows have %d values.", placeholders.size(), values ) );
+		}
+	}
+
+	/**
+	 * The type of each parameter of a batch: the {@code sqltype} of the first row's struct, or the type of its first non-null value
+	 *
+	 * @param batch  The parameters of each row, as given
+	 * @param values The values of each row, cast by the binder
+	 */
+	private static OdciList[] paramTypes( List<? extends List<?>> batch, List<Object[]> values ) {
+		int			count	= batch.get( 0 ).size();
+		OdciList[]	types	= new OdciList[ count ];
+		for ( List<?> row : batch ) {
+			if ( row.size() != count ) {
+				throw new IllegalArgumentException(
+				    String.format( "Every row of a batch needs the same number of values, found %d and %d.", count, row.size() ) );
+			}
+		}
+		for ( int p = 0; p < count; p++ ) {
+			if ( batch.get( 0 ).get( p ) instanceof IStruct param && param.get( Key.sqltype ) != null ) {
+				types[ p ] = OdciList.of( StringCaster.cast( param.get( Key.sqltype ) ) );
+				continue;
+			}
+			for ( int r = 0; r < values.size() && types[ p ] == null; r++ ) {
+				types[ p ] = OdciList.ofValue( values.get( r )[ p ] );
+			}
+			if ( types[ p ] == null ) {
+				types[ p ] = OdciList.VARCHAR;
+			}
+		}
+		return types;
+	}
+}
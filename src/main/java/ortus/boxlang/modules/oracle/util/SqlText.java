@@ -0,0 +1,100 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scanning of SQL text for the statement rewrites of the module
+ */
+public class SqlText {
+
+	private SqlText() {
+	}
+
+	/**
+	 * Find the {@code ?} placeholders of a statement, skipping string literals, quoted identifiers and comments
+	 *
+	 * @param sql The statement
+	 *
+	 * @return The index of each placeholder
+	 */
+	public static List<Integer> placeholders( String sql ) {
+		List<Integer>	found	= new ArrayList<>();
+		int				length	= sql.length();
+		for ( int i = 0; i < length; i++ ) {
+			char c = sql.charAt( i );
+			if ( c == '?' ) {
+				found.add( i );
+			} else if ( ( c == 'q' || c == 'Q' ) && i + 2 < length && sql.charAt( i + 1 ) == '\'' && !isIdentifierPart( sql, i - 1 ) ) {
+				// q'[...]' alternative quoting ends with the closing delimiter and a quote
+				int end = sql.indexOf( closingDelimiter( sql.charAt( i + 2 ) ) + "'", i + 3 );
+				i = end < 0 ? length : end + 1;
+			} else if ( c == '\'' || c == '"' ) {
+				int end = sql.indexOf( c, i + 1 );
+				// Doubled quotes inside a literal are just two literals back to back
+				i = end < 0 ? length : end;
+			} else if ( c == '-' && i + 1 < length && sql.charAt( i + 1 ) == '-' ) {
+				int end = sql.indexOf( '\n', i );
+				i = end < 0 ? length : end;
+			} else if ( c == '/' && i + 1 < length && sql.charAt( i + 1 ) == '*' ) {
+				int end = sql.indexOf( "*/", i + 2 );
+				i = end < 0 ? length : end + 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Whether the character at an index continues an identifier, so a {@code q} there isn't the start of a quoted literal. The national
+	 * character prefix of {@code nq'[...]'} doesn't count.
+	 */
+	private static boolean isIdentifierPart( String sql, int index ) {
+		if ( index < 0 ) {
+			return false;
+		}
+		char c = sql.charAt( index );
+		if ( c == 'n' || c == 'N' ) {
+			return isIdentifierPart( sql, index - 1 );
+		}
+		return Character.isLetterOrDigit( c ) || c == '_' || c == '$' || c == '#';
+	}
+
+	private static char closingDelimiter( char open ) {
+		return switch ( open ) {
+			case '[' -> ']';
+			case '{' -> '}';
+			case '(' -> ')';
+			case '<' -> '>';
+			default -> open;
+		};
+	}
+
+	/**
+	 * Remove the whitespace and statement terminators around a statement, which JDBC doesn't accept
+	 *
+	 * @param sql The statement
+	 *
+	 * @return The statement without them
+	 */
+	public static String trimTerminator( String sql ) {
+		String trimmed = sql.strip();
+		while ( trimmed.endsWith( ";" ) ) {
+			trimmed = trimmed.substring( 0, trimmed.length() - 1 ).strip();
+		}
+		return trimmed;
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import oracle.jdbc.OracleStatement;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.IntegerCaster;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Turns on the Oracle JDBC implicit statement cache for the connections of a datasource and counts its hits and misses.
+ * <p>
+ * With the implicit cache on, preparing the same SQL again on a connection returns the statement it already has open, so the server
+ * skips the parse and cursor open. This covers the {@code CallableStatement}s of stored procedure calls too. The cache is sized per
+ * connection by the {@code statementCacheSize} datasource property, and {@code 0} leaves it off. It is turned on by the
+ * {@code oracle.jdbc.implicitStatementCacheSize} connection property, so every connection has it from the start.
+ * <p>
+ * Hits and misses are counted from the {@code creationState()} of the statements the functions of this module prepare, right after they
+ * are prepared. The runtime doesn't hand the driver the statements of {@code queryExecute} and {@code bx:storedproc}, so the counts, and
+ * so the hit rate, only cover the module's functions, whether or not the runtime's statements came out of the cache.
+ */
+public class StatementCacheStats {
+
+	/**
+	 * The datasource property with the number of statements to cache per connection
+	 */
+	public static final String								SIZE_PROPERTY	= "statementCacheSize";
+
+	/**
+	 * The default number of statements to cache per connection
+	 */
+	public static final int									DEFAULT_SIZE	= 50;
+
+	/**
+	 * The connection property that sizes the implicit statement cache, and turns it on when above 0
+	 */
+	public static final String								SIZE_PARAM		= "oracle.jdbc.implicitStatementCacheSize";
+
+	private static final Map<Key, StatementCacheStats>		registry		= new ConcurrentHashMap<>();
+
+	private final Key										dataSourceName;
+	private final int										size;
+	private final LongAdder									hits			= new LongAdder();
+	private final LongAdder									misses			= new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param dataSourceName The name of the datasource
+	 * @param size           The number of statements to cache per connection
+	 */
+	public StatementCacheStats( Key dataSourceName, int size ) {
+		this.dataSourceName	= dataSourceName;
+		this.size			= size;
+	}
+
+	/**
+	 * Register the statement cache of a datasource, and size it through its custom params unless the datasource sets
+	 * {@code oracle.jdbc.implicitStatementCacheSize} itself. Counts already collected for the datasource are kept unless the size changed.
+	 *
+	 * @param config The datasource configuration
+	 */
+	public static void register( DatasourceConfig config ) {
+		int size = IntegerCaster.cast( config.properties.getOrDefault( SIZE_PROPERTY, DEFAULT_SIZE ) );
+		if ( size > 0 ) {
+			Object custom = config.properties.get( "custom" );
+			if ( custom == null ) {
+				custom = Struct.of();
+				config.properties.put( "custom", custom );
+			}
+			if ( custom instanceof IStruct customParams ) {
+				customParams.putIfAbsent( Key.of( SIZE_PARAM ), String.valueOf( size ) );
+			} else if ( !StringCaster.cast( custom ).contains( SIZE_PARAM ) ) {
+				String query = StringCaster.cast( custom );
+				config.properties.put( "custom", ( query.isBlank() ? "" : query + "&" ) + SIZE_PARAM + "=" + size );
+			}
+		}
+		registry.compute(
+		    config.getUniqueName(),
+		    ( key, existing ) -> existing != null && existing.size == size ? existing : new StatementCacheStats( config.name, size )
+		);
+	}
+
+	/**
+	 * Get the statement cache registered for a datasource
+	 *
+	 * @param dataSourceUniqueName The unique name of the datasource
+	 *
+	 * @return The statement cache, or null if there is none
+	 */
+	static StatementCacheStats of( Key dataSourceUniqueName ) {
+		return registry.get( dataSourceUniqueName );
+	}
+
+	/**
+	 * Get the statement cache of a datasource
+	 *
+	 * @param dataSourceName The unique name of the datasource, or its name
+	 *
+	 * @return The statement cache, or null if the datasource has none
+	 */
+	public static StatementCacheStats forDataSource( Key dataSourceName ) {
+		StatementCacheStats registered = registry.get( dataSourceName );
+		if ( registered != null ) {
+			return registered;
+		}
+		for ( StatementCacheStats stats : registry.values() ) {
+			if ( dataSourceName.equals( stats.dataSourceName ) ) {
+				return stats;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Count a statement as a hit or a miss against the statement cache of its connection's datasource
+	 *
+	 * @param connection The connection the statement was prepared on
+	 * @param statement  The statement, just prepared
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	static void recordPrepared( Connection connection, Statement statement ) throws SQLException {
+		Key					dataSource	= ColumnPlan.dataSourceOf( connection );
+		StatementCacheStats	stats		= dataSource == null ? null : registry.get( dataSource );
+		if ( stats != null ) {
+			stats.record( statement );
+		}
+	}
+
+	/**
+	 * Count a statement as a hit or a miss, depending on whether it came out of the cache
+	 *
+	 * @param statement The statement
+	 *
+	 * @throws SQLException If a database access error occurs
+	 */
+	public void record( Statement statement ) throws SQLException {
+		if ( !statement.isWrapperFor( OracleStatement.class ) ) {
+			return;
+		}
+		if ( statement.unwrap( OracleStatement.class ).creationState() == OracleStatement.NEW ) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+	}
+
+	/**
+	 * Get the current counts, of the statements the functions of this module prepared
+	 *
+	 * @return The counts
+	 */
+	public Counts getCounts() {
+		long	hitCount	= hits.sum();
+		long	missCount	= misses.sum();
+		long	total		= hitCount + missCount;
+		return new Counts( dataSourceName, size, hitCount, missCount, total == 0 ? 0 : ( double ) hitCount / total );
+	}
+
+	/**
+	 * The statement cache counts of a datasource, over the statements the functions of this module prepared
+	 *
+	 * @param dataSource The name of the datasource
+	 * @param cacheSize  The number of statements cached per connection
+	 * @param hits       The statements that came out of the cache
+	 * @param misses     The statements that had to be parsed
+	 * @param hitRate    The share of hits among the statements, from 0 to 1
+	 */
+	public record Counts( Key dataSource, int cacheSize, long hits, long misses, double hitRate ) {
+	}
+}
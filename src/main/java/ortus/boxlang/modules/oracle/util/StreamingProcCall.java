@@ -0,0 +1,208 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import oracle.jdbc.OracleTypes;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * A stored procedure call whose REF CURSOR results are streamed instead of read into queries. The parameters are rewritten with the same
+ * {@link ProcCallPlan} as regular calls, so named and positional calls, overloads and collection parameters all work the same way, but
+ * each ref cursor comes back as a {@link RefCursorStream} that is read lazily in chunks of the fetch size.
+ * <p>
+ * Closing the call closes every cursor and the statement. The connection stays with the caller.
+ */
+public class StreamingProcCall implements AutoCloseable {
+
+	/**
+	 * The default number of rows fetched per round trip
+	 */
+	public static final int				DEFAULT_FETCH_SIZE	= 1000;
+
+	private final CallableStatement		statement;
+	private final List<RefCursorStream>	cursors;
+	private final IStruct				outParams;
+
+	private StreamingProcCall( CallableStatement statement, List<RefCursorStream> cursors, IStruct outParams ) {
+		this.statement	= statement;
+		this.cursors	= cursors;
+		this.outParams	= outParams;
+	}
+
+	/**
+	 * Execute a stored procedure and open its ref cursors for streaming
+	 *
+	 * @param conn          The BoxConnection instance
+	 * @param procedureName The name of the stored procedure
+	 * @param params        The parameters, in the same format as {@code bx:procparam}. They are not modified.
+	 * @param procResults   The names to give the ref cursors, in order, in the same format as {@code bx:procresult}
+	 * @param fetchSize     The number of rows to fetch per round trip
+	 * @param binder        Binds the IN values the way the runtime binds query parameters
+	 *
+	 * @return The call, to be closed once the cursors have been read
+	 *
+	 * @throws SQLException If the procedure can't be resolved or executed
+	 */
+	public static StreamingProcCall execute( BoxConnection conn, String procedureName, Array params, Array procResults, int fetchSize,
+	    ParamBinder binder ) throws SQLException {
+		Array callParams = new Array();
+		for ( Object param : params ) {
+			callParams.add( Struct.fromMap( ( IStruct ) param ) );
+		}
+		Proc			proc	= OracleUtil.getProcMeta( conn, procedureName );
+		ProcCallPlan	plan	= ProcCallPlan.forCall( proc, procedureName, callParams );
+		plan.apply( conn, callParams, procResults == null ? new Array() : new Array( procResults.toArray() ) );
+
+		CallableStatement statement = conn.prepareCall( buildCallSQL( procedureName, callParams, plan.named() ) );
+		try {
+			StatementCacheStats.recordPrepared( conn, statement );
+			for ( int i = 0; i < callParams.size(); i++ ) {
+				bind( statement, i + 1, ( IStruct ) callParams.get( i ), binder );
+			}
+			statement.execute();
+
+			List<RefCursorStream>	cursors		= new ArrayList<>();
+			IStruct					outParams	= Struct.linkedOf();
+			int						cursorIndex	= 0;
+			for ( int i = 0; i < callParams.size(); i++ ) {
+				IStruct param = ( IStruct ) callParams.get( i );
+				if ( isRefCursor( param ) ) {
+					// Positional calls get the ref cursors inserted without a name, in definition order, so the kth one is the kth of the plan
+					String		name	= param.get( Key.variable ) == null && param.get( Key.DBVarName ) == null
+					    && cursorIndex < plan.refCursorVarNames().length
+					        ? plan.refCursorVarNames()[ cursorIndex ].substring( 1 )
+					        : outParamName( param, i + 1 );
+					ResultSet	cursor	= ( ResultSet ) statement.getObject( i + 1 );
+					cursorIndex++;
+					if ( cursor != null ) {
+						cursors.add( new RefCursorStream( name, cursor, fetchSize, conn ) );
+					}
+				} else if ( !"in".equals( directionOf( param ) ) ) {
+					outParams.put( Key.of( outParamName( param, i + 1 ) ), statement.getObject( i + 1 ) );
+				}
+			}
+			return new StreamingProcCall( statement, cursors, outParams );
+		} catch ( SQLException | RuntimeException e ) {
+			statement.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The ref cursors returned by the procedure, in definition order
+	 *
+	 * @return The cursors
+	 */
+	public List<RefCursorStream> getCursors() {
+		return Collections.unmodifiableList( cursors );
+	}
+
+	/**
+	 * The values of the scalar OUT and INOUT parameters, keyed by their {@code variable}, or their name if they have none
+	 *
+	 * @return The OUT parameter values
+	 */
+	public IStruct getOutParams() {
+		return outParams;
+	}
+
+	/**
+	 * Close every cursor and the statement
+	 */
+	@Override
+	public void close() throws SQLException {
+		cursors.forEach( RefCursorStream::close );
+		statement.close();
+	}
+
+	private static String buildCallSQL( String procedureName, Array params, boolean named ) {
+		StringBuilder sql = new StringBuilder( "{call " ).append( procedureName ).append( "(" );
+		for ( int i = 0; i < params.size(); i++ ) {
+			sql.append( i == 0 ? "" : ", " );
+			Object varName = ( ( IStruct ) params.get( i ) ).get( Key.DBVarName );
+			if ( named && varName != null ) {
+				String name = StringCaster.cast( varName );
+				sql.append( name.startsWith( ":" ) ? name.substring( 1 ) : name ).append( " => " );
+			}
+			sql.append( "?" );
+		}
+		return sql.append( ")}" ).toString();
+	}
+
+	private static void bind( CallableStatement statement, int index, IStruct param, ParamBinder binder ) throws SQLException {
+		if ( isRefCursor( param ) ) {
+			statement.registerOutParameter( index, OracleTypes.CURSOR );
+			return;
+		}
+		String direction = directionOf( param );
+		if ( !"out".equals( direction ) ) {
+			binder.bind( statement, index, param.get( Key.sqltype ), param.get( Key.value ) );
+		}
+		if ( !"in".equals( direction ) ) {
+			statement.registerOutParameter( index, sqlTypeOf( param.get( Key.sqltype ) ) );
+		}
+	}
+
+	private static boolean isRefCursor( IStruct param ) {
+		return "refcursor".equalsIgnoreCase( StringCaster.cast( param.getOrDefault( Key.sqltype, "" ) ) );
+	}
+
+	private static String directionOf( IStruct param ) {
+		return StringCaster.cast( param.getOrDefault( Key.type, "in" ) ).toLowerCase();
+	}
+
+	private static String outParamName( IStruct param, int index ) {
+		if ( param.get( Key.variable ) != null ) {
+			return StringCaster.cast( param.get( Key.variable ) );
+		}
+		if ( param.get( Key.DBVarName ) != null ) {
+			String name = StringCaster.cast( param.get( Key.DBVarName ) );
+			return name.startsWith( ":" ) ? name.substring( 1 ) : name;
+		}
+		return "param" + index;
+	}
+
+	/**
+	 * Map a {@code sqltype} to the JDBC type to register OUT parameters with
+	 */
+	private static int sqlTypeOf( Object sqltype ) {
+		String type = sqltype == null ? "varchar" : StringCaster.cast( sqltype ).toLowerCase();
+		if ( type.startsWith( "cf_sql_" ) ) {
+			type = type.substring( 7 );
+		}
+		return switch ( type ) {
+			case "integer", "int", "smallint", "tinyint", "bigint", "numeric", "decimal", "double", "float", "real", "money", "bit", "boolean" ->
+			    Types.NUMERIC;
+			case "date", "time", "timestamp" -> Types.TIMESTAMP;
+			case "clob", "longvarchar" -> Types.CLOB;
+			case "blob", "binary", "varbinary" -> Types.BLOB;
+			case "other" -> Types.OTHER;
+			default -> Types.VARCHAR;
+		};
+	}
+}
@@ -0,0 +1,253 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.dynamic.casters.StringCaster;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Pool and connection defaults tuned for a kind of Oracle workload, picked with the {@code workloadProfile} datasource property:
+ * <ul>
+ * <li>{@code oltp} - Many short transactions: a wider pool, fast connection timeouts, and a socket-level validation that doesn't round
+ * trip to the server.</li>
+ * <li>{@code batch} - Few long-running connections doing bulk DML: a small pool, large fetches and generous read timeouts.</li>
+ * <li>{@code reporting} - Few connections running large queries: a small pool and the largest fetches.</li>
+ * </ul>
+ * Every profile also prefetches small LOBs with their row, see {@link LobPolicy#PREFETCH_SIZE}.
+ * Datasources without a profile keep the pool's and the driver's defaults. A profile only fills in the pool settings and custom params
+ * the datasource doesn't set itself.
+ * <p>
+ * Session parameters, like the NLS formats, are only changed when the datasource asks for them with the {@code sessionSettings}
+ * datasource property. They are applied through the pool's connection init SQL, which runs once per physical connection. The module sets
+ * it from its {@code onDatasourceStartup} listener, which the runtime announces with the datasource configuration before it builds the
+ * pool from it.
+ */
+public enum WorkloadProfile {
+
+	OLTP(
+	    Struct.of(
+	        "maxConnections", 20,
+	        "minConnections", 5,
+	        "connectionTimeout", 5,
+	        "idleTimeout", 600,
+	        "maxLifetime", 1800,
+	        "keepaliveTime", 300 ),
+	    Struct.of(
+	        "defaultRowPrefetch", "50",
+	        "oracle.net.CONNECT_TIMEOUT", "5000",
+	        "oracle.jdbc.ReadTimeout", "60000",
+	        "oracle.jdbc.defaultConnectionValidation", "SOCKET",
+	        "oracle.jdbc.defaultLobPrefetchSize", String.valueOf( LobPolicy.PREFETCH_SIZE ) ) ),
+
+	BATCH(
+	    Struct.of(
+	        "maxConnections", 8,
+	        "minConnections", 1,
+	        "connectionTimeout", 30,
+	        "idleTimeout", 300,
+	        "maxLifetime", 3600,
+	        "keepaliveTime", 300 ),
+	    Struct.of(
+	        "defaultRowPrefetch", "500",
+	        "oracle.net.CONNECT_TIMEOUT", "10000",
+	        "oracle.jdbc.ReadTimeout", "1800000",
+	        "oracle.jdbc.defaultConnectionValidation", "NETWORK",
+	        "oracle.jdbc.defaultLobPrefetchSize", String.valueOf( LobPolicy.PREFETCH_SIZE ) ) ),
+
+	REPORTING(
+	    Struct.of(
+	        "maxConnections", 10,
+	        "minConnections", 1,
+	        "connectionTimeout", 30,
+	        "idleTimeout", 300,
+	        "maxLifetime", 3600,
+	        "keepaliveTime", 300 ),
+	    Struct.of(
+	        "defaultRowPrefetch", "1000",
+	        "oracle.net.CONNECT_TIMEOUT", "10000",
+	        "oracle.jdbc.ReadTimeout", "600000",
+	        "oracle.jdbc.defaultConnectionValidation", "NETWORK",
+	        "oracle.jdbc.defaultLobPrefetchSize", String.valueOf( LobPolicy.PREFETCH_SIZE ) ) );
+
+	/**
+	 * The datasource property with the name of the profile
+	 */
+	public static final String	PROPERTY			= "workloadProfile";
+
+	/**
+	 * The datasource property with extra session settings
+	 */
+	public static final String	SESSION_PROPERTY	= "sessionSettings";
+
+	/**
+	 * The pool property with the SQL run once on every new physical connection
+	 */
+	public static final String	INIT_SQL_PROPERTY	= "connectionInitSql";
+
+	/**
+	 * The session parameters that take a string literal, besides the {@code NLS_} ones. Any other parameter takes a number or a keyword,
+	 * like {@code CURRENT_SCHEMA = HR} or {@code OPTIMIZER_MODE = ALL_ROWS}, which must not be quoted.
+	 */
+	private static final Set<String>	STRING_SETTINGS		= Set.of( "TIME_ZONE", "OPTIMIZER_FEATURES_ENABLE", "PLSQL_CCFLAGS", "PLSQL_WARNINGS" );
+
+	private final IStruct		poolProperties;
+	private final IStruct		customParams;
+
+	WorkloadProfile( IStruct poolProperties, IStruct customParams ) {
+		this.poolProperties	= poolProperties;
+		this.customParams	= customParams;
+	}
+
+	/**
+	 * Get the pool settings of the profile, like {@code maxConnections} and {@code connectionTimeout}
+	 *
+	 * @return The pool settings
+	 */
+	public IStruct getPoolProperties() {
+		return this.poolProperties;
+	}
+
+	/**
+	 * Get the connection properties of the profile, like {@code oracle.jdbc.ReadTimeout}
+	 *
+	 * @return The custom params
+	 */
+	public IStruct getCustomParams() {
+		return this.customParams;
+	}
+
+	/**
+	 * Get the profile a datasource asks for
+	 *
+	 * @param config The datasource configuration
+	 *
+	 * @return The profile, or null if the datasource doesn't name one
+	 *
+	 * @throws IllegalArgumentException If the profile doesn't exist
+	 */
+	public static WorkloadProfile of( DatasourceConfig config ) {
+		String name = StringCaster.cast( config.properties.getOrDefault( PROPERTY, "" ) ).trim();
+		if ( name.isEmpty() ) {
+			return null;
+		}
+		for ( WorkloadProfile profile : values() ) {
+			if ( profile.name().equalsIgnoreCase( name ) ) {
+				return profile;
+			}
+		}
+		throw new IllegalArgumentException(
+		    String.format( "The workload profile '%s' is not valid for the Oracle Driver. Available profiles are [oltp, batch, reporting]",
+		        name ) );
+	}
+
+	/**
+	 * Apply the profile a datasource asks for to its configuration, and its session settings. Only the pool settings and custom params
+	 * the datasource doesn't set itself are filled in, and a {@code connectionInitSql} of its own is kept. Datasources without a profile or
+	 * session settings are left as they are.
+	 *
+	 * @param config The datasource configuration
+	 *
+	 * @throws IllegalArgumentException If the profile or a session setting isn't valid
+	 */
+	public static void apply( DatasourceConfig config ) {
+		WorkloadProfile profile = of( config );
+		if ( profile != null ) {
+			fillAbsent( config.properties, profile.poolProperties );
+			Object custom = config.properties.get( "custom" );
+			if ( custom == null ) {
+				custom = Struct.of();
+				config.properties.put( "custom", custom );
+			}
+			// Custom params given as a query string are left to the datasource
+			if ( custom instanceof IStruct customParams ) {
+				fillAbsent( customParams, profile.customParams );
+			}
+		}
+
+		Object initSql = config.properties.get( INIT_SQL_PROPERTY );
+		if ( ( initSql == null || StringCaster.cast( initSql ).isBlank() )
+		    && config.properties.get( SESSION_PROPERTY ) instanceof IStruct settings ) {
+			String sql = sessionInitSql( sessionSettings( settings ) );
+			if ( sql != null ) {
+				config.properties.put( INIT_SQL_PROPERTY, sql );
+			}
+		}
+	}
+
+	/**
+	 * Build the anonymous block that applies session settings with {@code ALTER SESSION}
+	 *
+	 * @param settings The session parameters and their values. {@code NLS_} parameters and the others that take a string literal are
+	 *                 quoted, every other value is set as it is and must be a number or a keyword.
+	 *
+	 * @return The block, or null if there is nothing to set
+	 *
+	 * @throws IllegalArgumentException If a parameter name isn't valid, or a value that isn't quoted isn't a number or a keyword
+	 */
+	static String sessionInitSql( Map<String, Object> settings ) {
+		StringBuilder sql = new StringBuilder( "BEGIN" );
+		settings.forEach( ( name, value ) -> {
+			String text = StringCaster.cast( value );
+			if ( text.isBlank() ) {
+				return;
+			}
+			if ( !name.matches( "[A-Za-z][A-Za-z0-9_$#]*" ) ) {
+				throw new IllegalArgumentException( String.format( "The session setting '%s' is not valid for the Oracle Driver.", name ) );
+			}
+			String	parameter	= name.toUpperCase();
+			String	literal;
+			if ( parameter.startsWith( "NLS_" ) || STRING_SETTINGS.contains( parameter ) ) {
+				literal = "''" + text.replace( "'", "''''" ) + "''";
+			} else if ( text.matches( "-?\\d+|[A-Za-z][A-Za-z0-9_$#]*" ) ) {
+				literal = text;
+			} else {
+				throw new IllegalArgumentException(
+				    String.format( "The session setting '%s' takes a number or a keyword, not '%s', in the Oracle Driver.", name, text ) );
+			}
+			sql.append( " EXECUTE IMMEDIATE 'ALTER SESSION SET " ).append( parameter ).append( " = " ).append( literal ).append( "';" );
+		} );
+		return sql.length() == "BEGIN".length() ? null : sql.append( " END;" ).toString();
+	}
+
+	/**
+	 * The session settings of the datasource, by parameter name
+	 */
+	private static Map<String, Object> sessionSettings( IStruct own ) {
+		Map<String, Object> settings = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+		own.forEach( ( key, value ) -> settings.put( key.getName(), value ) );
+		return settings;
+	}
+
+	/**
+	 * Fill in the profile's values for the keys the datasource doesn't set. The keys it sets are taken before anything is added, so a
+	 * value of its own is kept even when it equals another profile's.
+	 */
+	private static void fillAbsent( IStruct target, IStruct values ) {
+		Set<Key> own = new HashSet<>( target.keySet() );
+		for ( Map.Entry<Key, Object> entry : values.entrySet() ) {
+			if ( !own.contains( entry.getKey() ) ) {
+				target.put( entry.getKey(), entry.getValue() );
+			}
+		}
+	}
+}
@@ -21,6 +21,8 @@ import org.junit.jupiter.api.Test;
 
 import ortus.boxlang.modules.oracle.util.KeyDictionary;
 import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Query;
 import ortus.boxlang.runtime.types.Struct;
 
 /**
@@ -63,4 +65,39 @@ public class IntegrationTest extends BaseIntegrationTest {
 		);
 		// @formatter:on
 	}
+
+	@DisplayName( "Workload profiles and session settings are in place before the pool is built" )
+	@Test
+	public void testDatasourceStartup() {
+		Key name = Key.of( "oracle_profiled" );
+		runtime.getConfiguration().datasources.put(
+		    name,
+		    new DatasourceConfig( name ).process(
+		        Struct.of(
+		            "driver", "oracle",
+		            "username", "system",
+		            "password", "boxlangrocks",
+		            "serviceName", "XEPDB1",
+		            "workloadProfile", "oltp",
+		            "sessionSettings", Struct.of( "NLS_SORT", "BINARY_CI" )
+		        )
+		    )
+		);
+
+		// The connection init SQL is only read when the pool is built, so the session only has the setting if the module's
+		// onDatasourceStartup listener ran before the runtime built the pool from the configuration
+		// @formatter:off
+		runtime.executeSource(
+		    """
+				result = queryExecute(
+					"SELECT value FROM nls_session_parameters WHERE parameter = 'NLS_SORT'",
+					{},
+					{ "datasource" : "oracle_profiled" }
+				);
+			""",
+		    context
+		);
+		// @formatter:on
+		assertThat( ( ( Query ) variables.get( result ) ).getRowAsStruct( 0 ).get( Key.of( "value" ) ) ).isEqualTo( "BINARY_CI" );
+	}
 }
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import ortus.boxlang.runtime.config.segments.DatasourceConfig;
 import ortus.boxlang.runtime.jdbc.drivers.DatabaseDriverType;
 import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
 
 public class OracleDriverTest {
 
@@ -52,6 +53,76 @@ public class OracleDriverTest {
 		assertThat( driver.buildConnectionURL( config ) ).isEqualTo( expectedURL );
 	}
 
+	@Test
+	@DisplayName( "Test connection URLs with multiple hosts" )
+	public void testConnectionURLWithHosts() {
+		OracleDriver		driver	= new OracleDriver();
+		DatasourceConfig	config	= new DatasourceConfig();
+		config.properties.put( "serviceName", "sales.example.com" );
+		config.properties.put( "hosts", "rac1.example.com, rac2.example.com:1522" );
+		config.properties.put( "connectTimeout", 10 );
+		config.properties.put( "transportConnectTimeout", 3 );
+		config.properties.put( "retryCount", 2 );
+
+		String expectedURL = "jdbc:oracle:thin:@(DESCRIPTION=(CONNECT_TIMEOUT=10)(TRANSPORT_CONNECT_TIMEOUT=3)(RETRY_COUNT=2)"
+		    + "(ADDRESS_LIST=(LOAD_BALANCE=ON)(FAILOVER=ON)"
+		    + "(ADDRESS=(PROTOCOL=TCP)(HOST=rac1.example.com)(PORT=1521))"
+		    + "(ADDRESS=(PROTOCOL=TCP)(HOST=rac2.example.com)(PORT=1522)))"
+		    + "(CONNECT_DATA=(SERVICE_NAME=sales.example.com)))";
+		assertThat( driver.buildConnectionURL( config ) ).isEqualTo( expectedURL );
+	}
+
+	@Test
+	@DisplayName( "Test connection URLs with a host array, SID and load balancing off" )
+	public void testConnectionURLWithHostArray() {
+		OracleDriver		driver	= new OracleDriver();
+		DatasourceConfig	config	= new DatasourceConfig();
+		config.properties.put( "SID", "ORCL" );
+		config.properties.put( "port", 1530 );
+		config.properties.put( "hosts", Array.of( "primary.example.com", "standby.example.com" ) );
+		config.properties.put( "loadBalance", false );
+
+		String expectedURL = "jdbc:oracle:thin:@(DESCRIPTION=(ADDRESS_LIST=(LOAD_BALANCE=OFF)(FAILOVER=ON)"
+		    + "(ADDRESS=(PROTOCOL=TCP)(HOST=primary.example.com)(PORT=1530))"
+		    + "(ADDRESS=(PROTOCOL=TCP)(HOST=standby.example.com)(PORT=1530)))"
+		    + "(CONNECT_DATA=(SID=ORCL)))";
+		assertThat( driver.buildConnectionURL( config ) ).isEqualTo( expectedURL );
+	}
+
+	@Test
+	@DisplayName( "Test connection URLs with a SCAN listener" )
+	public void testConnectionURLWithScan() {
+		OracleDriver		driver	= new OracleDriver();
+		DatasourceConfig	config	= new DatasourceConfig();
+		config.properties.put( "serviceName", "sales" );
+		config.properties.put( "scan", "sales-scan.example.com" );
+		config.properties.put( "retryDelay", 1 );
+
+		String expectedURL = "jdbc:oracle:thin:@(DESCRIPTION=(RETRY_DELAY=1)(ADDRESS_LIST=(LOAD_BALANCE=OFF)(FAILOVER=ON)"
+		    + "(ADDRESS=(PROTOCOL=TCP)(HOST=sales-scan.example.com)(PORT=1521)))"
+		    + "(CONNECT_DATA=(SERVICE_NAME=sales)))";
+		assertThat( driver.buildConnectionURL( config ) ).isEqualTo( expectedURL );
+	}
+
+	@DisplayName( "Throw an exception if a host or timeout is not valid" )
+	@Test
+	public void testConnectionURLInvalidHosts() {
+		OracleDriver		driver	= new OracleDriver();
+		DatasourceConfig	config	= new DatasourceConfig();
+		config.properties.put( "serviceName", "sales" );
+		config.properties.put( "hosts", "rac1.example.com:port" );
+
+		assertThrows( IllegalArgumentException.class, () -> {
+			driver.buildConnectionURL( config );
+		} );
+
+		config.properties.put( "hosts", "rac1.example.com" );
+		config.properties.put( "connectTimeout", "soon" );
+		assertThrows( IllegalArgumentException.class, () -> {
+			driver.buildConnectionURL( config );
+		} );
+	}
+
 	@DisplayName( "Throw an exception if the serviceName or SID is not found" )
 	@Test
 	public void testBuildConnectionURLNoServiceNameOrSID() {
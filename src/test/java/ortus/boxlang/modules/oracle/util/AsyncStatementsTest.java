@@ -0,0 +1,271 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Proxy;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleResultSet;
+import oracle.jdbc.OracleRow;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+/**
+ * Runs against a stand-in driver, which takes the non-reactive path of {@link AsyncStatements}, and a mocked Oracle connection for the
+ * reactive one
+ */
+public class AsyncStatementsTest {
+
+	private static final ParamBinder	BINDER		= new ParamBinder( null, ( type, value ) -> Types.VARCHAR );
+
+	private final List<String>			executed	= new CopyOnWriteArrayList<>();
+	private final List<Thread>			threads		= new CopyOnWriteArrayList<>();
+
+	@Test
+	@DisplayName( "Queries complete with their rows and other statements with their update count, off the calling thread" )
+	public void testExecute() throws Exception {
+		Object rows = AsyncStatements.execute( connection(), new AsyncStatements.Statement( "SELECT id FROM orders WHERE status = ?",
+		    List.of( Struct.of( Key.value, "OPEN" ) ) ), 100, BINDER ).get();
+
+		assertThat( rows ).isInstanceOf( Array.class );
+		assertThat( ( ( IStruct ) ( ( Array ) rows ).get( 1 ) ).get( "ID" ) ).isEqualTo( 2 );
+		assertThat( executed ).containsExactly( "SELECT id FROM orders WHERE status = ? [OPEN]" );
+		assertThat( threads.get( 0 ) ).isNotSameInstanceAs( Thread.currentThread() );
+
+		assertThat( AsyncStatements.execute( connection(), new AsyncStatements.Statement( "DELETE FROM orders", null ), 100, BINDER )
+		    .get() ).isEqualTo( 3L );
+	}
+
+	@Test
+	@DisplayName( "Pipelined statements run in order on one connection and complete with their results in order" )
+	public void testPipeline() throws Exception {
+		List<Object> results = AsyncStatements.pipeline( connection(), List.of(
+		    new AsyncStatements.Statement( "UPDATE orders SET status = ?", List.of( "SHIPPED" ) ),
+		    new AsyncStatements.Statement( "SELECT id FROM orders", null ),
+		    new AsyncStatements.Statement( "DELETE FROM orders", null )
+		), 100, BINDER ).get();
+
+		assertThat( results ).hasSize( 3 );
+		assertThat( results.get( 0 ) ).isEqualTo( 3L );
+		assertThat( ( Array ) results.get( 1 ) ).hasSize( 2 );
+		assertThat( executed )
+		    .containsExactly( "UPDATE orders SET status = ? [SHIPPED]", "SELECT id FROM orders []", "DELETE FROM orders []" )
+		    .inOrder();
+	}
+
+	@Test
+	@DisplayName( "A failing statement fails the pipeline with its error" )
+	public void testPipelineFailure() {
+		ExecutionException error = assertThrows( ExecutionException.class, () -> AsyncStatements.pipeline( connection(), List.of(
+		    new AsyncStatements.Statement( "SELECT id FROM orders", null ),
+		    new AsyncStatements.Statement( "FAIL", null )
+		), 100, BINDER ).get() );
+
+		assertThat( error ).hasCauseThat().isInstanceOf( SQLException.class );
+	}
+
+	@Test
+	@DisplayName( "Rows published by the reactive extensions are converted per column like the blocking ones" )
+	@SuppressWarnings( "unchecked" )
+	public void testReactiveRows() throws Exception {
+		RowId rowId = mock( RowId.class );
+		when( rowId.toString() ).thenReturn( "AAAR3sAAEAAAACXAAA" );
+		Clob notes = mock( Clob.class );
+		when( notes.length() ).thenReturn( 7L );
+		when( notes.getSubString( 1, 7 ) ).thenReturn( "Fragile" );
+		OracleRow row = mock( OracleRow.class );
+		when( row.getObject( 1, Object.class ) ).thenReturn( rowId );
+		when( row.getObject( 2, Object.class ) ).thenReturn( notes );
+
+		ResultSetMetaData metaData = mock( ResultSetMetaData.class );
+		when( metaData.getColumnCount() ).thenReturn( 2 );
+		when( metaData.getColumnLabel( 1 ) ).thenReturn( "ROW_ID" );
+		when( metaData.getColumnType( 1 ) ).thenReturn( Types.ROWID );
+		when( metaData.getColumnLabel( 2 ) ).thenReturn( "NOTES" );
+		when( metaData.getColumnType( 2 ) ).thenReturn( Types.CLOB );
+		OracleResultSet resultSet = mock( OracleResultSet.class );
+		when( resultSet.unwrap( OracleResultSet.class ) ).thenReturn( resultSet );
+		when( resultSet.getMetaData() ).thenReturn( metaData );
+		when( resultSet.publisherOracle( any() ) )
+		    .thenAnswer( invocation -> publisher( List.of( ( ( Function<OracleRow, Object> ) invocation.getArgument( 0 ) ).apply( row ) ) ) );
+
+		OraclePreparedStatement statement = mock( OraclePreparedStatement.class );
+		when( statement.unwrap( OraclePreparedStatement.class ) ).thenReturn( statement );
+		when( statement.executeAsyncOracle() ).thenReturn( publisher( List.of( true ) ) );
+		when( statement.getResultSet() ).thenReturn( resultSet );
+		Connection connection = mock( Connection.class );
+		when( connection.isWrapperFor( OracleConnection.class ) ).thenReturn( true );
+		when( connection.prepareStatement( "SELECT ROWID AS row_id, notes FROM orders" ) ).thenReturn( statement );
+
+		Array rows = ( Array ) AsyncStatements.execute( connection,
+		    new AsyncStatements.Statement( "SELECT ROWID AS row_id, notes FROM orders", null ), 100, BINDER ).get();
+
+		IStruct first = ( IStruct ) rows.get( 0 );
+		assertThat( first.get( "ROW_ID" ) ).isEqualTo( "AAAR3sAAEAAAACXAAA" );
+		assertThat( first.get( "NOTES" ) ).isEqualTo( "Fragile" );
+	}
+
+	@Test
+	@DisplayName( "Queries are learned by their SQL, and run with the fetch size their datasource learned" )
+	public void testLearnedFetchSize() throws Exception {
+		DatasourceConfig config = new DatasourceConfig( Key.of( "oracle_async" ) );
+		FetchSizeAdvisor.register( config );
+		FetchSizeAdvisor	advisor		= FetchSizeAdvisor.of( config.getUniqueName() );
+		String				sql			= "SELECT id FROM orders";
+		List<Integer>		fetchSizes	= new CopyOnWriteArrayList<>();
+
+		DataSource dataSource = mock( DataSource.class );
+		when( dataSource.getUniqueName() ).thenReturn( config.getUniqueName() );
+		BoxConnection connection = mock( BoxConnection.class );
+		when( connection.getDataSource() ).thenReturn( dataSource );
+		when( connection.prepareStatement( sql ) ).thenAnswer( invocation -> statement( sql, fetchSizes ) );
+
+		advisor.record( sql, 800, 100 );
+		AsyncStatements.execute( connection, new AsyncStatements.Statement( sql, null ), 100, BINDER ).get();
+
+		assertThat( fetchSizes ).containsExactly( 801 );
+		assertThat( advisor.getLearnedSizes().get( 0 ).executions() ).isEqualTo( 2 );
+		assertThat( advisor.getLearnedSizes().get( 0 ).maxRows() ).isEqualTo( 800 );
+	}
+
+	@Test
+	@DisplayName( "Pipelined statements fail with the error of the first one that failed, and the others suppressed" )
+	public void testErrorOrder() {
+		SQLException	first	= new SQLException( "ORA-00942: table or view does not exist" );
+		SQLException	second	= new SQLException( "ORA-00001: unique constraint violated" );
+
+		CompletionException error = assertThrows( CompletionException.class, () -> AsyncStatements.results( List.of(
+		    CompletableFuture.completedFuture( 1L ),
+		    CompletableFuture.failedFuture( first ),
+		    CompletableFuture.failedFuture( second )
+		) ) );
+
+		assertThat( error ).hasCauseThat().isSameInstanceAs( first );
+		assertThat( first.getSuppressed() ).asList().containsExactly( second );
+	}
+
+	/**
+	 * A connection that returns two rows for queries and updates three rows otherwise
+	 */
+	private Connection connection() {
+		return proxy( Connection.class, ( method, args ) -> switch ( method ) {
+			case "isWrapperFor" -> false;
+			case "prepareStatement" -> statement( ( String ) args[ 0 ] );
+			default -> null;
+		} );
+	}
+
+	private PreparedStatement statement( String sql ) {
+		return statement( sql, new CopyOnWriteArrayList<>() );
+	}
+
+	private PreparedStatement statement( String sql, List<Integer> fetchSizes ) {
+		List<Object> params = new CopyOnWriteArrayList<>();
+		return proxy( PreparedStatement.class, ( method, args ) -> switch ( method ) {
+			case "setObject" -> params.add( args[ 1 ] );
+			case "setFetchSize" -> fetchSizes.add( ( Integer ) args[ 0 ] );
+			case "execute" -> {
+				executed.add( sql + " " + params );
+				threads.add( Thread.currentThread() );
+				if ( sql.equals( "FAIL" ) ) {
+					throw new SQLException( "ORA-00900: invalid SQL statement" );
+				}
+				yield sql.startsWith( "SELECT" );
+			}
+			case "getResultSet" -> resultSet( List.of( 1, 2 ) );
+			case "getLargeUpdateCount" -> 3L;
+			default -> null;
+		} );
+	}
+
+	private ResultSet resultSet( List<Integer> ids ) {
+		int[] row = { 0 };
+		return proxy( ResultSet.class, ( method, args ) -> switch ( method ) {
+			case "getMetaData" -> proxy( ResultSetMetaData.class, ( metaMethod, metaArgs ) -> switch ( metaMethod ) {
+				case "getColumnCount" -> 1;
+				case "getColumnLabel" -> "ID";
+				default -> null;
+			} );
+			case "next" -> ++row[ 0 ] <= ids.size();
+			case "getObject" -> ids.get( row[ 0 ] - 1 );
+			default -> null;
+		} );
+	}
+
+	/**
+	 * A publisher that emits the items as soon as it is subscribed to
+	 */
+	private static <T> Flow.Publisher<T> publisher( List<T> items ) {
+		return subscriber -> {
+			subscriber.onSubscribe( new Flow.Subscription() {
+
+				@Override
+				public void request( long n ) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			} );
+			items.forEach( subscriber::onNext );
+			subscriber.onComplete();
+		};
+	}
+
+	private interface Handler {
+
+		Object handle( String method, Object[] args ) throws Exception;
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static <T> T proxy( Class<T> type, Handler handler ) {
+		Map<String, Object> defaults = Map.of( "boolean", false, "int", 0, "long", 0L );
+		return ( T ) Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, ( self, method, args ) -> {
+			Object result = handler.handle( method.getName(), args );
+			return result == null && method.getReturnType().isPrimitive() ? defaults.get( method.getReturnType().getName() ) : result;
+		} );
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.sql.Types;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.QueryColumnType;
+
+public class BindSignaturesTest {
+
+	@Test
+	@DisplayName( "Strings bind as CHAR whatever type they were declared with" )
+	public void testStableStrings() {
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.VARCHAR, "ACTIVE" ) ).isEqualTo( Types.CHAR );
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.CHAR, "ES" ) ).isEqualTo( Types.CHAR );
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.OBJECT, "jane@example.com" ) ).isEqualTo( Types.CHAR );
+	}
+
+	@Test
+	@DisplayName( "Strings past 4000 UTF-8 bytes bind as CLOB and everything else is left alone" )
+	public void testOtherBinds() {
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.VARCHAR, "x".repeat( 4000 ) ) ).isEqualTo( Types.CHAR );
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.VARCHAR, "x".repeat( 4001 ) ) ).isEqualTo( Types.CLOB );
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.CLOB, "\u20AC".repeat( 1334 ) ) ).isEqualTo( Types.CLOB );
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.INTEGER, 42 ) ).isEqualTo( BindSignatures.KEEP );
+		assertThat( BindSignatures.stableSqlType( QueryColumnType.VARCHAR, 42 ) ).isEqualTo( BindSignatures.KEEP );
+	}
+
+	@Test
+	@DisplayName( "Strings are measured in UTF-8 bytes" )
+	public void testFitsChar() {
+		assertThat( BindSignatures.fitsChar( "" ) ).isTrue();
+		assertThat( BindSignatures.fitsChar( "\u00E9".repeat( 2000 ) ) ).isTrue();
+		assertThat( BindSignatures.fitsChar( "\u00E9".repeat( 2001 ) ) ).isFalse();
+		assertThat( BindSignatures.fitsChar( "\u20AC".repeat( 1333 ) ) ).isTrue();
+		assertThat( BindSignatures.fitsChar( "\uD83D\uDE00".repeat( 1001 ) ) ).isFalse();
+	}
+
+	@Test
+	@DisplayName( "The datasource property overrides the module setting" )
+	public void testPerDatasource() {
+		DatasourceConfig	stable	= new DatasourceConfig( Key.of( "oracle_stable" ) );
+		DatasourceConfig	plain	= new DatasourceConfig( Key.of( "oracle_plain" ) );
+		stable.properties.put( BindSignatures.PROPERTY, true );
+		BindSignatures.register( stable );
+		BindSignatures.register( plain );
+
+		assertThat( BindSignatures.isStable( stable.getUniqueName() ) ).isTrue();
+		assertThat( BindSignatures.isStable( plain.getUniqueName() ) ).isEqualTo( BindSignatures.isStable() );
+	}
+
+}
@@ -0,0 +1,192 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BulkLoaderTest {
+
+	private static final List<BulkLoader.Column>	COLUMNS			= List.of(
+	    new BulkLoader.Column( "ID", 0, Types.NUMERIC ),
+	    new BulkLoader.Column( "NAME", 1, Types.CHAR ) );
+
+	private final List<String>						inserted		= new CopyOnWriteArrayList<>();
+	private final List<String>						sql				= new CopyOnWriteArrayList<>();
+	private final List<String>						transactions	= new CopyOnWriteArrayList<>();
+	private final List<Integer>						batches			= new CopyOnWriteArrayList<>();
+
+	@Test
+	@DisplayName( "The insert lists the table columns, with the APPEND_VALUES hint for direct-path loads" )
+	public void testInsertSql() {
+		assertThat( BulkLoader.insertSql( "hr.orders", List.of( "ID", "\"Name\"" ), false ) )
+		    .isEqualTo( "INSERT INTO hr.orders ( ID, \"Name\" ) VALUES ( ?, ? )" );
+		assertThat( BulkLoader.insertSql( "orders", List.of( "ID" ), true ) )
+		    .isEqualTo( "INSERT /*+ APPEND_VALUES */ INTO orders ( ID ) VALUES ( ? )" );
+		assertThrows( IllegalArgumentException.class, () -> BulkLoader.insertSql( "orders; DROP TABLE x", List.of( "ID" ), false ) );
+		assertThrows( IllegalArgumentException.class, () -> BulkLoader.insertSql( "orders", List.of( "ID) --" ), false ) );
+	}
+
+	@Test
+	@DisplayName( "Rows are sent in batches spread over the connections, and every batch is committed" )
+	public void testLoad() throws SQLException {
+		BulkLoader.Result result = BulkLoader.load( this::connection, "orders", COLUMNS, rows( 10 ), options( 3, 2, false, true, false ) );
+
+		assertThat( result.rows() ).isEqualTo( 10 );
+		assertThat( result.rowsLoaded() ).isEqualTo( 10 );
+		assertThat( result.chunks() ).isEqualTo( 4 );
+		assertThat( result.errors() ).isEmpty();
+		assertThat( batches ).containsExactly( 3, 3, 3, 1 );
+		assertThat( inserted ).containsExactlyElementsIn( IntStream.range( 0, 10 ).mapToObj( i -> i + ":name" + i ).toList() );
+		assertThat( sql ).containsExactly( "INSERT INTO orders ( ID, NAME ) VALUES ( ?, ? )",
+		    "INSERT INTO orders ( ID, NAME ) VALUES ( ?, ? )" );
+		assertThat( transactions.stream().filter( "commit"::equals ).count() ).isAtLeast( 4 );
+	}
+
+	@Test
+	@DisplayName( "Direct-path loads run on one connection" )
+	public void testDirectPath() throws SQLException {
+		BulkLoader.load( this::connection, "orders", COLUMNS, rows( 10 ), options( 5, 4, true, false, false ) );
+
+		assertThat( sql ).containsExactly( "INSERT /*+ APPEND_VALUES */ INTO orders ( ID, NAME ) VALUES ( ?, ? )" );
+		assertThat( transactions.stream().filter( "commit"::equals ).count() ).isEqualTo( 3 );
+	}
+
+	@Test
+	@DisplayName( "A load committed once runs on one connection, in one transaction" )
+	public void testSingleTransaction() throws SQLException {
+		BulkLoader.Result result = BulkLoader.load( this::connection, "orders", COLUMNS, rows( 10 ), options( 3, 4, false, false, false ) );
+
+		assertThat( result.rowsLoaded() ).isEqualTo( 10 );
+		assertThat( batches ).containsExactly( 3, 3, 3, 1 ).inOrder();
+		assertThat( sql ).hasSize( 1 );
+		assertThat( transactions.stream().filter( "commit"::equals ).count() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "Captured errors report the failing rows and keep the others" )
+	public void testCaptureErrors() throws SQLException {
+		List<Object[]> rows = rows( 10 );
+		rows.get( 3 )[ 1 ] = "BAD";
+		rows.get( 7 )[ 1 ] = "BAD";
+
+		BulkLoader.Result result = BulkLoader.load( this::connection, "orders", COLUMNS, rows, options( 5, 1, false, true, true ) );
+
+		assertThat( result.rowsLoaded() ).isEqualTo( 8 );
+		assertThat( result.errors().stream().map( BulkLoader.RowError::row ).toList() ).containsExactly( 4, 8 ).inOrder();
+		assertThat( result.errors().get( 0 ).errorCode() ).isEqualTo( 1 );
+		assertThat( inserted ).hasSize( 8 );
+		assertThat( inserted ).doesNotContain( "3:BAD" );
+	}
+
+	@Test
+	@DisplayName( "Without captured errors a failing batch fails the load and rolls back what isn't committed" )
+	public void testFailure() {
+		List<Object[]> rows = rows( 10 );
+		rows.get( 8 )[ 1 ] = "BAD";
+
+		assertThrows( BatchUpdateException.class,
+		    () -> BulkLoader.load( this::connection, "orders", COLUMNS, rows, options( 5, 1, false, false, false ) ) );
+		assertThat( transactions ).contains( "rollback" );
+		assertThat( transactions ).doesNotContain( "commit" );
+	}
+
+	private static BulkLoader.Options options( int batchSize, int parallelism, boolean directPath, boolean commitPerChunk,
+	    boolean captureErrors ) {
+		return new BulkLoader.Options( Map.of(), batchSize, parallelism, directPath, commitPerChunk, captureErrors, 100 );
+	}
+
+	private static List<Object[]> rows( int count ) {
+		List<Object[]> rows = new ArrayList<>();
+		for ( int i = 0; i < count; i++ ) {
+			rows.add( new Object[] { i, "name" + i } );
+		}
+		return rows;
+	}
+
+	/**
+	 * A connection whose inserts fail on the rows named BAD, after inserting the rows of the batch before them
+	 */
+	private Connection connection() {
+		return proxy( Connection.class, ( method, args ) -> switch ( method ) {
+			case "prepareStatement" -> {
+				sql.add( ( String ) args[ 0 ] );
+				yield statement();
+			}
+			case "commit", "rollback" -> transactions.add( method );
+			default -> null;
+		} );
+	}
+
+	private PreparedStatement statement() {
+		Object[]		row		= new Object[ 2 ];
+		List<String>	batch	= new ArrayList<>();
+		return proxy( PreparedStatement.class, ( method, args ) -> switch ( method ) {
+			case "setObject", "setNull" -> row[ ( int ) args[ 0 ] - 1 ] = method.equals( "setNull" ) ? null : args[ 1 ];
+			case "addBatch" -> batch.add( row[ 0 ] + ":" + row[ 1 ] );
+			case "clearBatch" -> {
+				batch.clear();
+				yield null;
+			}
+			case "executeBatch" -> {
+				List<String> sent = List.copyOf( batch );
+				batch.clear();
+				batches.add( sent.size() );
+				for ( int i = 0; i < sent.size(); i++ ) {
+					if ( sent.get( i ).endsWith( ":BAD" ) ) {
+						int[] counts = new int[ i ];
+						Arrays.fill( counts, 1 );
+						throw new BatchUpdateException( "ORA-00001: unique constraint violated", "23000", 1, counts );
+					}
+					inserted.add( sent.get( i ) );
+				}
+				int[] counts = new int[ sent.size() ];
+				Arrays.fill( counts, 1 );
+				yield counts;
+			}
+			default -> null;
+		} );
+	}
+
+	private interface Handler {
+
+		Object handle( String method, Object[] args ) throws Exception;
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static <T> T proxy( Class<T> type, Handler handler ) {
+		Map<String, Object> defaults = Map.of( "boolean", false, "int", 0, "long", 0L );
+		return ( T ) Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, ( self, method, args ) -> {
+			Object result = handler.handle( method.getName(), args );
+			return result == null && method.getReturnType().isPrimitive() ? defaults.get( method.getReturnType().getName() ) : result;
+		} );
+	}
+}
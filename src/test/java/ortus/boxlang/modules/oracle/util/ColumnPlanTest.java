@@ -0,0 +1,129 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleTypes;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.Key;
+
+public class ColumnPlanTest {
+
+	private static final NumberMapping NUMBERS = new NumberMapping();
+
+	@Test
+	@DisplayName( "Each column gets its transformer, and columns that need none are left out" )
+	public void testPlanByColumn() throws SQLException {
+		ColumnPlan plan = ColumnPlan.of(
+		    metaData( new int[] { Types.NUMERIC, Types.VARCHAR, Types.ROWID, OracleTypes.CLOB }, new int[] { 10, 0, 0, 0 } ),
+		    LobPolicy.DEFAULT, NUMBERS, false, null );
+
+		assertThat( plan.size() ).isEqualTo( 4 );
+		assertThat( plan.forColumn( 0 ) ).isSameInstanceAs( NumberMapping.forPrecision( 10, 0 ) );
+		assertThat( plan.forColumn( 1 ) ).isNull();
+		assertThat( plan.forColumn( 2 ) ).isSameInstanceAs( ColumnTransformer.ROWID_TO_STRING );
+		assertThat( plan.forColumn( 3 ) ).isSameInstanceAs( LobPolicy.DEFAULT );
+	}
+
+	@Test
+	@DisplayName( "NUMBER columns of different precisions are each narrowed by their own declaration" )
+	public void testNumbersByColumn() throws SQLException {
+		ColumnPlan	plan	= ColumnPlan.of(
+		    metaData( new int[] { Types.NUMERIC, Types.NUMERIC, Types.NUMERIC }, new int[] { 5, 15, 12 }, new int[] { 0, 0, 2 } ),
+		    LobPolicy.DEFAULT, NUMBERS, false, null );
+		BigDecimal	amount	= new BigDecimal( "1299.95" );
+
+		assertThat( plan.transform( 0, new BigDecimal( "42" ) ) ).isEqualTo( 42 );
+		assertThat( plan.transform( 1, new BigDecimal( "1048576" ) ) ).isEqualTo( 1048576L );
+		assertThat( plan.transform( 2, amount ) ).isSameInstanceAs( amount );
+		assertThat( plan.transform( 0, null ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Numbers are narrowed by the mapping of the connection's datasource" )
+	public void testNumbersOfDataSource() throws SQLException {
+		DatasourceConfig narrowed = new DatasourceConfig( Key.of( "oracle_numbers" ) );
+		narrowed.properties.put( NumberMapping.PROPERTY, true );
+		NumberMapping.register( narrowed );
+		ResultSetMetaData	ids	= metaData( new int[] { Types.NUMERIC }, new int[] { 10 } );
+		BigDecimal			id	= new BigDecimal( "1048576" );
+
+		assertThat( ColumnPlan.of( ids, LobPolicy.DEFAULT, connection( narrowed ) ).transform( 0, id ) ).isEqualTo( 1048576L );
+		assertThat( ColumnPlan.of( ids, LobPolicy.DEFAULT, connection( new DatasourceConfig( Key.of( "oracle_plain" ) ) ) )
+		    .transform( 0, id ) ).isSameInstanceAs( id );
+		assertThat( ColumnPlan.of( ids, LobPolicy.DEFAULT, null ).transform( 0, id ) ).isSameInstanceAs( id );
+	}
+
+	@Test
+	@DisplayName( "Date time and interval columns keep their Oracle types unless the datasource asks for java.time" )
+	public void testJavaTimeOfDataSource() throws SQLException {
+		DatasourceConfig javaTime = new DatasourceConfig( Key.of( "oracle_java_time" ) );
+		javaTime.properties.put( ColumnPlan.JAVA_TIME_PROPERTY, true );
+		ColumnPlan.register( javaTime );
+		ResultSetMetaData intervals = metaData( new int[] { OracleTypes.INTERVALYM }, new int[] { 0 } );
+
+		assertThat( ColumnPlan.of( intervals, LobPolicy.DEFAULT, connection( javaTime ) ).forColumn( 0 ) )
+		    .isSameInstanceAs( ColumnTransformer.INTERVALYM_TO_PERIOD );
+		assertThat( ColumnPlan.of( intervals, LobPolicy.DEFAULT, connection( new DatasourceConfig( Key.of( "oracle_plain" ) ) ) )
+		    .forColumn( 0 ) ).isNull();
+		assertThat( ColumnPlan.of( intervals, LobPolicy.DEFAULT, null ).forColumn( 0 ) ).isNull();
+	}
+
+	/**
+	 * Metadata of integer columns of the given types and precisions
+	 */
+	private static ResultSetMetaData metaData( int[] types, int[] precisions ) {
+		return metaData( types, precisions, new int[ types.length ] );
+	}
+
+	/**
+	 * Metadata of columns of the given types, precisions and scales
+	 */
+	private static ResultSetMetaData metaData( int[] types, int[] precisions, int[] scales ) {
+		return ( ResultSetMetaData ) Proxy.newProxyInstance( ResultSetMetaData.class.getClassLoader(),
+		    new Class<?>[] { ResultSetMetaData.class }, ( self, method, args ) -> switch ( method.getName() ) {
+			    case "getColumnCount" -> types.length;
+			    case "getColumnType" -> types[ ( int ) args[ 0 ] - 1 ];
+			    case "getPrecision" -> precisions[ ( int ) args[ 0 ] - 1 ];
+			    case "getScale" -> scales[ ( int ) args[ 0 ] - 1 ];
+			    default -> 0;
+		    } );
+	}
+
+	/**
+	 * A connection of a datasource
+	 */
+	private static BoxConnection connection( DatasourceConfig config ) {
+		DataSource dataSource = mock( DataSource.class );
+		when( dataSource.getUniqueName() ).thenReturn( config.getUniqueName() );
+		BoxConnection connection = mock( BoxConnection.class );
+		when( connection.getDataSource() ).thenReturn( dataSource );
+		return connection;
+	}
+}
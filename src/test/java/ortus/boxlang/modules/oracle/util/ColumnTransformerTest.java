@@ -0,0 +1,74 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleTypes;
+import oracle.sql.INTERVALDS;
+import oracle.sql.INTERVALYM;
+import oracle.sql.TIMESTAMPTZ;
+
+public class ColumnTransformerTest {
+
+	@Test
+	@DisplayName( "Columns that need no conversion have no transformer" )
+	public void testNoTransformer() {
+		assertThat( ColumnTransformer.forType( Types.VARCHAR, LobPolicy.DEFAULT ) ).isNull();
+		assertThat( ColumnTransformer.forType( Types.NUMERIC, LobPolicy.DEFAULT ) ).isNull();
+		assertThat( ColumnTransformer.forType( Types.TIMESTAMP, LobPolicy.DEFAULT ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Oracle date time and interval types are converted to java.time only when asked for" )
+	public void testTemporalTypes() throws SQLException {
+		ZonedDateTime zoned = ZonedDateTime.of( 2026, 3, 14, 9, 26, 53, 0, ZoneId.of( "Europe/Madrid" ) );
+
+		assertThat( ColumnTransformer.forType( OracleTypes.TIMESTAMPTZ, LobPolicy.DEFAULT ) ).isNull();
+		assertThat( ColumnTransformer.forType( OracleTypes.INTERVALDS, LobPolicy.DEFAULT ) ).isNull();
+		assertThat( ColumnTransformer.forType( OracleTypes.INTERVALYM, LobPolicy.DEFAULT ) ).isNull();
+		assertThat( ColumnTransformer.forTemporalType( OracleTypes.TIMESTAMPTZ ).transform( TIMESTAMPTZ.of( zoned ) ) ).isEqualTo( zoned );
+		assertThat( ColumnTransformer.forTemporalType( OracleTypes.INTERVALDS ).transform( new INTERVALDS( "1 2:30:0.0" ) ) )
+		    .isEqualTo( Duration.ofDays( 1 ).plusHours( 2 ).plusMinutes( 30 ) );
+		assertThat( ColumnTransformer.forTemporalType( OracleTypes.INTERVALYM ).transform( new INTERVALYM( "2-6" ) ) )
+		    .isEqualTo( Period.of( 2, 6, 0 ) );
+		assertThat( ColumnTransformer.forTemporalType( Types.TIMESTAMP ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Local time zone timestamps are only transformed on a connection that is held, LOBs by the datasource's policy" )
+	public void testConnectionAndLobTypes() {
+		assertThat( ColumnTransformer.forType( OracleTypes.TIMESTAMPLTZ, LobPolicy.DEFAULT ) ).isNull();
+		assertThat( ColumnTransformer.forType( OracleTypes.TIMESTAMPLTZ, LobPolicy.DEFAULT, null ) ).isNotNull();
+		assertThat( ColumnTransformer.forType( OracleTypes.CLOB, LobPolicy.DEFAULT ) ).isSameInstanceAs( LobPolicy.DEFAULT );
+	}
+
+	@Test
+	@DisplayName( "Values of an unexpected class are passed through" )
+	public void testPassThrough() throws SQLException {
+		assertThat( ColumnTransformer.TIMESTAMPTZ_TO_ZONED.transform( "2026-03-14" ) ).isEqualTo( "2026-03-14" );
+	}
+
+}
@@ -0,0 +1,109 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.scopes.Key;
+
+public class FetchSizeAdvisorTest {
+
+	private static final String REPORT_SQL = "SELECT * FROM orders WHERE order_date >= ?";
+
+	@Test
+	@DisplayName( "Large results are fetched in as few round trips as the limits allow" )
+	public void testLargeResult() {
+		FetchSizeAdvisor advisor = new FetchSizeAdvisor( Key.of( "oracle_test" ), FetchSizeAdvisor.DEFAULT_BUDGET, 5000 );
+		assertThat( advisor.adviseFetchSize( REPORT_SQL ) ).isEqualTo( 0 );
+
+		advisor.record( REPORT_SQL, 800, 100 );
+		assertThat( advisor.adviseFetchSize( REPORT_SQL ) ).isEqualTo( 801 );
+
+		advisor.record( REPORT_SQL, 50_000, 100 );
+		assertThat( advisor.adviseFetchSize( REPORT_SQL ) ).isEqualTo( 5000 );
+	}
+
+	@Test
+	@DisplayName( "Wide rows are capped by the memory budget" )
+	public void testMemoryBudget() {
+		FetchSizeAdvisor advisor = new FetchSizeAdvisor( Key.of( "oracle_test" ), 1024 * 1024, 5000 );
+
+		advisor.record( REPORT_SQL, 50_000, 4096 );
+
+		assertThat( advisor.adviseFetchSize( REPORT_SQL ) ).isEqualTo( 256 );
+	}
+
+	@Test
+	@DisplayName( "Small results keep the driver default" )
+	public void testSmallResult() {
+		FetchSizeAdvisor advisor = new FetchSizeAdvisor( Key.of( "oracle_test" ), FetchSizeAdvisor.DEFAULT_BUDGET, 5000 );
+
+		advisor.record( REPORT_SQL, 3, 100 );
+
+		assertThat( advisor.adviseFetchSize( REPORT_SQL ) ).isEqualTo( 0 );
+		assertThat( advisor.getLearnedSizes() ).containsExactly( new FetchSizeAdvisor.LearnedFetchSize( REPORT_SQL, 1, 3, 3, 100, 0 ) );
+	}
+
+	@Test
+	@DisplayName( "Executions of the same SQL running at the same time are each recorded" )
+	public void testConcurrentExecutions() throws InterruptedException {
+		FetchSizeAdvisor	advisor	= new FetchSizeAdvisor( Key.of( "oracle_test" ), FetchSizeAdvisor.DEFAULT_BUDGET, 5000 );
+		Thread[]			threads	= new Thread[ 8 ];
+		for ( int i = 0; i < threads.length; i++ ) {
+			threads[ i ] = Thread.ofVirtual().start( () -> advisor.record( REPORT_SQL, 800, 100 ) );
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+
+		assertThat( advisor.getLearnedSizes() ).containsExactly( new FetchSizeAdvisor.LearnedFetchSize( REPORT_SQL, 8, 800, 800, 100, 801 ) );
+	}
+
+	@Test
+	@DisplayName( "A learned fetch size only ever raises the one asked for" )
+	public void testFetchSizeFor() {
+		FetchSizeAdvisor advisor = new FetchSizeAdvisor( Key.of( "oracle_test" ), FetchSizeAdvisor.DEFAULT_BUDGET, 5000 );
+		assertThat( advisor.fetchSizeFor( REPORT_SQL, 100 ) ).isEqualTo( 100 );
+
+		advisor.record( REPORT_SQL, 800, 100 );
+		assertThat( advisor.fetchSizeFor( REPORT_SQL, 100 ) ).isEqualTo( 801 );
+		assertThat( advisor.fetchSizeFor( REPORT_SQL, 2000 ) ).isEqualTo( 2000 );
+	}
+
+	@Test
+	@DisplayName( "Datasources with the same URL keep their own settings" )
+	public void testSameUrl() {
+		DatasourceConfig	reports	= config( "oracle_reports", 1000 );
+		DatasourceConfig	orders	= config( "oracle_orders", 50 );
+		FetchSizeAdvisor.register( reports );
+		FetchSizeAdvisor.register( orders );
+
+		assertThat( FetchSizeAdvisor.of( reports.getUniqueName() ).capFor( 1 ) ).isEqualTo( 1000 );
+		assertThat( FetchSizeAdvisor.of( orders.getUniqueName() ).capFor( 1 ) ).isEqualTo( 50 );
+	}
+
+	private static DatasourceConfig config( String name, int maxFetchSize ) {
+		DatasourceConfig config = new DatasourceConfig( Key.of( name ) );
+		config.properties.put( "host", "shared-db" );
+		config.properties.put( "serviceName", "FREEPDB1" );
+		config.properties.put( FetchSizeAdvisor.MAX_PROPERTY, maxFetchSize );
+		return config;
+	}
+
+}
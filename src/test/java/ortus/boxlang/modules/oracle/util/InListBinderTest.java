@@ -0,0 +1,70 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Struct;
+
+public class InListBinderTest {
+
+	@Test
+	@DisplayName( "List placeholders select from a collection, whatever the length of the list" )
+	public void testRewrite() {
+		assertThat( InListBinder.rewrite( "SELECT * FROM orders WHERE status = ? AND id IN ( ? ) AND region NOT in(?)",
+		    new boolean[] { false, true, true } ) )
+		    .isEqualTo( "SELECT * FROM orders WHERE status = ? AND id IN ( SELECT column_value FROM TABLE( ? ) ) AND region NOT in("
+		        + "SELECT column_value FROM TABLE( ? ))" );
+	}
+
+	@Test
+	@DisplayName( "A list must be the only item of an IN list" )
+	public void testRewriteOutsideInList() {
+		assertThrows( IllegalArgumentException.class, () -> InListBinder.rewrite( "SELECT * FROM orders WHERE id = ?", new boolean[] { true } ) );
+		assertThrows( IllegalArgumentException.class,
+		    () -> InListBinder.rewrite( "SELECT * FROM orders WHERE id IN ( 1, ? )", new boolean[] { true } ) );
+		assertThrows( IllegalArgumentException.class,
+		    () -> InListBinder.rewrite( "SELECT * FROM orders WHERE begin( ? )", new boolean[] { true } ) );
+	}
+
+	@Test
+	@DisplayName( "Statements without lists are left alone" )
+	public void testNoLists() throws Exception {
+		List<Object>		params	= List.of( "OPEN", 3 );
+		InListBinder.Bound	bound	= InListBinder.bind( null, "SELECT * FROM orders WHERE status = ? AND region = ?", params );
+		assertThat( bound.sql() ).isEqualTo( "SELECT * FROM orders WHERE status = ? AND region = ?" );
+		assertThat( bound.params() ).isSameInstanceAs( params );
+	}
+
+	@Test
+	@DisplayName( "The list flag of a struct decides whether it is a list, before the type of its value" )
+	public void testListFlag() throws Exception {
+		assertThat( InListBinder.isList( List.of( 1, 2 ) ) ).isTrue();
+		assertThat( InListBinder.isList( Struct.of( Key.value, List.of( 1, 2 ) ) ) ).isTrue();
+		assertThat( InListBinder.isList( Struct.of( Key.value, "1,2", Key.list, true ) ) ).isTrue();
+		assertThat( InListBinder.isList( Struct.of( Key.value, List.of( 1, 2 ), Key.list, false ) ) ).isFalse();
+		assertThat( InListBinder.isList( Struct.of( Key.value, "1,2" ) ) ).isFalse();
+
+		List<Object> params = List.of( Struct.of( Key.value, List.of( 1, 2 ), Key.list, false ) );
+		assertThat( InListBinder.bind( null, "SELECT * FROM orders WHERE tags = ?", params ).params() ).isSameInstanceAs( params );
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LobPolicyTest {
+
+	@Test
+	@DisplayName( "LOBs within the threshold are read inline" )
+	public void testInline() throws SQLException {
+		LobPolicy policy = new LobPolicy( 16 );
+
+		assertThat( policy.transform( new SerialClob( "short".toCharArray() ) ) ).isEqualTo( "short" );
+		assertThat( policy.transform( new SerialBlob( new byte[] { 1, 2, 3 } ) ) ).isEqualTo( new byte[] { 1, 2, 3 } );
+	}
+
+	@Test
+	@DisplayName( "LOBs over the threshold are left as locators" )
+	public void testLocator() throws SQLException {
+		LobPolicy	policy	= new LobPolicy( 4 );
+		Clob		clob	= new SerialClob( "a document".toCharArray() );
+		Blob		blob	= new SerialBlob( new byte[ 64 ] );
+
+		assertThat( policy.transform( clob ) ).isSameInstanceAs( clob );
+		assertThat( policy.transform( blob ) ).isSameInstanceAs( blob );
+		// Still readable, nothing was consumed or freed
+		assertThat( clob.getSubString( 1, 10 ) ).isEqualTo( "a document" );
+	}
+
+	@Test
+	@DisplayName( "A negative threshold, the default, reads every LOB inline" )
+	public void testInlineAll() throws SQLException {
+		assertThat( new LobPolicy( -1 ).transform( new SerialClob( "x".repeat( 100_000 ).toCharArray() ) ) ).isInstanceOf( String.class );
+		assertThat( LobPolicy.DEFAULT.transform( new SerialBlob( new byte[ 100_000 ] ) ) ).isInstanceOf( byte[].class );
+	}
+
+}
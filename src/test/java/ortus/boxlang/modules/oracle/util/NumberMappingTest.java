@@ -0,0 +1,55 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NumberMappingTest {
+
+	@Test
+	@DisplayName( "Integer NUMBERs are narrowed by precision" )
+	public void testIntegers() throws SQLException {
+		assertThat( NumberMapping.forPrecision( 9, 0 ).transform( new BigDecimal( "123456789" ) ) ).isEqualTo( 123456789 );
+		assertThat( NumberMapping.forPrecision( 18, 0 ).transform( new BigDecimal( "123456789012345678" ) ) ).isEqualTo( 123456789012345678L );
+		assertThat( NumberMapping.forPrecision( 19, 0 ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Values that don't fit the narrowed type exactly stay BigDecimals" )
+	public void testInexactValues() throws SQLException {
+		BigDecimal	fraction	= new BigDecimal( "12.5" );
+		BigDecimal	tooWide		= new BigDecimal( "12345678901" );
+
+		assertThat( NumberMapping.forPrecision( 9, 0 ).transform( fraction ) ).isSameInstanceAs( fraction );
+		assertThat( NumberMapping.forPrecision( 9, 0 ).transform( tooWide ) ).isSameInstanceAs( tooWide );
+		assertThat( NumberMapping.forPrecision( 18, 0 ).transform( new BigDecimal( "1E+19" ) ) ).isInstanceOf( BigDecimal.class );
+		assertThat( NumberMapping.forPrecision( 9, 0 ).transform( new BigDecimal( "42.0" ) ) ).isEqualTo( 42 );
+	}
+
+	@Test
+	@DisplayName( "FLOAT becomes a double, decimals and undeclared NUMBERs stay BigDecimals" )
+	public void testOtherNumbers() throws SQLException {
+		assertThat( NumberMapping.forPrecision( 126, -127 ).transform( new BigDecimal( "1.5" ) ) ).isEqualTo( 1.5d );
+		assertThat( NumberMapping.forPrecision( 10, 2 ) ).isNull();
+		assertThat( NumberMapping.forPrecision( 0, -127 ) ).isNull();
+	}
+
+}
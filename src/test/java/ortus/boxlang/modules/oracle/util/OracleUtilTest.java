@@ -0,0 +1,226 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.scopes.Key;
+
+public class OracleUtilTest {
+
+	private static final Key DS_NAME = Key.of( "oracle" );
+
+	@Test
+	@DisplayName( "Oracle datasources get their profile and settings as they start, others are left alone" )
+	public void testConfigureDatasource() {
+		DatasourceConfig	oracle	= datasource( "oracle_orders", "oracle" );
+		DatasourceConfig	mysql	= datasource( "mysql_orders", "mysql" );
+		OracleUtil.configureDatasource( oracle );
+		OracleUtil.configureDatasource( mysql );
+
+		assertThat( oracle.properties.get( "maxConnections" ) ).isEqualTo( 20 );
+		assertThat( LobPolicy.of( oracle.getUniqueName() ).getThreshold() ).isEqualTo( 4096 );
+		assertThat( mysql.properties.containsKey( "maxConnections" ) ).isFalse();
+		assertThat( LobPolicy.of( mysql.getUniqueName() ) ).isSameInstanceAs( LobPolicy.DEFAULT );
+	}
+
+	@Test
+	@DisplayName( "Overloads of a packaged procedure are read into one definition each" )
+	public void testOverloads() throws SQLException {
+		Proc proc = OracleUtil.readProcMeta( DS_NAME, "orders_pkg.get_orders", rows( List.of(
+		    row( "GET_ORDERS", 1, 1, "P_CUSTOMER_ID", "NUMBER", "IN", 0 ),
+		    row( "GET_ORDERS", 1, 2, "P_ORDERS", "REF CURSOR", "OUT", 0 ),
+		    row( "GET_ORDERS", 2, 1, "P_CUSTOMER_NAME", "VARCHAR2", "IN", 0 ),
+		    row( "GET_ORDERS", 2, 2, "P_STATUS", "VARCHAR2", "IN", 0 ),
+		    row( "GET_ORDERS", 2, 3, "P_ORDERS", "REF CURSOR", "OUT", 0 )
+		) ) );
+
+		assertThat( proc.dataSourceUniqueName() ).isEqualTo( DS_NAME );
+		assertThat( proc.name() ).isEqualTo( "orders_pkg.get_orders" );
+		assertThat( proc.objectId() ).isEqualTo( 1001 );
+		assertThat( proc.subprogram() ).isEqualTo( "GET_ORDERS" );
+		assertThat( proc.lastDdlTime() ).isEqualTo( 1000L );
+		assertThat( proc.status() ).isEqualTo( "VALID" );
+		assertThat( proc.definitions() ).hasSize( 2 );
+
+		ProcDef first = proc.definitions().get( 0 );
+		assertThat( first.paramCount() ).isEqualTo( 2 );
+		assertThat( first.nonRefCursorParamCount() ).isEqualTo( 1 );
+		assertThat( first.params().get( 0 ).name() ).isEqualTo( "P_CUSTOMER_ID" );
+		assertThat( first.params().get( 0 ).inOut() ).isEqualTo( OracleUtil.inKey );
+		assertThat( first.params().get( 1 ).inOut() ).isEqualTo( OracleUtil.outKey );
+
+		ProcDef second = proc.definitions().get( 1 );
+		assertThat( second.paramCount() ).isEqualTo( 3 );
+		assertThat( second.nonRefCursorParamCount() ).isEqualTo( 2 );
+		assertThat( second.params().get( 1 ).name() ).isEqualTo( "P_STATUS" );
+	}
+
+	@Test
+	@DisplayName( "A standalone procedure has no subprogram, and one without arguments has a single empty definition" )
+	public void testStandaloneWithoutArguments() throws SQLException {
+		Map<String, Object> placeholder = row( null, null, null, null, null, null, null );
+		Proc				proc		= OracleUtil.readProcMeta( DS_NAME, "purge_orders", rows( List.of( placeholder ) ) );
+
+		assertThat( proc.objectId() ).isEqualTo( 1001 );
+		assertThat( proc.subprogram() ).isNull();
+		assertThat( proc.definitions() ).hasSize( 1 );
+		assertThat( proc.definitions().get( 0 ).paramCount() ).isEqualTo( 0 );
+	}
+
+	@Test
+	@DisplayName( "The element type of a collection argument is read from its nested row" )
+	public void testCollectionElementType() throws SQLException {
+		Map<String, Object> ids = row( null, null, 1, "P_IDS", "TABLE", "IN", 0 );
+		ids.put( "TYPE_OWNER", "APP" );
+		ids.put( "TYPE_NAME", "ORDERS_PKG" );
+		ids.put( "TYPE_SUBNAME", "ID_LIST" );
+
+		Proc			proc	= OracleUtil.readProcMeta( DS_NAME, "cancel_orders", rows( List.of(
+		    ids,
+		    row( null, null, 1, null, "NUMBER", "IN", 1 ),
+		    row( null, null, 2, "P_REASON", "VARCHAR2", "IN", 0 )
+		) ) );
+		ProcParameter	param	= proc.definitions().get( 0 ).params().get( 0 );
+
+		assertThat( proc.definitions().get( 0 ).paramCount() ).isEqualTo( 2 );
+		assertThat( param.isCollection() ).isTrue();
+		assertThat( param.collectionType() ).isEqualTo( "APP.ORDERS_PKG.ID_LIST" );
+		assertThat( param.elementType() ).isEqualTo( "NUMBER" );
+	}
+
+	@Test
+	@DisplayName( "A name that doesn't resolve to a visible object is an error" )
+	public void testMissingObject() {
+		SQLException e = assertThrows( SQLException.class, () -> OracleUtil.readProcMeta( DS_NAME, "no_such_proc", rows( List.of() ) ) );
+		assertThat( e.getMessage() ).contains( "no_such_proc" );
+	}
+
+	@Test
+	@DisplayName( "Prewarm targets can be a comma-delimited list or an array" )
+	public void testPrewarmTargets() {
+		assertThat( OracleUtil.prewarmTargets( null ) ).isEmpty();
+		assertThat( OracleUtil.prewarmTargets( "hr, app.orders_pkg ,, " ) ).containsExactly( "hr", "app.orders_pkg" ).inOrder();
+		assertThat( OracleUtil.prewarmTargets( List.of( " HR", "APP.ORDERS_PKG", "" ) ) )
+		    .containsExactly( "HR", "APP.ORDERS_PKG" )
+		    .inOrder();
+	}
+
+	@Test
+	@DisplayName( "A schema target matches its owner and a package target its owner and object, with upper case binds" )
+	public void testPrewarmFilter() {
+		List<String>	binds	= new ArrayList<>();
+		String			filter	= OracleUtil.prewarmFilter( List.of( "hr", "app.orders_pkg", "Billing . Invoice_Pkg" ), binds );
+
+		assertThat( filter ).isEqualTo(
+		    "( o.OWNER = ? ) OR ( o.OWNER = ? AND o.OBJECT_NAME = ? ) OR ( o.OWNER = ? AND o.OBJECT_NAME = ? )"
+		);
+		assertThat( binds ).containsExactly( "HR", "APP", "ORDERS_PKG", "BILLING", "INVOICE_PKG" ).inOrder();
+	}
+
+	@Test
+	@DisplayName( "Object stamps are looked up in IN lists of at most 1000 ids" )
+	public void testObjectStampChunks() throws SQLException {
+		List<Integer>	ids			= IntStream.rangeClosed( 1, 2500 ).boxed().toList();
+		List<Integer>	batchSizes	= new ArrayList<>();
+		Connection		connection	= ( Connection ) Proxy.newProxyInstance( Connection.class.getClassLoader(),
+		    new Class<?>[] { Connection.class }, ( self, method, args ) -> switch ( method.getName() ) {
+			    case "prepareStatement" -> statement( ( String ) args[ 0 ], batchSizes );
+			    default -> null;
+		    } );
+
+		Map<Integer, ProcMetaCache.ObjectStamp> stamps = OracleUtil.getObjectStamps( connection, ids );
+
+		assertThat( batchSizes ).containsExactly( 1000, 1000, 500 ).inOrder();
+		assertThat( stamps ).hasSize( 2500 );
+		assertThat( stamps.get( 2500 ).lastDdlTime() ).isEqualTo( 1000L );
+	}
+
+	/**
+	 * A stamp query that returns a VALID row for every id bound to it, and records how many ids its IN list has
+	 */
+	private static PreparedStatement statement( String sql, List<Integer> batchSizes ) {
+		batchSizes.add( sql.length() - sql.replace( "?", "" ).length() );
+		List<Map<String, Object>> rows = new ArrayList<>();
+		return ( PreparedStatement ) Proxy.newProxyInstance( PreparedStatement.class.getClassLoader(),
+		    new Class<?>[] { PreparedStatement.class }, ( self, method, args ) -> switch ( method.getName() ) {
+			    case "setInt" -> {
+				    rows.add( Map.of( "OBJECT_ID", args[ 1 ], "LAST_DDL_TIME", new Timestamp( 1000L ), "STATUS", "VALID" ) );
+				    yield null;
+			    }
+			    case "executeQuery" -> rows( rows );
+			    default -> null;
+		    } );
+	}
+
+	/**
+	 * A row of the metadata query, for object 1001
+	 */
+	private static Map<String, Object> row( String subprogram, Integer overload, Integer position, String name, String dataType,
+	    String inOut, Integer level ) {
+		Map<String, Object> row = new HashMap<>();
+		row.put( "RESOLVED_OBJECT_ID", 1001 );
+		row.put( "RESOLVED_NAME", subprogram );
+		row.put( "LAST_DDL_TIME", new Timestamp( 1000L ) );
+		row.put( "STATUS", "VALID" );
+		row.put( "OVERLOAD", overload );
+		row.put( "POSITION", position );
+		row.put( "ARGUMENT_NAME", name );
+		row.put( "DATA_TYPE", dataType );
+		row.put( "IN_OUT", inOut );
+		row.put( "DATA_LEVEL", level );
+		return row;
+	}
+
+	/**
+	 * A result set over the given rows, read by column label
+	 */
+	private static ResultSet rows( List<Map<String, Object>> rows ) {
+		int[] row = { -1 };
+		return ( ResultSet ) Proxy.newProxyInstance( ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+		    ( self, method, args ) -> switch ( method.getName() ) {
+			    case "next" -> ++row[ 0 ] < rows.size();
+			    case "getInt" -> rows.get( row[ 0 ] ).get( args[ 0 ] ) instanceof Integer value ? value : 0;
+			    case "getString", "getTimestamp", "getObject" -> rows.get( row[ 0 ] ).get( args[ 0 ] );
+			    default -> null;
+		    } );
+	}
+
+	private static DatasourceConfig datasource( String name, String driver ) {
+		DatasourceConfig config = new DatasourceConfig( Key.of( name ) );
+		config.properties.put( "driver", driver );
+		config.properties.put( WorkloadProfile.PROPERTY, "oltp" );
+		config.properties.put( LobPolicy.THRESHOLD_PROPERTY, 4096 );
+		return config;
+	}
+
+}
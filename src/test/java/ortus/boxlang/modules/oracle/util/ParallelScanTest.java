@@ -0,0 +1,232 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.QueryColumnType;
+import ortus.boxlang.runtime.types.Struct;
+
+public class ParallelScanTest {
+
+	private static final String			SQL			= ParallelScan.selectSql( "orders", null, null );
+
+	private static final ParamBinder	BINDER		= new ParamBinder( null,
+	    ( type, value ) -> type == QueryColumnType.INTEGER ? Types.NUMERIC : Types.VARCHAR );
+
+	private final List<String>			connections	= new CopyOnWriteArrayList<>();
+	private final List<String>			binds		= new CopyOnWriteArrayList<>();
+
+	@Test
+	@DisplayName( "ROWIDs are built from the object, file, block and row in base 64 digits" )
+	public void testRowid() {
+		assertThat( ParallelScan.rowid( 73196, 4, 151, 0 ) ).isEqualTo( "AAAR3sAAEAAAACXAAA" );
+		assertThat( ParallelScan.rowid( 73196, 4, 151, ParallelScan.MAX_ROW ) ).isEqualTo( "AAAR3sAAEAAAACXH//" );
+	}
+
+	@Test
+	@DisplayName( "Extents are grouped into ranges of about the same number of blocks, never across segments" )
+	public void testSplit() {
+		List<ParallelScan.Range> ranges = ParallelScan.split( List.of(
+		    new ParallelScan.Extent( 100, 4, 128, 8, false ),
+		    new ParallelScan.Extent( 100, 4, 136, 8, false ),
+		    new ParallelScan.Extent( 100, 5, 8, 8, false ),
+		    new ParallelScan.Extent( 100, 5, 16, 8, false ),
+		    new ParallelScan.Extent( 101, 4, 512, 8, false )
+		), 2 );
+
+		assertThat( ranges ).containsExactly(
+		    new ParallelScan.Range( ParallelScan.rowid( 100, 4, 128, 0 ), ParallelScan.rowid( 100, 5, 15, ParallelScan.MAX_ROW ) ),
+		    new ParallelScan.Range( ParallelScan.rowid( 100, 5, 16, 0 ), ParallelScan.rowid( 100, 5, 23, ParallelScan.MAX_ROW ) ),
+		    new ParallelScan.Range( ParallelScan.rowid( 101, 4, 512, 0 ), ParallelScan.rowid( 101, 4, 519, ParallelScan.MAX_ROW ) ) )
+		    .inOrder();
+		assertThat( ParallelScan.split( List.of(), 4 ) ).isEmpty();
+	}
+
+	@Test
+	@DisplayName( "Bigfile tablespaces get ROWIDs whose block number takes the digits of the file number" )
+	public void testBigfile() {
+		assertThat( ParallelScan.bigfileRowid( 73196, 151, 0 ) ).isEqualTo( "AAAR3sAAAAAAACXAAA" );
+		assertThat( ParallelScan.bigfileRowid( 73196, 151, ParallelScan.MAX_ROW ) ).isEqualTo( "AAAR3sAAAAAAACXH//" );
+		// Blocks past the 6 digits of a smallfile block number
+		assertThat( ParallelScan.bigfileRowid( 73196, 1L << 36, 0 ) ).isEqualTo( "AAAR3sAABAAAAAAAAA" );
+
+		// Bigfile extents report relative file 1024, which isn't part of their ROWIDs
+		List<ParallelScan.Range> ranges = ParallelScan.split( List.of(
+		    new ParallelScan.Extent( 100, 1024, 128, 8, true ),
+		    new ParallelScan.Extent( 100, 1024, 136, 8, true )
+		), 1 );
+
+		assertThat( ranges ).containsExactly(
+		    new ParallelScan.Range( ParallelScan.bigfileRowid( 100, 128, 0 ), ParallelScan.bigfileRowid( 100, 143, ParallelScan.MAX_ROW ) ) );
+	}
+
+	@Test
+	@DisplayName( "Table names are split into the schema and table the data dictionary knows" )
+	public void testNames() {
+		assertThat( ParallelScan.objectName( "hr.orders" ) ).asList().containsExactly( "HR", "ORDERS" ).inOrder();
+		assertThat( ParallelScan.objectName( "\"Mixed.Case\"" ) ).asList().containsExactly( null, "Mixed.Case" ).inOrder();
+		assertThat( ParallelScan.selectSql( "orders", "id, total", "status = ?" ) )
+		    .isEqualTo( "SELECT id, total FROM orders WHERE ROWID BETWEEN CHARTOROWID( ? ) AND CHARTOROWID( ? ) AND ( status = ? )" );
+		assertThrows( IllegalArgumentException.class, () -> ParallelScan.selectSql( "orders o, users", null, null ) );
+	}
+
+	@Test
+	@DisplayName( "Ordered scans hand the rows over in range order, whatever order the ranges are read in" )
+	public void testOrdered() throws SQLException {
+		List<Object>				ids			= new ArrayList<>();
+		ParallelScan.RowConsumer	consumer	= ( columns, row, range ) -> {
+			assertThat( columns.names()[ 0 ].getName() ).isEqualTo( "ID" );
+			assertThat( range ).isEqualTo( ( ( Long ) row[ 0 ] ).intValue() / 80 );
+			return ids.add( row[ 0 ] );
+		};
+		ParallelScan.Result result = ParallelScan.scan( this::connection, SQL, List.of(), BINDER, ranges( 6 ), 3, true, 10, 2, consumer );
+
+		assertThat( result.rows() ).isEqualTo( 18 );
+		assertThat( result.ranges() ).isEqualTo( 6 );
+		assertThat( ids ).isInOrder();
+		assertThat( connections ).hasSize( 3 );
+	}
+
+	@Test
+	@DisplayName( "Unordered scans hand every row over, and a consumer can stop them" )
+	public void testUnorderedAndStop() throws SQLException {
+		List<Object> ids = new CopyOnWriteArrayList<>();
+		ParallelScan.scan( this::connection, SQL, List.of(), BINDER, ranges( 6 ), 3, false, 10, 2, ( columns, row, range ) -> ids.add( row[ 0 ] ) );
+		assertThat( ids ).hasSize( 18 );
+
+		ids.clear();
+		ParallelScan.Result result = ParallelScan.scan( this::connection, SQL, List.of(), BINDER, ranges( 6 ), 3, true, 10, 2,
+		    ( columns, row, range ) -> ids.add( row[ 0 ] ) && ids.size() < 4 );
+		assertThat( result.rows() ).isEqualTo( 4 );
+	}
+
+	@Test
+	@DisplayName( "The parameters of the condition are bound after the ends of the range, cast to their sqltype" )
+	public void testParams() throws SQLException {
+		String sql = ParallelScan.selectSql( "orders", null, "customer_id = ? AND status = ?" );
+		ParallelScan.scan( this::connection, sql, List.of( Struct.of( Key.sqltype, "integer", Key.value, "42" ), "OPEN" ), BINDER,
+		    ranges( 1 ), 1, true, 10, 2, ( columns, row, range ) -> true );
+
+		assertThat( binds ).containsExactly( "3 42 " + Types.NUMERIC, "4 OPEN " + Types.VARCHAR ).inOrder();
+	}
+
+	@Test
+	@DisplayName( "A range that fails fails the scan" )
+	public void testFailure() {
+		List<ParallelScan.Range> ranges = new ArrayList<>( ranges( 4 ) );
+		ranges.set( 2, new ParallelScan.Range( "FAIL", "FAIL" ) );
+
+		SQLException error = assertThrows( SQLException.class,
+		    () -> ParallelScan.scan( this::connection, SQL, List.of(), BINDER, ranges, 2, true, 10, 2, ( columns, row, range ) -> true ) );
+		assertThat( error.getErrorCode() ).isEqualTo( 1410 );
+	}
+
+	private static List<ParallelScan.Range> ranges( int count ) {
+		List<ParallelScan.Range> ranges = new ArrayList<>();
+		for ( int i = 0; i < count; i++ ) {
+			ranges.add( new ParallelScan.Range( ParallelScan.rowid( 100, 4, i * 8L, 0 ), ParallelScan.rowid( 100, 4, i * 8L + 7, 0 ) ) );
+		}
+		return ranges;
+	}
+
+	/**
+	 * A connection whose ranges each have three rows, numbered after the first block of the range
+	 */
+	private Connection connection() {
+		connections.add( Thread.currentThread().getName() );
+		return proxy( Connection.class, ( method, args ) -> switch ( method ) {
+			case "prepareStatement" -> statement();
+			default -> null;
+		} );
+	}
+
+	private PreparedStatement statement() {
+		String[] low = { null };
+		return proxy( PreparedStatement.class, ( method, args ) -> switch ( method ) {
+			case "setObject" -> binds.add( args[ 0 ] + " " + args[ 1 ] + " " + args[ 2 ] );
+			case "setString" -> {
+				if ( ( int ) args[ 0 ] == 1 ) {
+					low[ 0 ] = ( String ) args[ 1 ];
+				}
+				yield null;
+			}
+			case "executeQuery" -> {
+				if ( low[ 0 ].equals( "FAIL" ) ) {
+					throw new SQLException( "ORA-01410: invalid ROWID", "72000", 1410 );
+				}
+				long first = block( low[ 0 ] ) * 10;
+				// The later ranges come back first
+				Thread.sleep( Math.max( 0, 50 - first / 10 ) );
+				yield resultSet( List.of( first, first + 1, first + 2 ) );
+			}
+			default -> null;
+		} );
+	}
+
+	private static long block( String rowid ) {
+		long block = 0;
+		for ( char digit : rowid.substring( 9, 15 ).toCharArray() ) {
+			block = block * 64 + "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".indexOf( digit );
+		}
+		return block;
+	}
+
+	private ResultSet resultSet( List<Long> ids ) {
+		int[] row = { 0 };
+		return proxy( ResultSet.class, ( method, args ) -> switch ( method ) {
+			case "getMetaData" -> proxy( ResultSetMetaData.class, ( metaMethod, metaArgs ) -> switch ( metaMethod ) {
+				case "getColumnCount" -> 1;
+				case "getColumnLabel" -> "ID";
+				case "getColumnType" -> Types.NUMERIC;
+				default -> null;
+			} );
+			case "next" -> ++row[ 0 ] <= ids.size();
+			case "getObject" -> ids.get( row[ 0 ] - 1 );
+			default -> null;
+		} );
+	}
+
+	private interface Handler {
+
+		Object handle( String method, Object[] args ) throws Exception;
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static <T> T proxy( Class<T> type, Handler handler ) {
+		Map<String, Object> defaults = Map.of( "boolean", false, "int", 0, "long", 0L );
+		return ( T ) Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, ( self, method, args ) -> {
+			Object result = handler.handle( method.getName(), args );
+			return result == null && method.getReturnType().isPrimitive() ? defaults.get( method.getReturnType().getName() ) : result;
+		} );
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.QueryColumnType;
+import ortus.boxlang.runtime.types.Struct;
+
+public class ParamBinderTest {
+
+	@Test
+	@DisplayName( "A sqltype is used with or without its cf_sql_ prefix, and plain values get the type of their Java class" )
+	public void testTypeOf() {
+		assertThat( ParamBinder.typeOf( "cf_sql_integer", "42" ) ).isEqualTo( QueryColumnType.INTEGER );
+		assertThat( ParamBinder.typeOf( "timestamp", "2026-01-01" ) ).isEqualTo( QueryColumnType.TIMESTAMP );
+		assertThat( ParamBinder.typeOf( null, 42L ) ).isEqualTo( QueryColumnType.BIGINT );
+		assertThat( ParamBinder.typeOf( null, new BigDecimal( "1.5" ) ) ).isEqualTo( QueryColumnType.DECIMAL );
+		assertThat( ParamBinder.typeOf( null, LocalDateTime.now() ) ).isEqualTo( QueryColumnType.TIMESTAMP );
+		assertThat( ParamBinder.typeOf( null, "rush" ) ).isEqualTo( QueryColumnType.VARCHAR );
+		assertThat( ParamBinder.typeOf( null, null ) ).isEqualTo( QueryColumnType.VARCHAR );
+	}
+
+	@Test
+	@DisplayName( "Values are bound with the JDBC type the driver maps their sqltype to, and nulls with setNull" )
+	public void testBind() throws SQLException {
+		List<String>		calls		= new ArrayList<>();
+		PreparedStatement	statement	= ( PreparedStatement ) Proxy.newProxyInstance( PreparedStatement.class.getClassLoader(),
+		    new Class<?>[] { PreparedStatement.class }, ( self, method, args ) -> {
+			    calls.add( method.getName() + " " + args[ 0 ] + " " + args[ args.length - 1 ] );
+			    return null;
+		    } );
+		ParamBinder			binder		= new ParamBinder( null,
+		    ( type, value ) -> type == QueryColumnType.VARCHAR ? Types.CHAR : Types.NUMERIC );
+
+		binder.bind( statement, 1, Struct.of( Key.sqltype, "cf_sql_integer", Key.value, 42 ) );
+		binder.bind( statement, 2, "rush" );
+		binder.bind( statement, 3, Struct.of( Key.sqltype, "varchar", Key.value, null ) );
+
+		assertThat( calls ).containsExactly(
+		    "setObject 1 " + Types.NUMERIC,
+		    "setObject 2 " + Types.CHAR,
+		    "setNull 3 " + Types.CHAR
+		).inOrder();
+	}
+
+	@Test
+	@DisplayName( "Values bound some other way are cast like bound values" )
+	public void testCast() {
+		ParamBinder binder = new ParamBinder( null, ( type, value ) -> Types.VARCHAR );
+
+		assertThat( binder.cast( Struct.of( Key.sqltype, "cf_sql_integer", Key.value, "42" ) ) ).isEqualTo( 42 );
+		assertThat( binder.cast( "rush" ) ).isEqualTo( "rush" );
+		assertThat( binder.cast( Struct.of( Key.sqltype, "varchar", Key.value, null ) ) ).isNull();
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+public class ProcCallPlanTest {
+
+	// get_orders( p_customer_id NUMBER, p_orders OUT SYS_REFCURSOR )
+	// get_orders( p_email VARCHAR2, p_since DATE, p_orders OUT SYS_REFCURSOR, p_items OUT SYS_REFCURSOR )
+	private static final Proc PROC = new Proc(
+	    Key.of( "oracle_test" ),
+	    "pkg_orders.get_orders",
+	    List.of(
+	        OracleUtil.toProcDef( List.of(
+	            new ProcParameter( 1, "P_CUSTOMER_ID", "NUMBER", OracleUtil.inKey ),
+	            new ProcParameter( 2, "P_ORDERS", "REF CURSOR", OracleUtil.outKey )
+	        ) ),
+	        OracleUtil.toProcDef( List.of(
+	            new ProcParameter( 1, "P_EMAIL", "VARCHAR2", OracleUtil.inKey ),
+	            new ProcParameter( 2, "P_SINCE", "DATE", OracleUtil.inKey ),
+	            new ProcParameter( 3, "P_ORDERS", "REF CURSOR", OracleUtil.outKey ),
+	            new ProcParameter( 4, "P_ITEMS", "REF CURSOR", OracleUtil.outKey )
+	        ) )
+	    ),
+	    1,
+	    "GET_ORDERS",
+	    0L,
+	    "VALID"
+	);
+
+	@Test
+	@DisplayName( "Positional calls pick the overload with the matching parameter count" )
+	public void testPositionalOverload() throws SQLException {
+		ProcCallPlan plan = ProcCallPlan.forCall( PROC, "pkg_orders.get_orders", Array.of(
+		    Struct.of( Key.sqltype, "varchar", Key.value, "jane@example.com" ),
+		    Struct.of( Key.sqltype, "date", Key.value, "2026-01-01" )
+		) );
+
+		assertThat( plan.named() ).isFalse();
+		assertThat( plan.def() ).isSameInstanceAs( PROC.definitions().get( 1 ) );
+		assertThat( plan.refCursorPositions() ).asList().containsExactly( 2, 3 ).inOrder();
+	}
+
+	@Test
+	@DisplayName( "Named calls pick the overload that has the provided names" )
+	public void testNamedOverload() throws SQLException {
+		ProcCallPlan plan = ProcCallPlan.forCall( PROC, "pkg_orders.get_orders", Array.of(
+		    Struct.of( Key.DBVarName, ":p_customer_id", Key.sqltype, "integer", Key.value, 42 )
+		) );
+
+		assertThat( plan.named() ).isTrue();
+		assertThat( plan.def() ).isSameInstanceAs( PROC.definitions().get( 0 ) );
+		assertThat( plan.refCursorVarNames() ).asList().containsExactly( ":P_ORDERS" );
+	}
+
+	@Test
+	@DisplayName( "Calls with the same parameter shape reuse the compiled plan" )
+	public void testPlanReuse() throws SQLException {
+		ProcCallPlans	plans	= new ProcCallPlans();
+		ProcCallPlan	first	= ProcCallPlan.forCall( PROC, plans, "pkg_orders.get_orders",
+		    Array.of( Struct.of( Key.sqltype, "integer", Key.value, 1 ) ) );
+		ProcCallPlan	second	= ProcCallPlan.forCall( PROC, plans, "pkg_orders.get_orders",
+		    Array.of( Struct.of( Key.sqltype, "integer", Key.value, 2 ) ) );
+
+		assertThat( second ).isSameInstanceAs( first );
+		assertThat( plans.size() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "Provided parameters are matched to the collection types they bind as" )
+	public void testCollectionTypes() throws SQLException {
+		Proc			etl		= new Proc( PROC.dataSourceUniqueName(), "pkg_etl.archive_orders", List.of( OracleUtil.toProcDef( List.of(
+		    new ProcParameter( 1, "P_BATCH", "VARCHAR2", OracleUtil.inKey ),
+		    new ProcParameter( 2, "P_IDS", "TABLE", OracleUtil.inKey, "HR.PKG_ETL.ID_LIST", "NUMBER" )
+		) ) ), 2, "ARCHIVE_ORDERS", 0L, "VALID" );
+
+		ProcCallPlan	plan	= ProcCallPlan.forCall( etl, "pkg_etl.archive_orders", Array.of(
+		    Struct.of( Key.sqltype, "varchar", Key.value, "nightly" ),
+		    Struct.of( Key.value, Array.of( 1, 2, 3 ) )
+		) );
+
+		assertThat( plan.collectionTypes() ).asList().containsExactly( null, "HR.PKG_ETL.ID_LIST" ).inOrder();
+		assertThat( ProcCallPlan.forCall( PROC, "pkg_orders.get_orders", Array.of() ).collectionTypes() ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Numeric types are matched by name, so an INTERVAL overload isn't taken for a number" )
+	public void testIntervalIsNotNumeric() throws SQLException {
+		Proc			delay	= new Proc( PROC.dataSourceUniqueName(), "pkg_jobs.delay", List.of(
+		    OracleUtil.toProcDef( List.of( new ProcParameter( 1, "P_BY", "INTERVAL DAY TO SECOND", OracleUtil.inKey ) ) ),
+		    OracleUtil.toProcDef( List.of( new ProcParameter( 1, "P_BY", "NUMBER", OracleUtil.inKey ) ) )
+		), 3, "DELAY", 0L, "VALID" );
+
+		ProcCallPlan	plan	= ProcCallPlan.forCall( delay, "pkg_jobs.delay", Array.of(
+		    Struct.of( Key.sqltype, "integer", Key.value, 5 )
+		) );
+
+		assertThat( plan.def() ).isSameInstanceAs( delay.definitions().get( 1 ) );
+	}
+
+	@Test
+	@DisplayName( "Applying a plan inserts the ref cursors at their positions, named after the proc results" )
+	public void testApply() throws SQLException {
+		Array			params		= Array.of(
+		    Struct.of( Key.sqltype, "varchar", Key.value, "jane@example.com" ),
+		    Struct.of( Key.sqltype, "date", Key.value, "2026-01-01" )
+		);
+		Array			procResults	= Array.of( Struct.of( Key._NAME, "orders" ) );
+		ProcCallPlan	plan		= ProcCallPlan.forCall( PROC, "pkg_orders.get_orders", params );
+
+		plan.apply( null, params, procResults );
+
+		assertThat( params ).hasSize( 4 );
+		assertThat( ( ( IStruct ) params.get( 2 ) ).get( Key.variable ) ).isEqualTo( "orders" );
+		assertThat( ( ( IStruct ) params.get( 3 ) ).get( Key.sqltype ) ).isEqualTo( "refcursor" );
+		assertThat( procResults ).isEmpty();
+	}
+
+	@Test
+	@DisplayName( "Positional calls missing parameters before a ref cursor fail" )
+	public void testMissingPositionalParams() {
+		Proc single = new Proc( PROC.dataSourceUniqueName(), PROC.name(), List.of( PROC.definitions().get( 1 ) ), 1, PROC.subprogram(), 0L,
+		    "VALID" );
+
+		assertThrows( SQLException.class, () -> ProcCallPlan.forCall( single, "pkg_orders.get_orders", Array.of(
+		    Struct.of( Key.sqltype, "varchar", Key.value, "jane@example.com" )
+		) ) );
+	}
+
+}
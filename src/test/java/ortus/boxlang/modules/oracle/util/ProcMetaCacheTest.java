@@ -0,0 +1,389 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.Key;
+
+public class ProcMetaCacheTest {
+
+	private static final Key	DS_NAME	= Key.of( "oracle_test" );
+
+	private ProcMetaCache									cache;
+	private DataSource										dataSource;
+	private BoxConnection									connection;
+	// The ALL_OBJECTS stamps the mocked database reports, by OBJECT_ID
+	private final Map<Integer, ProcMetaCache.ObjectStamp>	stamps	= new ConcurrentHashMap<>();
+
+	@BeforeEach
+	public void setupEach() throws SQLException {
+		DatasourceConfig config = new DatasourceConfig();
+		config.properties.put( ProcMetaCache.REVALIDATE_INTERVAL_PROPERTY, 0 );
+
+		dataSource = mock( DataSource.class );
+		when( dataSource.getUniqueName() ).thenReturn( DS_NAME );
+		when( dataSource.getConfiguration() ).thenReturn( config );
+
+		connection = mock( BoxConnection.class );
+		when( connection.getDataSource() ).thenReturn( dataSource );
+		when( dataSource.getBoxConnection() ).thenReturn( connection );
+		when( connection.prepareStatement( anyString() ) ).thenAnswer( invocation -> statement( invocation.getArgument( 0 ) ) );
+		stamps.clear();
+
+		cache = new ProcMetaCache();
+	}
+
+	@Test
+	@DisplayName( "Concurrent misses for the same procedure share one load" )
+	public void testSingleFlight() throws Exception {
+		AtomicInteger	loads	= new AtomicInteger();
+		CountDownLatch	start	= new CountDownLatch( 1 );
+
+		try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor() ) {
+			List<Future<Proc>> results = new ArrayList<>();
+			for ( int i = 0; i < 50; i++ ) {
+				results.add( executor.submit( () -> {
+					start.await();
+					return cache.getOrLoad( connection, "pkg.proc", ( conn, name ) -> {
+						loads.incrementAndGet();
+						sleep( 50 );
+						return proc( "pkg.proc" );
+					} );
+				} ) );
+			}
+			start.countDown();
+			for ( Future<Proc> result : results ) {
+				assertThat( result.get( 10, TimeUnit.SECONDS ).name() ).isEqualTo( "pkg.proc" );
+			}
+		}
+
+		assertThat( loads.get() ).isEqualTo( 1 );
+		assertThat( cache.size() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "A slow load does not block misses for other procedures" )
+	public void testDifferentKeysLoadInParallel() throws Exception {
+		CountDownLatch	slowStarted		= new CountDownLatch( 1 );
+		CountDownLatch	fastFinished	= new CountDownLatch( 1 );
+
+		try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor() ) {
+			Future<Proc> slow = executor.submit( () -> cache.getOrLoad( connection, "slow", ( conn, name ) -> {
+				slowStarted.countDown();
+				// Only finishes once the other procedure has been loaded
+				await( fastFinished );
+				return proc( "slow" );
+			} ) );
+
+			assertThat( slowStarted.await( 10, TimeUnit.SECONDS ) ).isTrue();
+			Proc fast = cache.getOrLoad( connection, "fast", ( conn, name ) -> proc( name ) );
+			fastFinished.countDown();
+
+			assertThat( fast.name() ).isEqualTo( "fast" );
+			assertThat( slow.get( 10, TimeUnit.SECONDS ).name() ).isEqualTo( "slow" );
+		}
+	}
+
+	@Test
+	@DisplayName( "A failed load is rethrown and not cached" )
+	public void testFailedLoad() {
+		SQLException	error	= new SQLException( "ORA-06564: object does not exist" );
+		SQLException	thrown	= assertThrows( SQLException.class, () -> cache.getOrLoad( connection, "missing", ( conn, name ) -> {
+									throw error;
+								} ) );
+
+		assertThat( ( Throwable ) thrown ).isSameInstanceAs( error );
+		assertThat( cache.get( DS_NAME, "missing" ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Threads waiting on another thread's load never pin a carrier thread" )
+	public void testNoPinnedCarrierThreads() throws Exception {
+		int				waiters			= 50;
+		AtomicInteger	loads			= new AtomicInteger();
+		Path			recordingFile	= Files.createTempFile( "procmeta-pinning", ".jfr" );
+		try ( Recording recording = new Recording() ) {
+			recording.enable( "jdk.VirtualThreadPinned" ).withThreshold( Duration.ZERO ).withStackTrace();
+			recording.start();
+
+			try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor() ) {
+				CountDownLatch	loading	= new CountDownLatch( 1 );
+				Future<Proc>	loaded	= executor.submit( () -> cache.getOrLoad( connection, "pkg.proc", ( conn, name ) -> {
+					loads.incrementAndGet();
+					loading.countDown();
+					// Hold the load until every other caller is waiting on the in-flight load
+					awaitMisses( waiters + 1 );
+					return proc( name );
+				} ) );
+				assertThat( loading.await( 10, TimeUnit.SECONDS ) ).isTrue();
+
+				List<Future<Proc>> waiting = new ArrayList<>();
+				for ( int i = 0; i < waiters; i++ ) {
+					waiting.add( executor.submit( () -> cache.getOrLoad( connection, "pkg.proc", ( conn, name ) -> {
+						loads.incrementAndGet();
+						return proc( name );
+					} ) ) );
+				}
+				for ( Future<Proc> result : waiting ) {
+					assertThat( result.get( 10, TimeUnit.SECONDS ) ).isSameInstanceAs( loaded.get( 10, TimeUnit.SECONDS ) );
+				}
+			}
+
+			recording.stop();
+			recording.dump( recordingFile );
+		}
+
+		List<RecordedEvent> pinned = RecordingFile.readAllEvents( recordingFile )
+		    .stream()
+		    .filter( event -> event.getEventType().getName().equals( "jdk.VirtualThreadPinned" ) )
+		    .toList();
+		Files.deleteIfExists( recordingFile );
+
+		assertThat( pinned ).isEmpty();
+		assertThat( loads.get() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "Every spelling of a procedure name shares one definition, and only a new spelling loads" )
+	public void testSpellingsShareOneDefinition() throws Exception {
+		AtomicInteger	loads	= new AtomicInteger();
+		List<Proc>		results	= new ArrayList<>();
+		for ( String name : List.of( "pkg.proc", "PKG.PROC", "hr.pkg.proc", "pkg.proc", "PKG.PROC" ) ) {
+			results.add( cache.getOrLoad( connection, name, ( conn, procName ) -> {
+				loads.incrementAndGet();
+				return new Proc( DS_NAME, procName, List.of(), 1, "PROC", 0L, "VALID" );
+			} ) );
+		}
+
+		// Only the first call with each spelling loads it, and the first definition is kept
+		assertThat( loads.get() ).isEqualTo( 3 );
+		assertThat( results.stream().distinct().count() ).isEqualTo( 1 );
+		assertThat( results.get( 0 ).name() ).isEqualTo( "pkg.proc" );
+		assertThat( cache.get( DS_NAME, "hr.pkg.proc" ) ).isSameInstanceAs( results.get( 0 ) );
+		assertThat( cache.size() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "Revalidation reloads definitions whose LAST_DDL_TIME or STATUS changed, and keeps the others" )
+	public void testRevalidateReloadsStaleEntries() throws Exception {
+		Proc	recompiled	= cached( "pkg_orders.get_orders", 1 );
+		Proc	invalidated	= cached( "pkg_orders.cancel_order", 2 );
+		Proc	unchanged	= cached( "pkg_orders.ship_order", 3 );
+		stamps.put( 1, new ProcMetaCache.ObjectStamp( 1, 5_000L, "VALID" ) );
+		stamps.put( 2, new ProcMetaCache.ObjectStamp( 2, 0L, "INVALID" ) );
+
+		assertThat( cache.revalidate( dataSource ) ).isEqualTo( 2 );
+
+		Proc reloaded = cache.get( DS_NAME, recompiled.name() );
+		assertThat( reloaded ).isNotSameInstanceAs( recompiled );
+		assertThat( reloaded.lastDdlTime() ).isEqualTo( 5_000L );
+		assertThat( cache.get( DS_NAME, invalidated.name() ).status() ).isEqualTo( "INVALID" );
+		assertThat( cache.get( DS_NAME, unchanged.name() ) ).isSameInstanceAs( unchanged );
+		assertThat( cache.size() ).isEqualTo( 3 );
+
+		// Nothing changed since, so nothing is reloaded
+		assertThat( cache.revalidate( dataSource ) ).isEqualTo( 0 );
+		assertThat( cache.get( DS_NAME, recompiled.name() ) ).isSameInstanceAs( reloaded );
+	}
+
+	@Test
+	@DisplayName( "Revalidation evicts definitions whose object was dropped" )
+	public void testRevalidateEvictsDroppedObjects() throws Exception {
+		Proc	dropped	= cached( "pkg_legacy.get_orders", 1 );
+		Proc	kept	= cached( "pkg_orders.get_orders", 2 );
+		stamps.remove( 1 );
+
+		assertThat( cache.revalidate( dataSource ) ).isEqualTo( 1 );
+
+		assertThat( cache.get( DS_NAME, dropped.name() ) ).isNull();
+		assertThat( cache.get( DS_NAME, kept.name() ) ).isSameInstanceAs( kept );
+		assertThat( cache.size() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "A revalidation that changes nothing doesn't rewrite the snapshot" )
+	public void testRevalidateKeepsUnchangedSnapshot() throws Exception {
+		Proc	recompiled	= cached( "pkg_orders.get_orders", 1 );
+		Path	directory	= Files.createTempDirectory( "procmeta" );
+		dataSource.getConfiguration().properties.put( ProcMetaCache.SNAPSHOT_PATH_PROPERTY, directory.toString() );
+		try {
+			assertThat( cache.writeSnapshot( dataSource ) ).isTrue();
+
+			assertThat( cache.revalidate( dataSource ) ).isEqualTo( 0 );
+			assertThat( cache.writeSnapshot( dataSource ) ).isFalse();
+
+			stamps.put( recompiled.objectId(), new ProcMetaCache.ObjectStamp( recompiled.objectId(), 5_000L, "VALID" ) );
+			assertThat( cache.revalidate( dataSource ) ).isEqualTo( 1 );
+			assertThat( cache.writeSnapshot( dataSource ) ).isTrue();
+		} finally {
+			Files.deleteIfExists( ProcMetaSnapshot.fileFor( directory, DS_NAME ) );
+			Files.delete( directory );
+		}
+	}
+
+	@Test
+	@DisplayName( "Call plans belong to the cache entry and are dropped when an equal definition replaces it" )
+	public void testCallPlansPerEntry() {
+		Proc			proc	= cached( "pkg_orders.get_orders", 10 );
+		ProcCallPlans	plans	= cache.callPlans( proc );
+		assertThat( plans ).isNotNull();
+		assertThat( cache.callPlans( proc ) ).isSameInstanceAs( plans );
+
+		Proc reloaded = new Proc( DS_NAME, proc.name(), List.of(), proc.objectId(), proc.subprogram(), 0L, "VALID" );
+		assertThat( reloaded ).isEqualTo( proc );
+		cache.put( reloaded.name(), reloaded, dataSource );
+
+		assertThat( cache.callPlans( reloaded ) ).isNotSameInstanceAs( plans );
+		assertThat( cache.callPlans( proc ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Shutting down stops the background tasks but keeps the definitions, and the tasks restart on the next store" )
+	public void testShutdown() {
+		dataSource.getConfiguration().properties.put( ProcMetaCache.REVALIDATE_INTERVAL_PROPERTY, 3600 );
+		Proc proc = cached( "pkg_orders.get_orders", 10 );
+
+		cache.shutdown();
+		assertThat( cache.get( DS_NAME, "pkg_orders.get_orders" ) ).isSameInstanceAs( proc );
+
+		cached( "pkg_orders.cancel_order", 11 );
+		cache.shutdown();
+		cache.shutdown();
+		assertThat( cache.get( DS_NAME, "pkg_orders.cancel_order" ) ).isNotNull();
+	}
+
+	/**
+	 * Cache a definition built from the current version of its object
+	 */
+	private Proc cached( String name, int objectId ) {
+		String subprogram = name.substring( name.indexOf( '.' ) + 1 ).toUpperCase();
+		stamps.put( objectId, new ProcMetaCache.ObjectStamp( objectId, 0L, "VALID" ) );
+		Proc proc = new Proc( DS_NAME, name, List.of(), objectId, subprogram, 0L, "VALID" );
+		cache.put( name, proc, dataSource );
+		return proc;
+	}
+
+	/**
+	 * A statement of the mocked database: the ALL_OBJECTS stamp lookup of the revalidation, or the metadata load of a procedure, which
+	 * reads its object's current stamp and no arguments
+	 */
+	private PreparedStatement statement( String sql ) throws SQLException {
+		PreparedStatement	statement	= mock( PreparedStatement.class );
+		List<Object>		binds		= new ArrayList<>();
+		doAnswer( invocation -> binds.add( invocation.getArgument( 1 ) ) ).when( statement ).setInt( anyInt(), anyInt() );
+		doAnswer( invocation -> binds.add( invocation.getArgument( 1 ) ) ).when( statement ).setString( anyInt(), anyString() );
+		when( statement.executeQuery() ).thenAnswer( invocation -> {
+			List<Map<String, Object>> rows = new ArrayList<>();
+			for ( ProcMetaCache.ObjectStamp stamp : stamps.values() ) {
+				if ( sql.contains( "ALL_ARGUMENTS" ) ) {
+					Proc proc = cache.get( DS_NAME, ( String ) binds.get( 0 ) );
+					if ( proc != null && proc.objectId() == stamp.objectId() ) {
+						rows.add( Map.of( "RESOLVED_OBJECT_ID", stamp.objectId(), "RESOLVED_NAME", proc.subprogram(), "LAST_DDL_TIME",
+						    new Timestamp( stamp.lastDdlTime() ), "STATUS", stamp.status() ) );
+					}
+				} else if ( binds.contains( stamp.objectId() ) ) {
+					rows.add( Map.of( "OBJECT_ID", stamp.objectId(), "LAST_DDL_TIME", new Timestamp( stamp.lastDdlTime() ), "STATUS",
+					    stamp.status() ) );
+				}
+			}
+			return rows( rows );
+		} );
+		return statement;
+	}
+
+	/**
+	 * A forward-only result set over rows of column values. Missing columns read as SQL NULL.
+	 */
+	private static ResultSet rows( List<Map<String, Object>> rows ) {
+		int[] current = { -1 };
+		return mock( ResultSet.class, invocation -> {
+			Map<String, Object> row = current[ 0 ] >= 0 && current[ 0 ] < rows.size() ? rows.get( current[ 0 ] ) : Map.of();
+			return switch ( invocation.getMethod().getName() ) {
+				case "next" -> ++current[ 0 ] < rows.size();
+				case "getString", "getTimestamp" -> row.get( invocation.< String >getArgument( 0 ) );
+				case "getInt" -> ( ( Number ) row.getOrDefault( invocation.< String >getArgument( 0 ), 0 ) ).intValue();
+				default -> RETURNS_DEFAULTS.answer( invocation );
+			};
+		} );
+	}
+
+	private static Proc proc( String name ) {
+		return new Proc( DS_NAME, name, List.of(), 1, name.toUpperCase(), 0L, "VALID" );
+	}
+
+	private static void sleep( long millis ) throws SQLException {
+		try {
+			Thread.sleep( millis );
+		} catch ( InterruptedException e ) {
+			throw new SQLException( e );
+		}
+	}
+
+	/**
+	 * Wait until the cache has recorded that many misses, which every caller does before waiting on an in-flight load
+	 */
+	private void awaitMisses( long misses ) throws SQLException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+		while ( cache.metrics( DS_NAME ).getCacheMisses() < misses ) {
+			assertThat( System.nanoTime() ).isLessThan( deadline );
+			sleep( 1 );
+		}
+	}
+
+	private static void await( CountDownLatch latch ) throws SQLException {
+		try {
+			assertThat( latch.await( 10, TimeUnit.SECONDS ) ).isTrue();
+		} catch ( InterruptedException e ) {
+			throw new SQLException( e );
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ortus.boxlang.runtime.scopes.Key;
+
+public class ProcMetaSnapshotTest {
+
+	private static final Key	DS_NAME	= Key.of( "oracle_test" );
+
+	@TempDir
+	Path						tempDir;
+
+	@Test
+	@DisplayName( "A snapshot reads back the same definitions and DDL stamps" )
+	public void testRoundTrip() throws IOException {
+		Proc	proc	= new Proc(
+		    DS_NAME,
+		    "hr.pkg_orders.get_orders",
+		    List.of(
+		        OracleUtil.toProcDef( List.of(
+		            new ProcParameter( 1, "P_CUSTOMER_ID", "NUMBER", OracleUtil.inKey ),
+		            new ProcParameter( 2, "P_ORDERS", "REF CURSOR", OracleUtil.outKey )
+		        ) ),
+		        OracleUtil.toProcDef( List.of(
+		            new ProcParameter( 1, "P_EMAIL", "VARCHAR2", OracleUtil.inoutKey ),
+		            new ProcParameter( 2, "P_IDS", "TABLE", OracleUtil.inKey, "HR.PKG_ORDERS.ID_LIST", "NUMBER" )
+		        ) )
+		    ),
+		    74213,
+		    "GET_ORDERS",
+		    1_760_000_000_000L,
+		    "VALID"
+		);
+		Path	file	= ProcMetaSnapshot.fileFor( tempDir, DS_NAME );
+
+		ProcMetaSnapshot.write( file, List.of( proc ) );
+		List<Proc> restored = ProcMetaSnapshot.read( file, DS_NAME );
+
+		assertThat( restored ).hasSize( 1 );
+		assertThat( restored.get( 0 ) ).isEqualTo( proc );
+		assertThat( restored.get( 0 ).definitions().get( 0 ).nonRefCursorParamCount() ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "A missing or truncated snapshot reads as empty" )
+	public void testMissingOrTruncated() throws IOException {
+		Path file = ProcMetaSnapshot.fileFor( tempDir, DS_NAME );
+		assertThat( ProcMetaSnapshot.read( file, DS_NAME ) ).isEmpty();
+
+		ProcMetaSnapshot.write( file,
+		    List.of( new Proc( DS_NAME, "proc", List.of( OracleUtil.toProcDef( List.of() ) ), 1, null, 0L, "VALID" ) ) );
+		byte[] bytes = Files.readAllBytes( file );
+		Files.write( file, Arrays.copyOf( bytes, bytes.length - 4 ) );
+
+		assertThat( ProcMetaSnapshot.read( file, DS_NAME ) ).isEmpty();
+	}
+
+}
@@ -0,0 +1,94 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.scopes.Key;
+
+public class ProcMetricsTest {
+
+	private static final Key	DATASOURCE	= Key.of( "metricsTest" );
+
+	@Test
+	@DisplayName( "Hits, misses and calls are counted" )
+	public void testCounters() {
+		ProcMetrics metrics = new ProcMetrics( DATASOURCE, () -> new ProcMetaCache.Footprint( 2, 1024 ) );
+		metrics.recordHit();
+		metrics.recordHit();
+		metrics.recordHit();
+		metrics.recordMiss();
+		metrics.recordCall( true, 2 );
+		metrics.recordCall( false, 1 );
+
+		assertThat( metrics.getCacheHits() ).isEqualTo( 3 );
+		assertThat( metrics.getCacheMisses() ).isEqualTo( 1 );
+		assertThat( metrics.getCacheHitRate() ).isEqualTo( 0.75 );
+		assertThat( metrics.getCacheEntries() ).isEqualTo( 2 );
+		assertThat( metrics.getCacheApproximateBytes() ).isEqualTo( 1024 );
+		assertThat( metrics.getProcCalls() ).isEqualTo( 2 );
+		assertThat( metrics.getNamedProcCalls() ).isEqualTo( 1 );
+		assertThat( metrics.getRefCursorsInjected() ).isEqualTo( 3 );
+
+		metrics.reset();
+		assertThat( metrics.getCacheHits() ).isEqualTo( 0 );
+		assertThat( metrics.getCacheHitRate() ).isEqualTo( 0 );
+	}
+
+	@Test
+	@DisplayName( "Load times go in histogram buckets that the percentiles are read from" )
+	public void testLoadTimes() {
+		ProcMetrics	metrics	= new ProcMetrics( DATASOURCE, () -> new ProcMetaCache.Footprint( 0, 0 ) );
+		Proc		proc	= new Proc( DATASOURCE, "PKG.PROC", List.of(), 1, "PROC", 0, "VALID" );
+		for ( int i = 0; i < 98; i++ ) {
+			metrics.recordLoad( "PKG.PROC", proc, TimeUnit.MILLISECONDS.toNanos( 4 ), "miss", null );
+		}
+		metrics.recordLoad( "PKG.PROC", proc, TimeUnit.MILLISECONDS.toNanos( 150 ), "revalidate", null );
+		metrics.recordLoad( "PKG.PROC", null, TimeUnit.MILLISECONDS.toNanos( 9_000 ), "miss", new SQLException( "ORA-04068" ) );
+
+		assertThat( metrics.getLoads() ).isEqualTo( 98 );
+		assertThat( metrics.getReloads() ).isEqualTo( 1 );
+		assertThat( metrics.getLoadFailures() ).isEqualTo( 1 );
+		assertThat( metrics.getLoadTimeP50Millis() ).isEqualTo( 5 );
+		assertThat( metrics.getLoadTimeP99Millis() ).isEqualTo( 200 );
+		assertThat( metrics.getLoadTimeMaxMillis() ).isEqualTo( 9_000 );
+		assertThat( metrics.getLoadTimeHistogram().get( "<=5ms" ) ).isEqualTo( 98 );
+		assertThat( metrics.getLoadTimeHistogram().get( ">5000ms" ) ).isEqualTo( 1 );
+	}
+
+	@Test
+	@DisplayName( "The metrics are registered with JMX under the datasource name" )
+	public void testMBean() throws Exception {
+		ProcMetrics metrics = new ProcMetrics( DATASOURCE, () -> new ProcMetaCache.Footprint( 0, 0 ) );
+		metrics.registerMBean();
+		try {
+			metrics.recordHit();
+			assertThat( ManagementFactory.getPlatformMBeanServer().getAttribute( ProcMetrics.objectName( DATASOURCE ), "CacheHits" ) )
+			    .isEqualTo( 1L );
+		} finally {
+			metrics.unregisterMBean();
+		}
+		assertThat( ManagementFactory.getPlatformMBeanServer().isRegistered( ProcMetrics.objectName( DATASOURCE ) ) ).isFalse();
+	}
+
+}
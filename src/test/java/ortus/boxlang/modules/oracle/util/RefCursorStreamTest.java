@@ -0,0 +1,88 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import ortus.boxlang.runtime.types.IStruct;
+
+public class RefCursorStreamTest {
+
+	@Test
+	@DisplayName( "A streamed cursor is recorded as a flight recorder event with its rows and round trips" )
+	public void testFetchEvent() throws Exception {
+		Path file = Files.createTempFile( "refcursor", ".jfr" );
+		try ( Recording recording = new Recording() ) {
+			recording.enable( RefCursorFetchEvent.class ).withoutThreshold();
+			recording.start();
+			try ( RefCursorStream stream = new RefCursorStream( "orders", resultSet( 25 ), 10, null ) ) {
+				int read = 0;
+				while ( stream.hasNext() ) {
+					IStruct row = stream.next();
+					assertThat( row.get( "ID" ) ).isEqualTo( ++read );
+				}
+				assertThat( read ).isEqualTo( 25 );
+			}
+			recording.stop();
+			recording.dump( file );
+		}
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents( file ).stream()
+		    .filter( event -> event.getEventType().getName().equals( "ortus.boxlang.oracle.RefCursorFetch" ) )
+		    .toList();
+		Files.delete( file );
+
+		assertThat( events ).hasSize( 1 );
+		assertThat( events.get( 0 ).getString( "cursor" ) ).isEqualTo( "orders" );
+		assertThat( events.get( 0 ).getLong( "rows" ) ).isEqualTo( 25 );
+		assertThat( events.get( 0 ).getLong( "roundTrips" ) ).isEqualTo( 3 );
+		assertThat( events.get( 0 ).getInt( "fetchSize" ) ).isEqualTo( 10 );
+	}
+
+	/**
+	 * A one column cursor over the ids 1 to {@code count}
+	 */
+	private static ResultSet resultSet( int count ) {
+		int[]				row			= { 0 };
+		ResultSetMetaData	metaData	= ( ResultSetMetaData ) Proxy.newProxyInstance( ResultSetMetaData.class.getClassLoader(),
+		    new Class<?>[] { ResultSetMetaData.class }, ( self, method, args ) -> switch ( method.getName() ) {
+			    case "getColumnCount" -> 1;
+			    case "getColumnLabel" -> "ID";
+			    case "getColumnType" -> Types.INTEGER;
+			    default -> null;
+		    } );
+		return ( ResultSet ) Proxy.newProxyInstance( ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+		    ( self, method, args ) -> switch ( method.getName() ) {
+			    case "getMetaData" -> metaData;
+			    case "next" -> ++row[ 0 ] <= count;
+			    case "getObject" -> row[ 0 ];
+			    default -> null;
+		    } );
+	}
+}
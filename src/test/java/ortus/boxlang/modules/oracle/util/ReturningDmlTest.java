@@ -0,0 +1,244 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleConnection;
+import ortus.boxlang.modules.oracle.util.ReturningDml.Column;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.Array;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+public class ReturningDmlTest {
+
+	private static final ParamBinder BINDER = new ParamBinder( null, ( type, value ) -> Types.VARCHAR );
+
+	@Test
+	@DisplayName( "A batch runs as a FORALL over collection binds that bulk collects the returning columns" )
+	public void testBulkBlock() {
+		String block = ReturningDml.bulkBlock(
+		    "INSERT INTO orders ( customer_id, note ) VALUES ( ?, ? );",
+		    new OdciList[] { OdciList.NUMBER, OdciList.VARCHAR },
+		    List.of( new Column( "id", OdciList.NUMBER ), new Column( "created_at", OdciList.DATE ) ) );
+
+		assertThat( block ).isEqualTo( "DECLARE b1 SYS.ODCINUMBERLIST := ?; b2 SYS.ODCIVARCHAR2LIST := ?; r1 SYS.ODCINUMBERLIST;"
+		    + " r2 SYS.ODCIDATELIST; BEGIN FORALL i IN 1 .. b1.COUNT INSERT INTO orders ( customer_id, note ) VALUES ( b1(i), b2(i) )"
+		    + " RETURNING id, created_at BULK COLLECT INTO r1, r2; ? := r1; ? := r2; END;" );
+		assertThrows( IllegalArgumentException.class,
+		    () -> ReturningDml.bulkBlock( "DELETE FROM orders", new OdciList[ 0 ], List.of( new Column( "id", OdciList.NUMBER ) ) ) );
+	}
+
+	@Test
+	@DisplayName( "A single statement asks the driver for the returning columns and reads them from the generated keys" )
+	public void testExecute() throws Exception {
+		List<Object>	calls		= new ArrayList<>();
+		Connection		connection	= connection( calls );
+
+		Array rows = ReturningDml.execute( connection, "INSERT INTO orders ( note ) VALUES ( ? );", List.of( "rush" ),
+		    List.of( Column.of( "id" ), Column.of( "status" ) ), BINDER );
+
+		assertThat( calls ).containsExactly( "INSERT INTO orders ( note ) VALUES ( ? )", List.of( "id", "status" ) ).inOrder();
+		assertThat( rows ).hasSize( 1 );
+		assertThat( ( ( IStruct ) rows.get( 0 ) ).get( "id" ) ).isEqualTo( 42 );
+		assertThat( ( ( IStruct ) rows.get( 0 ) ).get( "status" ) ).isEqualTo( "NEW" );
+	}
+
+	@Test
+	@DisplayName( "A batch with untyped returning columns runs its first row alone and types them from what it returned" )
+	public void testUntypedBatch() throws Exception {
+		List<Object>	calls		= new ArrayList<>();
+		Connection		connection	= connection( calls );
+
+		Array rows = ReturningDml.executeBatch( connection, "UPDATE orders SET status = 'SHIPPED' WHERE id = ?",
+		    List.of( List.of( 1 ), List.of( 2 ), List.of( 3 ) ), List.of( Column.of( "status" ) ), BINDER );
+
+		assertThat( calls ).hasSize( 3 );
+		assertThat( ( String ) calls.get( 2 ) ).contains( "r1 SYS.ODCIVARCHAR2LIST;" );
+		assertThat( rows.stream().map( row -> ( ( IStruct ) row ).get( "status" ) ).toList() )
+		    .containsExactly( 42, "SHIPPED", "SHIPPED" )
+		    .inOrder();
+	}
+
+	@Test
+	@DisplayName( "Every row of a batch is cast by the binder before it goes into a collection" )
+	public void testBatchCast() throws Exception {
+		List<Object>	calls		= new ArrayList<>();
+		List<Object>	elements	= new ArrayList<>();
+		Connection		connection	= connection( calls, elements );
+
+		ReturningDml.executeBatch( connection, "UPDATE orders SET status = 'SHIPPED' WHERE id = ?",
+		    List.of( List.of( Struct.of( Key.sqltype, "cf_sql_integer", Key.value, "7" ) ),
+		        List.of( Struct.of( Key.sqltype, "cf_sql_integer", Key.value, "8" ) ) ),
+		    List.of( new Column( "status", OdciList.VARCHAR ) ), BINDER );
+
+		assertThat( elements ).containsExactly( 7, 8 ).inOrder();
+	}
+
+	@Test
+	@DisplayName( "The first row of an untyped batch is bound as the elements the other rows go into their collections as" )
+	public void testUntypedBatchCast() throws Exception {
+		List<Object>	calls		= new ArrayList<>();
+		List<Object>	elements	= new ArrayList<>();
+		Connection		connection	= connection( calls, elements );
+
+		ReturningDml.executeBatch( connection, "UPDATE orders SET status = 'SHIPPED' WHERE id = ?",
+		    List.of( List.of( Struct.of( Key.sqltype, "cf_sql_integer", Key.value, "7" ) ),
+		        List.of( Struct.of( Key.sqltype, "cf_sql_integer", Key.value, "8" ) ) ),
+		    List.of( Column.of( "status" ) ), BINDER );
+
+		assertThat( elements ).containsExactly( 7, 8 ).inOrder();
+	}
+
+	@Test
+	@DisplayName( "A batch with date times a DATE list would truncate runs one row at a time" )
+	public void testTimestampBatch() throws Exception {
+		List<Object>	calls		= new ArrayList<>();
+		Connection		connection	= connection( calls );
+		Timestamp		shipped		= Timestamp.valueOf( "2026-03-14 09:26:53.589" );
+		// Leaves the values as they are, as the runtime's cast of a timestamp would
+		ParamBinder		asIs		= new ParamBinder( null, ( type, value ) -> Types.VARCHAR ) {
+
+										@Override
+										public Object cast( Object param ) {
+											return param;
+										}
+									};
+
+		Array rows = ReturningDml.executeBatch( connection, "UPDATE orders SET shipped_at = ? WHERE id = ?",
+		    List.of( List.of( shipped, 1 ), List.of( shipped, 2 ) ), List.of( new Column( "status", OdciList.VARCHAR ) ), asIs );
+
+		assertThat( calls ).containsExactly(
+		    "UPDATE orders SET shipped_at = ? WHERE id = ?", List.of( "status" ),
+		    "UPDATE orders SET shipped_at = ? WHERE id = ?", List.of( "status" ) ).inOrder();
+		assertThat( rows ).hasSize( 2 );
+		assertThat( OdciList.DATE.holds( Timestamp.valueOf( "2026-03-14 09:26:53" ) ) ).isTrue();
+		assertThat( OdciList.DATE.holds( OffsetDateTime.of( 2026, 3, 14, 9, 26, 53, 0, ZoneOffset.UTC ) ) ).isFalse();
+		assertThat( OdciList.DATE.holds( LocalDate.of( 2026, 3, 14 ) ) ).isTrue();
+	}
+
+	@Test
+	@DisplayName( "Statements need at least one returning column" )
+	public void testNoReturningColumns() {
+		assertThrows( IllegalArgumentException.class,
+		    () -> ReturningDml.execute( connection( new ArrayList<>() ), "DELETE FROM orders WHERE id = ?", List.of( 1 ), List.of(), BINDER ) );
+		assertThrows( IllegalArgumentException.class,
+		    () -> ReturningDml.executeBatch( connection( new ArrayList<>() ), "DELETE FROM orders WHERE id = ?",
+		        List.of( List.of( 1 ), List.of( 2 ) ), List.of(), BINDER ) );
+	}
+
+	@Test
+	@DisplayName( "Returning columns must be column names" )
+	public void testColumnNames() {
+		assertThat( Column.of( " id " ).name() ).isEqualTo( "id" );
+		assertThat( Column.of( "id" ).type() ).isNull();
+		assertThrows( IllegalArgumentException.class, () -> Column.of( "id INTO :x" ) );
+	}
+
+	/**
+	 * A connection that records the SQL and returning columns it is asked to prepare, and the blocks it is asked to call
+	 */
+	private static Connection connection( List<Object> calls ) {
+		return connection( calls, new ArrayList<>() );
+	}
+
+	/**
+	 * The same connection, which also records the elements of the collections it creates
+	 */
+	private static Connection connection( List<Object> calls, List<Object> elements ) {
+		return proxy( OracleConnection.class, ( method, args ) -> switch ( method ) {
+			case "prepareStatement" -> {
+				calls.add( args[ 0 ] );
+				calls.add( List.of( ( String[] ) args[ 1 ] ) );
+				yield statement( elements );
+			}
+			case "prepareCall" -> {
+				calls.add( args[ 0 ] );
+				yield call();
+			}
+			case "unwrap" -> connection( calls, elements );
+			case "createOracleArray" -> {
+				elements.addAll( List.of( ( Object[] ) args[ 1 ] ) );
+				yield proxy( java.sql.Array.class, ( arrayMethod, arrayArgs ) -> null );
+			}
+			default -> null;
+		} );
+	}
+
+	/**
+	 * A block that returns SHIPPED for the two rows left of the batch
+	 */
+	private static CallableStatement call() {
+		return proxy( CallableStatement.class, ( method, args ) -> switch ( method ) {
+			case "getArray" -> proxy( java.sql.Array.class, ( arrayMethod, arrayArgs ) -> new Object[] { "SHIPPED", "SHIPPED" } );
+			default -> null;
+		} );
+	}
+
+	/**
+	 * A statement that records the values bound with setObject and returns one row
+	 */
+	private static PreparedStatement statement( List<Object> binds ) {
+		int[] row = { 0 };
+		return proxy( PreparedStatement.class, ( method, args ) -> switch ( method ) {
+			case "setObject" -> {
+				binds.add( args[ 1 ] );
+				yield null;
+			}
+			case "executeUpdate" -> 1;
+			case "getGeneratedKeys" -> proxy( ResultSet.class, ( keysMethod, keysArgs ) -> switch ( keysMethod ) {
+				case "next" -> ++row[ 0 ] == 1;
+				case "getObject" -> ( int ) keysArgs[ 0 ] == 1 ? 42 : "NEW";
+				case "getMetaData" -> proxy( ResultSetMetaData.class, ( metaMethod, metaArgs ) -> metaMethod.equals( "getColumnTypeName" )
+				    ? "VARCHAR2"
+				    : Types.VARCHAR );
+				default -> null;
+			} );
+			default -> null;
+		} );
+	}
+
+	private interface Handler {
+
+		Object handle( String method, Object[] args ) throws Exception;
+	}
+
+	@SuppressWarnings( "unchecked" )
+	private static <T> T proxy( Class<T> type, Handler handler ) {
+		return ( T ) Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, ( self, method, args ) -> {
+			Object result = handler.handle( method.getName(), args );
+			return result == null && method.getReturnType() == boolean.class ? false : result;
+		} );
+	}
+}
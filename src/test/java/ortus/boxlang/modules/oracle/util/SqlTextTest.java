@@ -0,0 +1,38 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SqlTextTest {
+
+	@Test
+	@DisplayName( "Placeholders inside literals, quoted identifiers and comments are left alone" )
+	public void testPlaceholders() {
+		String sql = "UPDATE \"odd?\" SET note = 'why?' || q'[still?]' || ? /* skip? */ WHERE id = ? -- done?\n AND seq = ?";
+		assertThat( SqlText.placeholders( sql ) ).containsExactly( sql.indexOf( "|| ? " ) + 3, sql.indexOf( "id = ?" ) + 5,
+		    sql.lastIndexOf( '?' ) ).inOrder();
+		assertThat( SqlText.placeholders( "SELECT 'it''s?' FROM dual WHERE x = ?" ) ).hasSize( 1 );
+	}
+
+	@Test
+	@DisplayName( "Statement terminators are trimmed" )
+	public void testTrimTerminator() {
+		assertThat( SqlText.trimTerminator( "  DELETE FROM orders ;; \n" ) ).isEqualTo( "DELETE FROM orders" );
+	}
+}
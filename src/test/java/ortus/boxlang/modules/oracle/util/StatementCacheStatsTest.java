@@ -0,0 +1,101 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleStatement;
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.jdbc.BoxConnection;
+import ortus.boxlang.runtime.jdbc.DataSource;
+import ortus.boxlang.runtime.scopes.Key;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+public class StatementCacheStatsTest {
+
+	@Test
+	@DisplayName( "Statements are counted as hits or misses by how they were created" )
+	public void testCounts() throws SQLException {
+		StatementCacheStats stats = new StatementCacheStats( Key.of( "oracle_test" ), 50 );
+
+		stats.record( statement( OracleStatement.NEW ) );
+		stats.record( statement( OracleStatement.IMPLICIT ) );
+		stats.record( statement( OracleStatement.IMPLICIT ) );
+		stats.record( statement( OracleStatement.IMPLICIT ) );
+
+		StatementCacheStats.Counts counts = stats.getCounts();
+		assertThat( counts.hits() ).isEqualTo( 3 );
+		assertThat( counts.misses() ).isEqualTo( 1 );
+		assertThat( counts.hitRate() ).isEqualTo( 0.75 );
+	}
+
+	@Test
+	@DisplayName( "Registering a datasource sizes its implicit cache through the connection properties, unless it sets its own" )
+	public void testRegister() {
+		DatasourceConfig config = new DatasourceConfig( Key.of( "oracle_cached" ) );
+		config.properties.put( StatementCacheStats.SIZE_PROPERTY, 25 );
+		StatementCacheStats.register( config );
+
+		assertThat( ( ( IStruct ) config.properties.get( "custom" ) ).get( StatementCacheStats.SIZE_PARAM ) ).isEqualTo( "25" );
+		assertThat( StatementCacheStats.of( config.getUniqueName() ) ).isSameInstanceAs( StatementCacheStats.forDataSource( config.name ) );
+
+		DatasourceConfig own = new DatasourceConfig( Key.of( "oracle_own" ) );
+		own.properties.put( "custom", Struct.of( StatementCacheStats.SIZE_PARAM, "10" ) );
+		StatementCacheStats.register( own );
+		assertThat( ( ( IStruct ) own.properties.get( "custom" ) ).get( StatementCacheStats.SIZE_PARAM ) ).isEqualTo( "10" );
+
+		DatasourceConfig off = new DatasourceConfig( Key.of( "oracle_off" ) );
+		off.properties.put( StatementCacheStats.SIZE_PROPERTY, 0 );
+		StatementCacheStats.register( off );
+		assertThat( off.properties.get( "custom" ) ).isNull();
+	}
+
+	@Test
+	@DisplayName( "Statements the module prepares are counted against their connection's datasource" )
+	public void testRecordPrepared() throws SQLException {
+		DatasourceConfig config = new DatasourceConfig( Key.of( "oracle_prepared" ) );
+		StatementCacheStats.register( config );
+		DataSource dataSource = mock( DataSource.class );
+		when( dataSource.getUniqueName() ).thenReturn( config.getUniqueName() );
+		BoxConnection connection = mock( BoxConnection.class );
+		when( connection.getDataSource() ).thenReturn( dataSource );
+
+		StatementCacheStats.recordPrepared( connection, statement( OracleStatement.IMPLICIT ) );
+		// Connections that aren't a datasource's aren't counted anywhere
+		StatementCacheStats.recordPrepared( mock( Connection.class ), statement( OracleStatement.NEW ) );
+
+		StatementCacheStats.Counts counts = StatementCacheStats.of( config.getUniqueName() ).getCounts();
+		assertThat( counts.hits() ).isEqualTo( 1 );
+		assertThat( counts.misses() ).isEqualTo( 0 );
+	}
+
+	private static OracleStatement statement( int creationState ) throws SQLException {
+		OracleStatement statement = mock( OracleStatement.class );
+		when( statement.isWrapperFor( OracleStatement.class ) ).thenReturn( true );
+		when( statement.unwrap( OracleStatement.class ) ).thenReturn( statement );
+		when( statement.creationState() ).thenReturn( creationState );
+		return statement;
+	}
+
+}
@@ -0,0 +1,110 @@
+/**
+ * [BoxLang]
+ *
+ * Copyright [2023] [Ortus Solutions, Corp]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package ortus.boxlang.modules.oracle.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ortus.boxlang.runtime.config.segments.DatasourceConfig;
+import ortus.boxlang.runtime.types.IStruct;
+import ortus.boxlang.runtime.types.Struct;
+
+public class WorkloadProfileTest {
+
+	@Test
+	@DisplayName( "A profile fills in what the datasource doesn't set, even when its own value equals another profile's" )
+	public void testApply() {
+		DatasourceConfig config = new DatasourceConfig();
+		config.properties.put( "workloadProfile", "Batch" );
+		config.properties.put( "maxConnections", 20 );
+		config.properties.put( "minConnections", 3 );
+		config.properties.put( "custom", Struct.of( "oracle.jdbc.ReadTimeout", "90000" ) );
+
+		WorkloadProfile.apply( config );
+
+		assertThat( config.properties.get( "maxConnections" ) ).isEqualTo( 20 );
+		assertThat( config.properties.get( "minConnections" ) ).isEqualTo( 3 );
+		assertThat( config.properties.get( "connectionTimeout" ) ).isEqualTo( 30 );
+		IStruct custom = ( IStruct ) config.properties.get( "custom" );
+		assertThat( custom.get( "defaultRowPrefetch" ) ).isEqualTo( "500" );
+		assertThat( custom.get( "oracle.jdbc.defaultLobPrefetchSize" ) ).isEqualTo( String.valueOf( LobPolicy.PREFETCH_SIZE ) );
+		assertThat( custom.get( "oracle.jdbc.ReadTimeout" ) ).isEqualTo( "90000" );
+		assertThat( config.properties.containsKey( "connectionInitSql" ) ).isFalse();
+	}
+
+	@Test
+	@DisplayName( "Datasources without a profile or session settings are left as they are" )
+	public void testNoProfile() {
+		DatasourceConfig config = new DatasourceConfig();
+		config.properties.put( "maxConnections", 4 );
+
+		WorkloadProfile.apply( config );
+
+		assertThat( config.properties.get( "maxConnections" ) ).isEqualTo( 4 );
+		assertThat( config.properties.containsKey( "custom" ) ).isFalse();
+		assertThat( config.properties.containsKey( "connectionInitSql" ) ).isFalse();
+	}
+
+	@Test
+	@DisplayName( "Only the session settings the datasource asks for are applied" )
+	public void testSessionSettings() {
+		DatasourceConfig config = new DatasourceConfig();
+		config.properties.put( "sessionSettings", Struct.of( "NLS_SORT", "BINARY_CI" ) );
+
+		WorkloadProfile.apply( config );
+
+		assertThat( config.properties.get( "connectionInitSql" ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET NLS_SORT = ''BINARY_CI'''; END;" );
+	}
+
+	@Test
+	@DisplayName( "Session settings become one anonymous block of ALTER SESSION statements" )
+	public void testSessionInitSql() {
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "nls_language", "O'NEIL" ) ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET NLS_LANGUAGE = ''O''''NEIL'''; END;" );
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "SORT_AREA_SIZE", 1048576 ) ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET SORT_AREA_SIZE = 1048576'; END;" );
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "NLS_DATE_FORMAT", "" ) ) ).isNull();
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "TIME_ZONE", "Europe/Madrid" ) ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET TIME_ZONE = ''Europe/Madrid'''; END;" );
+		assertThrows( IllegalArgumentException.class, () -> WorkloadProfile.sessionInitSql( Map.of( "X = 1; DROP", "1" ) ) );
+	}
+
+	@Test
+	@DisplayName( "Settings that take a keyword are set unquoted, and anything else is rejected" )
+	public void testKeywordSettings() {
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "current_schema", "HR" ) ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET CURRENT_SCHEMA = HR'; END;" );
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "OPTIMIZER_MODE", "ALL_ROWS" ) ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET OPTIMIZER_MODE = ALL_ROWS'; END;" );
+		assertThat( WorkloadProfile.sessionInitSql( Map.of( "SKIP_UNUSABLE_INDEXES", true ) ) )
+		    .isEqualTo( "BEGIN EXECUTE IMMEDIATE 'ALTER SESSION SET SKIP_UNUSABLE_INDEXES = true'; END;" );
+		assertThrows( IllegalArgumentException.class, () -> WorkloadProfile.sessionInitSql( Map.of( "CURRENT_SCHEMA", "HR'; DROP" ) ) );
+	}
+
+	@Test
+	@DisplayName( "Unknown profiles are rejected" )
+	public void testUnknownProfile() {
+		DatasourceConfig config = new DatasourceConfig();
+		config.properties.put( "workloadProfile", "analytics" );
+		assertThrows( IllegalArgumentException.class, () -> WorkloadProfile.of( config ) );
+	}
+
+}